@@ -2,8 +2,9 @@ package de.comlineag.snc.appstate;
 
 
 import java.io.IOException;
-import java.util.Collection;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.parsers.SAXParserFactory;
@@ -12,16 +13,13 @@ import org.xml.sax.SAXException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import de.comlineag.snc.constants.SNCStatusCodes;
-import de.comlineag.snc.data.RuntimeOption;
-import de.comlineag.snc.handler.RuntimeOptionsParser;
 
 
 /**
  * 
  * @author 		Christian Guenther
  * @category	handler
- * @revision	1.0				- 29.10.2014
+ * @revision	1.1				- 17.10.2026
  * @status		productive
  * 
  * @description	this class is used to setup the overall configuration of the SNC.
@@ -61,9 +59,14 @@ import de.comlineag.snc.handler.RuntimeOptionsParser;
  * 								SNC_Runtime_Configuration.xml file and new methods are defined to get a value by
  * 								name (for String, Int or Boolean value). In turn, all the old methods and variables 
  * 								are removed!
+ * 				1.1				the configuration files are no longer parsed on every call. Each file is 
+ * 								parsed once into a RuntimeConfigurationSnapshot (a case insensitive hash 
+ * 								index of all options) which is swapped atomically when the modification time
+ * 								of the file changes. Cache hits, misses and reloads are exposed via JMX 
+ * 								(RuntimeConfigurationMBean) and a reload can be forced from there
  *
  */
-public final class RuntimeConfiguration { 
+public final class RuntimeConfiguration implements RuntimeConfigurationMBean { 
 	private final Logger logger = LoggerFactory.getLogger(getClass().getName());
 	
 	// singleton design pattern using Initialization-on-demand holder idiom, 
@@ -74,6 +77,16 @@ public final class RuntimeConfiguration {
     // in case you want to change the name of the runtime configuration file - you need to change this variable and recompile
 	private static final String RTCF = "SNC_Runtime_Configuration-1.0.xml";
 	
+	// how often (in milliseconds) to check whether a configuration file was changed on disk
+	private static final long MODIFICATION_CHECK_INTERVAL = 5000;
+	
+	// one parsed snapshot per configuration file and some statistics on their usage
+	private final ConcurrentMap<String, RuntimeConfigurationSnapshot> snapshots = new ConcurrentHashMap<String, RuntimeConfigurationSnapshot>();
+	private final AtomicLong cacheHits = new AtomicLong();
+	private final AtomicLong cacheMisses = new AtomicLong();
+	private final AtomicLong reloadCount = new AtomicLong();
+	private volatile long lastReloadTime = 0;
+	
 	
 	// configuration file path variables - these variables are used internally by the RuntimeConfiguration class in case
 	// any of these sections are moved out of the runtime configuration xml in other files.
@@ -199,23 +212,64 @@ public final class RuntimeConfiguration {
 	}
 	
 	private String getValueByName(String parameter, String configFile) throws SAXException, IOException, ParserConfigurationException, NullPointerException {
-		final RuntimeOptionsParser handler = new RuntimeOptionsParser();
-		
-		SAXParserFactory.newInstance().newSAXParser().parse(configFile, handler);
-		
-		Map<String, RuntimeOption> result = handler.getResultAsMap();
-		Collection<RuntimeOption> values = result.values();
+		return getSnapshot(configFile).getValue(parameter);
+    }
+	
+	/**
+	 * @description	returns the parsed snapshot of the given configuration file. The file is only 
+	 * 				parsed, if there is no snapshot yet or if the file was changed on disk since
+	 * 				the snapshot was taken. In the latter case the new snapshot replaces the old one
+	 * 				atomically, so concurrent readers always see either the old or the new state.
+	 * @param 		configFile
+	 * @return		snapshot of the configuration file
+	 */
+	private RuntimeConfigurationSnapshot getSnapshot(String configFile) throws SAXException, IOException, ParserConfigurationException {
+		RuntimeConfigurationSnapshot snapshot = snapshots.get(configFile);
+		if (snapshot != null && !snapshot.isStale(MODIFICATION_CHECK_INTERVAL)) {
+			cacheHits.incrementAndGet();
+			return snapshot;
+		}
 		
-		for (RuntimeOption option : values) {
-			//logger.trace("checking OPTION: " + option.getName() + " TYPE: " + option.getType()+ " VALUE: " + option.getValue());
-			if (option.getName().equalsIgnoreCase(parameter)) {
-				//logger.trace("PARAMETER "+parameter+" matches OPTION: " + option.getName() + " of TYPE: " + option.getType()+ " with VALUE: " + option.getValue());
-				return option.getValue();
+		synchronized (snapshots) {
+			// another thread may have reloaded the file while we were waiting
+			RuntimeConfigurationSnapshot current = snapshots.get(configFile);
+			if (current != null && current != snapshot) {
+				cacheHits.incrementAndGet();
+				return current;
 			}
+			
+			cacheMisses.incrementAndGet();
+			current = RuntimeConfigurationSnapshot.load(configFile);
+			snapshots.put(configFile, current);
+			reloadCount.incrementAndGet();
+			lastReloadTime = System.currentTimeMillis();
+			
+			if (snapshot != null)
+				logger.info("configuration file "+configFile+" changed on disk - reloaded "+current.size()+" options");
+			return current;
 		}
-		
-		return null;
-    }
+	}
+	
+	/**
+	 * @description	drops all configuration snapshots, so that every configuration file is
+	 * 				parsed again on the next access. Can be called via JMX.
+	 */
+	@Override
+	public void reload(){
+		logger.info("dropping all runtime configuration snapshots on request");
+		snapshots.clear();
+	}
+	
+	// statistics of the configuration snapshots - exposed via JMX
+	@Override
+	public long getCacheHits()		{ return cacheHits.get(); }
+	@Override
+	public long getCacheMisses()	{ return cacheMisses.get(); }
+	@Override
+	public long getReloadCount()	{ return reloadCount.get(); }
+	@Override
+	public long getLastReloadTime()	{ return lastReloadTime; }
+	
 	
 	// get the full qualified path to the given configuration file
 	public String returnQualifiedConfigPath(String inputPath){
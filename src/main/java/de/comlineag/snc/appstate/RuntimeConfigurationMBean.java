@@ -0,0 +1,28 @@
+package de.comlineag.snc.appstate;
+
+/**
+ *
+ * @author 		Christian Guenther
+ * @category	interface
+ * @revision	0.1				- 17.10.2026
+ * @status		productive
+ *
+ * @description	management interface of the RuntimeConfiguration. It is exported via the
+ * 				MBeanExporter in applicationContext.xml and shows how well the configuration
+ * 				snapshots are used. It also allows to force a reload of all configuration files.
+ *
+ * @changelog	0.1 (Chris)		interface created
+ *
+ */
+public interface RuntimeConfigurationMBean {
+	// number of lookups served from an already parsed snapshot
+	public long getCacheHits();
+	// number of lookups that required the configuration file to be parsed
+	public long getCacheMisses();
+	// number of times a configuration file was (re)parsed
+	public long getReloadCount();
+	// time stamp of the last (re)parse in milliseconds since epoch
+	public long getLastReloadTime();
+	// drops all snapshots - every configuration file is parsed again on next access
+	public void reload();
+}
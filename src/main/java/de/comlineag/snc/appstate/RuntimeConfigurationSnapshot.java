@@ -0,0 +1,100 @@
+package de.comlineag.snc.appstate;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+
+import org.xml.sax.SAXException;
+
+import de.comlineag.snc.data.RuntimeOption;
+import de.comlineag.snc.handler.RuntimeOptionsParser;
+
+/**
+ *
+ * @author 		Christian Guenther
+ * @category	data
+ * @revision	0.1				- 17.10.2026
+ * @status		productive
+ *
+ * @description	an immutable, parsed-once view of one runtime configuration file.
+ * 				The file is parsed with RuntimeOptionsParser exactly once and all
+ * 				options are put in a hash index keyed by the lower cased option
+ * 				name, so that a lookup is case insensitive - just like the old
+ * 				linear scan with equalsIgnoreCase was.
+ * 				The snapshot also remembers the modification time of the file, so
+ * 				that RuntimeConfiguration can detect a changed file and swap in a
+ * 				fresh snapshot.
+ *
+ * @changelog	0.1 (Chris)		class created
+ *
+ */
+final class RuntimeConfigurationSnapshot {
+
+	private final String configFile;
+	private final long lastModified;
+	private final Map<String, String> values;
+
+	// when did we last compare the modification time of the file with the one of the snapshot
+	private volatile long lastChecked;
+
+	private RuntimeConfigurationSnapshot(String configFile, long lastModified, Map<String, String> values){
+		this.configFile = configFile;
+		this.lastModified = lastModified;
+		this.values = Collections.unmodifiableMap(values);
+		this.lastChecked = System.currentTimeMillis();
+	}
+
+	/**
+	 * @description	parses the given configuration file and returns a snapshot of all options in it
+	 * @param 		configFile
+	 * @return		the snapshot
+	 */
+	static RuntimeConfigurationSnapshot load(String configFile) throws SAXException, IOException, ParserConfigurationException {
+		// take the time stamp before parsing, so that a change during the parse leads to another reload
+		long lastModified = new File(configFile).lastModified();
+
+		final RuntimeOptionsParser handler = new RuntimeOptionsParser();
+		SAXParserFactory.newInstance().newSAXParser().parse(configFile, handler);
+
+		Map<String, String> values = new HashMap<String, String>();
+		for (RuntimeOption option : handler.getOptions()) {
+			if (option.getName() != null)
+				values.put(option.getName().toLowerCase(), option.getValue());
+		}
+
+		return new RuntimeConfigurationSnapshot(configFile, lastModified, values);
+	}
+
+	/**
+	 * @description	returns the value of the given option or null, if the option is not set
+	 * @param 		parameter
+	 * @return		value of the option
+	 */
+	String getValue(String parameter){
+		return values.get(parameter.toLowerCase());
+	}
+
+	/**
+	 * @description	checks whether the file on disk was modified after this snapshot was taken.
+	 * 				To keep the stat call out of the hot path, the file is only checked if at
+	 * 				least checkInterval milliseconds passed since the last check.
+	 * @param 		checkInterval
+	 * @return		true if the file was modified
+	 */
+	boolean isStale(long checkInterval){
+		long now = System.currentTimeMillis();
+		if (now - lastChecked < checkInterval)
+			return false;
+		lastChecked = now;
+		return new File(configFile).lastModified() != lastModified;
+	}
+
+	String getConfigFile()	{ return configFile; }
+	long getLastModified()	{ return lastModified; }
+	int size()				{ return values.size(); }
+}
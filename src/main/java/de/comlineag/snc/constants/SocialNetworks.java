@@ -2,17 +2,21 @@ package de.comlineag.snc.constants;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.xpath.XPath;
-import javax.xml.xpath.XPathConstants;
-import javax.xml.xpath.XPathFactory;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.w3c.dom.Document;
+import org.w3c.dom.Element;
 import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
 
 import de.comlineag.snc.appstate.RuntimeConfiguration;
 
@@ -20,7 +24,7 @@ import de.comlineag.snc.appstate.RuntimeConfiguration;
  * 
  * @author 		Christian Guenther
  * @category 	data type
- * @version 	0.8b			- 14.10.2014
+ * @version 	0.9				- 17.10.2026
  * @status		productive
  * 
  * @description provides access to all defined social networks.
@@ -29,6 +33,9 @@ import de.comlineag.snc.appstate.RuntimeConfiguration;
  * 				side effect, there is no real reason to instantiate the class but instead you 
  * 				can just call the access method to get information on a social network and it 
  * 				will fetch the requested data from the definition file.
+ * 				The file is parsed once into an immutable table of the networks, keyed by name and
+ * 				by code. The table is replaced, when the file changes on disk - the modification time
+ * 				is checked at most every RELOAD_CHECK_INTERVAL milliseconds.
  * 
  * @changelog	0.1 (Chris)		enum created with unknown, twitter, facebook, google+ and linkedin
  * 				0.2 			added xing
@@ -41,6 +48,8 @@ import de.comlineag.snc.appstate.RuntimeConfiguration;
  * 								and deleted deprecated enum
  * 				0.8a			changed exit code to SNCStatusCodes
  * 				0.8b			changed access to runtime configuration to non-static
+ * 				0.9				definitions are parsed once into an in-memory table instead of parsing the
+ * 								file and evaluating xpath on every call, and reloaded if the file changes
  * 
  */
 public final class SocialNetworks {
@@ -56,6 +65,14 @@ public final class SocialNetworks {
 	private static final String socNetNameKey = rtc.getStringValue("SocialNetworkNameIdentifier", "XmlLayout");
 	private static final String nameKey = rtc.getStringValue("NameIdentifier", "XmlLayout");
 	
+	// how often (in milliseconds) the definition file is checked for changes
+	private static final long RELOAD_CHECK_INTERVAL = 10000;
+	
+	// the currently loaded definitions - replaced as a whole on reload
+	private static volatile Definitions definitions = null;
+	private static volatile long lastCheck = 0;
+	private static long loadCount = 0;		// guarded by SocialNetworks.class
+	
 	// make the constructor private so that it can only be called from inside the class itself, thus preventing 
 	// the initialization from someplace (more important unmanaged place) else
 	private SocialNetworks() {}
@@ -68,70 +85,33 @@ public final class SocialNetworks {
 	 * 				snname	name of the social network in uppper case
 	 * @return		element (e.g. spoken name of the social network) or null in case of error
 	 * 
-	 * @TODO check if we can eliminate the XML parsing for every call of the method
-	 * 		 and instead retrieve the name from an internal structure which is 
-	 * 		 setup for every social network during first instantiation of this class - maybe
-	 * 		 during startup of the snc via a call from RuntimeConfiguration class  
 	 */
 	public static String getSocialNetworkConfigElement(String key, String snname){
 		assert ("localePattern".equals(key) && "locale".equals(key) && "code".equals(key) && "name".equals(key) && "description".equals(key) && "domain".equals(key) && "supported".equals(key)) : "ERROR :: can only accept code, name, description, domain, locale and localePattern or supported as key";
 		
-		try {
-			File file = new File(getConfigFile());
-			
-			DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
-			DocumentBuilder db = dbf.newDocumentBuilder();
-			Document doc = db.parse(file);
-			
-			XPathFactory xPathfactory = XPathFactory.newInstance();
-			XPath xpath = xPathfactory.newXPath();
-			
-			String expression = null;
-			Node node = null;
-			
-			// get an element from the xml file
-			// structure of xml
-			//	<network name="TWITTER">
-			//		<code>TW</code>
-			//		<name>Twitter</name>
-			//		<description>Twitter</description>
-			//		<domain>twitter.com</domain>
-			//		<supported>YES</supported>
-			//		<localePattern>[PATTERN]</localePattern>
-			//	</network>
-			// /configurations/configuration[@scope='socialNetworkDefinition']/network[@name='TWITTER']/code
-			expression = "/"+configurationsKey+"/" 
-							+configurationKey 
-								+"[@"+scopeKey+"='"+socNetConfKey+"']/" 
-							+socNetKey 
-								+"[@"+socNetNameKey+"='"+snname+"']/"
-							+key;
-			
-			node = (Node) xpath.compile(expression).evaluate(doc, XPathConstants.NODE);
-			if (node == null) {
-				logger.error("Did not receive any node information on "+key+" for social network "+snname+" from " + rtc.getSocialNetworkFilePath() + " using expression " + expression);
-				return null;
-			} else {
-				return node.getTextContent();
-			}
-			
-		} catch (IOException e) {
-			logger.error("EXCEPTION :: error reading configuration file " + e.getLocalizedMessage() + ". This is serious!");
-			if (rtc.getBooleanValue("STOP_SNC_ON_CONFIGURATION_FAILURE", "runtime"))
-				System.exit(SNCStatusCodes.CRITICAL.getErrorCode());
-		} catch (Exception e) {
-			logger.error("EXCEPTION :: unforseen error " + e.getLocalizedMessage() + ". This is serious!");
-			e.printStackTrace();
-			if (rtc.getBooleanValue("STOP_SNC_ON_CONFIGURATION_FAILURE", "runtime"))
-				System.exit(SNCStatusCodes.CRITICAL.getErrorCode());
-		}
-		return null;
+		Definitions defs = getDefinitions();
+		if (defs == null)
+			return null;
+		
+		// structure of xml
+		//	<network name="TWITTER">
+		//		<code>TW</code>
+		//		<name>Twitter</name>
+		//		<description>Twitter</description>
+		//		<domain>twitter.com</domain>
+		//		<supported>YES</supported>
+		//		<localePattern>[PATTERN]</localePattern>
+		//	</network>
+		String value = defs.get(snname, key);
+		if (value == null)
+			logger.error("Did not receive any node information on "+key+" for social network "+snname+" from " + getConfigFile());
+		return value;
 	}
 	
 	/**
 	 * @description	retrieves a configuration element for a given social network reference by it's id
 	 * 				internally this method retrievs the name of the social network via it's id and then
-	 * 				calls getSocialNetworkConfigElement(key, snname)
+	 * 				looks up the element for that name
 	 * 
 	 * @param 		key   	xml-element to retrieve 
 	 * 						can be  code, name, description, domain or supported
@@ -140,39 +120,102 @@ public final class SocialNetworks {
 	 * 
 	 */
 	public static String getSocialNetworkConfigElementByCode(String key, String _snId) {
-		try {
+		Definitions defs = getDefinitions();
+		if (defs == null)
+			return null;
+		
+		// structure of xml
+		// 	<network name="AL">
+		//		<name>ALL</name>
+		//  </network>
+		String snname = defs.get(_snId, nameKey);
+		if (snname == null) {
+			logger.error("Did not receive any node information on "+key+" for social network "+_snId+" from " + getConfigFile());
+			return null;
+		}
+		return getSocialNetworkConfigElement(key, snname);
+	}
+	
+	/**
+	 * @description	returns a number which changes whenever the definitions are reloaded, so that
+	 * 				callers can drop anything they derived from them
+	 */
+	public static long getDefinitionsVersion() {
+		Definitions defs = getDefinitions();
+		return (defs == null) ? 0 : defs.version;
+	}
+	
+	/**
+	 * @description	forces the definitions to be read again from the file on next access
+	 */
+	public static void reload() {
+		lastCheck = 0;
+		synchronized (SocialNetworks.class) {
+			definitions = null;
+		}
+	}
+	
+	
+	// returns the loaded definitions, (re)loading them first if the file is new or changed
+	private static Definitions getDefinitions() {
+		Definitions defs = definitions;
+		long now = System.currentTimeMillis();
+		if (defs != null && now - lastCheck < RELOAD_CHECK_INTERVAL)
+			return defs;
+		
+		synchronized (SocialNetworks.class) {
+			defs = definitions;
+			if (defs != null && now - lastCheck < RELOAD_CHECK_INTERVAL)
+				return defs;
+			
 			File file = new File(getConfigFile());
+			if (defs == null || file.lastModified() != defs.lastModified) {
+				Definitions loaded = load(file);
+				if (loaded != null) {
+					if (defs != null)
+						logger.info("social network definitions in {} changed - reloaded {} entries", getConfigFile(), loaded.networks.size());
+					defs = loaded;
+					definitions = loaded;
+				}
+			}
+			lastCheck = now;
+			return defs;
+		}
+	}
+	
+	// parses the definition file into a table of all network entries
+	private static Definitions load(File file) {
+		try {
+			long lastModified = file.lastModified();
 			
 			DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
 			DocumentBuilder db = dbf.newDocumentBuilder();
 			Document doc = db.parse(file);
 			
-			XPathFactory xPathfactory = XPathFactory.newInstance();
-			XPath xpath = xPathfactory.newXPath();
-			
-			String expression = null;
-			Node node = null;
-			
-			// get an element from the xml file
-			// structure of xml
-			// 	<network name="AL">
-			//		<name>ALL</name>
-			//  </network>
-			expression = "/"+configurationsKey+"/" 
-							+configurationKey 
-								+"[@"+scopeKey+"='"+socNetConfKey+"']/" 
-							+socNetKey 
-								+"[@"+socNetNameKey+"='"+_snId+"']/"
-							+nameKey;
+			// /configurations/configuration[@scope='socialNetworkDefinition']/network[@name='TWITTER']/code
+			Map<String, Map<String, String>> networks = new HashMap<String, Map<String, String>>();
+			Element root = doc.getDocumentElement();
+			if (root == null || !configurationsKey.equals(root.getNodeName()))
+				throw new IOException("root element " + configurationsKey + " not found");
 			
-			node = (Node) xpath.compile(expression).evaluate(doc, XPathConstants.NODE);
-			if (node == null) {
-				logger.error("Did not receive any node information on "+key+" for social network "+_snId+" from " + rtc.getSocialNetworkFilePath() + " using expression " + expression);
-				return null;
-			} else {
-				return getSocialNetworkConfigElement(key, node.getTextContent());
+			for (Element configuration : childElements(root, configurationKey)) {
+				if (!socNetConfKey.equals(configuration.getAttribute(scopeKey)))
+					continue;
+				for (Element network : childElements(configuration, socNetKey)) {
+					String networkName = network.getAttribute(socNetNameKey);
+					// the first definition wins, just like the xpath query did
+					if (networks.containsKey(networkName))
+						continue;
+					Map<String, String> elements = new HashMap<String, String>();
+					for (Element element : childElements(network, null))
+						if (!elements.containsKey(element.getNodeName()))
+							elements.put(element.getNodeName(), element.getTextContent());
+					networks.put(networkName, Collections.unmodifiableMap(elements));
+				}
 			}
 			
+			logger.debug("loaded {} social network definitions from {}", networks.size(), file);
+			return new Definitions(networks, lastModified, ++loadCount);
 		} catch (IOException e) {
 			logger.error("EXCEPTION :: error reading configuration file " + e.getLocalizedMessage() + ". This is serious!");
 			if (rtc.getBooleanValue("STOP_SNC_ON_CONFIGURATION_FAILURE", "runtime"))
@@ -186,7 +229,44 @@ public final class SocialNetworks {
 		return null;
 	}
 	
+	// the direct child elements of parent with the given name (all child elements if name is null)
+	private static Iterable<Element> childElements(Element parent, String name) {
+		List<Element> children = new ArrayList<Element>();
+		NodeList nodes = parent.getChildNodes();
+		for (int i = 0; i < nodes.getLength(); i++) {
+			Node node = nodes.item(i);
+			if (node.getNodeType() == Node.ELEMENT_NODE && (name == null || name.equals(node.getNodeName())))
+				children.add((Element) node);
+		}
+		return children;
+	}
+	
 	// the path to the xml file containing the social network definitions 
 	private static String getConfigFile() {return rtc.getSocialNetworkFilePath();}
+	
+	
+	/**
+	 * 
+	 * @description	the immutable table of all network entries of the definition file. Each entry is
+	 * 				keyed by the name attribute of its network element, which is the name of the
+	 * 				network for the full definition and the 2 digit code for the entry that links
+	 * 				the code to the name.
+	 *
+	 */
+	private static final class Definitions {
+		private final Map<String, Map<String, String>> networks;
+		private final long lastModified;
+		private final long version;
+		
+		private Definitions(Map<String, Map<String, String>> networks, long lastModified, long version) {
+			this.networks = Collections.unmodifiableMap(networks);
+			this.lastModified = lastModified;
+			this.version = version;
+		}
+		
+		private String get(String network, String element) {
+			Map<String, String> elements = networks.get(network);
+			return (elements == null) ? null : elements.get(element);
+		}
+	}
 }
-
@@ -33,7 +33,7 @@ import de.comlineag.snc.webcrawler.robotstxt.RobotstxtServer;
  *
  * @author 		Christian Guenther
  * @category 	controller / job
- * @version		0.3				- 05.11.2014
+ * @version		0.4a				- 17.10.2026
  * @status		in development
  *
  * @description This is the controller class of the Basic Web Crawler. The THEWebCrawler is the
@@ -43,6 +43,9 @@ import de.comlineag.snc.webcrawler.robotstxt.RobotstxtServer;
  * @changelog	0.1 (Chris)		class created
  * 				0.2				alpha release with everything static
  * 				0.3				beta release - fetch infos from applicationContext.xml
+ * 				0.4				frontier partitioned by host (WcHostPartitionedFrontier), so that all
+ * 								threads are busy when several sites are crawled
+ * 				0.4a				the list of TLDs can be refreshed online in the background (WcTldListRefreshInterval)
  * 
  * @limitations	all 3 crawlers work on the same domain and customer - therefore only one active
  * 
@@ -58,6 +61,8 @@ public class THEWebCrawlerController extends GenericCrawlerController implements
 	
 	private final boolean rtcClearFinishedPagesOnStartup = rtc.getBooleanValue("WcClearFinishedPagesOnStartup", "crawler");
 	private final int rtcPolitenessDelay = rtc.getIntValue("WcPolitenessDelay","crawler");
+	private final boolean rtcHostPartitionedFrontier = rtc.getBooleanValue("WcHostPartitionedFrontier","crawler");
+	private final int rtcTldListRefreshInterval = rtc.getIntValue("WcTldListRefreshInterval","crawler");
 	private final int rtcMaxPagesLimit = rtc.getIntValue("WcMaxPagesLimit","crawler");
 	private final int rtcMaxLinkDepth = rtc.getIntValue("WcMaxLinkDepth","crawler");
 	private final int rtcCrawlerThreadingPoolSize = rtc.getIntValue("CrawlerThreadingPoolSize", "thrading");
@@ -175,6 +180,8 @@ public class THEWebCrawlerController extends GenericCrawlerController implements
 				config1.setMaxPagesToFetch(rtcMaxPagesLimit);
 				config1.setMaxDepthOfCrawling(rtcMaxLinkDepth);
 				config1.setResumableCrawling(true);
+				config1.setHostPartitionedFrontier(rtcHostPartitionedFrontier);
+				config1.setTldListRefreshInterval(Math.max(rtcTldListRefreshInterval, 0));
 				PageFetcher pageFetcher1 = new PageFetcher(config1);
 				// We will use the same RobotstxtServer for all of the crawlers.
 				RobotstxtConfig robotstxtConfig = new RobotstxtConfig();
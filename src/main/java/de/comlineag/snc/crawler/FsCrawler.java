@@ -32,7 +32,7 @@ import de.comlineag.snc.persistence.HANAPersistence;
  * 
  * @author 		Christian Guenther
  * @category 	Job
- * @version		0.2a				- 22.10.2014
+ * @version		0.2b				- 17.10.2026
  * @status		in development
  * 
  * @description a crawler that gets all files (with a specific name pattern) from a file system 
@@ -43,6 +43,7 @@ import de.comlineag.snc.persistence.HANAPersistence;
  * @changelog	0.1 (Chris)		class created
  * 				0.2				skeleton for parsing and passing over
  * 				0.2a			changed id from Long to String
+ * 				0.2b			graph node objects (graph_*_fail.json) are left to the graph bulk import
  */
 public class FsCrawler implements Job {
 	private final RuntimeConfiguration rtc = RuntimeConfiguration.getInstance();
@@ -98,6 +99,10 @@ public class FsCrawler implements Job {
 				int second = fileName.indexOf("_", first + 1);
 				String entryType = fileName.substring(0, first);
 				
+				// graph node objects are imported by the graph persistence manager, leave them alone
+				if ("graph".equals(entryType))
+					continue;
+				
 				// first of all, check if the file really contains any data and if not, discard it
 				if (f.length()<1)
 					f.delete();
@@ -173,6 +178,9 @@ public class FsCrawler implements Job {
 	        }
 		} catch (IOException e) {
 			logger.warn("Could not read file " + fileName + " - " + e.getLocalizedMessage());
+		} finally {
+			// write pending jdbc batches and give back the pooled connections of this run
+			hana.shutdown();
 		}
 		
 		timer.stop();
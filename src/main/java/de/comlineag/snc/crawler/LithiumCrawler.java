@@ -5,8 +5,6 @@ import java.net.Authenticator;
 import java.net.PasswordAuthentication;
 import java.util.ArrayList;
 import java.util.concurrent.TimeUnit;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
@@ -40,13 +38,15 @@ import de.comlineag.snc.handler.GenericCrawlerException;
 import de.comlineag.snc.handler.LithiumPosting;
 import de.comlineag.snc.handler.LithiumStatusException;
 import de.comlineag.snc.handler.LithiumUser;
+import de.comlineag.snc.handler.PersistenceExecutor;
+import de.comlineag.snc.helper.TermMatcher;
 import de.comlineag.snc.parser.LithiumParser;
 
 /**
  * 
  * @author 		Christian Guenther
  * @category 	Job
- * @version		1.3				- 16.09.2014
+ * @version		1.3b			- 17.10.2026
  * @status		productive
  * 
  * @description this is the actual crawler for the Lithium network. It is implemenetd as a job and,
@@ -72,6 +72,8 @@ import de.comlineag.snc.parser.LithiumParser;
  *				1.1b			added support for different encryption provider, the actual one is set in applicationContext.xml 
  *				1.2				changed search against rest api url to use method parameter instead of for-loop 
  *				1.3				added support for runState configuration, to check if the crawler shall actually run
+ *				1.3a			persistence threading uses the bounded PersistenceExecutor instead of a new thread per post
+ *				1.3b			track terms are compiled once per run into a TermMatcher instead of one regular expression per term and post
  *
  * TODO change data retrieval to use getResponseBodyAsStream - fixes warning: Going to buffer response body of large or unknown size. Using getResponseBodyAsStream instead is recommended.
  * TODO make parser work when using threads instead of messages
@@ -106,6 +108,7 @@ public class LithiumCrawler extends GenericCrawler implements Job {
 	private final String rtcCustomerKey = rtc.getStringValue("CustomerIdentifier", "XmlLayout");
 	
 	private final boolean rtcPersistenceThreading = rtc.getBooleanValue("PersistenceThreadingEnabled", "runtime");
+	private final boolean rtcTrackTermsIgnoreCase = rtc.getBooleanValue("TrackTermsIgnoreCase", "crawler");
 	
 	
 	// this string is used to compose all the little debug messages from the different restriction possibilities
@@ -194,6 +197,8 @@ public class LithiumCrawler extends GenericCrawler implements Job {
 			// blocked URLs
 			ArrayList<String> bURLs = new CrawlerConfiguration<String>().getConstraint(constraintBSiteText, configurationScope);
 			
+			// the track terms are compiled once per run, to tag each post in one pass
+			TermMatcher trackTermMatcher = new TermMatcher(tTerms, rtcTrackTermsIgnoreCase);
 			
 			// simple log output
 			if (tTerms.size()>0)
@@ -332,13 +337,8 @@ public class LithiumCrawler extends GenericCrawler implements Job {
 									LithiumPosting litPost = new LithiumPosting(messageResponse);
 									
 									// TODO check if this is the right spot to add the track terms to the posting
-									ArrayList<String> keywords = new ArrayList<String>();
-									for (String keyword : tTerms){
-										if (findTheNeedle(litPost.getJson().get("text").toString(), keyword)) {
-											logger.trace("adding trackterm {} to list of tracked keywords", keyword);
-											keywords.add(keyword);
-										}
-									}
+									ArrayList<String> keywords = trackTermMatcher.find(litPost.getJson().get("text").toString()).getFound(tTerms);
+									logger.trace("found trackterms {} in post", keywords);
 									// now we should have an array list of the found trackterms in the post
 									litPost.setTrackTerms(keywords);
 									
@@ -365,24 +365,9 @@ public class LithiumCrawler extends GenericCrawler implements Job {
 										
 										// next save the message
 										if (rtcPersistenceThreading){
-											final LithiumPosting litTPost = new LithiumPosting(messageResponse);
-											
-											// execute persistence layer in a new thread, so that it does NOT block the crawler
-											logger.trace("execute persistence layer in a new thread...");
-											new Thread(new Runnable() {
-												@Override
-												public void run() {
-													litTPost.save();
-													
-													// next call the graph engine and store data also in the external graph
-													// please note that we do not need to do this for the user as well, as 
-													// the graph persistence layer uses the embedded user object within the
-													// post object
-													if (rtc.getBooleanValue("ActivateGraphDatabase", "runtime")) {
-														litTPost.saveInGraph();
-													}
-												}
-											}).start();
+											// hand the post to the bounded persistence executor, so that it does NOT block the crawler
+											logger.trace("queueing post for the persistence layer...");
+											PersistenceExecutor.getInstance().submit(rtc.getBooleanValue("ActivateGraphDatabase", "runtime"), litPost);
 										} else {
 											// otherwise just call it sequentially
 											litPost.save();
@@ -549,23 +534,6 @@ public class LithiumCrawler extends GenericCrawler implements Job {
 	}
 	
 	
-	/**
-	 * @description 	seeks to find the needle (only one at a time) in the haystack
-	 * @param 			haystack
-	 * @param 			needle
-	 * @return 			true if the needle was found in the haystack, otherwise false
-	 */
-	private boolean findTheNeedle(String haystack, String needle){
-		String patternString = ".*"+needle+".*";
-		Pattern pattern = Pattern.compile(patternString);
-		Matcher matcher = pattern.matcher(haystack);
-
-		while (matcher.find())
-		    return true;
-		return false;
-	}
-	
-	
 	// these are the getter and setter for the name value - used for JMX support, I think
 	public static String getName() {return name;}
 	public static void setName(String name) {LithiumCrawler.name = name;}
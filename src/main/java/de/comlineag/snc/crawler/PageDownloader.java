@@ -0,0 +1,196 @@
+package de.comlineag.snc.crawler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.CredentialsProvider;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.entity.ContentType;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.comlineag.snc.appstate.RuntimeConfiguration;
+
+/**
+ *
+ * @author 		Christian Guenther
+ * @category 	crawler
+ * @version		0.1				- 17.10.2026
+ * @status		productive
+ *
+ * @description downloads web pages for the SimpleWebCrawler. All crawler share one HttpClient
+ * 				with a pool of keep-alive connections (WcHttpMaxConnections in total, at most
+ * 				WcHttpMaxConnectionsPerHost per host).
+ * 				The body of a page is streamed into a growable byte buffer, which is reused by
+ * 				the thread for the next page, and is cut off after the given number of bytes.
+ * 				The bytes are decoded exactly once, with the charset given in the Content-Type
+ * 				header or, if there is none, in the meta tag of the page. If neither is given
+ * 				UTF-8 is assumed.
+ *
+ * @changelog	0.1 (Chris)		class created
+ *
+ */
+public final class PageDownloader {
+	private final Logger logger = LoggerFactory.getLogger(getClass().getName());
+
+	// singleton design pattern using Initialization-on-demand holder idiom,
+	private static class Holder { static final PageDownloader instance = new PageDownloader(); }
+	public static PageDownloader getInstance() { return Holder.instance; }
+
+	// how many bytes at the start of a page are searched for a charset declaration
+	private static final int META_SNIFF_LENGTH = 4096;
+	private static final Pattern META_CHARSET = Pattern.compile(
+			"<meta[^>]+charset\\s*=\\s*[\"']?\\s*([a-zA-Z0-9_\\-:.]+)", Pattern.CASE_INSENSITIVE);
+
+	// buffers grown beyond this size are not kept for the next page
+	private static final int MAX_RETAINED_BUFFER = 4 * 1024 * 1024;
+
+	private final CloseableHttpClient httpClient;
+
+	// every thread reuses its own buffer for the page content
+	private final ThreadLocal<PageBuffer> buffers = new ThreadLocal<PageBuffer>() {
+		@Override
+		protected PageBuffer initialValue() {
+			return new PageBuffer();
+		}
+	};
+
+	private PageDownloader() {
+		RuntimeConfiguration rtc = RuntimeConfiguration.getInstance();
+
+		int maxConnections = rtc.getIntValue("WcHttpMaxConnections", "crawler");
+		int maxPerHost = rtc.getIntValue("WcHttpMaxConnectionsPerHost", "crawler");
+		int timeout = rtc.getIntValue("WcHttpTimeout", "crawler");
+
+		PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+		connectionManager.setMaxTotal((maxConnections > 0) ? maxConnections : 20);
+		connectionManager.setDefaultMaxPerRoute((maxPerHost > 0) ? maxPerHost : 2);
+
+		int tmo = (timeout > 0) ? timeout : 30000;
+		RequestConfig requestConfig = RequestConfig.custom()
+				.setConnectTimeout(tmo)
+				.setSocketTimeout(tmo)
+				.setConnectionRequestTimeout(tmo)
+				.build();
+
+		this.httpClient = HttpClients.custom()
+				.setConnectionManager(connectionManager)
+				.setDefaultRequestConfig(requestConfig)
+				.build();
+	}
+
+	/**
+	 * @description	downloads the page behind the url
+	 * @param 		url
+	 * @param 		maxBytes	the body is cut off after this many bytes
+	 * @param 		credentials	credentials for sites that require authentication - may be null
+	 * @return		the decoded page
+	 * @throws 		IOException if the page could not be fetched or the server did not answer with 200
+	 */
+	public String download(URL url, int maxBytes, CredentialsProvider credentials) throws IOException {
+		if (maxBytes <= 0)
+			maxBytes = Integer.MAX_VALUE;
+
+		// a context holds the state of one request, so every request gets its own
+		HttpClientContext context = HttpClientContext.create();
+		if (credentials != null)
+			context.setCredentialsProvider(credentials);
+
+		HttpGet get = new HttpGet(url.toExternalForm());
+		CloseableHttpResponse response = httpClient.execute(get, context);
+		try {
+			int status = response.getStatusLine().getStatusCode();
+			if (status != HttpStatus.SC_OK)
+				throw new IOException("server answered with status " + status);
+
+			HttpEntity entity = response.getEntity();
+			if (entity == null)
+				return "";
+
+			PageBuffer buffer = buffers.get();
+			buffer.reset();
+			boolean complete = buffer.readFrom(entity.getContent(), maxBytes);
+			if (!complete) {
+				// stop the download - the connection can't be reused then
+				logger.debug("page {} is larger than {} bytes - cutting it off", url, maxBytes);
+				get.abort();
+			}
+
+			String page = new String(buffer.array(), 0, buffer.size(), detectCharset(entity, buffer));
+
+			if (buffer.array().length > MAX_RETAINED_BUFFER)
+				buffers.remove();
+			return page;
+		} finally {
+			response.close();
+		}
+	}
+
+	private Charset detectCharset(HttpEntity entity, PageBuffer buffer) {
+		// the header wins
+		try {
+			ContentType contentType = ContentType.get(entity);
+			if (contentType != null && contentType.getCharset() != null)
+				return contentType.getCharset();
+		} catch (RuntimeException e) {
+			// unknown or malformed charset in the header - look into the page
+		}
+
+		// then the meta tag - charset names are ascii, so ISO-8859-1 is fine to look for them
+		String head = new String(buffer.array(), 0, Math.min(buffer.size(), META_SNIFF_LENGTH), StandardCharsets.ISO_8859_1);
+		Matcher m = META_CHARSET.matcher(head);
+		if (m.find()) {
+			try {
+				return Charset.forName(m.group(1));
+			} catch (RuntimeException e) {
+				logger.debug("unknown charset {} in meta tag", m.group(1));
+			}
+		}
+		return StandardCharsets.UTF_8;
+	}
+
+
+	/**
+	 *
+	 * @description	a byte buffer whose backing array is accessible, so the content can be
+	 * 				decoded without copying it first
+	 *
+	 */
+	private static final class PageBuffer extends ByteArrayOutputStream {
+		private final byte[] chunk = new byte[8192];
+
+		private PageBuffer() {
+			super(64 * 1024);
+		}
+
+		byte[] array() {
+			return buf;
+		}
+
+		// reads the stream up to maxBytes - returns false if the stream had more to offer
+		boolean readFrom(InputStream in, int maxBytes) throws IOException {
+			int numRead;
+			while (count < maxBytes) {
+				numRead = in.read(chunk, 0, Math.min(chunk.length, maxBytes - count));
+				if (numRead == -1)
+					return true;
+				write(chunk, 0, numRead);
+			}
+			return in.read() == -1;
+		}
+	}
+}
@@ -0,0 +1,134 @@
+package de.comlineag.snc.crawler;
+
+import java.net.URL;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ *
+ * @author 		Christian Guenther
+ * @category 	crawler
+ * @version		0.1				- 17.10.2026
+ * @status		productive
+ *
+ * @description the url frontier of a concurrent SimpleWebCrawler run. The urls are kept in one
+ * 				queue per host and the fetch workers take them round robin from the hosts which
+ * 				have less than maxInFlightPerHost requests running. That way several hosts are
+ * 				crawled in parallel, while a single host never gets more than maxInFlightPerHost
+ * 				requests at a time.
+ * 				take() hands out at most maxUrls urls (-1 means unlimited) - just like the
+ * 				sequential crawl, which counts every url it takes from its list. The crawl is
+ * 				finished if the budget is used up, or if no url is left and no worker is still
+ * 				fetching a page that might bring new ones.
+ *
+ * @changelog	0.1 (Chris)		class created
+ *
+ */
+final class PoliteUrlFrontier {
+
+	private final int maxInFlightPerHost;
+	private final int maxUrls;
+
+	// all fields below are guarded by this
+	private final Map<String, HostQueue> hosts = new HashMap<String, HostQueue>();
+	// hosts with pending urls and a free slot, in round robin order
+	private final ArrayDeque<HostQueue> ready = new ArrayDeque<HostQueue>();
+	private int handedOut = 0;
+	private int inFlight = 0;
+	private boolean stopped = false;
+
+	/**
+	 * @param 	maxInFlightPerHost	maximum number of urls of one host being fetched at the same time
+	 * @param 	maxUrls				maximum number of urls to hand out, -1 for unlimited
+	 */
+	PoliteUrlFrontier(int maxInFlightPerHost, int maxUrls) {
+		this.maxInFlightPerHost = Math.max(1, maxInFlightPerHost);
+		this.maxUrls = maxUrls;
+	}
+
+	/**
+	 * @description	adds the urls to the queues of their hosts
+	 * @param 		urls
+	 */
+	synchronized void addAll(Collection<URL> urls) {
+		for (URL url : urls) {
+			String hostKey = url.getHost().toLowerCase();
+			HostQueue host = hosts.get(hostKey);
+			if (host == null) {
+				host = new HostQueue();
+				hosts.put(hostKey, host);
+			}
+			host.pending.add(url);
+			if (!host.isReady && host.inFlight < maxInFlightPerHost) {
+				host.isReady = true;
+				ready.add(host);
+			}
+		}
+		notifyAll();
+	}
+
+	/**
+	 * @description	waits for the next url that may be fetched without overloading its host
+	 * @return		the url, or null if the crawl is finished
+	 */
+	synchronized URL take() throws InterruptedException {
+		while (true) {
+			if (stopped || (maxUrls != -1 && handedOut >= maxUrls))
+				return null;
+
+			HostQueue host = ready.poll();
+			if (host != null) {
+				URL url = host.pending.poll();
+				host.inFlight++;
+				inFlight++;
+				handedOut++;
+				// the host goes to the end of the line, if it still has urls and a free slot
+				host.isReady = !host.pending.isEmpty() && host.inFlight < maxInFlightPerHost;
+				if (host.isReady)
+					ready.add(host);
+				return url;
+			}
+
+			// nothing to hand out and nobody fetching, that could find new urls - we are done
+			if (inFlight == 0)
+				return null;
+			wait();
+		}
+	}
+
+	/**
+	 * @description	tells the frontier that the url is processed and its links were added
+	 * @param 		url		as returned by take()
+	 */
+	synchronized void done(URL url) {
+		HostQueue host = hosts.get(url.getHost().toLowerCase());
+		host.inFlight--;
+		inFlight--;
+		if (!host.isReady && !host.pending.isEmpty()) {
+			host.isReady = true;
+			ready.add(host);
+		}
+		notifyAll();
+	}
+
+	/**
+	 * @description	ends the crawl - take() returns null from now on
+	 */
+	synchronized void stop() {
+		stopped = true;
+		notifyAll();
+	}
+
+	synchronized int getHandedOut() {
+		return handedOut;
+	}
+
+
+	private static final class HostQueue {
+		private final ArrayDeque<URL> pending = new ArrayDeque<URL>();
+		private int inFlight = 0;
+		private boolean isReady = false;
+	}
+}
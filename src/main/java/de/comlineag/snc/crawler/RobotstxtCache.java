@@ -0,0 +1,196 @@
+package de.comlineag.snc.crawler;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.comlineag.snc.appstate.RuntimeConfiguration;
+import de.comlineag.snc.webcrawler.robotstxt.HostDirectives;
+import de.comlineag.snc.webcrawler.robotstxt.RobotstxtParser;
+
+/**
+ *
+ * @author 		Christian Guenther
+ * @category 	crawler
+ * @version		0.1				- 17.10.2026
+ * @status		productive
+ *
+ * @description a shared, per-host cache of the parsed robots.txt directives for the SimpleWebCrawler.
+ * 				The robots.txt of a host is fetched once, parsed with the RobotstxtParser of the
+ * 				webcrawler package and then kept for WcRobotCacheTtl milliseconds. Hosts without
+ * 				robots.txt (e.g. 404) are cached as "everything allowed" for the same time, hosts
+ * 				which time out or answer with a server error are cached as "everything allowed"
+ * 				for the shorter WcRobotNegativeCacheTtl, so that a broken host does not cost one
+ * 				extra request per page. At most WcRobotCacheSize hosts are kept, the least recently
+ * 				used host is dropped first.
+ * 				Concurrent requests for the same host wait for one single fetch.
+ *
+ * @changelog	0.1 (Chris)		class created
+ *
+ */
+public final class RobotstxtCache {
+	private final Logger logger = LoggerFactory.getLogger(getClass().getName());
+
+	// singleton design pattern using Initialization-on-demand holder idiom,
+	private static class Holder { static final RobotstxtCache instance = new RobotstxtCache(); }
+	public static RobotstxtCache getInstance() { return Holder.instance; }
+
+	// robots.txt files larger than this are cut off - 500 KB, as google does
+	private static final int MAX_ROBOTSTXT_SIZE = 500 * 1024;
+
+	private final String userAgent;
+	private final long cacheTtl;
+	private final long negativeCacheTtl;
+	private final int timeout;
+
+	// access ordered, so the eldest entry is the least recently used host - guarded by itself
+	private final Map<String, CachedDirectives> cache;
+
+	private RobotstxtCache() {
+		RuntimeConfiguration rtc = RuntimeConfiguration.getInstance();
+
+		String agent = rtc.getStringValue("WcRobotUserAgent", "crawler");
+		this.userAgent = (agent != null) ? agent.toLowerCase() : "snc";
+		int ttl = rtc.getIntValue("WcRobotCacheTtl", "crawler");
+		this.cacheTtl = (ttl > 0) ? ttl : 24 * 60 * 60 * 1000L;
+		int negativeTtl = rtc.getIntValue("WcRobotNegativeCacheTtl", "crawler");
+		this.negativeCacheTtl = (negativeTtl > 0) ? negativeTtl : 10 * 60 * 1000L;
+		int tmo = rtc.getIntValue("WcRobotTimeout", "crawler");
+		this.timeout = (tmo > 0) ? tmo : 5000;
+		int size = rtc.getIntValue("WcRobotCacheSize", "crawler");
+		final int maxHosts = (size > 0) ? size : 1000;
+
+		this.cache = new LinkedHashMap<String, CachedDirectives>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, CachedDirectives> eldest) {
+				return size() > maxHosts;
+			}
+		};
+	}
+
+	/**
+	 * @description	checks whether the robot exclusion protocol of the host allows to download the url
+	 * @param 		url
+	 * @return		true if the download is ok
+	 */
+	public boolean allows(URL url) {
+		String hostKey = url.getProtocol().toLowerCase() + "://" + url.getHost().toLowerCase()
+				+ ((url.getPort() == -1 || url.getPort() == url.getDefaultPort()) ? "" : ":" + url.getPort());
+
+		CachedDirectives entry;
+		synchronized (cache) {
+			entry = cache.get(hostKey);
+			if (entry == null || entry.isExpired()) {
+				entry = new CachedDirectives();
+				cache.put(hostKey, entry);
+			}
+		}
+
+		// only the first thread asking for a host fetches the robots.txt, all others wait for it
+		synchronized (entry) {
+			if (!entry.loaded)
+				load(hostKey, entry);
+		}
+
+		if (entry.directives == null)
+			return true;
+
+		String path = url.getFile();
+		return entry.directives.allows(path.length() == 0 ? "/" : path);
+	}
+
+	/**
+	 * @description	drops all cached directives
+	 */
+	public void clear() {
+		synchronized (cache) {
+			cache.clear();
+		}
+	}
+
+
+	private void load(String hostKey, CachedDirectives entry) {
+		HttpURLConnection conn = null;
+		try {
+			conn = (HttpURLConnection) new URL(hostKey + "/robots.txt").openConnection();
+			conn.setConnectTimeout(timeout);
+			conn.setReadTimeout(timeout);
+			conn.setRequestProperty("User-Agent", userAgent);
+
+			int status = conn.getResponseCode();
+			if (status == HttpURLConnection.HTTP_OK) {
+				entry.directives = RobotstxtParser.parse(readContent(conn), userAgent);
+				entry.expires = System.currentTimeMillis() + cacheTtl;
+				logger.debug("fetched robots.txt of {}", hostKey);
+			} else if (status >= 400 && status < 500) {
+				// no robots.txt - everything is allowed
+				entry.expires = System.currentTimeMillis() + cacheTtl;
+				logger.debug("no robots.txt on {} (status {})", hostKey, status);
+			} else {
+				entry.expires = System.currentTimeMillis() + negativeCacheTtl;
+				logger.debug("could not get robots.txt of {} (status {}) - asking again in {}ms", hostKey, status, negativeCacheTtl);
+			}
+		} catch (IOException e) {
+			// if we can't get the robots.txt file, it is OK to search
+			entry.expires = System.currentTimeMillis() + negativeCacheTtl;
+			logger.debug("could not get robots.txt of {} ({}) - asking again in {}ms", hostKey, e.getLocalizedMessage(), negativeCacheTtl);
+		} finally {
+			if (conn != null)
+				conn.disconnect();
+			entry.loaded = true;
+		}
+	}
+
+	private String readContent(HttpURLConnection conn) throws IOException {
+		String charset = "UTF-8";
+		String contentType = conn.getContentType();
+		if (contentType != null) {
+			int idx = contentType.toLowerCase().indexOf("charset=");
+			if (idx != -1)
+				charset = contentType.substring(idx + 8).replace("\"", "").trim();
+		}
+
+		InputStream in = conn.getInputStream();
+		try {
+			Reader reader;
+			try {
+				reader = new InputStreamReader(in, charset);
+			} catch (IOException e) {
+				reader = new InputStreamReader(in, "UTF-8");
+			}
+			StringBuilder content = new StringBuilder(4096);
+			char[] buffer = new char[4096];
+			int numRead;
+			while (content.length() < MAX_ROBOTSTXT_SIZE && (numRead = reader.read(buffer)) != -1)
+				content.append(buffer, 0, numRead);
+			return content.toString();
+		} finally {
+			in.close();
+		}
+	}
+
+
+	/**
+	 *
+	 * @description	the directives of one host - null if everything is allowed
+	 *
+	 */
+	private static final class CachedDirectives {
+		private volatile boolean loaded = false;
+		private volatile HostDirectives directives;
+		private volatile long expires;
+
+		private boolean isExpired() {
+			return loaded && System.currentTimeMillis() > expires;
+		}
+	}
+}
@@ -1,32 +1,36 @@
 package de.comlineag.snc.crawler;
 
 import java.io.IOException;
-import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.net.URLConnection;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
-import java.util.StringTokenizer;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-import org.apache.commons.lang3.StringUtils;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.xpath.XPathExpressionException;
+
 import org.apache.http.auth.AuthScope;
 import org.apache.http.auth.UsernamePasswordCredentials;
 import org.apache.http.client.CredentialsProvider;
 import org.apache.http.impl.client.BasicCredentialsProvider;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.json.simple.JSONObject;
 import org.quartz.Job;
 import org.quartz.JobExecutionContext;
 import org.quartz.JobExecutionException;
+import org.xml.sax.SAXException;
 
 import com.google.common.base.Stopwatch;
 
@@ -35,8 +39,10 @@ import de.comlineag.snc.appstate.RuntimeConfiguration;
 import de.comlineag.snc.constants.SocialNetworks;
 import de.comlineag.snc.crypto.GenericCryptoException;
 import de.comlineag.snc.handler.ConfigurationCryptoHandler;
+import de.comlineag.snc.handler.PersistenceExecutor;
 import de.comlineag.snc.handler.WebPosting;
 import de.comlineag.snc.handler.WebUser;
+import de.comlineag.snc.helper.TermMatcher;
 import de.comlineag.snc.parser.ParserControl;
 
 
@@ -44,7 +50,7 @@ import de.comlineag.snc.parser.ParserControl;
  *
  * @author 		Christian Guenther
  * @category 	job
- * @version		1.0				- 17.10.2014
+ * @version		1.1a			- 17.10.2026
  * @status		productive
  *
  * @description A minimal web crawler. It can either be started from job control or via a constructor from
@@ -73,6 +79,18 @@ import de.comlineag.snc.parser.ParserControl;
  * 				0.9c			implemented proper handling of page- and user data when passing on to persistence layer
  * 				0.9d			changed access to runtime configuration to non-static 
  * 				1.0				productive version. crawler can now also called from other crawler to fetch pages 
+ * 				1.0a			persistence threading uses the bounded PersistenceExecutor instead of a new thread per page
+ * 				1.0b			robots.txt is fetched once per host and kept in the shared RobotstxtCache
+ * 				1.0c			known and blocked urls are identified by their canonical form instead of java.net.URL
+ * 								(no DNS lookups), known urls are kept as fingerprints in a UrlSeenSet and the
+ * 								list of new urls is an ArrayDeque
+ * 				1.0d			pages are downloaded by the PageDownloader (pooled http client, byte based size limit,
+ * 								charset from header or meta tag) and basic authentication is actually used
+ * 				1.1				added concurrent crawl mode (WcConcurrentCrawlEnabled) - WcFetchWorkers threads take
+ * 								the urls from a PoliteUrlFrontier, which allows at most WcMaxInFlightPerHost
+ * 								requests per host at a time
+ * 				1.1a			track terms are compiled once per crawl into a TermMatcher, which finds all of them
+ * 								in one pass over the page (replaces the per-page and per-term regular expressions)
  * 
  */
 public class SimpleWebCrawler extends GenericCrawler implements Job {
@@ -99,6 +117,11 @@ public class SimpleWebCrawler extends GenericCrawler implements Job {
 	private final int rtcMaxLinkDepth = rtc.getIntValue("WcMaxLinkDepth", "crawler");
 	private final boolean rtcStayOnDomain = rtc.getBooleanValue("WcStayOnDomain", "crawler");
 	private final boolean rtcStayBelowGivenPath = rtc.getBooleanValue("WcStayBelowGivenPath", "crawler");
+	private final int rtcUnlimitedCrawlExpectedUrls = rtc.getIntValue("WcUnlimitedCrawlExpectedUrls", "crawler");
+	private final boolean rtcConcurrentCrawl = rtc.getBooleanValue("WcConcurrentCrawlEnabled", "crawler");
+	private final int rtcFetchWorkers = rtc.getIntValue("WcFetchWorkers", "crawler");
+	private final int rtcMaxInFlightPerHost = rtc.getIntValue("WcMaxInFlightPerHost", "crawler");
+	private final boolean rtcTrackTermsIgnoreCase = rtc.getBooleanValue("TrackTermsIgnoreCase", "crawler");
 	
 	private final String constraintTermText = rtc.getStringValue("ConstraintTermText", "XmlLayout");
 	private final String constraintLangText = rtc.getStringValue("ConstraintLanguageText", "XmlLayout");
@@ -110,11 +133,16 @@ public class SimpleWebCrawler extends GenericCrawler implements Job {
 	private final String rtcDomainKey = rtc.getStringValue("DomainIdentifier", "XmlLayout");
 	private final String rtcCustomerKey = rtc.getStringValue("CustomerIdentifier", "XmlLayout");
 	
-	private final String rtcRobotDisallowText = rtc.getStringValue("WcRobotDisallowText", "crawler");
+	// credentials of this crawl for sites that require authentication
+	private volatile CredentialsProvider credentialsProvider = null;
+	
+	// the track terms of this crawl, compiled once for all pages
+	private volatile TermMatcher trackTermMatcher = null;
 	
-	// the list of postings (extracts from web pages crawled) is stored in here 
-	// and then handed over, one by one, to the persistence layer
-	List<WebPosting> postings = new ArrayList<WebPosting>();
+	// counters of the current crawl - shared by the fetch workers in concurrent mode
+	private final AtomicInteger pageCount = new AtomicInteger();
+	private final AtomicInteger possibleRelevantPages = new AtomicInteger();
+	private final AtomicInteger realRelevantPages = new AtomicInteger();	// number of pages still containing the searched for terms after cleaning
 	
 	
 	public SimpleWebCrawler(){}
@@ -366,13 +394,14 @@ public class SimpleWebCrawler extends GenericCrawler implements Job {
 			Stopwatch timer = new Stopwatch().start();
 			
 			String urlToParse = url.toString();
-			int possibleRelevantPages=0;
-			int pageCount=0;
-			int realRelevantPages = 0;		// number of pages still containing the searched for terms after cleaning
 			int runCounter = 0;				// counter on the number of pages to check 
+			pageCount.set(0);
+			possibleRelevantPages.set(0);
+			realRelevantPages.set(0);
+			trackTermMatcher = new TermMatcher(tTerms, rtcTrackTermsIgnoreCase);
 			
 			// URLs to be searched
-			List<URL> newURLs = new ArrayList<URL>();
+			Deque<URL> newURLs = new ArrayDeque<URL>();
 			newURLs.add(url);
 			
 			String host = url.getHost();
@@ -396,14 +425,15 @@ public class SimpleWebCrawler extends GenericCrawler implements Job {
 			
 			
 			
-			// Known URLs
-			Map<URL, Integer> knownURLs = new HashMap<URL, Integer>();
-			knownURLs.put(url,new Integer(1));
+			// Known URLs - identified by their canonical form, as URL.equals() would resolve the host
+			// an unlimited crawl uses a bloom filter, so that the memory needed stays the same
+			UrlSeenSet knownURLs = (maxPages == -1) ? UrlSeenSet.bounded(rtcUnlimitedCrawlExpectedUrls) : UrlSeenSet.exact(4096);
+			knownURLs.add(url);
 			
 			// blocked URLs
-			Map<URL, Integer> blockedURLs = new HashMap<URL, Integer>();
+			Set<String> blockedURLs = new HashSet<String>();
 			for (int i=0;i<bURLs.size();i++)
-				blockedURLs.put(new URL(bURLs.get(i)),new Integer(1));
+				blockedURLs.add(UrlSeenSet.canonical(bURLs.get(i)));
 			
 			
 			
@@ -415,15 +445,23 @@ public class SimpleWebCrawler extends GenericCrawler implements Job {
 			if (maxDepth == -1 ) stayOnDomain = true;
 			
 			
+			// in concurrent mode several fetch workers share the frontier, otherwise 
+			// one page after the other is fetched, parsed and saved
+			if (rtcConcurrentCrawl && rtcFetchWorkers > 1) {
+				crawlConcurrently(url, maxPages, knownURLs, blockedURLs, initialPath, stayOnDomain, stayBelowGivenPath, getOnlyRelevantPages, tTerms, curCustomer, curDomain, sn_id);
+				logCrawlEnd(timer);
+				return;
+			}
+			
 			while (runCounter < maxPages) {
 				//logger.trace("runCounter is " + runCounter + " and maxPages is " + maxPages);
 				
-				url = newURLs.get(0);
-				newURLs.remove(0);
+				url = newURLs.poll();
+				if (url == null)
+					break;
 				
 				if (robotSafe(url)) {
-					boolean relPage = false;
-					logger.debug("Url "+url+" is page #" + pageCount + " to crawl (until now " + possibleRelevantPages + " possibly relevant pages found)");
+					logger.debug("Url "+url+" is page #" + pageCount.get() + " to crawl (until now " + possibleRelevantPages.get() + " possibly relevant pages found)");
 					
 					String page = null;
 					try {
@@ -434,148 +472,16 @@ public class SimpleWebCrawler extends GenericCrawler implements Job {
 					}
 					//logger.trace("the page content: " +  page);
 					
-					if (getOnlyRelevantPages) {
-						logger.debug("checking if page from url " + url.toString() + " contains any of the relevant track terms");
-						if (containsWord(page, tTerms)){
-							// proceed only if at least one track term was found
-							relPage = true;
-							possibleRelevantPages++;
-							logger.info("Url "+url+" is page #" + possibleRelevantPages + " containing any of the search terms - passing on to parser to check if relevant");
-						} else {
-							relPage = false;
-						}
-					} else {
-						// proceed in any way
-						relPage = true;
-						possibleRelevantPages++;
-						logger.info("Url "+url+" is page #" + possibleRelevantPages + " tracked ");
-					}
-					
-					
-					
-					if (relPage) {
-						// parsing of the page content is either done to get a list of postings
-						// or one cleaned up page (that is without the clutter like ads and the like)
-						// or at least a plain text representation of some words around the searched
-						// track term. To achieve this, we use different parser and the right parser
-						// for each site is chosen by the ParserControl class. Therefore we do not
-						// simply call a specific parser here, but route this through parser control.
-						postings = ParserControl.submit(page, url, tTerms, sn_id, curCustomer, curDomain);
-						
-						// invoke the persistence layer - should go to crawler
-						for (WebPosting postData : postings) {
-						//for (int ii = 0; ii < postings.size(); ii++) {
-							String userName = "undefined";
-							String pageUrl = "undefined";
-							
-							if (postData.getUserAsJson().containsKey("username"))
-								userName = postData.getUserAsJson().get("username").toString();
-							if (postData.getJson().containsKey("source"))
-								pageUrl = postData.getJson().get("source").toString();
-							
-							realRelevantPages++;
-							
-							logger.debug("{} pages to store in persistence layer tracked", realRelevantPages );
-							
-							setPostsTracked(realRelevantPages);
-							
-							// first get the user-data out of the WebPosting
-							WebUser userData = new WebUser(postData.getUserAsJson()); 
-							
-							// TODO check if this is the right spot to add the track terms to the posting
-							ArrayList<String> keywords = new ArrayList<String>();
-							for (String keyword : tTerms){
-								if (findTheNeedle(page, keyword)) {
-									logger.trace("adding trackterm {} to list of tracked keywords", keyword);
-									keywords.add(keyword);
-								}
-							}
-							// now we should have an array list of the found trackterms in the post
-							postData.setTrackTerms(keywords);
-									
-							if (rtcPersistenceThreading){
-								// execute persistence layer in a new thread, so that it does NOT block the crawler
-								logger.debug("execute persistence layer in a new thread...");
-								final WebPosting postDataT = postData;
-								final WebUser userDataT = userData;
-								final String userNameT = userName;
-								final String pageUrlT = pageUrl;
-								
-								//if (!persistenceExecutor.isShutdown()) {
-								//	persistenceExecutor.submit(new Thread(new Runnable() {
-								//			
-								//			@Override
-								//			public void run() {
-								//					postT.save();
-								//			}
-								//		}).start());
-								//}
-								//
-								new Thread(new Runnable() {
-									
-									@Override
-									public void run() {
-										logger.info("calling persistence layer to save the user {}", userNameT);
-										userDataT.save();	
-										logger.info("calling persistence layer to save the page {}", pageUrlT);
-										postDataT.save();
-										
-										// next call the graph engine and store data also in the external graph
-										// please note that we do not need to do this for the user as well, as 
-										// the graph persistence layer uses the embedded user object within the
-										// post object
-										if (rtc.getBooleanValue("ActivateGraphDatabase", "runtime")) {
-											postDataT.saveInGraph();
-										}
-									}
-								}).start();
-							} else {
-								logger.info("calling persistence layer to save the user {}", userName);
-								userData.save();
-								
-								// and now pass the web page on to the persistence layer
-								logger.info("calling persistence layer to save the page {}", pageUrl);
-								postData.save();
-								
-								// next call the graph engine and store data also in the external graph
-								// please note that we do not need to do this for the user as well, as 
-								// the graph persistence layer uses the embedded user object within the
-								// post object
-								if (rtc.getBooleanValue("ActivateGraphDatabase", "runtime")) {
-									postData.saveInGraph();
-								}
-							}
-						}
-					}// end of get only relevant pages
-					
-					
+					processPage(url, page, getOnlyRelevantPages, tTerms, curCustomer, curDomain, sn_id);
 					
 					if ((page.length()) != 0) getLinksFromPage(url, page, knownURLs, newURLs, blockedURLs, initialPath, stayOnDomain, stayBelowGivenPath);
 					
 					if (newURLs.isEmpty()) {
-						timer.stop();
-						long seconds = timer.elapsed(TimeUnit.SECONDS);
-					    long calcSeconds = seconds;
-					    long calcMinutes = 0;
-					    long calcHours = 0;
-					    long calcDays = 0;
-					    if (calcSeconds > 60) {
-					    	calcMinutes = calcSeconds / 60;
-					    	calcSeconds = calcSeconds - (calcMinutes * 60);
-					    }
-					    if (calcMinutes > 60) {
-					    	calcHours = calcMinutes / 60;
-					    	calcMinutes = calcMinutes - (calcHours * 60);
-					    }
-					    if (calcHours > 24) {
-					    	calcDays = calcHours / 24;
-					    	calcHours = calcHours - (calcHours * 24);
-					    }
-						logger.info(CRAWLER_NAME+" END - scanned {} pages in {} days {} hours {} minutes {} seconds and found {} matching ones\n", pageCount, calcDays, calcHours, calcMinutes, calcSeconds, possibleRelevantPages);
+						logCrawlEnd(timer);
 						break;
 					}
 					
-					pageCount++;
+					pageCount.incrementAndGet();
 				} // end of robotSafe check
 				if (maxPages != -1) runCounter++;
 			} // end of for loop over maxPages
@@ -586,35 +492,197 @@ public class SimpleWebCrawler extends GenericCrawler implements Job {
 	}
 	
 
+	/**
+	 * @description	checks whether the page contains any of the track terms, hands relevant pages
+	 * 				to the parser and the resulting postings to the persistence layer
+	 * @param 		url		the page was downloaded from
+	 * @param 		page	content of the page
+	 */
+	private void processPage(URL url, String page, boolean getOnlyRelevantPages, ArrayList<String> tTerms, String curCustomer, String curDomain, String sn_id) 
+			throws XPathExpressionException, ParserConfigurationException, SAXException, IOException {
+		boolean relPage = false;
+		
+		// one scan of the page finds all track terms - for the relevance check and the keywords
+		TermMatcher.Hits hits = trackTermMatcher.find(page);
+		
+		if (getOnlyRelevantPages) {
+			logger.debug("checking if page from url " + url.toString() + " contains any of the relevant track terms");
+			// without any track term every page is relevant
+			if (tTerms.isEmpty() || hits.anyWord()){
+				// proceed only if at least one track term was found
+				relPage = true;
+				logger.info("Url "+url+" is page #" + possibleRelevantPages.incrementAndGet() + " containing any of the search terms - passing on to parser to check if relevant");
+			} else {
+				relPage = false;
+			}
+		} else {
+			// proceed in any way
+			relPage = true;
+			logger.info("Url "+url+" is page #" + possibleRelevantPages.incrementAndGet() + " tracked ");
+		}
+		
+		if (!relPage)
+			return;
+		
+		// parsing of the page content is either done to get a list of postings
+		// or one cleaned up page (that is without the clutter like ads and the like)
+		// or at least a plain text representation of some words around the searched
+		// track term. To achieve this, we use different parser and the right parser
+		// for each site is chosen by the ParserControl class. Therefore we do not
+		// simply call a specific parser here, but route this through parser control.
+		List<WebPosting> postings = ParserControl.submit(page, url, tTerms, sn_id, curCustomer, curDomain);
+		if (postings == null)
+			return;
+		
+		// TODO check if this is the right spot to add the track terms to the posting
+		ArrayList<String> keywords = hits.getFound(tTerms);
+		logger.trace("found trackterms {} in page", keywords);
+		
+		// invoke the persistence layer - should go to crawler
+		for (WebPosting postData : postings) {
+			String userName = "undefined";
+			String pageUrl = "undefined";
+			
+			if (postData.getUserAsJson().containsKey("username"))
+				userName = postData.getUserAsJson().get("username").toString();
+			if (postData.getJson().containsKey("source"))
+				pageUrl = postData.getJson().get("source").toString();
+			
+			int tracked = realRelevantPages.incrementAndGet();
+			
+			logger.debug("{} pages to store in persistence layer tracked", tracked );
+			
+			setPostsTracked(tracked);
+			
+			// first get the user-data out of the WebPosting
+			WebUser userData = new WebUser(postData.getUserAsJson()); 
+			
+			// now we have an array list of the found trackterms in the post
+			postData.setTrackTerms(new ArrayList<String>(keywords));
+					
+			if (rtcPersistenceThreading){
+				// hand the user and the page to the bounded persistence executor, so that it does NOT block the crawler
+				logger.trace("queueing user and page for the persistence layer...");
+				PersistenceExecutor.getInstance().submit(rtc.getBooleanValue("ActivateGraphDatabase", "runtime"), userData, postData);
+			} else {
+				logger.info("calling persistence layer to save the user {}", userName);
+				userData.save();
+				
+				// and now pass the web page on to the persistence layer
+				logger.info("calling persistence layer to save the page {}", pageUrl);
+				postData.save();
+				
+				// next call the graph engine and store data also in the external graph
+				// please note that we do not need to do this for the user as well, as 
+				// the graph persistence layer uses the embedded user object within the
+				// post object
+				if (rtc.getBooleanValue("ActivateGraphDatabase", "runtime")) {
+					postData.saveInGraph();
+				}
+			}
+		}
+	}
+	
+	/**
+	 * @description	crawls with WcFetchWorkers threads, which take the urls from a PoliteUrlFrontier.
+	 * 				The frontier makes sure, that no host gets more than WcMaxInFlightPerHost requests
+	 * 				at the same time and that no more than maxPages urls are taken. Links are checked
+	 * 				by addNewUrl exactly as in the sequential crawl.
+	 */
+	private void crawlConcurrently(URL url, int maxPages, 
+									final UrlSeenSet knownURLs, 
+									final Set<String> blockedURLs, 
+									final String initialPath, 
+									final boolean stayOnDomain, 
+									final boolean stayBelowGivenPath, 
+									final boolean getOnlyRelevantPages, 
+									final ArrayList<String> tTerms, 
+									final String curCustomer, 
+									final String curDomain, 
+									final String sn_id) {
+		final PoliteUrlFrontier frontier = new PoliteUrlFrontier(rtcMaxInFlightPerHost, maxPages);
+		frontier.addAll(Collections.singletonList(url));
+		
+		logger.info(CRAWLER_NAME+"-Crawler fetches with {} workers and at most {} requests per host", rtcFetchWorkers, rtcMaxInFlightPerHost);
+		ExecutorService workers = Executors.newFixedThreadPool(rtcFetchWorkers);
+		for (int i = 0; i < rtcFetchWorkers; i++) {
+			workers.execute(new Runnable() {
+				@Override
+				public void run() {
+					URL pageUrl;
+					try {
+						while ((pageUrl = frontier.take()) != null) {
+							try {
+								if (robotSafe(pageUrl)) {
+									logger.debug("Url "+pageUrl+" is page #" + pageCount.getAndIncrement() + " to crawl (until now " + possibleRelevantPages.get() + " possibly relevant pages found)");
+									
+									String page = getPage(pageUrl);
+									processPage(pageUrl, page, getOnlyRelevantPages, tTerms, curCustomer, curDomain, sn_id);
+									
+									if (page.length() != 0) {
+										Deque<URL> links = new ArrayDeque<URL>();
+										getLinksFromPage(pageUrl, page, knownURLs, links, blockedURLs, initialPath, stayOnDomain, stayBelowGivenPath);
+										frontier.addAll(links);
+									}
+								}
+							} catch (Exception e) {
+								logger.error("EXCEPTION :: error crawling " + pageUrl + " " + e.getMessage(), e);
+							} finally {
+								frontier.done(pageUrl);
+							}
+						}
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}
+			});
+		}
+		
+		workers.shutdown();
+		try {
+			while (!workers.awaitTermination(1, TimeUnit.MINUTES))
+				logger.debug("{} urls taken from the frontier so far", frontier.getHandedOut());
+		} catch (InterruptedException e) {
+			logger.warn("concurrent crawl interrupted - stopping the fetch workers");
+			frontier.stop();
+			workers.shutdownNow();
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	private void logCrawlEnd(Stopwatch timer) {
+		timer.stop();
+		long seconds = timer.elapsed(TimeUnit.SECONDS);
+	    long calcSeconds = seconds;
+	    long calcMinutes = 0;
+	    long calcHours = 0;
+	    long calcDays = 0;
+	    if (calcSeconds > 60) {
+	    	calcMinutes = calcSeconds / 60;
+	    	calcSeconds = calcSeconds - (calcMinutes * 60);
+	    }
+	    if (calcMinutes > 60) {
+	    	calcHours = calcMinutes / 60;
+	    	calcMinutes = calcMinutes - (calcHours * 60);
+	    }
+	    if (calcHours > 24) {
+	    	calcDays = calcHours / 24;
+	    	calcHours = calcHours - (calcDays * 24);
+	    }
+		logger.info(CRAWLER_NAME+" END - scanned {} pages in {} days {} hours {} minutes {} seconds and found {} matching ones\n", pageCount.get(), calcDays, calcHours, calcMinutes, calcSeconds, possibleRelevantPages.get());
+	}
+	
 	/**
 	 * @description	Download and return the content of the given URL
 	 * @param 		url
 	 * @return		page content (in html probably)
 	 */
-	private String getPage(URL url) throws java.lang.StringIndexOutOfBoundsException {
+	private String getPage(URL url) {
 		logger.trace("getPage called for url " + url.toString());
 		try {
-			// try opening the URL
-			URLConnection urlConnection = url.openConnection();
-			urlConnection.setAllowUserInteraction(false);
-			InputStream urlStream = url.openStream();
-
-			// first, read in the entire URL
-			byte b[] = new byte[1000];
-			int numRead = urlStream.read(b);
-			String content = new String(b, 0, numRead);
-			while ( (numRead != -1) && (content.length() < rtcCrawlerMaxDownloadSize) ) {
-				numRead = urlStream.read(b);
-				if (numRead != -1) {
-					String newContent = new String(b, 0, numRead);
-					content += newContent;
-				}
-			}
-			//logger.trace("page Content >>> " + content.substring(0, 20)+"...");
-			return content;
-
+			return PageDownloader.getInstance().download(url, rtcCrawlerMaxDownloadSize, credentialsProvider);
 		} catch (IOException e) {
-			logger.error("ERROR :: couldn't open URL " + url.toString());
+			logger.error("ERROR :: couldn't open URL " + url.toString() + " - " + e.getLocalizedMessage());
 			return "";
 		}
 	}
@@ -626,14 +694,14 @@ public class SimpleWebCrawler extends GenericCrawler implements Job {
 	 *
 	 * @param 			url	is the url the page was downladed from
 	 * @param 			page is the html content of the page
-	 * @param 			knownURLs a map of already known urls
-	 * @param 			newURLs a list of newly found urls
+	 * @param 			knownURLs the set of already known urls
+	 * @param 			newURLs the queue of newly found urls
 	 */
 	private void getLinksFromPage(URL url, 
 									String page, 
-									Map<URL, Integer> knownURLs, 
-									List<URL> newURLs, 
-									Map<URL, Integer> blockedURLs, 
+									UrlSeenSet knownURLs, 
+									Deque<URL> newURLs, 
+									Set<String> blockedURLs, 
 									String initialPath, 
 									boolean stayOnDomain, 
 									boolean stayBelowGivenPath) {
@@ -663,15 +731,15 @@ public class SimpleWebCrawler extends GenericCrawler implements Job {
 	 * 					new URL's that end in htm or html are accepted.
 	 * @param oldURL 	the context
 	 * @param url	 	the new url
-	 * @param knownURLs	a map containing urls already known to the crawler
-	 * @param newURLs	a list of new urls
+	 * @param knownURLs	the set of urls already known to the crawler
+	 * @param newURLs	the queue of new urls
 	 */
 	// (either an absolute or a relative URL).
 	private void addNewUrl(URL oldURL, 
 							URL url, 
-							Map<URL, Integer> knownURLs, 
-							List<URL> newURLs, 
-							Map<URL, Integer> blockedURLs, 
+							UrlSeenSet knownURLs, 
+							Deque<URL> newURLs, 
+							Set<String> blockedURLs, 
 							String initialPath,
 							boolean stayOnDomain,
 							boolean stayBelowGivenPath) {
@@ -731,7 +799,8 @@ public class SimpleWebCrawler extends GenericCrawler implements Job {
 		}
 		
 		// the last check is, is the url in question on the blocking-list
-		if (blockedURLs.containsKey(url)) {
+		String canonicalUrl = UrlSeenSet.canonical(url);
+		if (blockedURLs.contains(canonicalUrl)) {
 			if (rtcWarnOnRejectedActions)
 				logger.debug("rejecting url " + url + " because it is in the list of blocked urls");
 			proceed = false;
@@ -741,7 +810,7 @@ public class SimpleWebCrawler extends GenericCrawler implements Job {
 		if (proceed){
 			// and only if the url is not already in the list of known urls (the ones we already checked)
 			// and is not in the list of blocked urls we proceed and add the url
-			if (!knownURLs.containsKey(url) && !blockedURLs.containsKey(url)) {
+			if (knownURLs.add(canonicalUrl)) {
 				/*
 				 * if you only want html pages, then set wcContentTypeToDownload in RuntimeConfiguration
 				String filename =  url.getFile();
@@ -757,7 +826,6 @@ public class SimpleWebCrawler extends GenericCrawler implements Job {
 				// to make debug log less noisy I omit this log-entry
 				logger.debug("Adding new URL " + url.toString() + " to crawling list");
 				*/
-				knownURLs.put(url,new Integer(1));
 				newURLs.add(url);
 			}
 		}
@@ -769,63 +837,8 @@ public class SimpleWebCrawler extends GenericCrawler implements Job {
 	 * @return		true or false - true = download is ok, false download is NOT ok
 	 */
 	private boolean robotSafe(URL url) {
-		String strHost = url.getHost();
-
-		// form URL of the robots.txt file
-		String strRobot = "http://" + strHost + "/robots.txt";
-		URL urlRobot;
-		try {
-			urlRobot = new URL(strRobot);
-		} catch (MalformedURLException e) {
-			// something weird is happening, so don't trust it
-			logger.warn("something weird is happening, we don't trust this site");
-
-			return false;
-		}
-
-		//logger.trace("Checking robot protocol " + urlRobot.toString());
-		String strCommands;
-		try {
-			InputStream urlRobotStream = urlRobot.openStream();
-
-			// read in entire file
-			byte b[] = new byte[1000];
-			int numRead = urlRobotStream.read(b);
-			strCommands = new String(b, 0, numRead);
-			while (numRead != -1) {
-				numRead = urlRobotStream.read(b);
-				if (numRead != -1) {
-					String newCommands = new String(b, 0, numRead);
-					strCommands += newCommands;
-				}
-			}
-			urlRobotStream.close();
-		} catch (IOException e) {
-		    // if there is no robots.txt file, it is OK to search
-			return true;
-		}
-
-		//logger.debug("robot commands are " + strCommands);
-
-		// assume that this robots.txt refers to us and
-		// search for "Disallow:" commands.
-		String strURL = url.getFile();
-		int index = 0;
-
-		while ((index = strCommands.indexOf(rtcRobotDisallowText, index)) != -1) {
-			index += rtcRobotDisallowText.length();
-			String strPath = strCommands.substring(index);
-			StringTokenizer st = new StringTokenizer(strPath);
-
-			if (!st.hasMoreTokens()) break;
-
-			String strBadPath = st.nextToken();
-
-			// if the URL starts with a disallowed path, it is not safe
-			if (strURL.indexOf(strBadPath) == 0) return false;
-		}
-
-		return true;
+		// the directives of each host are fetched once and shared by all crawler runs
+		return RobotstxtCache.getInstance().allows(url);
 	}
 
 	/**
@@ -834,58 +847,18 @@ public class SimpleWebCrawler extends GenericCrawler implements Job {
 	 * @param 		port
 	 * @param 		user
 	 * @param 		passwd
-	 * @return		authenticated httpClient
 	 */
-	private CloseableHttpClient HttpBasicAuthentication(String host, int port, String user, String passwd) {
+	private void HttpBasicAuthentication(String host, int port, String user, String passwd) {
 		CredentialsProvider credsProvider = new BasicCredentialsProvider();
 		credsProvider.setCredentials(
 					new AuthScope(host, port),
 					new UsernamePasswordCredentials(user, passwd));
-			CloseableHttpClient httpClient = HttpClients.custom()
-					.setDefaultCredentialsProvider(credsProvider)
-					.build();
+		// the credentials are sent with every page of this crawl via the shared http client
+		credentialsProvider = credsProvider;
 
-			logger.info("authenticated against site "+host + " as user " + user);
-			return httpClient;
+		logger.info("authenticated against site "+host + " as user " + user);
 	}
 
-	/**
-	 * @description 	checks if any word of a given set of tokens is found in the given text
-	 * 					this check is done a second time in the parser, after all irrelevant content
-	 * 					like advertisement and the like has been stripped off the page.
-	 * @param 			text
-	 * @param 			tokens
-	 * @return 			true if any of the tokens was found, otherwise false
-	 */
-	private boolean containsWord(String text, List<String> tokens){
-		String patternString = "\\b(" + StringUtils.join(tokens, "|") + ")\\b";
-		Pattern pattern = Pattern.compile(patternString);
-		Matcher matcher = pattern.matcher(text);
-
-		while (matcher.find()) {
-		    return true;
-		}
-		
-		return false;
-	}
-	
-	/**
-	 * @description 	seeks to find the needle (only one at a time) in the haystack
-	 * @param 			haystack
-	 * @param 			needle
-	 * @return 			true if the needle was found in the haystack, otherwise false
-	 */
-	private boolean findTheNeedle(String haystack, String needle){
-		String patternString = ".*"+needle+".*";
-		Pattern pattern = Pattern.compile(patternString);
-		Matcher matcher = pattern.matcher(haystack);
-
-		while (matcher.find())
-		    return true;
-		return false;
-	}
-	
-	
 	// these are the getter and setter for the name value - used for JMX support, I think
 	public static String getName() {return name;}
 	public static void setName(String name) {SimpleWebCrawler.name = name;}
@@ -4,14 +4,11 @@ import java.io.File;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-import org.apache.commons.lang3.StringUtils;
 import org.apache.http.auth.AuthScope;
 import org.apache.http.auth.UsernamePasswordCredentials;
 import org.apache.http.client.CredentialsProvider;
@@ -27,10 +24,13 @@ import de.comlineag.snc.constants.SNCStatusCodes;
 import de.comlineag.snc.constants.SocialNetworks;
 import de.comlineag.snc.crypto.GenericCryptoException;
 import de.comlineag.snc.handler.ConfigurationCryptoHandler;
+import de.comlineag.snc.handler.PersistenceExecutor;
 import de.comlineag.snc.handler.TwitterPosting;
 import de.comlineag.snc.handler.TwitterUser;
 import de.comlineag.snc.handler.WebPosting;
 import de.comlineag.snc.handler.WebUser;
+import de.comlineag.snc.helper.TermMatcher;
+import de.comlineag.snc.parser.ParsedWebPage;
 import de.comlineag.snc.parser.ParserControl;
 import de.comlineag.snc.webcrawler.crawler.Page;
 import de.comlineag.snc.webcrawler.crawler.WebCrawler;
@@ -42,7 +42,7 @@ import de.comlineag.snc.webcrawler.url.WebURL;
 *
 * @author 		Christian Guenther
 * @category 	controller / job
-* @version		0.3				- 05.11.2014
+* @version		0.3d			- 17.10.2026
 * @status		in development
 *
 * @description 	This is the crawler class of the Basic Web Crawler. The THEWebCrawler is the
@@ -52,6 +52,10 @@ import de.comlineag.snc.webcrawler.url.WebURL;
 * @changelog	0.1 (Chris)		class created
 * 				0.2				alpha release
 * 				0.3				beta release with limitations
+* 				0.3a			persistence threading uses the bounded PersistenceExecutor instead of a new thread per page
+* 				0.3b			blocked urls are compared by their canonical form instead of java.net.URL (no DNS lookups)
+* 				0.3c			track terms are compiled once per crawler into a TermMatcher instead of per-page regular expressions
+* 				0.3d			the parse of the page (text, title, meta tags, language) is handed to the web parser as ParsedWebPage
 * 
 * @limitations	SN_ID is taken from hardcoded crawler name WALLSTREETONLINE
 * 				blocked sites not working
@@ -96,6 +100,7 @@ public class THEWebCrawler extends WebCrawler {
 	private final String rtcCustomerKey = rtc.getStringValue("CustomerIdentifier", "XmlLayout");
 	
 	private final boolean rtcPersistenceThreading = rtc.getBooleanValue("PersistenceThreadingEnabled", "runtime");
+	private final boolean rtcTrackTermsIgnoreCase = rtc.getBooleanValue("TrackTermsIgnoreCase", "crawler");
 	
 	
 	private int trackedPages = 0;				// is returned on end of crawler run
@@ -108,8 +113,9 @@ public class THEWebCrawler extends WebCrawler {
 	private String curDomain = null;			// the customer we crawl for
 	private String curCustomer = null;			// the domain of interest we crawl for
 	private ArrayList<String> tTerms = null;	// the terms to look for
+	private TermMatcher trackTermMatcher = new TermMatcher(null, false); // the terms to look for, compiled once
 	private ArrayList<String> bURLs = null;		// the list of blocked urls
-	private Map<URL, Integer> blockedURLs = new HashMap<URL, Integer>(); // list of blocked urls as a map
+	private Set<String> blockedURLs = new HashSet<String>(); // canonical form of the blocked urls
 	private List<String> myCrawlData;			// this list can be returned to the controller
 	
 	// the array holds the given domains to crawl (or stay on) passed on by THEWebCrawlerController
@@ -134,6 +140,7 @@ public class THEWebCrawler extends WebCrawler {
 			// retrieve the track terms and the blocked urls
 			bURLs = (ArrayList<String>) configurationScope.get(constraintBSiteText);
 			tTerms = (ArrayList<String>) configurationScope.get(constraintTermText);
+			trackTermMatcher = new TermMatcher(tTerms, rtcTrackTermsIgnoreCase);
 			// set the customer we start the crawler for
 			curDomain = (String) configurationScope.get(rtcDomainKey);
 			curCustomer = (String) configurationScope.get(rtcCustomerKey);
@@ -146,16 +153,13 @@ public class THEWebCrawler extends WebCrawler {
 			logger.error("error while retrieving custom data from controller - {}", e);
 		}
 		
-		// create the map of blocked urls - we need to convert this to a map to make use of
+		// create the set of blocked urls - we need to convert this to a set to make use of
 		// the contains method when checking, whether or not a link should be visited.
+		// the urls are kept in their canonical form, as URL.equals() would resolve the host
 		logger.debug("setting up list of blocked urls");
 		for (int i=0;i<bURLs.size();i++) {
 			logger.trace("adding {} to list of blocked urls", bURLs.get(i));
-			try {
-				blockedURLs.put(new URL(bURLs.get(i)),new Integer(1));
-			} catch (MalformedURLException e) {
-				logger.warn("could not add url {} to list of blocked urls", bURLs.get(i));
-			}
+			blockedURLs.add(UrlSeenSet.canonical(bURLs.get(i)));
 		}
 		
 			
@@ -201,12 +205,6 @@ public class THEWebCrawler extends WebCrawler {
 	@Override
 	public boolean shouldVisit(Page page, WebURL url) {
 		String href = url.getURL().toLowerCase();
-		URL checkURL = null;
-		try {
-			checkURL = new URL(href);
-		} catch (MalformedURLException e) {
-			logger.warn("given url {} is not a valid url", href);
-		} 
 		logger.debug("checking if url {} should be visited", href);
 		
 		if (FILTERS.matcher(href).matches()) {
@@ -214,8 +212,8 @@ public class THEWebCrawler extends WebCrawler {
 			return false;
 		}
 		
-		if (blockedURLs.containsKey(checkURL)) {
-			logger.trace("rejecting (blocked urls): url {} is in the list of blocked urls", checkURL.toString());
+		if (blockedURLs.contains(UrlSeenSet.canonical(url.getURL()))) {
+			logger.trace("rejecting (blocked urls): url {} is in the list of blocked urls", url.getURL());
 			return false;
 		}
 		
@@ -268,10 +266,15 @@ public class THEWebCrawler extends WebCrawler {
 				logger.debug("Html length: " + html.length());
 				logger.debug("Number of outgoing links: " + links.size());
 				
-				if (containsWord(html, tTerms)) {
+				// without any track term every page is relevant
+				if (trackTermMatcher.getTerms().isEmpty() || trackTermMatcher.containsWord(html)) {
 					logger.debug("now passing the page to the parser");
 					
-					postings = ParserControl.submit(html, realUrl, tTerms, sn_id, curCustomer, curDomain);
+					// the parser gets the text, title and meta tags we already have, so it need not parse the page again
+					postings = ParserControl.submit(new ParsedWebPage(page, htmlParseData), realUrl, tTerms, sn_id, curCustomer, curDomain);
+					
+					// TODO check if this is the right spot to add the track terms to the posting
+					ArrayList<String> keywords = trackTermMatcher.find(text).getFound(tTerms);
 					
 					// invoke the persistence layer - should go to crawler
 					for (WebPosting postData : postings) {
@@ -291,44 +294,13 @@ public class THEWebCrawler extends WebCrawler {
 						//WebPosting postData = postings.get(ii);
 						WebUser userData = new WebUser(postData.getUserAsJson()); 
 
-						// TODO check if this is the right spot to add the track terms to the posting
-						ArrayList<String> keywords = new ArrayList<String>();
-						for (String keyword : tTerms){
-							if (findTheNeedle(text, keyword)) {
-								logger.trace("adding trackterm {} to list of tracked keywords", keyword);
-								keywords.add(keyword);
-							}
-						}
-						// now we should have an array list of the found trackterms in the post
-						postData.setTrackTerms(keywords);
+						// now we have an array list of the found trackterms in the post
+						postData.setTrackTerms(new ArrayList<String>(keywords));
 						
 						if (rtcPersistenceThreading){
-							// execute persistence layer in a new thread, so that it does NOT block the crawler
-							logger.trace("execute persistence layer in a new thread...");
-							final WebPosting postDataT = postData;
-							final WebUser userDataT = userData;
-							final String userNameT = userName;
-							final String pageUrlT = pageUrl;
-							
-							new Thread(new Runnable() {
-								@Override
-								public void run() {
-									logger.info("calling persistence layer to save the user {}", userNameT);
-									userDataT.save();
-									
-									// and now pass the web page on to the persistence layer
-									logger.info("calling persistence layer to save the page {}", pageUrlT);
-									postDataT.save();
-									
-									// next call the graph engine and store data also in the external graph
-									// please note that we do not need to do this for the user as well, as 
-									// the graph persistence layer uses the embedded user object within the
-									// post object
-									if (rtc.getBooleanValue("ActivateGraphDatabase", "runtime")) {
-										postDataT.saveInGraph();
-									}
-								}
-							}).start();
+							// hand the user and the page to the bounded persistence executor, so that it does NOT block the crawler
+							logger.trace("queueing user and page for the persistence layer...");
+							PersistenceExecutor.getInstance().submit(rtc.getBooleanValue("ActivateGraphDatabase", "runtime"), userData, postData);
 							// otherwise just call it sequentially
 						} else {
 							logger.info("calling persistence layer to save the user {}", userName);
@@ -376,26 +348,6 @@ public class THEWebCrawler extends WebCrawler {
 			return httpClient;
 	}
 	
-	/**
-	 * @description checks if any word of a given set of tokens is found in the given text
-	 * 				this check is done a second time in the parser, after all irrelevant content
-	 * 				like advertisement and the like has been stripped off the page.
-	 * @param 		text
-	 * @param 		tokens
-	 * @return 		true if any of the tokens was found, otherwise false
-	 */
-	private boolean containsWord(String text, List<String> tokens){
-		String patternString = "\\b(" + StringUtils.join(tokens, "|") + ")\\b";
-		Pattern pattern = Pattern.compile(patternString);
-		Matcher matcher = pattern.matcher(text);
-
-		while (matcher.find()) {
-		    return true;
-		}
-		
-		return false;
-	}
-	
 	/**
      * The CrawlController instance that has created this crawler instance will
      * call this function just before terminating this crawler thread. Classes
@@ -417,22 +369,6 @@ public class THEWebCrawler extends WebCrawler {
 	}
 	
 	
-	/**
-	 * @description 	seeks to find the needle (only one at a time) in the haystack
-	 * @param 			haystack
-	 * @param 			needle
-	 * @return 			true if the needle was found in the haystack, otherwise false
-	 */
-	private boolean findTheNeedle(String haystack, String needle){
-		String patternString = ".*"+needle+".*";
-		Pattern pattern = Pattern.compile(patternString);
-		Matcher matcher = pattern.matcher(haystack);
-
-		while (matcher.find())
-		    return true;
-		return false;
-	}
-	
 	// these are the getter and setter for the name value - used for JMX support, I think
 	public static String getName() {return name;}
 	public static void setName(String name) {THEWebCrawler.name = name;}
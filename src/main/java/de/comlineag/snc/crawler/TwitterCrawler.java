@@ -12,7 +12,6 @@ import java.util.regex.Pattern;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.apache.commons.lang3.StringUtils;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 import org.quartz.DisallowConcurrentExecution;
@@ -36,17 +35,14 @@ import de.comlineag.snc.appstate.RuntimeConfiguration;
 import de.comlineag.snc.constants.ConfigurationConstants;
 import de.comlineag.snc.constants.SocialNetworks;
 import de.comlineag.snc.constants.TwitterConstants;
-import de.comlineag.snc.handler.TwitterPosting;
-import de.comlineag.snc.handler.TwitterUser;
 import de.comlineag.snc.handler.WebPosting;
 import de.comlineag.snc.handler.WebUser;
-import de.comlineag.snc.parser.TwitterParser;
 
 /**
  *
  * @author 		Christian Guenther
  * @category 	Job
- * @version		0.9g				- 06.11.2014
+ * @version		0.9j				- 17.10.2026
  * @status		productive	but with occasional error while inserting data
  *
  * @description this is the actual crawler of the twitter network. It is
@@ -74,6 +70,10 @@ import de.comlineag.snc.parser.TwitterParser;
  *				0.9e				added time measure and new loop to track unlimited messages
  *				0.9f				deactivated loop to track unlimited messages
  *				0.9g				added possibility to reject tweets if they contain any of the blocked terms
+ *				0.9h				persistence threading uses the bounded PersistenceExecutor instead of a new thread per tweet
+ *				0.9i				track terms and blocked terms are found by one TermMatcher in a single pass over the tweet
+ *				0.9j				added streaming mode (TwStreamingMode) keeping one connection open via TwitterStream,
+ *									the batch run polls the queue with timeout TwMessagePollTimeout instead of blocking
  *
  * TODO check if we can use getResponseBodyAsStrema to fix the following warning: Going to buffer response body of large or unknown size. Using getResponseBodyAsStream instead is recommended.
  * TODO implement possibility have black-list of combinations not to track: e.g. Depot YES / Home Depot NO 
@@ -102,8 +102,9 @@ public class TwitterCrawler extends GenericCrawler implements Job {
 	private final String rtcCustomerKey = rtc.getStringValue("CustomerIdentifier", "XmlLayout");
 	
 	private final int rtcMaxTweetsPerRun = rtc.getIntValue("TwMaxTweetsPerCrawlerRun", "crawler");
-	private final boolean rtcWarnOnRejectedActions = rtc.getBooleanValue("WarnOnRejectedActions", "runtime");
-	private final boolean rtcPersistenceThreading = rtc.getBooleanValue("PersistenceThreadingEnabled", "runtime");
+	private final boolean rtcTrackTermsIgnoreCase = rtc.getBooleanValue("TrackTermsIgnoreCase", "crawler");
+	private final boolean rtcStreamingMode = rtc.getBooleanValue("TwStreamingMode", "crawler");
+	private final int rtcMessagePollTimeout = (rtc.getIntValue("TwMessagePollTimeout", "crawler") > 0) ? rtc.getIntValue("TwMessagePollTimeout", "crawler") : 30000;
 	
 	
 	// Set up your blocking queues: Be sure to size these properly based on
@@ -111,7 +112,6 @@ public class TwitterCrawler extends GenericCrawler implements Job {
 	private final BlockingQueue<String> msgQueue;
 	@SuppressWarnings("unused")
 	private final BlockingQueue<Event> eventQueue;
-	private final TwitterParser post;
 	
 	// this string is used to compose all the little debug messages from the different restriction possibilities
 	// on the posts, like terms, languages and the like. it is only used in debugging afterwards.
@@ -121,9 +121,6 @@ public class TwitterCrawler extends GenericCrawler implements Job {
 		// Define message and event iQueue
 		msgQueue = new LinkedBlockingQueue<String>(TwitterConstants.MESSAGE_BLOCKING_QUEUE_SIZE);
 		eventQueue = new LinkedBlockingQueue<Event>(TwitterConstants.EVENT_BLOCKING_QUEUE_SIZE);
-		
-		// instantiate the Twitter-Posting-Manager
-		post = new TwitterParser();
 	}
 	
 	
@@ -187,6 +184,8 @@ public class TwitterCrawler extends GenericCrawler implements Job {
 				// blocked URLs
 				//ArrayList<String> bURLs = new CrawlerConfiguration<String>().getConstraint(constraintBSiteText, configurationScope);
 				
+				// rejects tweets with blocked terms, tags the others with the track terms and persists them
+				TwitterMessageHandler handler = new TwitterMessageHandler(tTerms, btTerms, rtcTrackTermsIgnoreCase);
 				
 				
 				// log output AND setup of the filter end point
@@ -217,6 +216,14 @@ public class TwitterCrawler extends GenericCrawler implements Job {
 													(String) arg0.getJobDetail().getJobDataMap().get(ConfigurationConstants.AUTHENTICATION_TOKEN_ID_KEY),
 													(String) arg0.getJobDetail().getJobDataMap().get(ConfigurationConstants.AUTHENTICATION_TOKEN_SECRET_KEY));
 				
+				// in streaming mode the connection is kept open across the runs of the job - the run
+				// only makes sure the stream is up and uses the current constraints
+				if (rtcStreamingMode) {
+					TwitterStream.getInstance().ensureRunning(endpoint.getPostParamString() + " blocked=" + btTerms, endpoint, sn_Auth, connectionTimeOut, handler);
+					logger.debug(CRAWLER_NAME+"-Crawler streaming - {} messages queued, {} processed, {} dropped", 
+							TwitterStream.getInstance().getQueueSize(), TwitterStream.getInstance().getProcessedMessages(), TwitterStream.getInstance().getDroppedMessages());
+					return;
+				}
 				
 				// Create a new BasicClient. By default gzip is enabled.
 				Client client = new ClientBuilder().hosts(Constants.STREAM_HOST).endpoint(endpoint).authentication(sn_Auth)
@@ -267,95 +274,22 @@ public class TwitterCrawler extends GenericCrawler implements Job {
 						for (int msgRead = 0; msgRead < rtcMaxTweetsPerRun; msgRead++) {
 							String msg = null;
 							try {
-								msg = msgQueue.take();
+								msg = msgQueue.poll(rtcMessagePollTimeout, TimeUnit.MILLISECONDS);
 							} catch (InterruptedException e) {
 								logger.error("ERROR :: Message loop interrupted " + e.getMessage());
-							} catch (Exception ee) {
-								logger.error("EXCEPTION :: Exception in message loop " + ee.getMessage());
+								break;
 							}
 							
-							// check that there is non of the blocked terms in the tweet. Only process
-							// tweet if it does NOT contain any of those terms
-							if (!containsWord(msg, btTerms)){
+							// a quiet stream must not block the job until the next tweet arrives
+							if (msg == null) {
+								logger.info("no message received within " + rtcMessagePollTimeout + "ms - ending the run");
+								break;
+							}
+							
+							if (handler.handle(msg)){
 								messageCount++;
 								setPostsTracked(messageCount);
-								
 								logger.debug("SocialNetworkPost #"+messageCount+" tracked from " + CRAWLER_NAME);
-								
-								ArrayList<TwitterPosting> postings = new ArrayList<TwitterPosting>();
-								// the tweets are now passed to the parser TwitterParser
-								// and decoded in a special way, embedding the user-object
-								postings = post.parseMessages(msg);
-								
-								logger.trace("trying to save " + postings.size() + " tweets");
-								//for (int ii = 0; ii < postings.size(); ii++) {
-									//TwitterPosting postData = postings.get(ii);
-								for (TwitterPosting postData : postings) {
-									TwitterUser userData = new TwitterUser(postData.getUserAsJson()); 
-									
-									// TODO check if this is the right spot to add the track terms to the posting
-									ArrayList<String> keywords = new ArrayList<String>();
-									for (String keyword : tTerms){
-										if (findTheNeedle(msg, keyword)) {
-											logger.trace("adding trackterm {} to list of tracked keywords", keyword);
-											keywords.add(keyword);
-										}
-									}
-									// now we should have an array list of the found trackterms in the post
-									postData.setTrackTerms(keywords);
-									
-									if (rtcPersistenceThreading){
-										// execute persistence layer in a new thread, so that it does NOT block the crawler
-										logger.trace("execute persistence layer in a new thread...");
-										final TwitterUser userDataT = userData;
-										final TwitterPosting postDataT = postData;
-										
-										new Thread(new Runnable() {
-											@Override
-											public void run() {
-												logger.info("calling persistence layer to save the user ");
-												userDataT.save();
-												
-												// and now pass the web page on to the persistence layer
-												logger.info("calling persistence layer to save the page ");
-												postDataT.save();
-												
-												// next call the graph engine and store data also in the external graph
-												// please note that we do not need to do this for the user as well, as 
-												// the graph persistence layer uses the embedded user object within the
-												// post object
-												if (rtc.getBooleanValue("ActivateGraphDatabase", "runtime")) {
-													postDataT.saveInGraph();
-												}
-											}
-										}).start();
-										// otherwise just call it sequentially
-									} else {
-										logger.info("calling persistence layer to save the user ");
-										userData.save();
-										
-										/* now we add the extracted user-data object back in the posting data object
-										// so that later, in the call to the graph persistence manager, we can get 
-										// post and user-objects from one combined json structure
-										logger.trace("about to add the user object to the post object \n    {}", userData.getJson());
-										postData.setUserObject(userData.getUserData());
-										*/
-										// and now pass the web page on to the persistence layer
-										logger.info("calling persistence layer to save the page ");
-										postData.save();
-										
-										// next call the graph engine and store data also in the external graph
-										// please note that we do not need to do this for the user as well, as 
-										// the graph persistence layer uses the embedded user object within the
-										// post object
-										if (rtc.getBooleanValue("ActivateGraphDatabase", "runtime")) {
-											postData.saveInGraph();
-										}
-									}
-								}
-							} else {
-								if (rtcWarnOnRejectedActions)
-									logger.debug("message rejected because it cantains one of the blocked terms");
 							}
 						}
 //					}
@@ -387,7 +321,10 @@ public class TwitterCrawler extends GenericCrawler implements Job {
 				logger.error("something went wrong ", e);
 				e.printStackTrace();
 			}
-		} 
+		} else if (rtcStreamingMode) {
+			// the crawler was deactivated in the crawler configuration - close the stream as well
+			TwitterStream.getInstance().stop();
+		}
 	}
 	
 	
@@ -418,45 +355,6 @@ public class TwitterCrawler extends GenericCrawler implements Job {
 		return null;
 	}
 	
-	/**
-	 * @description 	checks if any word of a given set of tokens is found in the given text
-	 * 					this check is done a second time in the parser, after all irrelevant content
-	 * 					like advertisement and the like has been stripped off the page.
-	 * @param 			text
-	 * @param 			tokens
-	 * @return 			true if any of the tokens was found, otherwise false
-	 */
-	private boolean containsWord(String text, List<String> tokens){
-		if(tokens.size() > 0)
-		{
-			String patternString = "\\b(" + StringUtils.join(tokens, "|") + ")\\b";
-			Pattern pattern = Pattern.compile(patternString);
-			Matcher matcher = pattern.matcher(text);
-
-			while (matcher.find()) {
-				return true;
-			}
-		}
-		return false;
-	}
-	
-	
-	/**
-	 * @description 	seeks to find the needle (only one at a time) in the haystack
-	 * @param 			haystack
-	 * @param 			needle
-	 * @return 			true if the needle was found in the haystack, otherwise false
-	 */
-	private boolean findTheNeedle(String haystack, String needle){
-		String patternString = ".*"+needle+".*";
-		Pattern pattern = Pattern.compile(patternString);
-		Matcher matcher = pattern.matcher(haystack);
-
-		while (matcher.find())
-		    return true;
-		return false;
-	}
-	
 	/**
 	 * 
 	 * @param msg
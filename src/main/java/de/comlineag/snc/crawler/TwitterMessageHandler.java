@@ -0,0 +1,116 @@
+package de.comlineag.snc.crawler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.comlineag.snc.appstate.RuntimeConfiguration;
+import de.comlineag.snc.handler.PersistenceExecutor;
+import de.comlineag.snc.handler.TwitterPosting;
+import de.comlineag.snc.handler.TwitterUser;
+import de.comlineag.snc.helper.TermMatcher;
+import de.comlineag.snc.parser.TwitterParser;
+
+/**
+ *
+ * @author 		Christian Guenther
+ * @category 	crawler
+ * @version		0.2				- 17.10.2026
+ * @status		productive
+ *
+ * @description	processes one message of the twitter stream: rejects it if it contains any of
+ * 				the blocked terms, otherwise parses it into postings, tags them with the track
+ * 				terms found and hands them to the persistence layer. Used by the batch run of the
+ * 				TwitterCrawler as well as by the workers of the TwitterStream.
+ * 				The handler holds no state of its own besides the constraints, so one instance
+ * 				can be shared by all workers.
+ *
+ * @changelog	0.1 (Chris)		class created - taken from the message loop of TwitterCrawler
+ * 				0.2				the user is taken as decoded by the parser instead of decoding it again
+ *
+ */
+final class TwitterMessageHandler {
+	private final RuntimeConfiguration rtc = RuntimeConfiguration.getInstance();
+	private final Logger logger = LoggerFactory.getLogger(getClass().getName());
+
+	private final boolean rtcWarnOnRejectedActions = rtc.getBooleanValue("WarnOnRejectedActions", "runtime");
+	private final boolean rtcPersistenceThreading = rtc.getBooleanValue("PersistenceThreadingEnabled", "runtime");
+
+	private final List<String> tTerms;
+	private final List<String> btTerms;
+	private final TermMatcher termMatcher;
+	private final TwitterParser post = new TwitterParser();
+
+	/**
+	 * @param 	tTerms		the track terms the postings are tagged with
+	 * @param 	btTerms		the blocked terms - messages containing any of them are rejected
+	 * @param 	ignoreCase	whether the terms are matched case insensitive
+	 */
+	TwitterMessageHandler(List<String> tTerms, List<String> btTerms, boolean ignoreCase) {
+		this.tTerms = new ArrayList<String>(tTerms);
+		this.btTerms = new ArrayList<String>(btTerms);
+
+		// track terms and blocked terms go into one matcher, so that one scan of a tweet
+		// serves the rejection of blocked terms as well as the tagging with the track terms
+		ArrayList<String> allTerms = new ArrayList<String>(tTerms);
+		allTerms.addAll(btTerms);
+		this.termMatcher = new TermMatcher(allTerms, ignoreCase);
+	}
+
+	/**
+	 * @description	processes the message
+	 * @param 		msg		the tweet as received from the stream
+	 * @return		false if the message was rejected because of a blocked term
+	 */
+	@SuppressWarnings("unchecked")
+	boolean handle(String msg) {
+		TermMatcher.Hits hits = termMatcher.find(msg);
+
+		// check that there is non of the blocked terms in the tweet. Only process
+		// tweet if it does NOT contain any of those terms
+		if (hits.anyWord(btTerms)) {
+			if (rtcWarnOnRejectedActions)
+				logger.debug("message rejected because it cantains one of the blocked terms");
+			return false;
+		}
+
+		// the tweets are now passed to the parser TwitterParser
+		// and decoded in a special way, embedding the user-object
+		ArrayList<TwitterPosting> postings = post.parseMessages(msg);
+
+		logger.trace("trying to save " + postings.size() + " tweets");
+		for (TwitterPosting postData : postings) {
+			TwitterUser userData = new TwitterUser(postData.getUserObject());
+
+			// TODO check if this is the right spot to add the track terms to the posting
+			ArrayList<String> keywords = hits.getFound(tTerms);
+			logger.trace("found trackterms {} in tweet", keywords);
+			postData.setTrackTerms(keywords);
+
+			if (rtcPersistenceThreading){
+				// hand the user and the page to the bounded persistence executor, so that it does NOT block the crawler
+				logger.trace("queueing user and page for the persistence layer...");
+				PersistenceExecutor.getInstance().submit(rtc.getBooleanValue("ActivateGraphDatabase", "runtime"), userData, postData);
+				// otherwise just call it sequentially
+			} else {
+				logger.info("calling persistence layer to save the user ");
+				userData.save();
+
+				// and now pass the web page on to the persistence layer
+				logger.info("calling persistence layer to save the page ");
+				postData.save();
+
+				// next call the graph engine and store data also in the external graph
+				// please note that we do not need to do this for the user as well, as
+				// the graph persistence layer uses the embedded user object within the
+				// post object
+				if (rtc.getBooleanValue("ActivateGraphDatabase", "runtime")) {
+					postData.saveInGraph();
+				}
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,312 @@
+package de.comlineag.snc.crawler;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.twitter.hbc.ClientBuilder;
+import com.twitter.hbc.core.Constants;
+import com.twitter.hbc.core.StatsReporter;
+import com.twitter.hbc.core.endpoint.StreamingEndpoint;
+import com.twitter.hbc.core.event.Event;
+import com.twitter.hbc.core.processor.StringDelimitedProcessor;
+import com.twitter.hbc.httpclient.BasicClient;
+import com.twitter.hbc.httpclient.auth.Authentication;
+
+import de.comlineag.snc.appstate.RuntimeConfiguration;
+import de.comlineag.snc.constants.TwitterConstants;
+
+/**
+ *
+ * @author 		Christian Guenther
+ * @category 	crawler
+ * @version		0.1				- 17.10.2026
+ * @status		productive
+ *
+ * @description	the long running connection of the TwitterCrawler in streaming mode
+ * 				(TwStreamingMode). Instead of connecting for every run of the job, the stream is
+ * 				opened once and kept open: a connection thread watches the hbc client and, if the
+ * 				client gives up, connects again after a backoff that doubles with every failed
+ * 				attempt up to TwReconnectMaxBackoff milliseconds. The tweets are taken from the
+ * 				message queue by a pool of TwStreamWorkerThreads workers, which parse and persist
+ * 				them via the TwitterMessageHandler - so the hbc reader is never blocked by the
+ * 				persistence layer.
+ * 				The crawler job calls ensureRunning() on every trigger: the stream is started if
+ * 				it is not running and restarted if the constraints changed. On stop the workers
+ * 				process the messages still queued before the stream is closed.
+ * 				Queue fill, received, dropped and processed messages are exposed via JMX
+ * 				(TwitterStreamMBean).
+ *
+ * @changelog	0.1 (Chris)		class created
+ *
+ */
+public final class TwitterStream implements TwitterStreamMBean {
+	private final Logger logger = LoggerFactory.getLogger(getClass().getName());
+
+	// singleton design pattern using Initialization-on-demand holder idiom,
+	private static class Holder { static final TwitterStream instance = new TwitterStream(); }
+	public static TwitterStream getInstance() { return Holder.instance; }
+
+	private static final int DEFAULT_WORKER_THREADS = 4;
+	private static final long INITIAL_BACKOFF = 5000;
+	private static final long DEFAULT_MAX_BACKOFF = 320000;
+	// how long a worker waits for a message before it checks whether the stream was stopped
+	private static final long WORKER_POLL_TIMEOUT = 1000;
+	// how long the workers get to process the queued messages on stop
+	private static final long DRAIN_TIMEOUT = 60000;
+
+	private final int workerThreads;
+	private final long maxBackoff;
+	private final int queueCapacity = TwitterConstants.MESSAGE_BLOCKING_QUEUE_SIZE;
+	private final BlockingQueue<String> msgQueue = new LinkedBlockingQueue<String>(queueCapacity);
+
+	// guarded by this
+	private String setup;
+	private Thread connection;
+	private ExecutorService workers;
+	private boolean shutdown = false;
+
+	private volatile boolean running = false;
+	private final AtomicReference<BasicClient> client = new AtomicReference<BasicClient>();
+
+	// statistics of the clients already closed - the current client counts for itself
+	private final AtomicLong closedReceived = new AtomicLong();
+	private final AtomicLong closedDropped = new AtomicLong();
+	private final AtomicLong processedMessages = new AtomicLong();
+	private final AtomicLong rejectedMessages = new AtomicLong();
+	private final AtomicLong failedMessages = new AtomicLong();
+	private final AtomicLong connects = new AtomicLong();
+	private final AtomicLong reconnects = new AtomicLong();
+	private volatile long backoff = INITIAL_BACKOFF;
+	private volatile long lastMessageTime = 0;
+
+	private TwitterStream() {
+		RuntimeConfiguration rtc = RuntimeConfiguration.getInstance();
+
+		int threads = rtc.getIntValue("TwStreamWorkerThreads", "crawler");
+		this.workerThreads = (threads > 0) ? threads : DEFAULT_WORKER_THREADS;
+		long max = rtc.getIntValue("TwReconnectMaxBackoff", "crawler");
+		this.maxBackoff = Math.max((max > 0) ? max : DEFAULT_MAX_BACKOFF, INITIAL_BACKOFF);
+	}
+
+	/**
+	 * @description	starts the stream, if it is not running, or restarts it, if it runs with
+	 * 				other constraints
+	 * @param 		setup				identifies the constraints, e.g. the post parameters of the endpoint
+	 * @param 		endpoint			the filter endpoint to connect to
+	 * @param 		auth				the credentials
+	 * @param 		connectionTimeout	connection timeout of the client in milliseconds
+	 * @param 		handler				processes the messages
+	 */
+	synchronized void ensureRunning(String setup, StreamingEndpoint endpoint, Authentication auth, int connectionTimeout, TwitterMessageHandler handler) {
+		if (shutdown)
+			return;
+		if (running) {
+			if (setup.equals(this.setup))
+				return;
+			logger.info("constraints of the twitter stream changed - restarting the stream");
+			stop();
+		}
+
+		this.setup = setup;
+		this.running = true;
+		this.backoff = INITIAL_BACKOFF;
+
+		workers = Executors.newFixedThreadPool(workerThreads, new ThreadFactory() {
+			private final AtomicInteger count = new AtomicInteger();
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread t = new Thread(r, "TwitterStream-worker-" + count.incrementAndGet());
+				t.setDaemon(true);
+				return t;
+			}
+		});
+		for (int i = 0; i < workerThreads; i++)
+			workers.execute(new Worker(handler));
+
+		connection = new Thread(new Connection(endpoint, auth, connectionTimeout), "TwitterStream-connection");
+		connection.setDaemon(true);
+		connection.start();
+
+		logger.info("twitter stream started with " + workerThreads + " workers");
+	}
+
+	/**
+	 * @description	closes the stream and waits until the workers processed the queued messages
+	 */
+	public synchronized void stop() {
+		if (!running)
+			return;
+
+		logger.info("stopping twitter stream - " + msgQueue.size() + " messages queued");
+		running = false;
+		connection.interrupt();
+		try {
+			connection.join(DRAIN_TIMEOUT);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		closeClient();
+
+		workers.shutdown();
+		try {
+			if (!workers.awaitTermination(DRAIN_TIMEOUT, TimeUnit.MILLISECONDS)) {
+				logger.warn("twitter stream workers did not finish within " + DRAIN_TIMEOUT + "ms - " + msgQueue.size() + " messages left in the queue");
+				workers.shutdownNow();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			workers.shutdownNow();
+		}
+		logger.info("twitter stream stopped - " + getReceivedMessages() + " messages received, " + processedMessages.get() + " processed, " + getDroppedMessages() + " dropped");
+	}
+
+	/**
+	 * @description	stops the stream for good. Called by spring when the application context is closed
+	 */
+	public synchronized void shutdown() {
+		shutdown = true;
+		stop();
+	}
+
+
+	// stops the current client and keeps its statistics
+	private void closeClient() {
+		BasicClient c = client.getAndSet(null);
+		if (c == null)
+			return;
+		c.stop();
+		StatsReporter.StatsTracker stats = c.getStatsTracker();
+		closedReceived.addAndGet(stats.getNumMessages());
+		closedDropped.addAndGet(stats.getNumMessagesDropped());
+	}
+
+
+	/**
+	 *
+	 * @description	keeps the stream connected - connects a new client, whenever the current one
+	 * 				gave up, after waiting for the backoff
+	 *
+	 */
+	private final class Connection implements Runnable {
+		private final StreamingEndpoint endpoint;
+		private final Authentication auth;
+		private final int connectionTimeout;
+
+		Connection(StreamingEndpoint endpoint, Authentication auth, int connectionTimeout) {
+			this.endpoint = endpoint;
+			this.auth = auth;
+			this.connectionTimeout = connectionTimeout;
+		}
+
+		@Override
+		public void run() {
+			try {
+				while (running) {
+					BasicClient c = new ClientBuilder().name("TwitterStream").hosts(Constants.STREAM_HOST).endpoint(endpoint).authentication(auth)
+							.processor(new StringDelimitedProcessor(msgQueue)).connectionTimeout(connectionTimeout).build();
+					client.set(c);
+					connects.incrementAndGet();
+					logger.debug("twitter stream connecting to endpoint " + Constants.STREAM_HOST + c.getEndpoint().getURI());
+					try {
+						c.connect();
+					} catch (RuntimeException e) {
+						logger.error("EXCEPTION :: connecting to " + Constants.STREAM_HOST + " failed: " + e.getMessage(), e);
+					}
+
+					while (running && !c.isDone())
+						Thread.sleep(WORKER_POLL_TIMEOUT);
+					if (!running)
+						break;
+
+					// a connection that delivered messages worked - the next failure starts with the initial backoff again
+					if (c.getStatsTracker().getNumMessages() > 0)
+						backoff = INITIAL_BACKOFF;
+					Event exit = c.getExitEvent();
+					closeClient();
+					logger.warn("twitter stream disconnected (" + ((exit != null) ? exit.getEventType() + " " + exit.getMessage() : "unknown reason") + ") - reconnecting in " + backoff + "ms");
+
+					Thread.sleep(backoff);
+					backoff = Math.min(backoff * 2, maxBackoff);
+					reconnects.incrementAndGet();
+				}
+			} catch (InterruptedException e) {
+				// stop() was called
+			}
+		}
+	}
+
+	/**
+	 *
+	 * @description	takes the messages from the queue and processes them until the stream is
+	 * 				stopped and the queue is empty
+	 *
+	 */
+	private final class Worker implements Runnable {
+		private final TwitterMessageHandler handler;
+
+		Worker(TwitterMessageHandler handler) {
+			this.handler = handler;
+		}
+
+		@Override
+		public void run() {
+			while (running || !msgQueue.isEmpty()) {
+				String msg;
+				try {
+					msg = msgQueue.poll(WORKER_POLL_TIMEOUT, TimeUnit.MILLISECONDS);
+				} catch (InterruptedException e) {
+					return;
+				}
+				if (msg == null)
+					continue;
+
+				lastMessageTime = System.currentTimeMillis();
+				try {
+					if (handler.handle(msg))
+						processedMessages.incrementAndGet();
+					else
+						rejectedMessages.incrementAndGet();
+				} catch (RuntimeException e) {
+					failedMessages.incrementAndGet();
+					logger.error("EXCEPTION :: could not process message " + e.getLocalizedMessage(), e);
+				}
+			}
+		}
+	}
+
+
+	@Override public boolean isRunning()			{ return running; }
+	@Override public int getWorkerThreads()			{ return workerThreads; }
+	@Override public int getQueueSize()				{ return msgQueue.size(); }
+	@Override public int getQueueCapacity()			{ return queueCapacity; }
+	@Override public int getQueueFillPercent()		{ return (int) (100L * msgQueue.size() / queueCapacity); }
+	@Override public long getProcessedMessages()	{ return processedMessages.get(); }
+	@Override public long getRejectedMessages()		{ return rejectedMessages.get(); }
+	@Override public long getFailedMessages()		{ return failedMessages.get(); }
+	@Override public long getConnects()				{ return connects.get(); }
+	@Override public long getReconnects()			{ return reconnects.get(); }
+	@Override public long getReconnectBackoff()		{ return backoff; }
+	@Override public long getLastMessageTime()		{ return lastMessageTime; }
+
+	@Override
+	public long getReceivedMessages() {
+		BasicClient c = client.get();
+		return closedReceived.get() + ((c != null) ? c.getStatsTracker().getNumMessages() : 0);
+	}
+
+	@Override
+	public long getDroppedMessages() {
+		BasicClient c = client.get();
+		return closedDropped.get() + ((c != null) ? c.getStatsTracker().getNumMessagesDropped() : 0);
+	}
+}
@@ -0,0 +1,46 @@
+package de.comlineag.snc.crawler;
+
+/**
+ *
+ * @author 		Christian Guenther
+ * @category	interface
+ * @revision	0.1				- 17.10.2026
+ * @status		productive
+ *
+ * @description	management interface of the TwitterStream. It is exported via the MBeanExporter
+ * 				in applicationContext.xml and shows how full the message queue is, how many
+ * 				tweets were received, processed or dropped and how often the stream reconnected.
+ *
+ * @changelog	0.1 (Chris)		interface created
+ *
+ */
+public interface TwitterStreamMBean {
+	// whether the stream is connected (or reconnecting)
+	public boolean isRunning();
+	// number of parse/persist workers
+	public int getWorkerThreads();
+	// number of messages waiting for a worker
+	public int getQueueSize();
+	// maximum number of messages the queue can hold
+	public int getQueueCapacity();
+	// fill level of the queue in percent
+	public int getQueueFillPercent();
+	// number of messages read from the stream
+	public long getReceivedMessages();
+	// number of messages dropped by the stream because the queue was full
+	public long getDroppedMessages();
+	// number of messages processed by the workers
+	public long getProcessedMessages();
+	// number of messages rejected because of a blocked term
+	public long getRejectedMessages();
+	// number of messages that could not be processed
+	public long getFailedMessages();
+	// number of connects since the stream was started
+	public long getConnects();
+	// number of reconnects after the connection was lost
+	public long getReconnects();
+	// current wait in milliseconds before the next reconnect
+	public long getReconnectBackoff();
+	// time of the last message taken from the queue
+	public long getLastMessageTime();
+}
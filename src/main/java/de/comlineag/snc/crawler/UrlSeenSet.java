@@ -0,0 +1,121 @@
+package de.comlineag.snc.crawler;
+
+import java.net.URL;
+
+import de.comlineag.snc.helper.BloomFilter;
+import de.comlineag.snc.helper.LongHashSet;
+import de.comlineag.snc.webcrawler.url.URLCanonicalizer;
+
+/**
+ *
+ * @author 		Christian Guenther
+ * @category 	crawler
+ * @version		0.2				- 17.10.2026
+ * @status		productive
+ *
+ * @description the set of urls a web crawler has already seen. java.net.URL is not used as key,
+ * 				because its equals() and hashCode() resolve the host name via DNS. Instead a url
+ * 				is identified by its canonical form (URLCanonicalizer), of which only a 64 bit
+ * 				fingerprint is kept.
+ * 				For limited crawls the fingerprints go into a LongHashSet, for unlimited crawls a
+ * 				BloomFilter with a fixed memory footprint can be used instead - it may, very
+ * 				rarely, claim to know a url it never saw, in which case that url is skipped.
+ * 				The class is thread safe, so the fetch workers of a concurrent crawl can share it.
+ *
+ * @changelog	0.1 (Chris)		class created
+ * 				0.2				made thread safe for the concurrent crawl
+ *
+ */
+public final class UrlSeenSet {
+
+	// false positive rate of the bloom filter for unlimited crawls
+	private static final double BLOOM_FALSE_POSITIVE_RATE = 0.0001;
+
+	private final LongHashSet fingerprints;
+	private final BloomFilter bloomFilter;
+
+	private UrlSeenSet(LongHashSet fingerprints, BloomFilter bloomFilter) {
+		this.fingerprints = fingerprints;
+		this.bloomFilter = bloomFilter;
+	}
+
+	/**
+	 * @description	returns a seen-set backed by a hash set of url fingerprints
+	 * @param 		expectedUrls	number of urls the set should hold without growing
+	 */
+	public static UrlSeenSet exact(int expectedUrls) {
+		return new UrlSeenSet(new LongHashSet(expectedUrls), null);
+	}
+
+	/**
+	 * @description	returns a seen-set backed by a bloom filter of fixed size
+	 * @param 		expectedUrls	number of urls the filter is dimensioned for
+	 */
+	public static UrlSeenSet bounded(long expectedUrls) {
+		return new UrlSeenSet(null, new BloomFilter(expectedUrls, BLOOM_FALSE_POSITIVE_RATE));
+	}
+
+	/**
+	 * @description	adds the url to the set
+	 * @param 		url
+	 * @return		true if the url was not seen before
+	 */
+	public boolean add(URL url) {
+		return add(canonical(url));
+	}
+
+	/**
+	 * @description	adds the canonical url to the set
+	 * @param 		canonicalUrl	as returned by canonical()
+	 * @return		true if the url was not seen before
+	 */
+	public synchronized boolean add(String canonicalUrl) {
+		if (bloomFilter != null)
+			return !bloomFilter.put(canonicalUrl);
+		return fingerprints.add(fingerprint(canonicalUrl));
+	}
+
+	/**
+	 * @description	checks whether the url was seen before
+	 * @param 		url
+	 */
+	public boolean contains(URL url) {
+		String canonicalUrl = canonical(url);
+		synchronized (this) {
+			if (bloomFilter != null)
+				return bloomFilter.mightContain(canonicalUrl);
+			return fingerprints.contains(fingerprint(canonicalUrl));
+		}
+	}
+
+	/**
+	 * @description	returns the canonical form of the url, which identifies the url without
+	 * 				resolving its host. If the url can't be canonicalized, it is used as is
+	 * @param 		url
+	 * @return		canonical url
+	 */
+	public static String canonical(URL url) {
+		return canonical(url.toExternalForm());
+	}
+
+	public static String canonical(String url) {
+		String canonicalUrl = URLCanonicalizer.getCanonicalURL(url);
+		return (canonicalUrl != null) ? canonicalUrl : url;
+	}
+
+
+	// 64 bit fnv-1a hash of the url with murmur3's final avalanche
+	private static long fingerprint(String canonicalUrl) {
+		long h = 0xCBF29CE484222325L;
+		for (int i = 0; i < canonicalUrl.length(); i++) {
+			h ^= canonicalUrl.charAt(i);
+			h *= 0x100000001B3L;
+		}
+		h ^= h >>> 33;
+		h *= 0xFF51AFD7ED558CCDL;
+		h ^= h >>> 33;
+		h *= 0xC4CEB93FE1A85A53L;
+		h ^= h >>> 33;
+		return h;
+	}
+}
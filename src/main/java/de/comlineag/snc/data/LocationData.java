@@ -7,23 +7,16 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import org.geojson.GeoJsonObject;
-import org.geojson.LineString;
-import org.geojson.LngLatAlt;
-import org.geojson.Point;
-import org.geojson.Polygon;
 import org.json.simple.JSONObject;
-import org.json.simple.parser.JSONParser;
-import org.json.simple.parser.ParseException;
 
-import com.fasterxml.jackson.core.JsonParseException;
-import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 
 /**
  * 
  * @author 		Christian Guenther
  * @category	data type
- * @version		0.4
+ * @version		0.5a			- 17.10.2026
  * @status		productive
  * 
  * @description	core data type for locations 
@@ -32,6 +25,10 @@ import com.fasterxml.jackson.databind.ObjectMapper;
  * 				0.2 			added getter and setter for geoLocation, geoAroundLongitude + geoAroundLatitude and geoCoordinates
  * 				0.3 			added new constructor for json-object 
  * 				0.4 			added constants for geoLocation object parser
+ * 				0.5				the center is computed directly on the parsed coordinates, the GeoJsonObject
+ * 								is only built on request by one shared ObjectReader instead of a new
+ * 								ObjectMapper per location
+ * 				0.5a			fixed the name of getGeoAroundLatitude
  * 
  * TODO check if we shall make use of geotools (http://docs.geotools.org/latest/userguide/faq.html)
  * TODO check if this class is usable for other social networks
@@ -43,9 +40,18 @@ public class LocationData {
 	// in case you want a log-manager use this line and change the import above
 	//private final Logger logger = LogManager.getLogger(getClass().getName());
 	
+	// ObjectMapper and ObjectReader are thread safe once configured and expensive to create - so
+	// all locations share one reader for GeoJSON objects
+	private final static ObjectMapper GEO_JSON_MAPPER = new ObjectMapper();
+	private final static ObjectReader GEO_JSON_READER = GEO_JSON_MAPPER.reader(GeoJsonObject.class);
+	
 	// some static constants used to find the type and elements of geo the geoLocation object
-	private final static String GEO_LOCATION_COMPLEX_TYPE_TEXT = "geoLocation";  
-	private final static String GEO_LOCATION_SIMPLE_TYPE_TEXT = "geoLocation";
+	private final static String GEO_LOCATION_COMPLEX_TYPE_TEXT = "bounding_box";
+	private final static String GEO_LOCATION_SIMPLE_TYPE_TEXT = "coordinates";
+	private final static String GEO_LOCATION_TYPE_TEXT = "type";
+	private final static String GEO_LOCATION_POLYGON_TEXT = "Polygon";
+	private final static String GEO_LOCATION_POINT_TEXT = "Point";
+	private final static String GEO_LOCATION_LINE_TEXT = "LineString";
 	private final static String GEO_LOCATION_ID_TEXT = "id";
 	private final static String GEO_LOCATION_NAME_TEXT = "name";
 	private final static String GEO_LOCATION_FULL_NAME_TEXT = "full_name";
@@ -107,6 +113,8 @@ public class LocationData {
 	 * 		<Property Name="geoLocation_latitude" 	Type="Edm.String" MaxLength="40"/>
 	 */
 	protected GeoJsonObject geoLocation; 
+	// the GeoJSON object as received - turned into the GeoJsonObject above only if it is asked for
+	private JSONObject geoLocationJson;
 	
 	
 	/*
@@ -143,7 +151,7 @@ public class LocationData {
 	 * @param JSONObject locationObject
 	 */
 	public LocationData(JSONObject locationObject){
-		logger.trace("json geoLocation object received: " + locationObject.toString());
+		logger.trace("json geoLocation object received: {}", locationObject);
 		try {
 			if(locationObject.containsKey(GEO_LOCATION_COMPLEX_TYPE_TEXT)){
 				logger.trace("found complex geoLocation of type " + GEO_LOCATION_COMPLEX_TYPE_TEXT);
@@ -169,18 +177,16 @@ public class LocationData {
 	//
 	/** 
 	 * 
-	 * @description	This method takes a json object from a "bounding_box" and generates a generic 
-	 * 				GeoJsonObject stored in the geoLocation variable. It then calculates the center
-	 * 				of that bounding box and stores it in geoLatitude and geoLongitude
+	 * @description	This method takes a json object with a "bounding_box" and calculates the center
+	 * 				of that bounding box directly on its coordinates and stores it in geoLatitude and 
+	 * 				geoLongitude. The generic GeoJsonObject is built from the bounding box only when 
+	 * 				getGeoLocation() is called
 	 * 
 	 * @param _b_box
 	 *            bounding_box Obejct in Twitter String
 	 * 
 	 */
 	private void setComplexGeoLocation(JSONObject _b_box) {
-		double rootCoordLat = 0.0;
-		double rootCoordLon = 0.0;
-		GeoJsonObject geoObject = null;
 		 /* Structure
 		 * 			geoLocation {
 		 * 					"id":"e229de11a7eb6823",
@@ -204,101 +210,43 @@ public class LocationData {
 		 * 					"full_name":"Marietta, GA"
 		 * 			}
 		 */
-		try {
-			// put the generic GeoJson object in the geoLocation-Variable
-			geoObject = new ObjectMapper().readValue(_b_box.toString().getBytes(), GeoJsonObject.class);
-			setGeoLocation(geoObject);
-			logger.debug("geo information geoLocation initialized for " + _b_box.get(GEO_LOCATION_NAME_TEXT).toString());
-			
-			// welche Info haben wir denn im Objekt verfuegbar, damit dann den Mittelpunkt berechnen
-			if (geoObject instanceof Polygon) {
-				logger.trace("the given geo object is of type polygon");
-				/*
-				 * Fall 1: Polygon
-				 * beinhaltet eine List der Koordinaten, diese ist eine 2-stufige Liste (Outer, Inner)
-				 * Es wird ueber die Liste geschleift und die Longitude/Latitude Mittelwerte gebildet
-				 */
-				Polygon geoOPolygon = (Polygon) geoObject;
-				List<LngLatAlt> coords = geoOPolygon.getCoordinates().get(0);
-
-				if (coords.size() > 0) {
-					for (int ii = 0; ii < coords.size(); ii++) {
-						rootCoordLat += coords.get(ii).getLatitude();
-						rootCoordLon += coords.get(ii).getLongitude();
-					}
-					rootCoordLat = rootCoordLat / (coords.size() + 1);
-					rootCoordLon = rootCoordLon / (coords.size() + 1);
-				}
-			} else if (geoObject instanceof Point) {
-				logger.trace("the given geo object is of type point");
-				/*
-				 * Fall 2: Punkt
-				 * Fuer einen Punkt muss nur aus den Koordinaten abgelesen werden
-				 */
-				Point geoOPoint = (Point) geoObject;
-				rootCoordLat = geoOPoint.getCoordinates().getLatitude();
-				rootCoordLon = geoOPoint.getCoordinates().getLongitude();
-
-			} else if (geoObject instanceof LineString) {
-				logger.trace("the given geo object is of type line");
-				/*
-				 * Fall 3: Linie
-				 * beinhaltet eine List der Koordinaten, diese ist aber 1-Stufig im Gegensatz zum Polygon
-				 * Es wird ueber die Liste geschleift und die Longitude/Latitude Mittelwerte gebildet
-				 */
-				LineString geoOLine = (LineString) geoObject;
-				List<LngLatAlt> coords = geoOLine.getCoordinates();
-
-				if (coords.size() > 0) {
-					for (int ii = 0; ii < coords.size(); ii++) {
-						rootCoordLat += coords.get(ii).getLatitude();
-						rootCoordLon += coords.get(ii).getLongitude();
-					}
-					rootCoordLat = rootCoordLat / (coords.size() + 1);
-					rootCoordLon = rootCoordLon / (coords.size() + 1);
-				}
-			} else {
-				logger.trace("the given geo object is of unspecified type");
-				setGeoDefaultAsZero();
-			}
-			
+		JSONObject boundingBox = (JSONObject) _b_box.get(GEO_LOCATION_COMPLEX_TYPE_TEXT);
+		geoLocationJson = boundingBox;
+		geoLocation = null;
+		logger.debug("geo information geoLocation initialized for " + _b_box.get(GEO_LOCATION_NAME_TEXT));
+		
+		// welche Info haben wir denn im Objekt verfuegbar, damit dann den Mittelpunkt berechnen
+		double[] center = getCenter(boundingBox);
+		if (center != null) {
 			// now let's set the received geoLocation in the latitude and longitude and also in the array simpleGeoLocation
 			// this is done in below method
-			setSimpleGeoLocation(new Double(rootCoordLat).toString(), new Double(rootCoordLon).toString());
-			
-			logger.debug("Posting coordinates: " + rootCoordLat + " (lat) / " + rootCoordLon + " (long)");
-			
-			if (_b_box.containsKey(GEO_LOCATION_ID_TEXT))
-				setGeoPlaceId(_b_box.get(GEO_LOCATION_ID_TEXT).toString());
-			
-			if (_b_box.containsKey(GEO_LOCATION_NAME_TEXT))
-				setGeoPlaceName(_b_box.get(GEO_LOCATION_NAME_TEXT).toString());
-			
-			if (_b_box.containsKey(GEO_LOCATION_COUNTRY_TEXT))
-				setGeoPlaceCountry(_b_box.get(GEO_LOCATION_COUNTRY_TEXT).toString());
-			
-			if (_b_box.containsKey(GEO_LOCATION_COUNTRY_CODE_TEXT))
-				setGeoPlaceCountryCode(_b_box.get(GEO_LOCATION_COUNTRY_CODE_TEXT).toString());
-			
-			if (_b_box.containsKey(GEO_LOCATION_FULL_NAME_TEXT))
-				setGeoPlaceFullName(_b_box.get(GEO_LOCATION_FULL_NAME_TEXT).toString());
-			
-			if (_b_box.containsKey(GEO_LOCATION_PLACE_TYPE_TEXT))
-				setGeoPlaceType(_b_box.get(GEO_LOCATION_PLACE_TYPE_TEXT).toString());
-			
-			if (_b_box.containsKey(GEO_LOCATION_URL_TEXT))
-				setGeoPlaceUrl(_b_box.get(GEO_LOCATION_URL_TEXT).toString());
-			
-		} catch (JsonParseException e) {
-			logger.error(e.getMessage());
-			setGeoDefaultAsZero();
-		} catch (JsonMappingException e) {
-			logger.error(e.getMessage());
-			setGeoDefaultAsZero();
-		} catch (IOException e) {
-			logger.error(e.getMessage());
+			setSimpleGeoLocation(Double.toString(center[0]), Double.toString(center[1]));
+			logger.debug("Posting coordinates: " + center[0] + " (lat) / " + center[1] + " (long)");
+		} else {
+			logger.trace("the given geo object is of unspecified type");
 			setGeoDefaultAsZero();
 		}
+		
+		if (_b_box.containsKey(GEO_LOCATION_ID_TEXT))
+			setGeoPlaceId(_b_box.get(GEO_LOCATION_ID_TEXT).toString());
+		
+		if (_b_box.containsKey(GEO_LOCATION_NAME_TEXT))
+			setGeoPlaceName(_b_box.get(GEO_LOCATION_NAME_TEXT).toString());
+		
+		if (_b_box.containsKey(GEO_LOCATION_COUNTRY_TEXT))
+			setGeoPlaceCountry(_b_box.get(GEO_LOCATION_COUNTRY_TEXT).toString());
+		
+		if (_b_box.containsKey(GEO_LOCATION_COUNTRY_CODE_TEXT))
+			setGeoPlaceCountryCode(_b_box.get(GEO_LOCATION_COUNTRY_CODE_TEXT).toString());
+		
+		if (_b_box.containsKey(GEO_LOCATION_FULL_NAME_TEXT))
+			setGeoPlaceFullName(_b_box.get(GEO_LOCATION_FULL_NAME_TEXT).toString());
+		
+		if (_b_box.containsKey(GEO_LOCATION_PLACE_TYPE_TEXT))
+			setGeoPlaceType(_b_box.get(GEO_LOCATION_PLACE_TYPE_TEXT).toString());
+		
+		if (_b_box.containsKey(GEO_LOCATION_URL_TEXT))
+			setGeoPlaceUrl(_b_box.get(GEO_LOCATION_URL_TEXT).toString());
 	}
 	
 	
@@ -314,22 +262,100 @@ public class LocationData {
  	 * 		}
 	 */
 	private void setSimpleGeoLocation(JSONObject jsonObject){
-		try {
-			JSONParser parser = new JSONParser();
-			Object simpleGeoLocationObj = parser.parse(jsonObject.get(GEO_LOCATION_COORDINATES_TEXT).toString());	
-			JSONObject jsonObj = simpleGeoLocationObj instanceof JSONObject ?(JSONObject) simpleGeoLocationObj : null;
-			String t = new String(jsonObj.get(GEO_LOCATION_COORDINATES_TEXT).toString());
-			logger.trace("retrieved coordinates: " + t + " / " + t.substring(1, t.indexOf(",")) + " (lat) / " +t.substring(t.indexOf(",")+1,t.length()-1)+ " (long)");
-			
-			// now let's set the received geoLocation in the latitude and longitude and also in the array simpleGeoLocation
-			// this is done in below method
-			setSimpleGeoLocation(t.substring(1, t.indexOf(",")), t.substring(t.indexOf(",")+1,t.length()-1));
-		} catch (ParseException e) {
-			logger.error("error parsing json coordinates object: " + e.getLocalizedMessage());
-			e.printStackTrace();
+		// the point may also come wrapped in an object of its own
+		Object coordinates = jsonObject.get(GEO_LOCATION_COORDINATES_TEXT);
+		if (coordinates instanceof JSONObject)
+			jsonObject = (JSONObject) coordinates;
+		geoLocationJson = jsonObject;
+		geoLocation = null;
+		
+		double[] point = toLatLon(jsonObject.get(GEO_LOCATION_COORDINATES_TEXT));
+		if (point == null) {
+			logger.error("error parsing json coordinates object: " + jsonObject);
+			setGeoDefaultAsZero();
+			return;
+		}
+		logger.trace("retrieved coordinates: " + point[0] + " (lat) / " + point[1] + " (long)");
+		
+		// now let's set the received geoLocation in the latitude and longitude and also in the array simpleGeoLocation
+		// this is done in below method
+		setSimpleGeoLocation(Double.toString(point[0]), Double.toString(point[1]));
+	}
+	
+	
+	/**
+	 * 
+	 * @description	calculates the center of a GeoJSON polygon, point or line directly on the parsed 
+	 * 				coordinate arrays. For a polygon this is the mean of the points of its outer ring, 
+	 * 				for a line the mean of its points
+	 * 
+	 * @param		geoJson		GeoJSON object with type and coordinates
+	 * @return		latitude and longitude of the center or null for other types
+	 */
+	static double[] getCenter(JSONObject geoJson) {
+		if (geoJson == null)
+			return null;
+		Object type = geoJson.get(GEO_LOCATION_TYPE_TEXT);
+		Object coordinates = geoJson.get(GEO_LOCATION_COORDINATES_TEXT);
+		
+		if (GEO_LOCATION_POLYGON_TEXT.equals(type)) {
+			/*
+			 * Fall 1: Polygon
+			 * beinhaltet eine List der Koordinaten, diese ist eine 2-stufige Liste (Outer, Inner)
+			 * Es wird ueber die aeussere Liste geschleift und die Longitude/Latitude Mittelwerte gebildet
+			 */
+			if (!(coordinates instanceof List) || ((List<?>) coordinates).isEmpty())
+				return null;
+			return getMean(((List<?>) coordinates).get(0));
+		} else if (GEO_LOCATION_POINT_TEXT.equals(type)) {
+			/*
+			 * Fall 2: Punkt
+			 * Fuer einen Punkt muss nur aus den Koordinaten abgelesen werden
+			 */
+			return toLatLon(coordinates);
+		} else if (GEO_LOCATION_LINE_TEXT.equals(type)) {
+			/*
+			 * Fall 3: Linie
+			 * beinhaltet eine List der Koordinaten, diese ist aber 1-Stufig im Gegensatz zum Polygon
+			 */
+			return getMean(coordinates);
 		}
+		return null;
+	}
+	
+	// mean of a list of [longitude, latitude] positions - the closing position of a ring is counted once
+	private static double[] getMean(Object positions) {
+		if (!(positions instanceof List))
+			return null;
+		List<?> list = (List<?>) positions;
+		int size = list.size();
+		if (size > 1 && list.get(0) != null && list.get(0).equals(list.get(size - 1)))
+			size--;
 		
+		double lat = 0.0;
+		double lon = 0.0;
+		int count = 0;
+		for (int i = 0; i < size; i++) {
+			double[] point = toLatLon(list.get(i));
+			if (point != null) {
+				lat += point[0];
+				lon += point[1];
+				count++;
+			}
+		}
+		return (count > 0) ? new double[] { lat / count, lon / count } : null;
 	}
+	
+	// a GeoJSON position is [longitude, latitude, (altitude)]
+	private static double[] toLatLon(Object position) {
+		if (!(position instanceof List))
+			return null;
+		List<?> list = (List<?>) position;
+		if (list.size() < 2 || !(list.get(0) instanceof Number) || !(list.get(1) instanceof Number))
+			return null;
+		return new double[] { ((Number) list.get(1)).doubleValue(), ((Number) list.get(0)).doubleValue() };
+	}
+	
 	private void setSimpleGeoLocation(String geoLatitude, String geoLongitude){
 		simpleGeoLocation = new String[2];
 		this.simpleGeoLocation[0] = geoLatitude;
@@ -344,6 +370,7 @@ public class LocationData {
 	//
 	private void setEverythingToNull(){
 		geoLocation = null;
+		geoLocationJson = null;
 		simpleGeoLocation = null;
 		geoLatitude = null;
 		geoLongitude = null;
@@ -370,10 +397,20 @@ public class LocationData {
 		return simpleGeoLocation;
 	}
 	public GeoJsonObject getGeoLocation() {
+		// the GeoJsonObject is only built on request, the center does not need it
+		if (geoLocation == null && geoLocationJson != null) {
+			try {
+				geoLocation = GEO_JSON_READER.readValue(GEO_JSON_MAPPER.valueToTree(geoLocationJson));
+			} catch (IOException | IllegalArgumentException e) {
+				logger.error("could not convert " + geoLocationJson + " to a GeoJSON object: " + e.getMessage());
+				geoLocationJson = null;
+			}
+		}
 		return geoLocation;
 	}
 	public void setGeoLocation(GeoJsonObject geoLocation) {
 		this.geoLocation = geoLocation;
+		this.geoLocationJson = null;
 	}
 	
 	public String getGeoLongitude() {
@@ -394,7 +431,7 @@ public class LocationData {
 	public void setGeoAroundLongitude(String geoAroundLongitude) {
 		this.geoAroundLongitude = geoAroundLongitude;
 	}
-	public String getGeoAroundLatiitude() {
+	public String getGeoAroundLatitude() {
 		return geoAroundLatitude;
 	}
 	public void setGeoAroundLatitude(String geoAroundLatitude) {
@@ -1,18 +1,19 @@
 package de.comlineag.snc.data;
 
-import java.net.URI;
-import java.net.URISyntaxException;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
 import de.comlineag.snc.appstate.CrawlerConfiguration;
 import de.comlineag.snc.constants.GeneralDataDefinitions;
 import de.comlineag.snc.constants.SocialNetworks;
@@ -23,7 +24,7 @@ import de.comlineag.snc.helper.DateTimeServices;
  * 
  * @author 		Christian Guenther, Magnus Leinemann
  * @category 	data type
- * @version 	0.9d		- 22.10.2014
+ * @version 	0.9f		- 17.10.2026
  * @status		in production (but some fields are still missing)
  * 
  * @description Describes a single twitter posting with all relevant informations.
@@ -68,6 +69,10 @@ import de.comlineag.snc.helper.DateTimeServices;
  * 				0.9b			added domain
  * 				0.9c			bug fixing for the id and post_id issue (sometimes, id is post_id as it seems)
  * 				0.9d			changed id (post_id) from Long to String
+ * 				0.9e (Chris)	added constructor decoding the tweet directly from a streaming JsonParser, 
+ * 								including user and retweet - the markup is stripped only once for all
+ * 								text fields and the unused mention scan is gone
+ * 				0.9f			the latitude of the place center was set to its longitude
  * 				
  * 
  * @TODO 1. create code for hashtags
@@ -84,6 +89,9 @@ public final class TwitterPostingData extends PostingData implements ISncDataObj
 	SocialNetworkData socialNetworkObject = new SocialNetworkData();
 	ArrayList<String> keywords = new ArrayList<String>();
 	
+	// the retweeted posting, if the tweet is a retweet - only set by the streaming constructor
+	private TwitterPostingData retweetedPosting = null;
+	
 	
 	public TwitterPostingData(){}
 	
@@ -98,9 +106,6 @@ public final class TwitterPostingData extends PostingData implements ISncDataObj
 		initialize();
 		String s; // helper var to cast from long to string
 		
-		
-		ArrayList<String> mentionedUsers = new ArrayList<String>(getUserMentions(jsonObject.get("text").toString()));
-		
 		try {
 			// posting ID - is either id or post_id
 			if (jsonObject.get("id")==null) {
@@ -134,43 +139,8 @@ public final class TwitterPostingData extends PostingData implements ISncDataObj
 			setTruncated((Boolean) jsonObject.get("truncated"));
 			
 			
-			// content of the posting, can either be stored with or without markup elements. 
-			// TODO move this in RuntimeConfiguration and source it in from XML 
-			if (GeneralDataDefinitions.TEXT_WITH_MARKUP) {
-				setText((String) jsonObject.get("text"));
-			} else {
-				setText((String) StringServices.stripHTML(jsonObject.get("text")));
-			}
-			// content of the raw text of the posting, can either be stored with or without markup elements. 
-			if (GeneralDataDefinitions.RAW_TEXT_WITH_MARKUP) {
-				setRawText((String) jsonObject.get("text"));
-			} else {
-				setRawText((String) StringServices.stripHTML(jsonObject.get("text")));
-			}
-			
-			
-			// a teaser is created from the first 256 chars of the post 
-			// the persistence layer can also truncate the teaser, in case field length is smaller
-			// TODO move this in RuntimeConfiguration and source it in from XML 
-			if (GeneralDataDefinitions.TEASER_WITH_MARKUP){
-				setTeaser(getText());
-			}else{
-				setTeaser((String) StringServices.stripHTML(getText()));
-			}
-			if (getTeaser().length() > GeneralDataDefinitions.TEASER_MAX_LENGTH)
-				setTeaser(getTeaser().substring(0, GeneralDataDefinitions.TEASER_MAX_LENGTH-3)+"...");
-			
-			
-			// a subject is created from the first 20 chars of the post 
-			// the persistence layer can also truncate the subject, in case field length is smaller
-			// TODO move this in RuntimeConfiguration and source it in from XML 
-			if (GeneralDataDefinitions.SUBJECT_WITH_MARKUP){
-				setSubject(getText());
-			}else{
-				setSubject((String) StringServices.stripHTML(getText()));
-			}
-			if (getSubject().length() > GeneralDataDefinitions.SUBJECT_MAX_LENGTH)
-				setSubject(getSubject().substring(0, GeneralDataDefinitions.SUBJECT_MAX_LENGTH-3)+"...");
+			// content of the posting with the fields derived from it - raw text, teaser and subject
+			setTextFields((String) jsonObject.get("text"));
 			
 			
 			// what client posted the tweet - this is an url to possible clients on twitter
@@ -238,7 +208,7 @@ public final class TwitterPostingData extends PostingData implements ISncDataObj
 				setGeoPlaceName(twPlace.getGeoPlaceName());
 				setGeoPlaceCountry(twPlace.getGeoPlaceCountry());
 				setGeoAroundLongitude(twPlace.getGeoAroundLongitude());
-				setGeoAroundLatitude(twPlace.getGeoAroundLongitude());
+				setGeoAroundLatitude(twPlace.getGeoAroundLatitude());
 			}
 			
 			
@@ -259,8 +229,7 @@ public final class TwitterPostingData extends PostingData implements ISncDataObj
 			 */
 			// TODO implement proper handling of hashtags, symbols and mentions - this currently kills the parser
 			if (jsonObject.containsKey("entities")){
-				JSONObject entityObject = new JSONObject((JSONObject) jsonObject.get("entities"));
-				logger.trace("the entity-object contains: {}", entityObject.toString());
+				logger.trace("the entity-object contains: {}", jsonObject.get("entities"));
 				
 				//setHashtags((List<?>)jsonObject.get("hashtags"));
 				//setSymbols((List<?>)jsonObject.get("symbols"));
@@ -273,33 +242,193 @@ public final class TwitterPostingData extends PostingData implements ISncDataObj
 	}
 	
 
-	private ArrayList<String> getUserMentions(String tweet){
-		// Search for Users
-		String patternStr = "(?:\\s|\\A)[@]+([A-Za-z0-9-_]+)";
-		Pattern pattern = Pattern.compile(patternStr);
-		Matcher matcher = pattern.matcher(tweet);
-		ArrayList<String> resultArray = new ArrayList<String>();
-		String result = "";
-		String rawName ="";
+	/**
+	 * Constructor, decodes the tweet the parser is positioned on (START_OBJECT) in one pass,
+	 * without building a json tree first. The embedded user is decoded into a TwitterUserData 
+	 * and a retweeted_status into a TwitterPostingData of its own (see getRetweetedPosting). 
+	 * Only the small geo objects are read into json objects for the LocationData. 
+	 * On return the parser is positioned on the END_OBJECT of the tweet
+	 * 
+	 * @param jp
+	 *            parser positioned on one single post in Twitter
+	 * @throws IOException if the tweet is not valid json
+	 */
+	public TwitterPostingData(JsonParser jp) throws IOException {
+		// set all values to zero
+		initialize();
+		String postId = null;
+		String altPostId = null;
+		String postText = null;
+		JSONObject coordinates = null;
+		JSONObject geoLocation = null;
+		
+		while (jp.nextToken() == JsonToken.FIELD_NAME) {
+			String field = jp.getCurrentName();
+			if (jp.nextToken() == JsonToken.VALUE_NULL)
+				continue;
+			
+			switch (field) {
+			// posting ID - is either id or post_id
+			case "id":
+				postId = jp.getText();
+				break;
+			case "post_id":
+				altPostId = jp.getText();
+				break;
+			case "user":
+				TwitterUserData user = new TwitterUserData(jp);
+				setUserId(user.getId());
+				setUserData(user);
+				break;
+			case "lang":
+				setLang(jp.getText());
+				break;
+			case "created_at":
+				setTime(jp.getText());
+				break;
+			case "truncated":
+				setTruncated(jp.getBooleanValue());
+				break;
+			case "text":
+				postText = jp.getText();
+				break;
+			case "source":
+				setClient(jp.getText());
+				break;
+			case "in_reply_to_status_id":
+				setInReplyTo(jp.getLongValue());
+				break;
+			case "in_reply_to_user_id":
+				setInReplyToUser(jp.getLongValue());
+				break;
+			case "in_reply_to_screen_name":
+				setInReplyToUserScreenName(jp.getText());
+				break;
+			case "coordinates":
+				coordinates = readJsonObject(jp);
+				break;
+			case "geoLocation":
+				geoLocation = readJsonObject(jp);
+				break;
+			case "retweeted_status":
+				retweetedPosting = new TwitterPostingData(jp);
+				break;
+			default:
+				// entities and all the fields we do not store
+				jp.skipChildren();
+			}
+		}
+		
+		setId((postId != null) ? postId : altPostId);
+		logger.debug("constructed new subset of data of tweet (TW-"  + id + ") from twitter post-object");
 		
 		try {
-			while (matcher.find()) {
-				logger.trace("found mentioned user");
-				result = matcher.group();
-				result = result.replace(" ", "");
-				logger.trace("found mentioned user {}", result);
-				
-				rawName = result.replace("@", "");
-				String userURI="http://twitter.com/"+rawName;
-				resultArray.add(userURI);
+			// Timestamp as an object for the oDATA call
+			if (getTime() != null)
+				setTimestamp(DateTimeServices.prepareLocalDateTime(getTime(), getSnId()));
+			
+			if (postText != null)
+				setTextFields(postText);
+			
+			// simple point geoLocation as given by e.g. a mobile device
+			if (coordinates != null) {
+				LocationData twPlace = new LocationData(coordinates);
+				setGeoLongitude(twPlace.getGeoLongitude());
+				setGeoLatitude(twPlace.getGeoLatitude());
+			}
+			
+			// geoLocation is filled from the users profile - a complex structure
+			if (geoLocation != null) {
+				LocationData twPlace = new LocationData(geoLocation);
+				setGeoLongitude(twPlace.getGeoLongitude());
+				setGeoLatitude(twPlace.getGeoLatitude());
+				setGeoPlaceId(twPlace.getGeoPlaceId());
+				setGeoPlaceName(twPlace.getGeoPlaceName());
+				setGeoPlaceCountry(twPlace.getGeoPlaceCountry());
+				setGeoAroundLongitude(twPlace.getGeoAroundLongitude());
+				setGeoAroundLatitude(twPlace.getGeoAroundLatitude());
 			}
 		} catch (Exception e) {
-			logger.error("ERROR :: could not parse tweet for user mentions {}", rawName);
+			logger.error("EXCEPTION :: during parsing of json twitter post-object " + e.getLocalizedMessage());
 			e.printStackTrace();
 		}
+	}
+	
+	
+	/**
+	 * @description	sets text, raw text, teaser and subject of the posting. The markup is 
+	 * 				stripped only once and the plain text is used by all fields stored without 
+	 * 				markup
+	 * 
+	 * @param 		postText	the text of the tweet as received
+	 */
+	private void setTextFields(String postText) {
+		// TODO move this in RuntimeConfiguration and source it in from XML 
+		String plainText = null;
+		if (!GeneralDataDefinitions.TEXT_WITH_MARKUP || !GeneralDataDefinitions.RAW_TEXT_WITH_MARKUP
+				|| !GeneralDataDefinitions.TEASER_WITH_MARKUP || !GeneralDataDefinitions.SUBJECT_WITH_MARKUP)
+			plainText = StringServices.stripHTML(postText);
+		
+		// content of the posting, can either be stored with or without markup elements. 
+		setText(GeneralDataDefinitions.TEXT_WITH_MARKUP ? postText : plainText);
+		// content of the raw text of the posting, can either be stored with or without markup elements. 
+		setRawText(GeneralDataDefinitions.RAW_TEXT_WITH_MARKUP ? postText : plainText);
 		
-		logger.trace("returning array of {} number of users mentioned in tweet", resultArray.size());
-		return resultArray;
+		// a teaser is created from the first 256 chars of the post 
+		// the persistence layer can also truncate the teaser, in case field length is smaller
+		String teaserText = GeneralDataDefinitions.TEASER_WITH_MARKUP ? getText() : plainText;
+		if (teaserText.length() > GeneralDataDefinitions.TEASER_MAX_LENGTH)
+			teaserText = teaserText.substring(0, GeneralDataDefinitions.TEASER_MAX_LENGTH-3)+"...";
+		setTeaser(teaserText);
+		
+		// a subject is created from the first 20 chars of the post 
+		// the persistence layer can also truncate the subject, in case field length is smaller
+		String subjectText = GeneralDataDefinitions.SUBJECT_WITH_MARKUP ? getText() : plainText;
+		if (subjectText.length() > GeneralDataDefinitions.SUBJECT_MAX_LENGTH)
+			subjectText = subjectText.substring(0, GeneralDataDefinitions.SUBJECT_MAX_LENGTH-3)+"...";
+		setSubject(subjectText);
+	}
+	
+	
+	// reads the object the parser is positioned on into a json object, as the json-simple parser would
+	@SuppressWarnings("unchecked")
+	private static JSONObject readJsonObject(JsonParser jp) throws IOException {
+		if (jp.getCurrentToken() != JsonToken.START_OBJECT) {
+			jp.skipChildren();
+			return null;
+		}
+		JSONObject object = new JSONObject();
+		while (jp.nextToken() == JsonToken.FIELD_NAME) {
+			String field = jp.getCurrentName();
+			jp.nextToken();
+			object.put(field, readJsonValue(jp));
+		}
+		return object;
+	}
+	
+	@SuppressWarnings("unchecked")
+	private static Object readJsonValue(JsonParser jp) throws IOException {
+		switch (jp.getCurrentToken()) {
+		case START_OBJECT:
+			return readJsonObject(jp);
+		case START_ARRAY:
+			JSONArray array = new JSONArray();
+			while (jp.nextToken() != JsonToken.END_ARRAY)
+				array.add(readJsonValue(jp));
+			return array;
+		case VALUE_STRING:
+			return jp.getText();
+		case VALUE_NUMBER_INT:
+			return jp.getLongValue();
+		case VALUE_NUMBER_FLOAT:
+			return jp.getDoubleValue();
+		case VALUE_TRUE:
+			return Boolean.TRUE;
+		case VALUE_FALSE:
+			return Boolean.FALSE;
+		default:
+			return null;
+		}
 	}
 	
 	
@@ -401,6 +530,9 @@ public final class TwitterPostingData extends PostingData implements ISncDataObj
 		mentions = null;
 	}
 	
+	// the retweeted posting, decoded together with the tweet by the streaming constructor
+	public TwitterPostingData getRetweetedPosting(){return retweetedPosting;}
+	
 	// new methods to get and set the user, domain, customer and social network object within the page object
 	public void setUserObject(UserData userJson){this.userObject = userJson;}
 	public UserData getUserObject(){return userObject;}
@@ -1,11 +1,15 @@
 package de.comlineag.snc.data;
 
+import java.io.IOException;
 import java.util.Objects;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.json.simple.JSONObject;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
 import de.comlineag.snc.appstate.CrawlerConfiguration;
 import de.comlineag.snc.constants.SocialNetworks;
 
@@ -13,7 +17,7 @@ import de.comlineag.snc.constants.SocialNetworks;
  * 
  * @author 		Christian Guenther, Magnus Leinemann
  * @category 	data type
- * @version 	0.2b			- 22.07.2014
+ * @version 	0.3				- 17.10.2026
  * @status		productive
  * 
  * @description Describes a single twitter user with all relevant informations.
@@ -40,6 +44,7 @@ import de.comlineag.snc.constants.SocialNetworks;
  * 				0.2 (Chris)		added support for counters
  * 				0.2a 			moved variable initialization into method initialize
  * 				0.2b			changed id from Long to String
+ * 				0.3 (Chris)		added constructor decoding the user directly from a streaming JsonParser
  * 
  */
 
@@ -88,6 +93,72 @@ public final class TwitterUserData extends UserData implements ISncDataObject{
 		}
 	}
 
+	/**
+	 * Constructor, decodes the user object the parser is positioned on (START_OBJECT) in one
+	 * pass - reads the same fields as the JSONObject constructor and skips all others. 
+	 * On return the parser is positioned on the END_OBJECT of the user
+	 * 
+	 * @param jp
+	 * @throws IOException if the user object is not valid json
+	 */
+	public TwitterUserData(JsonParser jp) throws IOException {
+		// set all values to zero
+		initialize();
+		String name = null;
+		String userName = null;
+		
+		while (jp.nextToken() == JsonToken.FIELD_NAME) {
+			String field = jp.getCurrentName();
+			if (jp.nextToken() == JsonToken.VALUE_NULL)
+				continue;
+			
+			switch (field) {
+			case "id":
+				setId(jp.getText());
+				break;
+			case "user_name":
+				userName = jp.getText();
+				break;
+			case "name":
+				name = jp.getText();
+				break;
+			case "screen_name":
+				setScreenName(jp.getText());
+				break;
+			case "lang":
+				setLang(jp.getText());
+				break;
+			case "geoLocation":
+				setGeoLocation(jp.getText());
+				break;
+			case "followers_count":
+				setFollowersCount(jp.getLongValue());
+				break;
+			case "friends_count":
+				setFriendsCount(jp.getLongValue());
+				break;
+			case "statuses_count":
+				setPostingsCount(jp.getLongValue());
+				break;
+			case "favorites_count":
+				setFavoritesCount(jp.getLongValue());
+				break;
+			case "lists_and_groups_count":
+				setListsAndGroupsCount(jp.getLongValue());
+				break;
+			default:
+				jp.skipChildren();
+			}
+		}
+		// the name wins over the user_name, as in the JSONObject constructor
+		if (name != null)
+			setUserName(name);
+		else if (userName != null)
+			setUserName(userName);
+		
+		logger.debug("constructed new subset of data of user (TW-"  + id + ") from twitter user-object");
+	}
+	
 	private void initialize() {
 		// first setup the internal json objct
 		internalJson = new JSONObject();
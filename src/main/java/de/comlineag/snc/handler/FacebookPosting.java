@@ -97,6 +97,7 @@ public class FacebookPosting extends GenericDataManager<FacebookPostingData> {
 	}
 	
 	public JSONObject getJson(){return(data.getJson());}
+	public FacebookPostingData getData(){return(data);}
 	public JSONObject getUserAsJson(){return(data.getUserData().getJson());}
 	
 	public void setUserObject(FacebookUserData userData){ data.setUserData(userData);}
@@ -56,6 +56,10 @@ public class FacebookUser extends GenericDataManager<FacebookUserData> {
 		return(data.getJson());
 	}
 	
+	public FacebookUserData getData(){
+		return(data);
+	}
+	
 	public FacebookUserData getUserData(){
 		return(data);
 	}
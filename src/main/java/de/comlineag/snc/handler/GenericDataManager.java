@@ -4,14 +4,18 @@ import org.json.simple.JSONObject;
 
 import de.comlineag.snc.appstate.AppContext;
 import de.comlineag.snc.constants.SocialNetworks;
+import de.comlineag.snc.data.PostingData;
+import de.comlineag.snc.data.UserData;
+import de.comlineag.snc.persistence.GraphBatchWriter;
 import de.comlineag.snc.persistence.IGraphPersistenceManager;
 import de.comlineag.snc.persistence.IPersistenceManager;
+import de.comlineag.snc.persistence.JsonFilePersistence;
 
 /**
  * 
  * @author		Christian Guenther
  * @category	Handler
- * @version		0.2				- 11.11.2014
+ * @version		0.5				- 17.10.2026
  * @status		productive
  * 
  * @description GenericDataManager is the abstract base class for the data handler. 
@@ -24,6 +28,11 @@ import de.comlineag.snc.persistence.IPersistenceManager;
  * 
  * @changelog	0.1 (Chris)		class created
  * 				0.2				added support for graph database
+ * 				0.3				added saveInGraph() and saveToFile() so that the PersistenceExecutor
+ * 								can handle users and postings alike
+ * 				0.4				postings are handed to the GraphBatchWriter if GraphBatchEnabled is set
+ * 				0.5				saveToFile() writes post_/user_ ..._fail.json files, which the FsCrawler 
+ * 								hands to the persistence layer again
  * 
  */
 public abstract class GenericDataManager<T> {
@@ -35,9 +44,36 @@ public abstract class GenericDataManager<T> {
 	protected GenericDataManager() {
 		persistenceManager = (IPersistenceManager) AppContext.Context.getBean("persistenceManager");
 		graphPersistenceManager = (IGraphPersistenceManager) AppContext.Context.getBean("graphPersistenceManager");
+		if (GraphBatchWriter.getInstance().isEnabled())
+			graphPersistenceManager = GraphBatchWriter.getInstance();
 	}
 
 	public abstract void save();
 	
+	/**
+	 * @description	stores the data in the graph database. Postings override this, users are
+	 * 				stored in the graph as part of their posting and need not do anything
+	 */
+	public void saveInGraph() {}
+	
+	/**
+	 * @description	writes the data to a json file instead of the persistence layer - used
+	 * 				by the PersistenceExecutor if its queue is full or on shutdown. The data is 
+	 * 				marked as failed, so that the FsCrawler picks the file up and saves it later on
+	 */
+	public void saveToFile() {
+		T data = getData();
+		if (data instanceof PostingData) {
+			((PostingData) data).setObjectStatus("fail");
+			new JsonFilePersistence((PostingData) data);
+		} else if (data instanceof UserData) {
+			((UserData) data).setObjectStatus("fail");
+			new JsonFilePersistence((UserData) data);
+		} else {
+			throw new IllegalStateException("cannot save " + data.getClass().getSimpleName() + " to a json file");
+		}
+	}
+	
 	public abstract JSONObject getJson();
+	public abstract T getData();
 }
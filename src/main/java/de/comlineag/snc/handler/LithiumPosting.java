@@ -92,6 +92,7 @@ public class LithiumPosting extends GenericDataManager<LithiumPostingData> {
 	}
 	
 	public JSONObject getJson(){return(data.getJson());}
+	public LithiumPostingData getData(){return(data);}
 	public JSONObject getUserAsJson(){return(data.getUserData().getJson());}
 	
 	public void setUserObject(LithiumUserData userData){ data.setUserData(userData);}
@@ -44,6 +44,10 @@ public class LithiumUser extends GenericDataManager<LithiumUserData> {
 		return(data.getJson());
 	}
 	
+	public LithiumUserData getData(){
+		return(data);
+	}
+	
 	public LithiumUserData getUserData(){
 		return(data);
 	}
@@ -0,0 +1,270 @@
+package de.comlineag.snc.handler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.comlineag.snc.appstate.RuntimeConfiguration;
+
+/**
+ *
+ * @author 		Christian Guenther
+ * @category 	handler
+ * @version 	0.1a			- 17.10.2026
+ * @status		productive
+ *
+ * @description the shared, bounded pipeline through which the crawler hand their postings and
+ * 				users to the persistence layer, if PersistenceThreadingEnabled is set. Instead of
+ * 				starting a new thread per record, a fixed number of workers takes the records
+ * 				from a bounded queue and calls save() (and saveInGraph(), if requested) on them.
+ * 				This caps the number of threads as well as the number of concurrent calls
+ * 				against HANA and neo4j.
+ * 				If the queue is full, the PersistenceThreadingQueuePolicy decides what happens:
+ * 					block		- the crawler waits until there is room in the queue
+ * 					callerruns	- the crawler saves the record itself
+ * 					spill		- the record is written to a ..._fail.json file via JsonFilePersistence,
+ * 								  which the FsCrawler hands to the persistence layer again
+ * 				On shutdown (the bean is destroyed after the quartz scheduler) the queue is
+ * 				drained for at most PersistenceThreadingShutdownTimeout milliseconds, whatever
+ * 				is still left after that is spilled to json files.
+ * 				Queue depth, throughput and latency are exposed via JMX (PersistenceExecutorMBean).
+ *
+ * @changelog	0.1 (Chris)		class created
+ * 				0.1a			spilled records are written as failed posts and users
+ *
+ */
+public final class PersistenceExecutor implements PersistenceExecutorMBean {
+	private final Logger logger = LoggerFactory.getLogger(getClass().getName());
+
+	// singleton design pattern using Initialization-on-demand holder idiom,
+	private static class Holder { static final PersistenceExecutor instance = new PersistenceExecutor(); }
+	public static PersistenceExecutor getInstance() { return Holder.instance; }
+
+	// what to do if the queue is full
+	private enum Policy { BLOCK, CALLERRUNS, SPILL }
+
+	private static final int DEFAULT_POOL_SIZE = 5;
+	private static final int DEFAULT_QUEUE_SIZE = 1000;
+	private static final long DEFAULT_SHUTDOWN_TIMEOUT = 30000;
+
+	private final Policy policy;
+	private final int queueCapacity;
+	private final long shutdownTimeout;
+	private final ThreadPoolExecutor executor;
+
+	private final AtomicLong submittedTasks = new AtomicLong();
+	private final AtomicLong completedTasks = new AtomicLong();
+	private final AtomicLong failedTasks = new AtomicLong();
+	private final AtomicLong blockedSubmits = new AtomicLong();
+	private final AtomicLong callerRunsTasks = new AtomicLong();
+	private final AtomicLong spilledTasks = new AtomicLong();
+	private final AtomicLong totalQueueWait = new AtomicLong();
+	private final AtomicLong totalLatency = new AtomicLong();
+	private final AtomicLong maxLatency = new AtomicLong();
+
+	private PersistenceExecutor() {
+		RuntimeConfiguration rtc = RuntimeConfiguration.getInstance();
+
+		int poolSize = rtc.getIntValue("PersistenceThreadingPoolSize", "threading");
+		if (poolSize <= 0)
+			poolSize = DEFAULT_POOL_SIZE;
+		int queueSize = rtc.getIntValue("PersistenceThreadingQueueSize", "threading");
+		this.queueCapacity = (queueSize > 0) ? queueSize : DEFAULT_QUEUE_SIZE;
+		long timeout = rtc.getIntValue("PersistenceThreadingShutdownTimeout", "threading");
+		this.shutdownTimeout = (timeout >= 0) ? timeout : DEFAULT_SHUTDOWN_TIMEOUT;
+		this.policy = parsePolicy(rtc.getStringValue("PersistenceThreadingQueuePolicy", "threading"));
+
+		final AtomicInteger threadNumber = new AtomicInteger();
+		this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<Runnable>(queueCapacity),
+				new ThreadFactory() {
+					@Override
+					public Thread newThread(Runnable r) {
+						Thread t = new Thread(r, "PersistenceExecutor-" + threadNumber.incrementAndGet());
+						t.setDaemon(true);
+						return t;
+					}
+				},
+				new ThreadPoolExecutor.AbortPolicy());
+
+		logger.info("persistence executor set up with "+poolSize+" workers, a queue of "+queueCapacity+" entries and policy "+policy.name().toLowerCase());
+	}
+
+	private Policy parsePolicy(String value) {
+		if (value != null) {
+			for (Policy p : Policy.values())
+				if (p.name().equalsIgnoreCase(value.replace("-", "").replace("_", "").trim()))
+					return p;
+			logger.warn("unknown PersistenceThreadingQueuePolicy "+value+" - using block");
+		}
+		return Policy.BLOCK;
+	}
+
+	/**
+	 * @description	queues the given data objects for persistence. A worker calls save() on
+	 * 				each of them in the given order and afterwards saveInGraph(), if requested.
+	 * 				If the queue is full, the configured policy applies.
+	 * @param 		inGraph		whether to store the data objects in the graph database as well
+	 * @param 		dataObjects	users and postings to save - e.g. the user followed by its posting
+	 */
+	public void submit(boolean inGraph, GenericDataManager<?>... dataObjects) {
+		PersistenceTask task = new PersistenceTask(inGraph, dataObjects);
+		submittedTasks.incrementAndGet();
+
+		if (executor.isShutdown()) {
+			logger.warn("persistence executor is shut down - saving data in the calling thread");
+			runInCaller(task);
+			return;
+		}
+
+		try {
+			executor.execute(task);
+			return;
+		} catch (RejectedExecutionException e) {
+			logger.debug("persistence queue is full ({} entries) - applying policy {}", queueCapacity, policy);
+		}
+
+		switch (policy) {
+			case CALLERRUNS:
+				runInCaller(task);
+				break;
+			case SPILL:
+				task.spill();
+				break;
+			default:
+				blockedSubmits.incrementAndGet();
+				try {
+					// all workers are running at this point, so the task is picked up from the queue
+					executor.getQueue().put(task);
+				} catch (InterruptedException ie) {
+					Thread.currentThread().interrupt();
+					task.spill();
+					return;
+				}
+				// the executor may have been shut down while we were waiting
+				if (executor.isShutdown() && executor.getQueue().remove(task))
+					task.spill();
+				break;
+		}
+	}
+
+	private void runInCaller(PersistenceTask task) {
+		callerRunsTasks.incrementAndGet();
+		task.run();
+	}
+
+	/**
+	 * @description	stops accepting new tasks and waits until the queued tasks are saved.
+	 * 				Tasks still queued after PersistenceThreadingShutdownTimeout are spilled
+	 * 				to json files. Called by spring when the application context is closed.
+	 */
+	public void shutdown() {
+		if (executor.isShutdown())
+			return;
+
+		logger.info("shutting down persistence executor - draining "+executor.getQueue().size()+" queued tasks");
+		executor.shutdown();
+		try {
+			if (!executor.awaitTermination(shutdownTimeout, TimeUnit.MILLISECONDS)) {
+				List<Runnable> remaining = new ArrayList<Runnable>();
+				executor.getQueue().drainTo(remaining);
+				logger.warn("persistence executor did not finish within "+shutdownTimeout+"ms - spilling "+remaining.size()+" tasks to json");
+				for (Runnable r : remaining)
+					((PersistenceTask) r).spill();
+				executor.shutdownNow();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			executor.shutdownNow();
+		}
+		logger.info("persistence executor stopped - "+completedTasks.get()+" tasks completed, "+spilledTasks.get()+" spilled");
+	}
+
+
+	@Override public String getPolicy()					{ return policy.name().toLowerCase(); }
+	@Override public int getWorkerCount()				{ return executor.getPoolSize(); }
+	@Override public int getActiveWorkers()				{ return executor.getActiveCount(); }
+	@Override public int getQueueDepth()				{ return executor.getQueue().size(); }
+	@Override public int getQueueCapacity()				{ return queueCapacity; }
+	@Override public long getSubmittedTasks()			{ return submittedTasks.get(); }
+	@Override public long getCompletedTasks()			{ return completedTasks.get(); }
+	@Override public long getFailedTasks()				{ return failedTasks.get(); }
+	@Override public long getBlockedSubmits()			{ return blockedSubmits.get(); }
+	@Override public long getCallerRunsTasks()			{ return callerRunsTasks.get(); }
+	@Override public long getSpilledTasks()				{ return spilledTasks.get(); }
+	@Override public long getMaxLatencyMillis()			{ return maxLatency.get(); }
+
+	@Override
+	public long getAverageQueueWaitMillis() {
+		long completed = completedTasks.get();
+		return (completed == 0) ? 0 : totalQueueWait.get() / completed;
+	}
+
+	@Override
+	public long getAverageLatencyMillis() {
+		long completed = completedTasks.get();
+		return (completed == 0) ? 0 : totalLatency.get() / completed;
+	}
+
+
+	/**
+	 *
+	 * @description	the data objects of one record (e.g. a user and its posting) together with
+	 * 				the time they were handed to the executor
+	 *
+	 */
+	private final class PersistenceTask implements Runnable {
+		private final boolean inGraph;
+		private final GenericDataManager<?>[] dataObjects;
+		private final long submitted = System.currentTimeMillis();
+
+		private PersistenceTask(boolean inGraph, GenericDataManager<?>[] dataObjects) {
+			this.inGraph = inGraph;
+			this.dataObjects = dataObjects;
+		}
+
+		@Override
+		public void run() {
+			long started = System.currentTimeMillis();
+			try {
+				for (GenericDataManager<?> dataObject : dataObjects)
+					dataObject.save();
+
+				// please note that we do not need to do this for the user as well, as
+				// the graph persistence layer uses the embedded user object within the
+				// post object - the user's saveInGraph() does nothing
+				if (inGraph)
+					for (GenericDataManager<?> dataObject : dataObjects)
+						dataObject.saveInGraph();
+			} catch (RuntimeException e) {
+				failedTasks.incrementAndGet();
+				logger.error("EXCEPTION :: persistence task failed " + e.getLocalizedMessage(), e);
+			} finally {
+				long finished = System.currentTimeMillis();
+				long latency = finished - submitted;
+				totalQueueWait.addAndGet(started - submitted);
+				totalLatency.addAndGet(latency);
+				long max;
+				while (latency > (max = maxLatency.get()) && !maxLatency.compareAndSet(max, latency));
+				completedTasks.incrementAndGet();
+			}
+		}
+
+		private void spill() {
+			spilledTasks.incrementAndGet();
+			for (GenericDataManager<?> dataObject : dataObjects) {
+				logger.warn("spilling " + dataObject.getClass().getSimpleName() + " to a json file for later processing by the FsCrawler");
+				dataObject.saveToFile();
+			}
+		}
+	}
+}
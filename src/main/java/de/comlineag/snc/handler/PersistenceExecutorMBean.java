@@ -0,0 +1,46 @@
+package de.comlineag.snc.handler;
+
+/**
+ *
+ * @author 		Christian Guenther
+ * @category	interface
+ * @revision	0.1				- 17.10.2026
+ * @status		productive
+ *
+ * @description	management interface of the PersistenceExecutor. It is exported via the
+ * 				MBeanExporter in applicationContext.xml and shows how busy the persistence
+ * 				workers are and how long a posting waits until it is stored.
+ *
+ * @changelog	0.1 (Chris)		interface created
+ *
+ */
+public interface PersistenceExecutorMBean {
+	// the back-pressure policy in use - block, callerruns or spill
+	public String getPolicy();
+	// number of worker threads
+	public int getWorkerCount();
+	// number of workers currently saving data
+	public int getActiveWorkers();
+	// number of tasks waiting in the queue
+	public int getQueueDepth();
+	// maximum number of tasks the queue can hold
+	public int getQueueCapacity();
+	// number of tasks handed to the executor
+	public long getSubmittedTasks();
+	// number of tasks finished by a worker or the caller
+	public long getCompletedTasks();
+	// number of tasks that ended with an exception
+	public long getFailedTasks();
+	// number of submits that had to wait for a free slot in the queue
+	public long getBlockedSubmits();
+	// number of tasks executed by the crawler thread because the queue was full
+	public long getCallerRunsTasks();
+	// number of tasks written to json files because the queue was full or the executor stopped
+	public long getSpilledTasks();
+	// average time in milliseconds a task waited in the queue
+	public long getAverageQueueWaitMillis();
+	// average time in milliseconds from submit until the task was finished
+	public long getAverageLatencyMillis();
+	// longest time in milliseconds from submit until a task was finished
+	public long getMaxLatencyMillis();
+}
@@ -16,7 +16,7 @@ import de.comlineag.snc.data.TwitterUserData;
  * 
  * @author 		Magnus Leinemann, Christian Günther
  * @category 	Handler
- * @version		0.4					- 01.12.2014
+ * @version		0.5					- 17.10.2026
  * @status		productive
  * 
  * @description Implementation of the twitter posting manager - extends
@@ -62,6 +62,7 @@ import de.comlineag.snc.data.TwitterUserData;
  * 				0.2	(Chris)			added call to graph database
  * 				0.3					added getJson() and addEmbeddedUserData() method
  * 				0.4					added getEmbeddedUserData() method
+ * 				0.5 (Chris)			added constructor for an already decoded TwitterPostingData
  * 
  */
 
@@ -73,6 +74,10 @@ public class TwitterPosting extends GenericDataManager<TwitterPostingData> {
 	public TwitterPosting(JSONObject jsonObject) {
 		data = new TwitterPostingData(jsonObject);
 	}
+	
+	public TwitterPosting(TwitterPostingData postingData) {
+		data = postingData;
+	}
 
 	@Override
 	public void save() {
@@ -98,6 +103,7 @@ public class TwitterPosting extends GenericDataManager<TwitterPostingData> {
 	}
 	
 	public JSONObject getJson(){return(data.getJson());}
+	public TwitterPostingData getData(){return(data);}
 	public JSONObject getUserAsJson(){return(data.getUserData().getJson());}
 	
 	public void setUserObject(TwitterUserData userData){ data.setUserData(userData);}
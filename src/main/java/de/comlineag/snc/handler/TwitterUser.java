@@ -8,7 +8,7 @@ import de.comlineag.snc.data.TwitterUserData;
  * 
  * @author 		Christian Guenther
  * @category 	Handler
- * @version		0.2				- 19.11.2014
+ * @version		0.3				- 17.10.2026
  * @status		productive
  * 
  * @description Implementation of the twitter user manager - extends
@@ -21,6 +21,7 @@ import de.comlineag.snc.data.TwitterUserData;
  * 
  * @changelog	0.1 (Chris)		class created as copy from TwitterPosting
  * 				0.2				added getJson() and getUserData() method
+ * 				0.3				added constructor for an already decoded TwitterUserData
  * 
  */
 
@@ -32,6 +33,10 @@ public class TwitterUser extends GenericDataManager<TwitterUserData> {
 		data = new TwitterUserData(jsonObject);
 	}
 	
+	public TwitterUser(TwitterUserData userData) {
+		data = userData;
+	}
+	
 	public void save() {
 		persistenceManager.saveUsers(data);
 	}
@@ -40,6 +45,10 @@ public class TwitterUser extends GenericDataManager<TwitterUserData> {
 		return(data.getJson());
 	}
 	
+	public TwitterUserData getData(){
+		return(data);
+	}
+	
 	public TwitterUserData getUserData(){
 		return(data);
 	}
@@ -101,6 +101,7 @@ public class WebPosting extends GenericDataManager<WebPostingData> {
 	
 	// introduced getUser method to get the embedded user object from the page object
 	public JSONObject getJson(){return(data.getJson());}
+	public WebPostingData getData(){return(data);}
 	public JSONObject getUserAsJson(){return(data.getUserData().getJson());}
 	
 	public void setUserObject(WebUserData userData){ data.setUserData(userData);}
@@ -49,6 +49,10 @@ public class WebUser extends GenericDataManager<WebUserData> {
 		return(data.getJson());
 	}
 	
+	public WebUserData getData(){
+		return(data);
+	}
+	
 	public WebUserData getUserData(){
 		return(data);
 	}
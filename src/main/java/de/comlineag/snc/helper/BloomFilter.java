@@ -0,0 +1,123 @@
+package de.comlineag.snc.helper;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ *
+ * @author 		Christian Guenther
+ * @category 	helper class
+ * @version 	0.1					- 17.10.2026
+ * @status		productive
+ *
+ * @description a simple, thread safe bloom filter for strings.
+ * 				A bloom filter answers the question "did I see this key before" with either
+ * 				"definitely not" or "probably yes" - it never forgets a key, but may wrongly
+ * 				claim to know a key it never saw. The probability for this is given on
+ * 				construction. The memory footprint is fixed and independent of the length of
+ * 				the keys, which makes it suitable to remember millions of ids or urls.
+ *
+ * @changelog	0.1 (Chris)			class created
+ *
+ */
+public final class BloomFilter {
+
+	private final AtomicLongArray bits;
+	private final long numBits;
+	private final int numHashes;
+
+	/**
+	 * @param 	expectedEntries		number of keys the filter is expected to hold
+	 * @param 	falsePositiveRate	acceptable probability for a wrong "probably yes", e.g. 0.01
+	 */
+	public BloomFilter(long expectedEntries, double falsePositiveRate) {
+		if (expectedEntries < 1)
+			expectedEntries = 1;
+		if (falsePositiveRate <= 0 || falsePositiveRate >= 1)
+			falsePositiveRate = 0.01;
+
+		// optimal number of bits and hash functions, see http://en.wikipedia.org/wiki/Bloom_filter
+		long m = (long) Math.ceil(-expectedEntries * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+		m = Math.max(64, (m + 63) / 64 * 64);
+
+		this.numBits = m;
+		this.numHashes = Math.max(1, (int) Math.round((double) m / expectedEntries * Math.log(2)));
+		this.bits = new AtomicLongArray((int) (m / 64));
+	}
+
+	/**
+	 * @description	adds the key to the filter
+	 * @param 		key
+	 */
+	public void add(String key) {
+		long h1 = hash(key, 0x9E3779B97F4A7C15L);
+		long h2 = hash(key, 0xC2B2AE3D27D4EB4FL) | 1;
+		for (int i = 0; i < numHashes; i++)
+			setBit(index(h1 + i * h2));
+	}
+
+	/**
+	 * @description	checks whether the key might have been added before
+	 * @param 		key
+	 * @return		false if the key was definitely never added, true if it probably was
+	 */
+	public boolean mightContain(String key) {
+		long h1 = hash(key, 0x9E3779B97F4A7C15L);
+		long h2 = hash(key, 0xC2B2AE3D27D4EB4FL) | 1;
+		for (int i = 0; i < numHashes; i++) {
+			long bit = index(h1 + i * h2);
+			if ((bits.get((int) (bit >>> 6)) & (1L << (bit & 63))) == 0)
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * @description	adds the key and tells whether it might have been added before
+	 * @param 		key
+	 * @return		false if the key is new for sure
+	 */
+	public boolean put(String key) {
+		long h1 = hash(key, 0x9E3779B97F4A7C15L);
+		long h2 = hash(key, 0xC2B2AE3D27D4EB4FL) | 1;
+		boolean known = true;
+		for (int i = 0; i < numHashes; i++) {
+			if (!setBit(index(h1 + i * h2)))
+				known = false;
+		}
+		return known;
+	}
+
+
+	private long index(long combinedHash) {
+		return (combinedHash & Long.MAX_VALUE) % numBits;
+	}
+
+	// sets the bit and returns whether it was already set
+	private boolean setBit(long bit) {
+		int word = (int) (bit >>> 6);
+		long mask = 1L << (bit & 63);
+		long old;
+		do {
+			old = bits.get(word);
+			if ((old & mask) != 0)
+				return true;
+		} while (!bits.compareAndSet(word, old, old | mask));
+		return false;
+	}
+
+	// 64 bit hash of the characters of the key, mixed with the given seed
+	private static long hash(CharSequence key, long seed) {
+		long h = seed ^ key.length();
+		for (int i = 0; i < key.length(); i++) {
+			h ^= key.charAt(i);
+			h *= 0x100000001B3L;
+		}
+		// final avalanche (taken from murmur3 fmix64)
+		h ^= h >>> 33;
+		h *= 0xFF51AFD7ED558CCDL;
+		h ^= h >>> 33;
+		h *= 0xC4CEB93FE1A85A53L;
+		h ^= h >>> 33;
+		return h;
+	}
+}
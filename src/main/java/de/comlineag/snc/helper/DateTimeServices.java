@@ -1,6 +1,8 @@
 package de.comlineag.snc.helper;
 
 import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -15,6 +17,11 @@ import de.comlineag.snc.constants.SocialNetworks;
 public class DateTimeServices {
 	static Logger logger = LoggerFactory.getLogger(DateTimeServices.class);
 	
+	// one formatter per social network code - joda formatters are immutable and thread safe
+	private static final ConcurrentMap<String, DateTimeFormatter> formatters = new ConcurrentHashMap<String, DateTimeFormatter>();
+	// the version of the social network definitions the formatters were built from
+	private static volatile long formattersVersion = -1;
+	
 	// the class is not to be instantiated
 	private DateTimeServices() {}
 
@@ -32,51 +39,9 @@ public class DateTimeServices {
 	 * @return			formatted timestamp
 	 */
 	public static LocalDateTime prepareLocalDateTime(String _timestamp, String _snId) {
-		
-		// Datumsformatierung fuer den Formatter
-		String snPattern = "";
-		Locale snLocale = Locale.getDefault();
-		snPattern = SocialNetworks.getSocialNetworkConfigElementByCode("localePattern", _snId);
-		DateTimeServices.logger.debug("formatting date time for use with {}", SocialNetworks.getSocialNetworkConfigElementByCode("name", _snId));
-		
 		try {
-			if (_snId.equalsIgnoreCase(SocialNetworks.getSocialNetworkConfigElement("code", "TWITTER"))) {
-				// date time pattern by Magnus Leinemann
-				//snPattern = "EEE MMM d H:m:s Z yyyy";
-				//snPattern = SocialNetworks.getSocialNetworkConfigElement("localePattern", _snId);
-				// the date time format for twitter must be set to US, otherwise english designators will not be translated correctly
-				snLocale = Locale.US;
-			} else if (_snId.equalsIgnoreCase(SocialNetworks.getSocialNetworkConfigElement("code", "LITHIUM"))) {
-				//DateTimeServices.logger.debug("formatting date time for use with Lithium");
-				// 2014-01-08T12:21:42+00:00
-				// date time pattern by Thomas Nowak
-				//snPattern = "yyyy-MM-dd'T'HH:mm:ssZZ";
-				//snPattern = SocialNetworks.getSocialNetworkConfigElement("localePattern", _snId);
-				snLocale = Locale.GERMANY;
-			} else if (_snId.equalsIgnoreCase(SocialNetworks.getSocialNetworkConfigElement("code", "WEBCRAWLER"))) {
-				DateTimeServices.logger.debug("formatting date time for use with the simple webcrawler");
-				// 2014-01-08T12:21:42+00:00
-				// date time pattern by Christian Guenther
-				//snPattern = "yyyy-MM-dd'T'HH:mm:ssSSS";
-				//snPattern = "dd.MM.yy HH:mm:ss";
-				//snPattern = SocialNetworks.getSocialNetworkConfigElement("localePattern", _snId);
-				snLocale = Locale.US;
-			} else if (_snId.equalsIgnoreCase(SocialNetworks.getSocialNetworkConfigElement("code", "WALLSTREETONLINE"))) {
-				//DateTimeServices.logger.debug("formatting date time for use with wallstreet-online.de");
-				// 02.09.14 16:24:25
-				// date time pattern by Christian Guenther
-				//snPattern = "dd.MM.yy HH:mm:ss";
-				//snPattern = SocialNetworks.getSocialNetworkConfigElement("localePattern", _snId);
-				snLocale = Locale.GERMANY;
-			} else {
-				DateTimeServices.logger.warn("no specific conversion for system " + SocialNetworks.getSocialNetworkConfigElementByCode("name", _snId));
-			}
-			
 			// convert the datum
-			DateTimeFormatter formatter =
-					DateTimeFormat.forPattern(snPattern).withLocale(snLocale);
-			
-			DateTime dateTime = formatter.parseDateTime(_timestamp);
+			DateTime dateTime = getFormatter(_snId).parseDateTime(_timestamp);
 			return dateTime.toLocalDateTime();
 		} catch (Exception e) {
 			DateTimeServices.logger.error("error converting provided timestamp, using current system time instead - {}",e.getMessage());
@@ -85,5 +50,66 @@ public class DateTimeServices {
 			return new LocalDateTime(dt);
 		}
 	}
+	
+	/**
+	 * 
+	 * @description		returns the formatter for the timestamps of the given social network. It is built 
+	 * 					once from the localePattern of the network and kept until the social network
+	 * 					definitions change
+	 * 
+	 * @param 			_snId
+	 *            			social network identifier
+	 * @return			the formatter
+	 * @throws			IllegalArgumentException if the network has no valid localePattern
+	 */
+	public static DateTimeFormatter getFormatter(String _snId) {
+		long version = SocialNetworks.getDefinitionsVersion();
+		if (version != formattersVersion) {
+			formatters.clear();
+			formattersVersion = version;
+		}
+		
+		DateTimeFormatter formatter = formatters.get(_snId);
+		if (formatter == null) {
+			formatter = createFormatter(_snId);
+			formatters.putIfAbsent(_snId, formatter);
+		}
+		return formatter;
+	}
+	
+	
+	private static DateTimeFormatter createFormatter(String _snId) {
+		// Datumsformatierung fuer den Formatter
+		String snPattern = "";
+		Locale snLocale = Locale.getDefault();
+		snPattern = SocialNetworks.getSocialNetworkConfigElementByCode("localePattern", _snId);
+		DateTimeServices.logger.debug("creating date time formatter for use with {}", SocialNetworks.getSocialNetworkConfigElementByCode("name", _snId));
+		
+		if (_snId.equalsIgnoreCase(SocialNetworks.getSocialNetworkConfigElement("code", "TWITTER"))) {
+			// date time pattern by Magnus Leinemann
+			//snPattern = "EEE MMM d H:m:s Z yyyy";
+			// the date time format for twitter must be set to US, otherwise english designators will not be translated correctly
+			snLocale = Locale.US;
+		} else if (_snId.equalsIgnoreCase(SocialNetworks.getSocialNetworkConfigElement("code", "LITHIUM"))) {
+			// 2014-01-08T12:21:42+00:00
+			// date time pattern by Thomas Nowak
+			//snPattern = "yyyy-MM-dd'T'HH:mm:ssZZ";
+			snLocale = Locale.GERMANY;
+		} else if (_snId.equalsIgnoreCase(SocialNetworks.getSocialNetworkConfigElement("code", "WEBCRAWLER"))) {
+			// 2014-01-08T12:21:42+00:00
+			// date time pattern by Christian Guenther
+			//snPattern = "dd.MM.yy HH:mm:ss";
+			snLocale = Locale.US;
+		} else if (_snId.equalsIgnoreCase(SocialNetworks.getSocialNetworkConfigElement("code", "WALLSTREETONLINE"))) {
+			// 02.09.14 16:24:25
+			// date time pattern by Christian Guenther
+			//snPattern = "dd.MM.yy HH:mm:ss";
+			snLocale = Locale.GERMANY;
+		} else {
+			DateTimeServices.logger.warn("no specific conversion for system " + SocialNetworks.getSocialNetworkConfigElementByCode("name", _snId));
+		}
+		
+		return DateTimeFormat.forPattern(snPattern).withLocale(snLocale);
+	}
 
 }
@@ -0,0 +1,124 @@
+package de.comlineag.snc.helper;
+
+import java.util.Arrays;
+
+/**
+ *
+ * @author 		Christian Guenther
+ * @category 	helper class
+ * @version 	0.1					- 17.10.2026
+ * @status		productive
+ *
+ * @description a compact set of primitive long values, e.g. 64 bit fingerprints of urls.
+ * 				The values are stored in one long array using open addressing with linear
+ * 				probing, so there is no boxing and no entry object per value - a value costs
+ * 				8 to 16 bytes instead of the ~80 bytes of a HashMap entry with a boxed key.
+ * 				The array doubles in size when it is filled by more than two thirds.
+ * 				The class is not thread safe.
+ *
+ * @changelog	0.1 (Chris)			class created
+ *
+ */
+public final class LongHashSet {
+
+	// marks a free slot - the value 0 itself is tracked in a separate flag
+	private static final long FREE = 0L;
+
+	private long[] slots;
+	private int mask;
+	private int size;
+	private int resizeThreshold;
+	private boolean containsZero;
+
+	public LongHashSet() {
+		this(1024);
+	}
+
+	/**
+	 * @param 	expectedSize	number of values the set should hold without growing
+	 */
+	public LongHashSet(int expectedSize) {
+		int capacity = Integer.highestOneBit(Math.max(16, expectedSize * 3 / 2) - 1) << 1;
+		allocate(capacity);
+	}
+
+	/**
+	 * @description	adds the value to the set
+	 * @param 		value
+	 * @return		true if the value was not yet in the set
+	 */
+	public boolean add(long value) {
+		if (value == FREE) {
+			if (containsZero)
+				return false;
+			containsZero = true;
+			size++;
+			return true;
+		}
+
+		int idx = slot(value);
+		while (slots[idx] != FREE) {
+			if (slots[idx] == value)
+				return false;
+			idx = (idx + 1) & mask;
+		}
+		slots[idx] = value;
+		if (++size > resizeThreshold)
+			grow();
+		return true;
+	}
+
+	/**
+	 * @description	checks whether the value is in the set
+	 * @param 		value
+	 * @return		true if the value was added before
+	 */
+	public boolean contains(long value) {
+		if (value == FREE)
+			return containsZero;
+
+		int idx = slot(value);
+		while (slots[idx] != FREE) {
+			if (slots[idx] == value)
+				return true;
+			idx = (idx + 1) & mask;
+		}
+		return false;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public void clear() {
+		Arrays.fill(slots, FREE);
+		containsZero = false;
+		size = 0;
+	}
+
+
+	private void allocate(int capacity) {
+		slots = new long[capacity];
+		mask = capacity - 1;
+		resizeThreshold = capacity / 3 * 2;
+	}
+
+	private void grow() {
+		long[] old = slots;
+		allocate(old.length * 2);
+		for (long value : old) {
+			if (value != FREE) {
+				int idx = slot(value);
+				while (slots[idx] != FREE)
+					idx = (idx + 1) & mask;
+				slots[idx] = value;
+			}
+		}
+	}
+
+	// spreads the bits of the value, so that similar values do not end up in neighbouring slots
+	private int slot(long value) {
+		long h = value * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32)) & mask;
+	}
+}
@@ -0,0 +1,321 @@
+package de.comlineag.snc.helper;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ *
+ * @author 		Christian Guenther
+ * @category 	helper class
+ * @version 	0.1					- 17.10.2026
+ * @status		productive
+ *
+ * @description finds a list of terms (e.g. the track terms or the blocked terms of a crawler)
+ * 				in a text. The terms are compiled once into an Aho-Corasick automaton, which then
+ * 				finds all of them in one single pass over the text - no matter how many terms
+ * 				there are. Terms are matched literally, regex characters in a term have no special
+ * 				meaning.
+ * 				Every hit is reported twice: as a plain occurrence anywhere in the text (what the
+ * 				old ".*term.*" regex did) and, if it stands between word boundaries in the sense of
+ * 				the regex \b, as a whole word (what the old "\b(term1|term2)\b" regex did). So one
+ * 				scan serves the relevance check and the keyword tagging at the same time.
+ * 				Optionally upper and lower case are not distinguished.
+ * 				A TermMatcher is immutable and can be shared by any number of threads.
+ *
+ * @changelog	0.1 (Chris)			class created
+ *
+ */
+public final class TermMatcher {
+
+	private static final int ROOT = 0;
+
+	// the terms as given, without duplicates
+	private final String[] terms;
+	private final int[] termLength;
+	private final Map<String, Integer> termIndex;
+	private final List<String> source;
+	private final boolean ignoreCase;
+
+	// the automaton - per state the sorted characters of its transitions and their target states,
+	// the fallback state if no transition matches and the terms ending in the state
+	private final char[][] edgeChars;
+	private final int[][] edgeTargets;
+	private final int[] failure;
+	private final int[][] output;
+
+	/**
+	 * @param 	terms		the terms to look for - null and empty terms are ignored
+	 * @param 	ignoreCase	true if "SAP" shall also match "sap"
+	 */
+	public TermMatcher(Collection<String> terms, boolean ignoreCase) {
+		this.ignoreCase = ignoreCase;
+		this.source = (terms != null) ? new ArrayList<String>(terms) : new ArrayList<String>();
+
+		List<String> distinct = new ArrayList<String>();
+		this.termIndex = new HashMap<String, Integer>();
+		for (String term : source) {
+			if (term != null && term.length() > 0 && !termIndex.containsKey(term)) {
+				termIndex.put(term, distinct.size());
+				distinct.add(term);
+			}
+		}
+		this.terms = distinct.toArray(new String[distinct.size()]);
+		this.termLength = new int[this.terms.length];
+
+		// build the trie of all terms
+		List<Map<Character, Integer>> trie = new ArrayList<Map<Character, Integer>>();
+		List<List<Integer>> ends = new ArrayList<List<Integer>>();
+		trie.add(new HashMap<Character, Integer>());
+		ends.add(new ArrayList<Integer>());
+		for (int t = 0; t < this.terms.length; t++) {
+			String term = this.terms[t];
+			termLength[t] = term.length();
+			int state = ROOT;
+			for (int i = 0; i < term.length(); i++) {
+				Character c = fold(term.charAt(i));
+				Integer next = trie.get(state).get(c);
+				if (next == null) {
+					next = trie.size();
+					trie.add(new HashMap<Character, Integer>());
+					ends.add(new ArrayList<Integer>());
+					trie.get(state).put(c, next);
+				}
+				state = next;
+			}
+			ends.get(state).add(t);
+		}
+
+		int states = trie.size();
+		this.edgeChars = new char[states][];
+		this.edgeTargets = new int[states][];
+		this.failure = new int[states];
+		this.output = new int[states][];
+
+		for (int s = 0; s < states; s++) {
+			Map<Character, Integer> edges = trie.get(s);
+			char[] chars = new char[edges.size()];
+			int i = 0;
+			for (Character c : edges.keySet())
+				chars[i++] = c;
+			Arrays.sort(chars);
+			int[] targets = new int[chars.length];
+			for (i = 0; i < chars.length; i++)
+				targets[i] = edges.get(chars[i]);
+			edgeChars[s] = chars;
+			edgeTargets[s] = targets;
+		}
+
+		// breadth first, so the fallback of a state is always computed before the state itself
+		ArrayDeque<Integer> queue = new ArrayDeque<Integer>();
+		output[ROOT] = toArray(ends.get(ROOT));
+		for (int target : edgeTargets[ROOT]) {
+			failure[target] = ROOT;
+			queue.add(target);
+		}
+		while (!queue.isEmpty()) {
+			int s = queue.poll();
+			List<Integer> out = ends.get(s);
+			for (int t : output[failure[s]])
+				out.add(t);
+			output[s] = toArray(out);
+
+			for (int i = 0; i < edgeChars[s].length; i++) {
+				char c = edgeChars[s][i];
+				int target = edgeTargets[s][i];
+				int f = failure[s];
+				while (f != ROOT && transition(f, c) < 0)
+					f = failure[f];
+				int next = transition(f, c);
+				failure[target] = (next >= 0 && next != target) ? next : ROOT;
+				queue.add(target);
+			}
+		}
+	}
+
+	/**
+	 * @description	checks whether any of the terms occurs in the text as a whole word
+	 * @param 		text
+	 * @return		true on the first whole word hit
+	 */
+	public boolean containsWord(CharSequence text) {
+		return scan(text, true) != null;
+	}
+
+	/**
+	 * @description	scans the text once and returns all terms found in it
+	 * @param 		text
+	 * @return		the hits of the scan
+	 */
+	public Hits find(CharSequence text) {
+		return scan(text, false);
+	}
+
+	/**
+	 * @description	checks whether the matcher was built from the given terms, so a caller can
+	 * 				keep its matcher as long as the terms do not change
+	 * @param 		terms
+	 */
+	public boolean isBuiltFrom(Collection<String> terms) {
+		return terms != null && source.size() == terms.size() && source.equals(new ArrayList<String>(terms));
+	}
+
+	public boolean isIgnoreCase() {
+		return ignoreCase;
+	}
+
+	public List<String> getTerms() {
+		return Collections.unmodifiableList(Arrays.asList(terms));
+	}
+
+
+	// runs the automaton over the text - with firstWordOnly set, it stops on the first whole word
+	// hit and returns null if there is none
+	private Hits scan(CharSequence text, boolean firstWordOnly) {
+		Hits hits = new Hits();
+		if (text == null || terms.length == 0)
+			return firstWordOnly ? null : hits;
+
+		int state = ROOT;
+		int length = text.length();
+		for (int i = 0; i < length; i++) {
+			char c = fold(text.charAt(i));
+			int next = transition(state, c);
+			while (next < 0 && state != ROOT) {
+				state = failure[state];
+				next = transition(state, c);
+			}
+			state = (next < 0) ? ROOT : next;
+
+			for (int t : output[state]) {
+				int start = i + 1 - termLength[t];
+				boolean isWord = isWordBoundary(text, start) && isWordBoundary(text, i + 1);
+				if (firstWordOnly) {
+					if (isWord)
+						return hits;
+					continue;
+				}
+				hits.found.set(t);
+				if (isWord)
+					hits.words.set(t);
+			}
+		}
+		return firstWordOnly ? null : hits;
+	}
+
+	private int transition(int state, char c) {
+		int idx = Arrays.binarySearch(edgeChars[state], c);
+		return (idx < 0) ? -1 : edgeTargets[state][idx];
+	}
+
+	private char fold(char c) {
+		return ignoreCase ? Character.toLowerCase(Character.toUpperCase(c)) : c;
+	}
+
+	// the same definition of a word boundary as \b in java.util.regex
+	private static boolean isWordBoundary(CharSequence text, int pos) {
+		boolean before = pos > 0 && isWordChar(text.charAt(pos - 1));
+		boolean after = pos < text.length() && isWordChar(text.charAt(pos));
+		return before != after;
+	}
+
+	private static boolean isWordChar(char c) {
+		return c == '_' || Character.isLetterOrDigit(c);
+	}
+
+	private static int[] toArray(List<Integer> values) {
+		int[] array = new int[values.size()];
+		for (int i = 0; i < array.length; i++)
+			array[i] = values.get(i);
+		return array;
+	}
+
+
+	/**
+	 *
+	 * @description	the terms found by one scan
+	 *
+	 */
+	public final class Hits {
+		private final BitSet found = new BitSet();
+		private final BitSet words = new BitSet();
+
+		private Hits() {}
+
+		/**
+		 * @description	true if any term was found as a whole word
+		 */
+		public boolean anyWord() {
+			return !words.isEmpty();
+		}
+
+		/**
+		 * @description	true if any of the given terms was found as a whole word
+		 * @param 		subset	terms the matcher was built from
+		 */
+		public boolean anyWord(Collection<String> subset) {
+			return any(words, subset);
+		}
+
+		/**
+		 * @description	true if any of the given terms occurs anywhere in the text
+		 * @param 		subset	terms the matcher was built from
+		 */
+		public boolean anyFound(Collection<String> subset) {
+			return any(found, subset);
+		}
+
+		/**
+		 * @description	true if the term occurs anywhere in the text
+		 */
+		public boolean isFound(String term) {
+			Integer t = termIndex.get(term);
+			return t != null && found.get(t);
+		}
+
+		/**
+		 * @description	true if the term occurs in the text as a whole word
+		 */
+		public boolean isWord(String term) {
+			Integer t = termIndex.get(term);
+			return t != null && words.get(t);
+		}
+
+		/**
+		 * @description	returns the terms which occur anywhere in the text, in the order given
+		 * @param 		subset	terms the matcher was built from
+		 */
+		public ArrayList<String> getFound(Collection<String> subset) {
+			ArrayList<String> result = new ArrayList<String>();
+			if (subset != null)
+				for (String term : subset)
+					if (isFound(term))
+						result.add(term);
+			return result;
+		}
+
+		/**
+		 * @description	returns all terms which occur anywhere in the text
+		 */
+		public ArrayList<String> getFound() {
+			return getFound(source);
+		}
+
+		private boolean any(BitSet bits, Collection<String> subset) {
+			if (subset == null || bits.isEmpty())
+				return false;
+			for (String term : subset) {
+				Integer t = termIndex.get(term);
+				if (t != null && bits.get(t))
+					return true;
+			}
+			return false;
+		}
+	}
+}
@@ -1,50 +1,258 @@
 package de.comlineag.snc.helper;
 
-import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 
 
 /**
- * 
+ *
  * @author 		Christian Gunether
  * @category 	helper class
- * @version 	0.2					- 22.10.2014
+ * @version 	0.3a				- 17.10.2026
  * @status		productive
  *
- * @description creates an SHA-256 from a given input string 
- * 
+ * @description creates a unique id of 20 hex chars from a given input string, char array or byte
+ * 				array - either from an SHA-256 (createMessageDigest) or, for ids which only need to
+ * 				be stable and unique, from the much faster non-cryptographic 128 bit Murmur3 hash
+ * 				(createHashId).
+ * 				Every thread keeps its own MessageDigest and buffers, so an id costs no lookup of
+ * 				the algorithm and no garbage besides the returned string. Chars are hashed as their
+ * 				UTF-8 bytes, so a string and the same chars in an array give the same id.
+ *
  * @changelog	0.1 (Chris)			class created
  * 				0.2					changed class to create an SHA-256 hash
+ * 				0.3					thread local digest and hex lookup table, added Murmur3 ids and
+ * 									char and byte array input
+ * 				0.3a				the Murmur3 id of a char array longer than the buffer hashed the 
+ * 									buffer from before its growth
  *
  */
 public final class UniqueIdServices {
+	// we can only use 20 chars - thanks to the stupid hana schema layout
+	private static final int ID_LENGTH = 20;
+	private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+	// constants of the x64 128 bit variant of Murmur3
+	private static final long MURMUR3_C1 = 0x87c37b91114253d5L;
+	private static final long MURMUR3_C2 = 0x4cf5ad432745937fL;
+
+	private static final ThreadLocal<Workspace> WORKSPACE = new ThreadLocal<Workspace>() {
+		@Override
+		protected Workspace initialValue() {
+			return new Workspace();
+		}
+	};
+
+
+	/**
+	 * @description	creates the id from the SHA-256 of the UTF-8 bytes of the input
+	 */
 	public static String createMessageDigest(String inputString) {
 		assert (inputString != null) : "ERROR :: cannot operate on empty input";
-		String digest = null; 
-		try { 
-			MessageDigest md = MessageDigest.getInstance("SHA-256"); 
-			byte[] hash = md.digest(inputString.getBytes("UTF-8")); //converting byte array to Hexadecimal String 
-			StringBuilder sb = new StringBuilder(2*hash.length); 
-			for(byte b : hash){
-				// we can only use 20 chars - thanks to the stupid hana schema layout
-				if (sb.length()<20)
-					sb.append(String.format("%02x", b&0xff)); 
-			} 
-			digest = sb.toString(); 
-		} catch (UnsupportedEncodingException ex) { 
-			ex.printStackTrace();
-		} catch (NoSuchAlgorithmException ex) { 
-			ex.printStackTrace(); 
-		} 
-		return digest;	
-	}
-	
-	
+		// the encoder of String is faster than the one for char arrays below
+		byte[] bytes = inputString.getBytes(StandardCharsets.UTF_8);
+		return createMessageDigest(bytes, 0, bytes.length);
+	}
+
+	public static String createMessageDigest(char[] chars, int offset, int length) {
+		assert (chars != null) : "ERROR :: cannot operate on empty input";
+		Workspace ws = WORKSPACE.get();
+		return ws.sha256(ws.encode(CharBuffer.wrap(chars, offset, length)));
+	}
+
+	public static String createMessageDigest(byte[] bytes, int offset, int length) {
+		assert (bytes != null) : "ERROR :: cannot operate on empty input";
+		Workspace ws = WORKSPACE.get();
+		ws.sha256.update(bytes, offset, length);
+		return ws.sha256();
+	}
+
+
+	/**
+	 * @description	creates the id from the 128 bit Murmur3 hash (x64 variant, seed 0) of the UTF-8 
+	 * 				bytes of the input - the same hash as guava's Hashing.murmur3_128(), but without
+	 * 				its byte buffers. The ids are as stable as the SHA-256 ones, but differ from 
+	 * 				them - so a kind of object must always get its ids from the same method
+	 */
+	public static String createHashId(String inputString) {
+		assert (inputString != null) : "ERROR :: cannot operate on empty input";
+		byte[] bytes = inputString.getBytes(StandardCharsets.UTF_8);
+		return WORKSPACE.get().murmur3(bytes, 0, bytes.length);
+	}
+
+	public static String createHashId(char[] chars, int offset, int length) {
+		assert (chars != null) : "ERROR :: cannot operate on empty input";
+		Workspace ws = WORKSPACE.get();
+		// encode first - it may replace the buffer utf8 with a larger one
+		int n = ws.encode(CharBuffer.wrap(chars, offset, length));
+		return ws.murmur3(ws.utf8, 0, n);
+	}
+
+	public static String createHashId(byte[] bytes, int offset, int length) {
+		assert (bytes != null) : "ERROR :: cannot operate on empty input";
+		return WORKSPACE.get().murmur3(bytes, offset, length);
+	}
+
+
+	/**
+	 *
+	 * @description	the digest and the buffers of one thread
+	 *
+	 */
+	private static final class Workspace {
+		private final MessageDigest sha256;
+		private final byte[] hash = new byte[32];
+		private final char[] id = new char[ID_LENGTH];
+		private byte[] utf8 = new byte[256];
+
+		Workspace() {
+			try {
+				sha256 = MessageDigest.getInstance("SHA-256");
+			} catch (NoSuchAlgorithmException e) {
+				// every java platform has to support SHA-256
+				throw new IllegalStateException("SHA-256 is not available", e);
+			}
+		}
+
+		// finishes the digest of the bytes in utf8 or, after update, of the bytes passed
+		String sha256(int length) {
+			sha256.update(utf8, 0, length);
+			return sha256();
+		}
+
+		String sha256() {
+			try {
+				sha256.digest(hash, 0, hash.length);
+			} catch (DigestException e) {
+				throw new IllegalStateException(e);
+			}
+			return toHex(hash);
+		}
+
+		String murmur3(byte[] bytes, int offset, int length) {
+			long h1 = 0;
+			long h2 = 0;
+			int end = offset + (length & ~15);
+			ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+			for (int i = offset; i < end; i += 16) {
+				long k1 = buffer.getLong(i);
+				long k2 = buffer.getLong(i + 8);
+				h1 ^= mixK1(k1);
+				h1 = Long.rotateLeft(h1, 27);
+				h1 += h2;
+				h1 = h1 * 5 + 0x52dce729;
+				h2 ^= mixK2(k2);
+				h2 = Long.rotateLeft(h2, 31);
+				h2 += h1;
+				h2 = h2 * 5 + 0x38495ab5;
+			}
+
+			// the last 1 to 15 bytes
+			long k1 = 0;
+			long k2 = 0;
+			int tail = length & 15;
+			for (int i = tail - 1; i >= 8; i--)
+				k2 = (k2 << 8) | (bytes[end + i] & 0xffL);
+			for (int i = Math.min(tail, 8) - 1; i >= 0; i--)
+				k1 = (k1 << 8) | (bytes[end + i] & 0xffL);
+			h1 ^= mixK1(k1);
+			h2 ^= mixK2(k2);
+
+			h1 ^= length;
+			h2 ^= length;
+			h1 += h2;
+			h2 += h1;
+			h1 = fmix64(h1);
+			h2 = fmix64(h2);
+			h1 += h2;
+			h2 += h1;
+
+			// little endian, as guava's HashCode.asBytes()
+			for (int i = 0; i < 8; i++) {
+				hash[i] = (byte) (h1 >>> (8 * i));
+				hash[8 + i] = (byte) (h2 >>> (8 * i));
+			}
+			return toHex(hash);
+		}
+
+		private static long mixK1(long k1) {
+			k1 *= MURMUR3_C1;
+			k1 = Long.rotateLeft(k1, 31);
+			return k1 * MURMUR3_C2;
+		}
+
+		private static long mixK2(long k2) {
+			k2 *= MURMUR3_C2;
+			k2 = Long.rotateLeft(k2, 33);
+			return k2 * MURMUR3_C1;
+		}
+
+		private static long fmix64(long k) {
+			k ^= k >>> 33;
+			k *= 0xff51afd7ed558ccdL;
+			k ^= k >>> 33;
+			k *= 0xc4ceb9fe1a85ec53L;
+			k ^= k >>> 33;
+			return k;
+		}
+
+		// the first 10 bytes as 20 hex chars
+		private String toHex(byte[] bytes) {
+			for (int i = 0; i < ID_LENGTH / 2; i++) {
+				id[2*i] = HEX_DIGITS[(bytes[i] >> 4) & 0x0f];
+				id[2*i + 1] = HEX_DIGITS[bytes[i] & 0x0f];
+			}
+			return new String(id);
+		}
+
+		/**
+		 * @description	writes the chars as UTF-8 into the buffer utf8 - an unpaired surrogate
+		 * 				becomes a '?', as with String.getBytes
+		 * @return		the number of bytes written
+		 */
+		int encode(CharSequence chars) {
+			int length = chars.length();
+			// a char takes at most 3 bytes, a surrogate pair 4 bytes for two chars
+			if (utf8.length < 3 * length)
+				utf8 = new byte[Math.max(3 * length, 2 * utf8.length)];
+			byte[] out = utf8;
+			int pos = 0;
+			for (int i = 0; i < length; i++) {
+				char c = chars.charAt(i);
+				if (c < 0x80) {
+					out[pos++] = (byte) c;
+				} else if (c < 0x800) {
+					out[pos++] = (byte) (0xc0 | (c >> 6));
+					out[pos++] = (byte) (0x80 | (c & 0x3f));
+				} else if (Character.isSurrogate(c)) {
+					if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(chars.charAt(i + 1))) {
+						int cp = Character.toCodePoint(c, chars.charAt(++i));
+						out[pos++] = (byte) (0xf0 | (cp >> 18));
+						out[pos++] = (byte) (0x80 | ((cp >> 12) & 0x3f));
+						out[pos++] = (byte) (0x80 | ((cp >> 6) & 0x3f));
+						out[pos++] = (byte) (0x80 | (cp & 0x3f));
+					} else {
+						out[pos++] = (byte) '?';
+					}
+				} else {
+					out[pos++] = (byte) (0xe0 | (c >> 12));
+					out[pos++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+					out[pos++] = (byte) (0x80 | (c & 0x3f));
+				}
+			}
+			return pos;
+		}
+	}
+
+
 	/**
 	 * the class is not to be instantiated
 	 */
 	private UniqueIdServices() {
-		
+
 	}
 }
@@ -7,12 +7,13 @@ import java.util.Objects;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-import org.apache.commons.lang3.StringUtils;
 import org.json.simple.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import de.comlineag.snc.appstate.RuntimeConfiguration;
 import de.comlineag.snc.handler.WebPosting;
+import de.comlineag.snc.helper.TermMatcher;
 import de.comlineag.snc.helper.UniqueIdServices;
 
 
@@ -20,7 +21,7 @@ import de.comlineag.snc.helper.UniqueIdServices;
  * 
  * @author 		Christian Guenther
  * @category 	Parser
- * @version		1.0b			- 09.10.2014
+ * @version		1.0e			- 17.10.2026
  * @status		productive
  * 
  * @description GenericWebParser is the abstract base class for web site parsing. It is derived from
@@ -37,15 +38,45 @@ import de.comlineag.snc.helper.UniqueIdServices;
  * 				1.0				productive version without deprecated writeContentToDisk method
  * 				1.0a			removed abstract method extractContent because only needed by SimpleWebParser
  * 				1.0b			added methods returnTokenPosition and trimStringAtPosition
+ * 				1.0c			findNeedleInHaystack uses a TermMatcher, which is only rebuilt if the terms change
+ * 				1.0d			added parse(ParsedWebPage ...) - parses the html, unless a parser overrides it
+ * 				1.0e			added createId - ids from SHA-256 or, with WcFastPageIds, from Murmur3
  * 
  */
 public abstract class GenericWebParser extends GenericParser implements IWebParser {
 	private final Logger logger = LoggerFactory.getLogger(getClass().getName());
 	
+	private final boolean rtcTrackTermsIgnoreCase = RuntimeConfiguration.getInstance().getBooleanValue("TrackTermsIgnoreCase", "crawler");
+	private final boolean rtcFastPageIds = RuntimeConfiguration.getInstance().getBooleanValue("WcFastPageIds", "crawler");
+	
+	// the parser instances are shared, so the compiled terms are kept until other terms are asked for
+	private volatile TermMatcher needleMatcher = new TermMatcher(null, false);
+	
 	public GenericWebParser() {}
 
 	public abstract List<WebPosting> parse(String page, URL url, List<String> tokens, String sn_id, String curCustomer, String curDomain);
 	
+	/**
+	 * @description	parses a page the crawler already parsed. Parsers which need the structure of the 
+	 * 				html get the html, those which can do with the text, title and meta tags of the page 
+	 * 				override this method
+	 */
+	@Override
+	public List<WebPosting> parse(ParsedWebPage page, URL url, List<String> tokens, String sn_id, String curCustomer, String curDomain) {
+		return parse(page.getHtml(), url, tokens, sn_id, curCustomer, curDomain);
+	}
+	
+	
+	/**
+	 * @description	creates the id of a page or a user from the given text - from an SHA-256 or, 
+	 * 				if WcFastPageIds is set, from the much faster Murmur3 hash
+	 */
+	protected String createId(String text) {
+		if (rtcFastPageIds)
+			return UniqueIdServices.createHashId(text);
+		return UniqueIdServices.createMessageDigest(text);
+	}
+	
 	
 	/**
 	 * @description checks if ANY word of a given set of tokens is found in the given text
@@ -57,15 +88,17 @@ public abstract class GenericWebParser extends GenericParser implements IWebPars
 	protected boolean findNeedleInHaystack(String haystack, List<String> needle) throws NullPointerException {
 		assert (haystack != null && needle != null) : "ERROR :: cannot operate on empty text";
 		
-		String patternString = "\\b(" + StringUtils.join(needle, "|") + ")\\b";
-		Pattern pattern = Pattern.compile(patternString);
-		Matcher matcher = pattern.matcher(haystack);
-
-		while (matcher.find()) {
-			return true;
+		TermMatcher matcher = needleMatcher;
+		if (!matcher.isBuiltFrom(needle)) {
+			matcher = new TermMatcher(needle, rtcTrackTermsIgnoreCase);
+			needleMatcher = matcher;
 		}
 		
-		return false;
+		// no terms at all means no restriction
+		if (matcher.getTerms().isEmpty())
+			return true;
+		
+		return matcher.containsWord(haystack);
 	}
 	
 	/**
@@ -7,8 +7,8 @@ import de.comlineag.snc.handler.WebPosting;
 
 /**
  * @author 		Christian Guenther
- * @version		0.1
- * @status		Beta		- 05.10.2014
+ * @version		0.2
+ * @status		Beta		- 17.10.2026
  * 
  * @description	THis interface IWebParser is implemented by all web parser. 
  * 				I has an abstract method execute(String page, URL url), which all parser must
@@ -32,10 +32,16 @@ import de.comlineag.snc.handler.WebPosting;
  * 				the parser to a hashtable with domain as the key. Hence each parser is now assigned 
  * 				with a domain. In the submit method, just get hashtable.get(type).execute(proc)
  * 
+ * 				The crawler hands the page as ParsedWebPage, with the text, title, meta tags, language
+ * 				and links it already got from its own parse - a parser that needs nothing else shall 
+ * 				not parse the html again.
+ * 
  * @changelog	0.1 (Chris)	interface created
+ * 				0.2			added parse(ParsedWebPage ...) to reuse the parse of the crawler
  */
 public interface IWebParser {
 	public abstract Object execute(String page, URL url);
 	public abstract List<WebPosting> parse(String page, URL url, List<String> tokens, String sn_id, String curCustomer, String curDomain);
+	public abstract List<WebPosting> parse(ParsedWebPage page, URL url, List<String> tokens, String sn_id, String curCustomer, String curDomain);
 	public abstract boolean canExecute(String page, URL url);
 }
@@ -0,0 +1,76 @@
+package de.comlineag.snc.parser;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+import de.comlineag.snc.webcrawler.crawler.Page;
+import de.comlineag.snc.webcrawler.parser.HtmlParseData;
+import de.comlineag.snc.webcrawler.url.WebURL;
+
+/**
+ *
+ * @author 		Christian Guenther
+ * @category 	Parser
+ * @version		0.1				- 17.10.2026
+ * @status		productive
+ *
+ * @description	the result of the one and only parse of a crawled web page, as done by the crawler
+ * 				(Tika in WebCrawlerParser): the html source, the plain text of the body, title, meta
+ * 				tags, language and the outgoing links. It is handed to the web parser, so that a
+ * 				parser which only needs the text (like SimpleWebParser) does not have to parse the
+ * 				html once more. Parsers that need the structure of the page still find the html here.
+ * 				The names of the meta tags are lower case.
+ *
+ * @changelog	0.1 (Chris)		class created
+ *
+ */
+public final class ParsedWebPage {
+	private final String html;
+	private final String text;
+	private final String title;
+	private final Map<String, String> metaTags;
+	private final String language;
+	private final Set<WebURL> outgoingUrls;
+	
+	public ParsedWebPage(String html, String text, String title, Map<String, String> metaTags, String language, Set<WebURL> outgoingUrls) {
+		this.html = html;
+		this.text = text;
+		this.title = title;
+		this.metaTags = (metaTags != null) ? metaTags : Collections.<String, String>emptyMap();
+		this.language = language;
+		this.outgoingUrls = (outgoingUrls != null) ? outgoingUrls : Collections.<WebURL>emptySet();
+	}
+	
+	/**
+	 * @description	takes over the parse of the crawler
+	 * @param 		page		the crawled page
+	 * @param 		parseData	its parse data
+	 */
+	public ParsedWebPage(Page page, HtmlParseData parseData) {
+		this(parseData.getHtml(), parseData.getText(), parseData.getTitle(), parseData.getMetaTags(), page.getLanguage(), parseData.getOutgoingUrls());
+	}
+	
+	/**
+	 * @description	true if the plain text of the page is known - otherwise only the html is there
+	 */
+	public boolean hasText() {
+		return text != null;
+	}
+	
+	public String getHtml()					{ return html; }
+	public String getText()					{ return text; }
+	public String getTitle()				{ return title; }
+	public Map<String, String> getMetaTags(){ return metaTags; }
+	public String getLanguage()				{ return language; }
+	public Set<WebURL> getOutgoingUrls()	{ return outgoingUrls; }
+	
+	/**
+	 * @description	returns the content of a meta tag
+	 * @param 		name	e.g. description or keywords, in any case
+	 * @return		the content or null
+	 */
+	public String getMetaTag(String name) {
+		return metaTags.get(name.toLowerCase());
+	}
+}
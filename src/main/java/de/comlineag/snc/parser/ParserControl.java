@@ -4,8 +4,8 @@ import java.io.File;
 import java.io.IOException;
 import java.net.URL;
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
@@ -20,6 +20,7 @@ import org.slf4j.LoggerFactory;
 
 import org.w3c.dom.DOMException;
 import org.w3c.dom.Document;
+import org.w3c.dom.Element;
 import org.w3c.dom.NodeList;
 import org.xml.sax.SAXException;
 
@@ -31,7 +32,7 @@ import de.comlineag.snc.parser.IWebParser;
  * 
  * @author 		Christian Guenther
  * @category 	Handler
- * @version		0.1				- 06.10.2014
+ * @version		0.3a			- 17.10.2026
  * @status		in production
  * 
  * @description ParserControl is the generic caller class for each web parser. Whenever a web page
@@ -43,37 +44,56 @@ import de.comlineag.snc.parser.IWebParser;
  * 				To register a new web parser you have to create the class and enter it's details in 
  * 				the properties file (SNC_WebParser.properties). 
  * 				
- * 				PC is designed as a singleton class. It maintains a static reference to the lone 
- * 				singleton instance and returns that reference from the static getInstance() method. 
- * 				We employ a technique known as lazy instantiation to create the singleton in which 
- * 				the singleton instance is not created until the getInstance() method is called for 
- * 				the first time. This technique ensures that singleton instances are created only if needed. 
+ * 				PC is designed as a singleton class, created on first use with the Initialization-
+ * 				on-demand holder idiom, so that concurrent crawler threads get one and the same 
+ * 				instance.
  * 				 
- * 				Upon first call, PC will get all available parser from the webparser.xml file and create 
- * 				an ordered list of them. Every subsequent call will loop through this list querying the 
- * 				parser whether it can parse the page and, upon receiving true from the parser, hand the 
- * 				page, the original url and the list of track terms over to it. The loop works as a first-
- * 				match-wins decision - the first parser to return true on a page, will get the page.
+ * 				Upon creation, PC reads all available parser from the webparser.xml file and builds a
+ * 				routing table of them. A parser may be bound to a host (attribute host, a part of the 
+ * 				host of the url, several separated by comma) and a path (attribute path, a part of the 
+ * 				path of the url). Such a parser is only considered for urls whose host and path contain 
+ * 				these values, so pages of other hosts are never sniffed by it. With sniff="false" a parser is taken on the url 
+ * 				alone, otherwise its canExecute() still has to confirm the page. Parsers without a 
+ * 				host are tried in the order of the file for every url no host bound parser took. 
+ * 				The selection works as a first-match-wins decision - the first parser to return true 
+ * 				on a page, will get the page.
+ * 				
+ * 				How often each parser was selected and how long sniffing and parsing took is exposed 
+ * 				via JMX (ParserControlMBean).
  * 
  * @changelog	0.1 (Chris)		class created
+ * 				0.2				added submit for pages already parsed by the crawler (ParsedWebPage)
+ * 				0.3				routing table by host and path, thread safe initialization and 
+ * 								statistics per parser
+ * 				0.3a			host and path of a route are matched by contains again, as the former 
+ * 								dispatch and the canExecute() of the WO parsers do
  * 
  * 
  */
-public class ParserControl {
+public class ParserControl implements ParserControlMBean {
 	// this holds a reference to the runtime configuration
 	private final RuntimeConfiguration rtc = RuntimeConfiguration.getInstance();
 	
 	private static final Logger logger = LoggerFactory.getLogger(ParserControl.class);
-		
+	
+	// singleton design pattern using Initialization-on-demand holder idiom,
+	private static class Holder { static final ParserControl instance = new ParserControl(); }
+	
 	// the list of operational web parser as taken from the properties file is stored within this structure
-	private List<IWebParser> webParser; 
-	// the ParserControl instance - used during instantiation of the class and later to retrieve the list 
-	private static ParserControl pc = null;
+	private List<IWebParser> webParser = new ArrayList<IWebParser>();
+	// the host bound parser, in the order of the file
+	private final List<Route> hostRoutes = new ArrayList<Route>();
+	// the parser without host, in the order of the file
+	private final List<Route> genericRoutes = new ArrayList<Route>();
+	
+	private final AtomicLong submittedPages = new AtomicLong();
+	private final AtomicLong routedByUrl = new AtomicLong();
+	private final AtomicLong unmatchedPages = new AtomicLong();
 	
 	// ParserControl is not to be directly instantiated by other classes
 	private ParserControl() {
 		try {
-			webParser = getAllParser();
+			getAllParser();
 		} catch (Exception e) {
 			logger.error("EXCEPTION :: error during parser execution " + e.getMessage());
 			e.printStackTrace();
@@ -86,8 +106,7 @@ public class ParserControl {
 	// an instance of ParserControl
 	public static ParserControl getInstance() 
 			throws XPathExpressionException, ParserConfigurationException, SAXException, IOException {
-		if (pc == null) {pc = new ParserControl();}
-		return pc;
+		return Holder.instance;
 	}
 	
 	
@@ -111,24 +130,110 @@ public class ParserControl {
 	 */
 	public static List<WebPosting> submit(String page, URL url, ArrayList<String> tTerms, String sn_id, String curCustomer, String curDomain) 
 			throws XPathExpressionException, ParserConfigurationException, SAXException, IOException{
-		pc = getInstance();
-		
-		Iterator<IWebParser> it = pc.webParser.iterator();
-		while (it.hasNext()) {
-		    IWebParser parser = it.next();
-		    logger.trace("querying if parser " + parser.getClass().getSimpleName().toString() + " can operate on site " + url.toString());
-		    if (parser.canExecute(page, url)) {
-		    	logger.debug("executing parser " + parser.getClass().getSimpleName().toString());
-		        return parser.parse(page, url, tTerms, sn_id, curCustomer, curDomain);
-		    }
+		ParserControl pc = getInstance();
+		
+		Route route = pc.select(page, url);
+		if (route == null)
+			return null;
+		
+		logger.debug("executing parser " + route.name);
+		long start = System.nanoTime();
+		try {
+			return route.parser.parse(page, url, tTerms, sn_id, curCustomer, curDomain);
+		} finally {
+			route.parseNanos.addAndGet(System.nanoTime() - start);
 		}
+	}
+	
+	
+	/**
+	 * 
+	 * @description	submits a page the crawler already parsed to the actual parser - which parser is 
+	 * 				taken depends on the page. The parser can reuse the text, title, meta tags and 
+	 * 				language of the page instead of parsing the html again
+	 * 
+	 * @param 		page 	- the parsed web page
+	 * @param 		url		- the url the page is coming from 
+	 * @param 		tTerms	- a list of track terms 
+	 * @param 		sn_id	- the two digit code identifying the page, or network
+	 * @param		curCustomer
+	 * @param		curDomain
+	 * @return 		List of simple web postings (a json structure with 1-n postings (or pages)
+	 * 
+	 */
+	public static List<WebPosting> submit(ParsedWebPage page, URL url, ArrayList<String> tTerms, String sn_id, String curCustomer, String curDomain) 
+			throws XPathExpressionException, ParserConfigurationException, SAXException, IOException{
+		ParserControl pc = getInstance();
 		
+		Route route = pc.select(page.getHtml(), url);
+		if (route == null)
+			return null;
+		
+		logger.debug("executing parser " + route.name);
+		long start = System.nanoTime();
+		try {
+			return route.parser.parse(page, url, tTerms, sn_id, curCustomer, curDomain);
+		} finally {
+			route.parseNanos.addAndGet(System.nanoTime() - start);
+		}
+	}
+	
+	
+	/**
+	 * 
+	 * @description	chooses the parser for the page - first the parser bound to the host of the url,
+	 * 				then the parser without host
+	 * 
+	 * @param 		page	- the web page as a String
+	 * @param 		url		- the url the page is coming from
+	 * @return		the route to the parser or null if no parser wants the page
+	 * 
+	 */
+	private Route select(String page, URL url) {
+		submittedPages.incrementAndGet();
+		String host = (url.getHost() != null) ? url.getHost().toLowerCase() : "";
+		String path = url.getPath();
+		
+		for (Route route : hostRoutes) {
+			if (!route.matchesHost(host) || !route.matchesPath(path))
+				continue;
+			if (!route.sniff) {
+				routedByUrl.incrementAndGet();
+				route.hits.incrementAndGet();
+				return route;
+			}
+			if (sniff(route, page, url))
+				return route;
+		}
+		
+		for (Route route : genericRoutes) {
+			if (!route.sniff) {
+				route.hits.incrementAndGet();
+				return route;
+			}
+			if (sniff(route, page, url))
+				return route;
+		}
+		
+		unmatchedPages.incrementAndGet();
+		logger.warn("no parser found for site " + url.toString());
 		return null;
 	}
 	
+	// asks the parser whether it can operate on the page
+	private boolean sniff(Route route, String page, URL url) {
+		logger.trace("querying if parser " + route.name + " can operate on site " + url.toString());
+		long start = System.nanoTime();
+		boolean canExecute = route.parser.canExecute(page, url);
+		route.sniffs.incrementAndGet();
+		route.sniffNanos.addAndGet(System.nanoTime() - start);
+		if (canExecute)
+			route.hits.incrementAndGet();
+		return canExecute;
+	}
 	
-	// retrieves all configured parser from the properties file and creates the parser list 
-	private List<IWebParser> getAllParser()
+	// retrieves all configured parser from the properties file and creates the parser list and the routing table
+	private void getAllParser()
 			throws IOException, ParserConfigurationException, SAXException, XPathExpressionException, 
 					InstantiationException, IllegalAccessException, ClassNotFoundException, DOMException {
 		logger.debug("building list of available web parser");
@@ -147,10 +252,98 @@ public class ParserControl {
 		String expression = "//parser[@type='webparser']/value";
 		NodeList nodeList= (NodeList) xpath.compile(expression).evaluate(doc, XPathConstants.NODESET);
 		for (int i = 0 ; i < nodeList.getLength() ; i++) {
-			logger.trace("adding parser " + nodeList.item(i).getTextContent().toString() + " from configuration file " + fileName + " to list of avilable parser");
-			ar.add((IWebParser)Class.forName(nodeList.item(i).getTextContent()).newInstance());
+			Element value = (Element) nodeList.item(i);
+			String className = value.getTextContent().trim();
+			logger.trace("adding parser " + className + " from configuration file " + fileName + " to list of avilable parser");
+			IWebParser parser = (IWebParser) Class.forName(className).newInstance();
+			ar.add(parser);
+			
+			String path = value.getAttribute("path").trim();
+			boolean sniff = !"false".equalsIgnoreCase(value.getAttribute("sniff").trim());
+			String hosts = value.getAttribute("host").trim();
+			if (hosts.isEmpty()) {
+				genericRoutes.add(new Route(parser, "", path, sniff));
+				continue;
+			}
+			for (String host : hosts.split(",")) {
+				host = host.trim().toLowerCase();
+				if (host.isEmpty())
+					continue;
+				hostRoutes.add(new Route(parser, host, path, sniff));
+				logger.debug("parser {} is bound to hosts containing {} and paths containing {}", parser.getClass().getSimpleName(), host, path);
+			}
 		}
 		
-		return ar;
+		webParser = ar;
+	}
+	
+	
+	// statistics of the parser selection - exposed via JMX
+	@Override
+	public long getSubmittedPages()		{ return submittedPages.get(); }
+	@Override
+	public long getRoutedByUrl()		{ return routedByUrl.get(); }
+	@Override
+	public long getUnmatchedPages()		{ return unmatchedPages.get(); }
+	@Override
+	public int getParserCount()			{ return webParser.size(); }
+	
+	@Override
+	public String[] getParserStatistics() {
+		List<Route> routes = new ArrayList<Route>(hostRoutes);
+		routes.addAll(genericRoutes);
+		
+		String[] statistics = new String[routes.size()];
+		for (int i = 0; i < statistics.length; i++)
+			statistics[i] = routes.get(i).toString();
+		return statistics;
+	}
+	
+	
+	/**
+	 *
+	 * @description	one entry of the routing table - the parser, the host and path parts it is 
+	 * 				bound to and whether canExecute() has to be called. Also counts its selections and 
+	 * 				measures the time spent in the parser
+	 *
+	 */
+	private static final class Route {
+		private final IWebParser parser;
+		private final String name;
+		private final String host;
+		private final String path;
+		private final boolean sniff;
+		
+		private final AtomicLong hits = new AtomicLong();
+		private final AtomicLong sniffs = new AtomicLong();
+		private final AtomicLong sniffNanos = new AtomicLong();
+		private final AtomicLong parseNanos = new AtomicLong();
+		
+		Route(IWebParser parser, String host, String path, boolean sniff) {
+			this.parser = parser;
+			this.name = parser.getClass().getSimpleName();
+			this.host = host;
+			this.path = path;
+			this.sniff = sniff;
+		}
+		
+		boolean matchesHost(String urlHost) {
+			return host.isEmpty() || urlHost.contains(host);
+		}
+		
+		boolean matchesPath(String urlPath) {
+			return path.isEmpty() || (urlPath != null && urlPath.contains(path));
+		}
+		
+		@Override
+		public String toString() {
+			long h = hits.get();
+			long s = sniffs.get();
+			return name + (host.isEmpty() ? "" : " " + host) + (path.isEmpty() ? "" : " " + path)
+					+ ": hits=" + h
+					+ ", sniffs=" + s
+					+ ", avgSniffMillis=" + ((s == 0) ? 0 : sniffNanos.get() / s / 1000000)
+					+ ", avgParseMillis=" + ((h == 0) ? 0 : parseNanos.get() / h / 1000000);
+		}
 	}
 }
@@ -0,0 +1,28 @@
+package de.comlineag.snc.parser;
+
+/**
+ *
+ * @author 		Christian Guenther
+ * @category	interface
+ * @revision	0.1				- 17.10.2026
+ * @status		productive
+ *
+ * @description	management interface of the ParserControl. It is exported via the MBeanExporter
+ * 				in applicationContext.xml and shows which web parser got how many pages and how 
+ * 				long it took to choose and run them.
+ *
+ * @changelog	0.1 (Chris)		interface created
+ *
+ */
+public interface ParserControlMBean {
+	// number of pages submitted to the parser control
+	public long getSubmittedPages();
+	// number of pages whose parser was chosen on the url alone
+	public long getRoutedByUrl();
+	// number of pages no parser wanted
+	public long getUnmatchedPages();
+	// number of configured web parser
+	public int getParserCount();
+	// hits, canExecute calls and average sniff and parse time per parser
+	public String[] getParserStatistics();
+}
@@ -6,7 +6,9 @@ import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.TimeUnit;
 
@@ -24,7 +26,6 @@ import net.htmlparser.jericho.StartTag;
 import net.htmlparser.jericho.TextExtractor;
 import de.comlineag.snc.appstate.RuntimeConfiguration;
 import de.comlineag.snc.handler.WebPosting;
-import de.comlineag.snc.helper.UniqueIdServices;
 
 
 
@@ -32,7 +33,7 @@ import de.comlineag.snc.helper.UniqueIdServices;
  * 
  * @author 		Christian Guenther
  * @category 	Parser
- * @version		0.9a			- 09.10.2014
+ * @version		0.9c			- 17.10.2026
  * @status		beta
  * 
  * @description SimpleWebParser is the simplest implementation of the generic web parser for web sites.
@@ -51,6 +52,9 @@ import de.comlineag.snc.helper.UniqueIdServices;
  *								around the searched track terms 
  *				0.9a			moved helkper methods returnTokenPosition and trimStringAtPosition
  *								into GenericWebParser as it is also neede for other web parser
+ *				0.9b			takes text, title, description and language from the parse of the
+ *								crawler (ParsedWebPage), jericho is only used if there is none
+ *				0.9c			page and user id from createId of GenericWebParser
  * 
  * TODO implement correct threaded parser to aid in multithreading
  * TODO implement language detection (possibly with jroller http://www.jroller.com/melix/entry/jlangdetect_0_3_released_with)
@@ -76,6 +80,11 @@ public final class SimpleWebParser extends GenericWebParser implements IWebParse
 	
 	@Override
 	public List<WebPosting> parse(String page, URL url, List<String> tokens, String sn_id, String curCustomer, String curDomain) {
+		return parse(parseHtml(page), url, tokens, sn_id, curCustomer, curDomain);
+	}
+	
+	@Override
+	public List<WebPosting> parse(ParsedWebPage page, URL url, List<String> tokens, String sn_id, String curCustomer, String curDomain) {
 		String PARSER_NAME="SimpleWebParser";
 		Stopwatch timer = new Stopwatch().start();
 		
@@ -86,6 +95,8 @@ public final class SimpleWebParser extends GenericWebParser implements IWebParse
 		List<WebPosting> postings = new ArrayList<WebPosting>();
 		
 		try {
+			if (!page.hasText())
+				page = parseHtml(page.getHtml());
 			parsedPageJson = extractContent(page, url, tokens, sn_id, curCustomer, curDomain);
 			WebPosting parsedPageSimpleWebPosting = new WebPosting(parsedPageJson);
 			
@@ -113,10 +124,9 @@ public final class SimpleWebParser extends GenericWebParser implements IWebParse
 	
 	// START THE SPECIFIC PARSER
 	/**
-	 * @description	parses a given html-site, removes all header information and extracts 30 words before and after 
-	 * 				the track term.
+	 * @description	extracts 30 words before and after the track term from the text of a page
 	 * 
-	 * @param		page 	- the page to parse as a string containing the html sourcecode
+	 * @param		page 	- the parsed page with its plain text, title and meta tags
 	 * @param		url		- the url to the site
 	 * @param		tokens	- a list of tokens we searched for when finding this page
 	 * @return		json	- a json object containing the following fields:
@@ -130,11 +140,10 @@ public final class SimpleWebParser extends GenericWebParser implements IWebParse
 	 * 						  page_id = a long value created from the url by substituting every character to a number
 	 * 						  user_id = 0 
 	 */
-	protected JSONObject extractContent(String page, URL url, List<String> tokens, String sn_id, String curCustomer, String curDomain) {
-		logger.trace("parsing site " + url.toString() + " and removing clutter");
+	protected JSONObject extractContent(ParsedWebPage page, URL url, List<String> tokens, String sn_id, String curCustomer, String curDomain) {
+		logger.trace("extracting the text around the track terms of site " + url.toString());
 		String title = null;
 		String description = null;
-		String keywords = null;
 		String created_at = null;
 		String text = null;
 		String plainText = null;
@@ -142,8 +151,6 @@ public final class SimpleWebParser extends GenericWebParser implements IWebParse
 		String user_name = null;
 		String screen_name = null;
 		String page_id = null;
-		String master_page_id = null;
-		String referer_page_id = null;
 		String user_id = null;
 		String userLang = pageLang;
 		long postings_count = 0;
@@ -155,25 +162,13 @@ public final class SimpleWebParser extends GenericWebParser implements IWebParse
 		ArrayList<Integer> positions = new ArrayList<Integer>();
 		
 		try {
-			// if so, get the plain text with
-			Source source = new Source(page);
-			source.fullSequentialParse();
-			TextExtractor genericSiteTextExtractor = new TextExtractor(source) {
-				public boolean excludeElement(StartTag startTag) {
-					return startTag.getName()==HTMLElementName.TITLE
-							|| startTag.getName()==HTMLElementName.THEAD
-							|| startTag.getName()==HTMLElementName.SCRIPT
-							|| startTag.getName()==HTMLElementName.HEAD
-							|| startTag.getName()==HTMLElementName.META;
-				}
-			};
-			
-			
-			plainText = genericSiteTextExtractor.setIncludeAttributes(true).toString();
-			//String plainText = aBigPlainText();
-			title = getTitle(source);
-			description = getMetaValue(source, "Description");
-			keywords = getMetaValue(source, "keywords");
+			plainText = page.getText();
+			title = page.getTitle();
+			description = page.getMetaTag("description");
+			if (page.getLanguage() != null) {
+				pageLang = page.getLanguage().toUpperCase();
+				userLang = pageLang;
+			}
 			
 			
 			/* uses a combination of returnTokenPosition and trimStringAtPosition
@@ -207,8 +202,8 @@ public final class SimpleWebParser extends GenericWebParser implements IWebParse
 			
 			user_name = url.getHost().toString();
 			screen_name = user_name;
-			page_id = UniqueIdServices.createMessageDigest(text);
-			user_id = UniqueIdServices.createMessageDigest(user_name);
+			page_id = createId(text);
+			user_id = createId(user_name);
 			long s = System.currentTimeMillis();
 			// converting to 06.11.14 17:28:37
 			Date date = new Date(s);
@@ -229,6 +224,40 @@ public final class SimpleWebParser extends GenericWebParser implements IWebParse
 	}
 	
 	
+	/**
+	 * @description	parses a page nobody parsed before (e.g. coming from the SimpleWebCrawler) with 
+	 * 				jericho - removes all header information and gets the plain text, the title, the 
+	 * 				description and the keywords
+	 * 
+	 * @param		page 	- the page to parse as a string containing the html sourcecode
+	 * @return		the parsed page
+	 */
+	protected ParsedWebPage parseHtml(String page) {
+		logger.trace("parsing site and removing clutter");
+		Source source = new Source(page);
+		source.fullSequentialParse();
+		TextExtractor genericSiteTextExtractor = new TextExtractor(source) {
+			public boolean excludeElement(StartTag startTag) {
+				return startTag.getName()==HTMLElementName.TITLE
+						|| startTag.getName()==HTMLElementName.THEAD
+						|| startTag.getName()==HTMLElementName.SCRIPT
+						|| startTag.getName()==HTMLElementName.HEAD
+						|| startTag.getName()==HTMLElementName.META;
+			}
+		};
+		
+		Map<String, String> metaTags = new HashMap<String, String>();
+		String description = getMetaValue(source, "Description");
+		if (description != null)
+			metaTags.put("description", description);
+		String keywords = getMetaValue(source, "keywords");
+		if (keywords != null)
+			metaTags.put("keywords", keywords);
+		
+		return new ParsedWebPage(page, genericSiteTextExtractor.setIncludeAttributes(true).toString(), getTitle(source), metaTags, null, null);
+	}
+	
+	
 	// START OF JERICHO SPECIFIC PARSER STUFF
 	private static String getTitle(Source source) {
 		Element titleElement=source.getFirstElement(HTMLElementName.TITLE);
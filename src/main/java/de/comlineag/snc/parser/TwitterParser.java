@@ -1,10 +1,9 @@
 package de.comlineag.snc.parser;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -12,25 +11,26 @@ import java.util.regex.Pattern;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.json.simple.JSONArray;
-import org.json.simple.JSONObject;
-import org.json.simple.parser.JSONParser;
-import org.json.simple.parser.ParseException;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.google.common.base.Stopwatch;
 
 import de.comlineag.snc.appstate.RuntimeConfiguration;
 import de.comlineag.snc.constants.LithiumConstants;
 import de.comlineag.snc.constants.LithiumStatusCode;
 import de.comlineag.snc.handler.LithiumStatusException;
+import de.comlineag.snc.data.TwitterPostingData;
+import de.comlineag.snc.data.TwitterUserData;
 import de.comlineag.snc.handler.TwitterPosting;
-import de.comlineag.snc.handler.TwitterUser;
 
 
 /**
  * 
  * @author 		Christian Guenther, Maic Rittmeier, Magnus Leinemann
  * @category 	Parser
- * @version		0.4a			- 01.10.2014
+ * @version		0.5				- 17.10.2026
  * @status		productive
  * 
  * @description TwitterParser is the implementation of the generic parser for Twitter.
@@ -43,6 +43,8 @@ import de.comlineag.snc.handler.TwitterUser;
  * 				0.3 (Magnus)	added support for list of users and decode user
  * 				0.4	(Chris)		fixed retweet bug
  * 				0.4a			changed return value of method parse to boolean
+ * 				0.5 (Chris)		the tweet is decoded in one pass by a streaming JsonParser directly into
+ * 								posting and user data - the retweet is decoded once and keeps its user
  * 
  */
 public final class TwitterParser extends GenericParser {
@@ -51,6 +53,9 @@ public final class TwitterParser extends GenericParser {
 	private final Logger logger = LoggerFactory.getLogger(getClass().getName());
 	private final boolean rtcPersistenceThreading = rtc.getBooleanValue("PersistenceThreadingEnabled", "runtime");
 	
+	// the factory is thread safe and shared by all parsers - it creates one cheap JsonParser per message
+	private static final JsonFactory JSON_FACTORY = new JsonFactory();
+	
 	
 	public TwitterParser() {}
 	
@@ -80,66 +85,49 @@ public final class TwitterParser extends GenericParser {
 		// log the startup message
 		logger.debug(PARSER_NAME + " parser START");
 
-		// the passed string is decoded and we build 
-		JSONParser parser = new JSONParser();
-		List<TwitterPosting> postings = new ArrayList<TwitterPosting>();
 		JSONArray messageArray = new JSONArray();
 		
-		
-		try {
-			// first posts (tweets)
-			JSONObject jsonTweetResource = (JSONObject) parser.parse(strTweet);
-			TwitterPosting posting = new TwitterPosting(jsonTweetResource);
-			
-			// now users
-			JSONObject jsonUser = (JSONObject) jsonTweetResource.get("user");
-			TwitterUser user = new TwitterUser(jsonUser);
-			
-			// now we add the extracted user-data object back in the posting data object
-			// so that later, in the call to the graph persistence manager, we can get 
-			// post and user-objects from one combined json structure
-			logger.trace("about to add the user object to the post object \n    {}", user.getJson());
-			posting.setUserObject(user.getUserData());
-			
-			
-			// add posting to list
-			postings.add(posting);
-			
-			// retweeted posts need to go in message array as well
-			JSONObject jsonReTweeted = (JSONObject) jsonTweetResource.get("retweeted_status");
-			if (jsonReTweeted != null) {
-				logger.debug("retweet found - adding to message iQueue");
-				logger.trace("    retweeted message: " + jsonReTweeted.toString());
-				
-				TwitterPosting reTposting = new TwitterPosting(jsonReTweeted);
+		// the passed string is decoded in one pass directly into the posting data, with the user 
+		// embedded and - for a retweet - the retweeted posting and its user
+		try (JsonParser jp = JSON_FACTORY.createParser(strTweet)) {
+			if (jp.nextToken() == JsonToken.START_OBJECT) {
+				TwitterPostingData postingData = new TwitterPostingData(jp);
+				addPosting(messageArray, postingData);
 				
-				// now we add the extracted user-data object back in the posting data object
-				// so that later, in the call to the graph persistence manager, we can get 
-				// post and user-objects from one combined json structure
-				JSONObject jsonReTUser = (JSONObject) jsonReTweeted.get("user");
-				TwitterUser reTuser = new TwitterUser(jsonReTUser);
-				logger.trace("about to add the user object to the post object \n    {}", reTuser.getJson());
-				reTposting.setUserObject(reTuser.getUserData());
-				
-				postings.add(new TwitterPosting(jsonReTweeted));
+				// retweeted posts need to go in message array as well
+				TwitterPostingData reTweeted = postingData.getRetweetedPosting();
+				if (reTweeted != null) {
+					logger.debug("retweet found - adding to message iQueue");
+					addPosting(messageArray, reTweeted);
+				}
+			} else {
+				logger.error("ERROR :: message is not a json object " + strTweet);
 			}
-			
-		} catch (ParseException e) {
+		} catch (IOException e) {
 			logger.error("EXCEPTION :: " + e.getMessage() + " " + e);
 		}
 		
-		
-		// now put all posts with embedded user-data in the messageArray to return that to the crawler
-		for (TwitterPosting posting : postings){
-			messageArray.add(posting);
-		}
-		
 		timer.stop();
 		logger.debug(PARSER_NAME + " parser END - parsing took "+timer.elapsed(TimeUnit.SECONDS)+" seconds");
 		return messageArray;
 	}
 	
 	
+	/**
+	 * @description	adds the posting with its embedded user to the message array - messages 
+	 * 				without a user, like delete or limit notices, are no tweets and skipped
+	 */
+	@SuppressWarnings("unchecked")
+	private void addPosting(JSONArray messageArray, TwitterPostingData postingData) {
+		if (!(postingData.getUserData() instanceof TwitterUserData)) {
+			logger.debug("message " + postingData.getId() + " has no user - skipping it");
+			return;
+		}
+		logger.trace("posting with embedded user object \n    {}", postingData.getUserData().getJson());
+		messageArray.add(new TwitterPosting(postingData));
+	}
+	
+	
 	// THIS METHOD IS NOT USED
 	@Override 
 	protected boolean parse(InputStream is) {return false;}
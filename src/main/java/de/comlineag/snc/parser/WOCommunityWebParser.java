@@ -26,13 +26,12 @@ import net.htmlparser.jericho.StartTag;
 import net.htmlparser.jericho.TextExtractor;
 import de.comlineag.snc.appstate.RuntimeConfiguration;
 import de.comlineag.snc.handler.WebPosting;
-import de.comlineag.snc.helper.UniqueIdServices;
 
 /**
  * 
  * @author 		Christian Guenther
  * @category 	Parser
- * @version		0.1				- 22.10.2014
+ * @version		0.1a			- 17.10.2026
  * @status		in development
  * 
  * @description WOCommunityWebParser is the implementation of the generic web parser for 
@@ -42,6 +41,7 @@ import de.comlineag.snc.helper.UniqueIdServices;
  * 				list of WebPosting objects with extracted page content to the crawler
  * 
  * @changelog	0.1 (Chris)		created as copy from WOPostingWebParser version 0.3
+ * 				0.1a			page and user id from createId of GenericWebParser
  * 				
  * 
  * TODO implement language detection (possibly with jroller http://www.jroller.com/melix/entry/jlangdetect_0_3_released_with)
@@ -154,8 +154,8 @@ public final class WOCommunityWebParser extends GenericWebParser implements IWeb
 				
 				user_name = url.getHost().toString();
 				screen_name = user_name;
-				page_id = UniqueIdServices.createMessageDigest(text);
-				user_id = UniqueIdServices.createMessageDigest(user_name);
+				page_id = createId(text);
+				user_id = createId(user_name);
 				long s = System.currentTimeMillis();
 				// converting to 06.11.14 17:28:37
 				Date date = new Date(s);
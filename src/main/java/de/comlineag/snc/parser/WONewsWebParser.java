@@ -26,13 +26,12 @@ import net.htmlparser.jericho.StartTag;
 import net.htmlparser.jericho.TextExtractor;
 import de.comlineag.snc.appstate.RuntimeConfiguration;
 import de.comlineag.snc.handler.WebPosting;
-import de.comlineag.snc.helper.UniqueIdServices;
 
 /**
  * 
  * @author 		Christian Guenther
  * @category 	Parser
- * @version		0.1				- 09.10.2014
+ * @version		0.1a			- 17.10.2026
  * @status		in development
  * 
  * @description WONewsWebParser is the implementation of the generic web parser for 
@@ -41,6 +40,7 @@ import de.comlineag.snc.helper.UniqueIdServices;
  * 				list of WebPosting objects with extracted page content to the crawler
  * 
  * @changelog	0.1 (Chris)		created as extraction from WOPostingWebParser version 0.2
+ * 				0.1a			page and user id from createId of GenericWebParser
  * 
  * TODO implement language detection (possibly with jroller http://www.jroller.com/melix/entry/jlangdetect_0_3_released_with)
  * TODO extract user information from the website
@@ -135,10 +135,10 @@ public final class WONewsWebParser extends GenericWebParser implements IWebParse
 					
 					logger.trace("Truncated text >>> " + text);
 					
-					page_id = UniqueIdServices.createMessageDigest(text);
+					page_id = createId(text);
 					user_name = url.toString();
 					screen_name = user_name;
-					user_id = UniqueIdServices.createMessageDigest(user_name);
+					user_id = createId(user_name);
 					long s = System.currentTimeMillis();
 					// converting to 06.11.14 17:28:37
 					Date date = new Date(s);
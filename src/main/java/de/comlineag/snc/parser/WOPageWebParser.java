@@ -26,13 +26,12 @@ import net.htmlparser.jericho.StartTag;
 import net.htmlparser.jericho.TextExtractor;
 import de.comlineag.snc.appstate.RuntimeConfiguration;
 import de.comlineag.snc.handler.WebPosting;
-import de.comlineag.snc.helper.UniqueIdServices;
 
 /**
  * 
  * @author 		Christian Guenther
  * @category 	Parser
- * @version		0.4				- 21.10.2014
+ * @version		0.4a			- 17.10.2026
  * @status		beta
  * 
  * @description WOPageWebParser is the implementation of the generic web parser for 
@@ -46,6 +45,7 @@ import de.comlineag.snc.helper.UniqueIdServices;
  * 				0.3				first beta of parse method - combination of simple parser and WO 
  * 								specific jericho configuration
  * 				0.4				introduced GET_ONLY_RELEVANT_PAGES option and some debugging
+ * 				0.4a			page and user id from createId of GenericWebParser
  * 
  * TODO implement correct threaded parser to aid in multithreading
  * TODO implement proper data handling for site and user
@@ -157,10 +157,10 @@ public final class WOPageWebParser extends GenericWebParser implements IWebParse
 				
 				logger.trace("TruncatedText: >>> " + text);
 				
-				page_id = UniqueIdServices.createMessageDigest(text);
+				page_id = createId(text);
 				user_name = url.getHost().toString();
 				screen_name = user_name;
-				user_id = UniqueIdServices.createMessageDigest(user_name);
+				user_id = createId(user_name);
 				long s = System.currentTimeMillis();
 				// converting to 06.11.14 17:28:37
 				Date date = new Date(s);
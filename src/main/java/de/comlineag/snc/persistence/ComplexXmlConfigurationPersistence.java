@@ -13,22 +13,16 @@ import de.comlineag.snc.constants.SocialNetworks;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.io.File;
+import java.util.List;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.xpath.XPath;
-import javax.xml.xpath.XPathConstants;
-import javax.xml.xpath.XPathFactory;
+import javax.xml.parsers.ParserConfigurationException;
 
-import org.w3c.dom.Document;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
 
 /**
  * @author		Christian Guenther
  * @category	Persistence manager
- * @version		0.4				- 31.10.2014
+ * @version		0.5				- 17.10.2026
  * @status		productive but some functions are missing
  * 
  * @description	A configuration manager for the crawler using structured xml files for the configuration
@@ -40,6 +34,9 @@ import org.w3c.dom.NodeList;
  * 				0.2				added parts from RuntimeConfiguration (domain and customer)
  * 				0.3				Added support for getRunState
  * 				0.4				adapted to the changes made to RuntimeConfiguration Version 1.0
+ * 				0.5				the configuration file is read once into an XmlConfigurationIndex (shared
+ * 								via XmlConfigurationCache and reloaded on change) - constraints, domain
+ * 								structure and run state are map lookups instead of xpath queries
  *  
  */
 public class ComplexXmlConfigurationPersistence<T> implements IConfigurationManager<T>  {
@@ -68,22 +65,11 @@ public class ComplexXmlConfigurationPersistence<T> implements IConfigurationMana
 	
 
 	// convenience variables to make the code easier to read and reduce number of calls to RuntimeConfiguration
-	private final String configurationsKey = rtc.getStringValue("RootIdentifier", "XmlLayout");
-	private final String configurationKey = rtc.getStringValue("SingleConfigurationIdentifier", "XmlLayout");
-	private final String scopeKey = rtc.getStringValue("ScopeIdentifier", "XmlLayout");
 	private final String domainKey = rtc.getStringValue("DomainIdentifier", "XmlLayout");
-	private final String domainNameKey = rtc.getStringValue("DomainNameIdentifier", "XmlLayout");
-	private final String domainStructureKey = rtc.getStringValue("DomainStructureIdentifier", "XmlLayout");
 	private final String allDomainsKey = rtc.getStringValue("DomainNameForAllValue", "XmlLayout");
 	private final String customerKey = rtc.getStringValue("CustomerIdentifier", "XmlLayout");
-	private final String customerNameKey = rtc.getStringValue("CustomerNameIdentifier", "XmlLayout");
 	private final String allCustomerKey = rtc.getStringValue("CustomerNameForAllValue", "XmlLayout");
-	private final String constraintsKey = rtc.getStringValue("ConstraintIdentifier", "XmlLayout");
 	private final String scopeOnAllKey = rtc.getStringValue("ScopeOnAllvalue", "XmlLayout");
-	private final String singleConstraintKey = rtc.getStringValue("SingleConstraintIdentifier", "XmlLayout");
-	private final String valueKey = rtc.getStringValue("ValueIdentifier", "XmlLayout");
-	private final String configFileTypeKey = rtc.getStringValue("ConfigFileTypeIdentifier", "XmlLayout");
-	private final String crawlerRunKey = rtc.getStringValue("CrawlerRunIdentifier", "XmlLayout");
 	
 	private final boolean rtcStopOnConfigurationFailure = rtc.getBooleanValue("StopOnConfigurationFailure", "runtime");
 	
@@ -93,59 +79,37 @@ public class ComplexXmlConfigurationPersistence<T> implements IConfigurationMana
 		logger.info("setting up crawler configuration scope");
 		
 		try {
-			File file = new File(getConfigDbHandler());
-			
-			DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
-			DocumentBuilder db = dbf.newDocumentBuilder();
-			Document doc = db.parse(file);
-			
-			XPathFactory xPathfactory = XPathFactory.newInstance();
-			XPath xpath = xPathfactory.newXPath();
-			
-			String expression = null;
-			Node node = null; 
-			String basicStructure = "/"+configurationsKey+"/"
-										+configurationKey
-											+"[@"+scopeKey+"='"+domainStructureKey+"']/"
-										+domainStructureKey;
+			XmlConfigurationIndex index = getIndex();
+			String value = null;
 			
 			// first step is to get the domain
-			expression = basicStructure + "/"+domainKey+"/"+valueKey;
-			node = (Node) xpath.compile(expression).evaluate(doc, XPathConstants.NODE);
-			if (node == null) {
-				logger.error("Did not receive information on the domain using expression " + expression);
+			value = index.getDomain();
+			if (value == null) {
+				logger.error("Did not receive information on the domain from " + getConfigDbHandler());
 			} else {
-				crawlerConfigurationScope.put((String) domainKey, (String) node.getTextContent());
-				setDomain((String) node.getTextContent());
+				crawlerConfigurationScope.put((String) domainKey, (String) value);
+				setDomain((String) value);
 			}
 			
 			
 			// whether or not it is active
-			expression = basicStructure + "/"+domainKey
-											+"[@"+domainNameKey+"='"+getDomain()+"']"
-										+"/isActive/"
-										+valueKey;
-			node = (Node) xpath.compile(expression).evaluate(doc, XPathConstants.NODE);
-			if (node == null) {
+			value = index.getDomainSetting(getDomain(), "isActive");
+			if (value == null) {
 				logger.warn("did not receive a domain activation - setting to false");
 				setDomainIsActive(false);
 			} else {
-				if ("true".equals(node.getTextContent()))
+				if ("true".equals(value))
 					setDomainIsActive(true);
 				else
 					setDomainIsActive(false);
 			}
 			// and the corresponding priority
-			expression = basicStructure + "/"+domainKey
-												+"[@"+domainNameKey+"='"+getDomain()+"']"
-											+"/priority/"
-											+valueKey;
-			node = (Node) xpath.compile(expression).evaluate(doc, XPathConstants.NODE);
-			if (node == null) {
+			value = index.getDomainSetting(getDomain(), "priority");
+			if (value == null) {
 				logger.warn("did not receive a domain priority - setting to 0");
 				setDomainPriority((int) 0);
 			} else {
-				setDomainPriority(Integer.parseInt(node.getTextContent()));
+				setDomainPriority(Integer.parseInt(value));
 			}
 			crawlerConfigurationScope.put((String) "domainIsActive", (boolean) getDomainIsActive());
 			crawlerConfigurationScope.put((String) "domainPriority", (int) getDomainPriority());
@@ -155,49 +119,32 @@ public class ComplexXmlConfigurationPersistence<T> implements IConfigurationMana
 			
 			
 			// second step is to get the customer
-			expression = basicStructure + 
-							"/"+domainKey
-								+"[@"+domainNameKey+"='"+getDomain()+"']/"
-							+customerKey+"/"
-							+valueKey;
-			node = (Node) xpath.compile(expression).evaluate(doc, XPathConstants.NODE);
-			if (node == null) {
-				logger.error("Did not receive information on customer using expression " + expression);
+			value = index.getCustomer(getDomain());
+			if (value == null) {
+				logger.error("Did not receive information on customer of domain " + getDomain() + " from " + getConfigDbHandler());
 			} else {
-				crawlerConfigurationScope.put((String) customerKey, (String) node.getTextContent());
-				setCustomer((String) node.getTextContent());
+				crawlerConfigurationScope.put((String) customerKey, (String) value);
+				setCustomer((String) value);
 			}
 			
 			// whether or not it is active
-			expression = basicStructure + "/"+domainKey
-											+"[@"+domainNameKey+"='"+getDomain()+"']/"
-										+customerKey
-											+"[@"+customerNameKey+"='"+getCustomer()+"']"
-										+ "/isActive/"
-										+valueKey;
-			node = (Node) xpath.compile(expression).evaluate(doc, XPathConstants.NODE);
-			if (node == null) {
+			value = index.getCustomerSetting(getDomain(), getCustomer(), "isActive");
+			if (value == null) {
 				logger.warn("did not receive a customer activation - setting to false");
 				setCustomerIsActive(false);
 			} else {
-				if ("true".equals(node.getTextContent()))
+				if ("true".equals(value))
 					setCustomerIsActive(true);
 				else
 					setCustomerIsActive(false);
 			}
 			// and the corresponding priority
-			expression = basicStructure + "/"+domainKey
-												+"[@"+domainNameKey+"='"+getDomain()+"']/"
-											+customerKey
-												+"[@"+customerNameKey+"='"+getCustomer()+"']"
-											+ "/priority/"
-											+valueKey;
-			node = (Node) xpath.compile(expression).evaluate(doc, XPathConstants.NODE);
-			if (node == null) {
+			value = index.getCustomerSetting(getDomain(), getCustomer(), "priority");
+			if (value == null) {
 				logger.warn("did not receive a customer priority - setting to 0");
 				setCustomerPriority((int) 0);
 			} else {
-				setCustomerPriority(Integer.parseInt(node.getTextContent()));
+				setCustomerPriority(Integer.parseInt(value));
 			}
 			crawlerConfigurationScope.put((String) "customerIsActive", (boolean) getCustomerIsActive());
 			crawlerConfigurationScope.put((String) "customerPriority", (int) getCustomerPriority());
@@ -217,33 +164,16 @@ public class ComplexXmlConfigurationPersistence<T> implements IConfigurationMana
 	
 	@Override
 	public boolean getRunState(String socialNetwork) {
-		String expression = null;
-		Node node = null;
-		
 		try {
-			File file = new File(getConfigDbHandler());
-			DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
-			DocumentBuilder db = dbf.newDocumentBuilder();
-			Document doc = db.parse(file);
-			
-			XPathFactory xPathfactory = XPathFactory.newInstance();
-			XPath xpath = xPathfactory.newXPath();
-			
-			expression = "/"+configurationsKey+"/"
-							+configurationKey
-								+"[@"+scopeKey+"='"+crawlerRunKey+"']/"
-							+"crawler"
-								+"[@name='"+socialNetwork+"']";
-			
-			node = (Node) xpath.compile(expression).evaluate(doc, XPathConstants.NODE);
-			if (node == null) {
+			String runState = getIndex().getRunState(socialNetwork);
+			if (runState == null) {
 				logger.trace("CrawlerRun for network "+socialNetwork+" could not be found - returning true");
 				return true;
 			} else {
-				logger.trace("CrawlerRun for network "+socialNetwork+" is set to " + node.getTextContent());
+				logger.trace("CrawlerRun for network "+socialNetwork+" is set to " + runState);
 				
 				// only and only if there actually is a false, we return false. 
-				if ("false".equals(node.getTextContent()))
+				if ("false".equals(runState))
 					return false;
 			}
 		} catch (java.io.FileNotFoundException e) {
@@ -252,7 +182,7 @@ public class ComplexXmlConfigurationPersistence<T> implements IConfigurationMana
 			if (rtcStopOnConfigurationFailure)
 				System.exit(SNCStatusCodes.CRITICAL.getErrorCode());
 		} catch (Exception e) {
-			logger.warn("WARNING :: could not parse configuration file "+getConfigDbHandler()+" using expression "+expression+" - returning true.");
+			logger.warn("WARNING :: could not parse configuration file "+getConfigDbHandler()+" - returning true.");
 			e.printStackTrace();
 			
 			return true;
@@ -270,148 +200,26 @@ public class ComplexXmlConfigurationPersistence<T> implements IConfigurationMana
 		logger.trace("reading " + section + "-constraints for customer "+customer+" in domain "+domain+" for network " + SocialNetworks.getSocialNetworkConfigElement("name", SN) + " from configuration file " + getConfigDbHandler().substring(getConfigDbHandler().lastIndexOf("/")+1));
 		
 		try {
-			File file = new File(getConfigDbHandler());
-			DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
-			DocumentBuilder db = dbf.newDocumentBuilder();
-			Document doc = db.parse(file);
-			
-			XPathFactory xPathfactory = XPathFactory.newInstance();
-			XPath xpath = xPathfactory.newXPath();
-			
-			String expression = null;
-			NodeList nodeList = null;
+			XmlConfigurationIndex index = getIndex();
 			
 			// first step is to get all constraints for all domains without a specified social network 
-			expression = "/"+configurationsKey+"/"
-							+configurationKey
-								+"[@"+scopeKey+"='"+domainKey+"']/"
-							+domainKey
-								+"[@"+domainNameKey+"='"+allDomainsKey+"']/"
-							+constraintsKey
-								+"[@"+scopeKey+"='"+scopeOnAllKey+"']/"
-							+singleConstraintKey+"/"
-							+section+"/"
-							+valueKey;
-			nodeList = (NodeList) xpath.compile(expression).evaluate(doc, XPathConstants.NODESET);
-			//logger.trace("found " + nodeList.getLength() + " elements using expression " + expression + " ");
-			for (int i = 0 ; i < nodeList.getLength() ; i++)
-				ar.add((T) nodeList.item(i).getTextContent());
-			
+			addAll(ar, index.getConstraints(domainKey, allDomainsKey, scopeOnAllKey, section));
 			// second step is to get all constraints for all domains within a specified social network 
-			expression = "/"+configurationsKey+"/"
-							+configurationKey
-							+"[@"+scopeKey+"='"+domainKey+"']/"
-							+domainKey
-							+"[@"+domainNameKey+"='"+allDomainsKey+"']/"
-							+constraintsKey
-							+"[@"+scopeKey+"='"+SN+"']/"
-							+singleConstraintKey+"/"
-							+section+"/"
-							+valueKey;
-			nodeList = (NodeList) xpath.compile(expression).evaluate(doc, XPathConstants.NODESET);
-			//logger.trace("found " + nodeList.getLength() + " elements using expression " + expression + " ");
-			for (int i = 0 ; i < nodeList.getLength() ; i++)
-				ar.add((T) nodeList.item(i).getTextContent());
-			
+			addAll(ar, index.getConstraints(domainKey, allDomainsKey, SN, section));
 			// third step is to get all general constraints 
-			expression = "/"+configurationsKey+"/"
-							+configurationKey
-							+"[@"+scopeKey+"='"+domainKey+"']/"
-							+domainKey
-							+"[@"+domainNameKey+"='"+domain+"']/"
-							+constraintsKey
-							+"[@"+scopeKey+"='"+scopeOnAllKey+"']/"
-							+singleConstraintKey+"/"
-							+section+"/"
-							+valueKey;
-			nodeList = (NodeList) xpath.compile(expression).evaluate(doc, XPathConstants.NODESET);
-			//logger.trace("found " + nodeList.getLength() + " elements using expression " + expression + ": \r");
-			for (int i = 0 ; i < nodeList.getLength() ; i++) 
-				ar.add((T) nodeList.item(i).getTextContent());
-			
+			addAll(ar, index.getConstraints(domainKey, domain, scopeOnAllKey, section));
 			// fourth step is to get all constraints for the specified social network 
-			expression = "/"+configurationsKey+"/"
-							+configurationKey
-							+"[@"+scopeKey+"='"+domainKey+"']/"
-							+domainKey
-							+"[@"+domainNameKey+"='"+domain+"']/"
-							+constraintsKey
-							+"[@"+scopeKey+"='"+SN+"']/"
-							+singleConstraintKey+"/"
-							+section+"/"
-							+valueKey;
-			nodeList = (NodeList) xpath.compile(expression).evaluate(doc, XPathConstants.NODESET);
-			//logger.trace("found " + nodeList.getLength() + " elements using expression " + expression + " ");
-			for (int i = 0 ; i < nodeList.getLength() ; i++)
-				ar.add((T) nodeList.item(i).getTextContent());
-			
-			
-			
+			addAll(ar, index.getConstraints(domainKey, domain, SN, section));
 			
 			// AND NOW FOR CUSTOMER
-			// first step is to get all constraints for all domains within a specified social network 
-			expression = "/"+configurationsKey+"/"
-							+configurationKey
-							+"[@"+scopeKey+"='"+customerKey+"']/"
-							+customerKey
-							+"[@"+customerNameKey+"='"+allCustomerKey+"']/"
-							+constraintsKey
-							+"[@"+scopeKey+"='"+scopeOnAllKey+"']/"
-							+singleConstraintKey+"/"
-							+section+"/"
-							+valueKey;
-			nodeList = (NodeList) xpath.compile(expression).evaluate(doc, XPathConstants.NODESET);
-			//logger.trace("found " + nodeList.getLength() + " elements using expression " + expression + " ");
-			for (int i = 0 ; i < nodeList.getLength() ; i++)
-				ar.add((T) nodeList.item(i).getTextContent());
-			
+			// first step is to get all constraints for all customers without a specified social network 
+			addAll(ar, index.getConstraints(customerKey, allCustomerKey, scopeOnAllKey, section));
 			// second step is to get all constraints for all customers within a specified social network 
-			expression = "/"+configurationsKey+"/"
-							+configurationKey
-							+"[@"+scopeKey+"='"+customerKey+"']/"
-							+customerKey
-							+"[@"+customerNameKey+"='"+allCustomerKey+"']/"
-							+constraintsKey
-							+"[@"+scopeKey+"='"+SN+"']/"
-							+singleConstraintKey+"/"
-							+section+"/"
-							+valueKey;
-			nodeList = (NodeList) xpath.compile(expression).evaluate(doc, XPathConstants.NODESET);
-			//logger.trace("found " + nodeList.getLength() + " elements using expression " + expression + " ");
-			for (int i = 0 ; i < nodeList.getLength() ; i++)
-				ar.add((T) nodeList.item(i).getTextContent());
-			
+			addAll(ar, index.getConstraints(customerKey, allCustomerKey, SN, section));
 			// third step is to get all general constraints 
-			expression = "/"+configurationsKey+"/"
-							+configurationKey
-							+"[@"+scopeKey+"='"+customerKey+"']/"
-							+customerKey
-							+"[@"+customerNameKey+"='"+customer+"']/"
-							+constraintsKey
-							+"[@"+scopeKey+"='"+scopeOnAllKey+"']/"
-							+singleConstraintKey+"/"
-							+section+"/"
-							+valueKey;
-			nodeList = (NodeList) xpath.compile(expression).evaluate(doc, XPathConstants.NODESET);
-			//logger.trace("found " + nodeList.getLength() + " elements using expression " + expression + ": \r");
-			for (int i = 0 ; i < nodeList.getLength() ; i++) 
-				ar.add((T) nodeList.item(i).getTextContent());
-			
+			addAll(ar, index.getConstraints(customerKey, customer, scopeOnAllKey, section));
 			// fourth step is to get all constraints for the specified social network 
-			expression = "/"+configurationsKey+"/"
-							+configurationKey
-							+"[@"+scopeKey+"='"+customerKey+"']/"
-							+customerKey
-							+"[@"+customerNameKey+"='"+customer+"']/"
-							+constraintsKey
-							+"[@"+scopeKey+"='"+SN+"']/"
-							+singleConstraintKey+"/"
-							+section+"/"
-							+valueKey;
-			nodeList = (NodeList) xpath.compile(expression).evaluate(doc, XPathConstants.NODESET);
-			//logger.trace("found " + nodeList.getLength() + " elements using expression " + expression + " ");
-			for (int i = 0 ; i < nodeList.getLength() ; i++)
-				ar.add((T) nodeList.item(i).getTextContent());
+			addAll(ar, index.getConstraints(customerKey, customer, SN, section));
 			
 			logger.debug("found " + ar.size() + " constraints on " + section);
 			logger.trace("    " + ar.toString());
@@ -431,6 +239,13 @@ public class ComplexXmlConfigurationPersistence<T> implements IConfigurationMana
 	
 	
 	
+	@SuppressWarnings("unchecked")
+	private void addAll(ArrayList<T> ar, List<String> values) {
+		for (String value : values)
+			ar.add((T) value);
+	}
+	
+	
 	// general invocation for every constraint
 	@Override
 	public ArrayList<T> getConstraint(String category, JSONObject configurationScope) {
@@ -529,32 +344,16 @@ public class ComplexXmlConfigurationPersistence<T> implements IConfigurationMana
 	// check to see, if provided configuration file is correct for chosen configuration manager
 	public boolean isConfigFileCorrect(){
 		try {
-			File file = new File(getConfigDbHandler());
-			
-			DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
-			DocumentBuilder db = dbf.newDocumentBuilder();
-			Document doc = db.parse(file);
-			
-			XPathFactory xPathfactory = XPathFactory.newInstance();
-			XPath xpath = xPathfactory.newXPath();
-			
-			String expression = null;
-			Node node = null; 
-			expression = "/"+configurationsKey+"/"
-							+configurationKey
-							+"[@"+scopeKey+"='"+configFileTypeKey+"']/"
-							+"type";
-										
-			node = (Node) xpath.compile(expression).evaluate(doc, XPathConstants.NODE);
-			if (node == null) {
-				logger.error("Did not receive any information using expression " + expression);
+			String fileType = getIndex().getFileType();
+			if (fileType == null) {
+				logger.error("Did not receive any information on the type of configuration file " + getConfigDbHandler());
 				return false;
 			} else {
-				if (this.getClass().getSimpleName().equals(node.getTextContent())) {
-					logger.trace("provided xml configuration file is of type " + node.getTextContent());
+				if (this.getClass().getSimpleName().equals(fileType)) {
+					logger.trace("provided xml configuration file is of type " + fileType);
 					return true;
 				} else {
-					logger.error("ERROR :: wrong type of configuration file provided. I need "+this.getClass().getSimpleName()+" but got "+node.getTextContent()+". Check applicationContext.xml to see, if the configuration persistence manager is pointed to the right file");
+					logger.error("ERROR :: wrong type of configuration file provided. I need "+this.getClass().getSimpleName()+" but got "+fileType+". Check applicationContext.xml to see, if the configuration persistence manager is pointed to the right file");
 					return false;
 				}
 			}
@@ -562,4 +361,9 @@ public class ComplexXmlConfigurationPersistence<T> implements IConfigurationMana
 			return false;
 		}
 	}
+	
+	// the configuration file is read once and then served from memory until it changes
+	private XmlConfigurationIndex getIndex() throws IOException, ParserConfigurationException, SAXException {
+		return XmlConfigurationCache.getInstance().getIndex(getConfigDbHandler());
+	}
 }
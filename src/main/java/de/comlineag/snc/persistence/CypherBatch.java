@@ -0,0 +1,372 @@
+package de.comlineag.snc.persistence;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.comlineag.snc.constants.GraphNodeTypes;
+import de.comlineag.snc.constants.GraphRelationshipTypes;
+import de.comlineag.snc.data.CustomerData;
+import de.comlineag.snc.data.DomainData;
+import de.comlineag.snc.data.GraphPostingData;
+import de.comlineag.snc.data.GraphUserData;
+import de.comlineag.snc.data.KeywordData;
+import de.comlineag.snc.data.SocialNetworkData;
+
+/**
+ *
+ * @author		Christian Guenther
+ * @category	Persistence manager
+ * @version		0.3				- 17.10.2026
+ * @status		productive
+ *
+ * @description	collects parameterized cypher statements, which are sent to the transactional
+ * 				endpoint of the neo4j server in one request and are executed there in one
+ * 				transaction. The values are passed as parameters and never become part of the
+ * 				statement text, so quotes in a posting or keyword can't break the statement,
+ * 				and the server can reuse the plan of a statement.
+ * 				Every statement starts with UNWIND {rows} AS row and is executed once for all
+ * 				rows added to it - so a batch of postings needs one statement per node label
+ * 				and relationship type, not one per node and relationship. Rows with the same
+ * 				key are only sent once per statement.
+ * 				The statements are executed in the order they were first added to. As the nodes
+ * 				of a posting are always added before its relationships, the statement creating
+ * 				a node runs before any statement matching it.
+ * 				A batch is not thread safe, every write builds its own.
+ *
+ * @changelog	0.1 (Chris)		class created
+ * 				0.2				statements are executed for a list of rows via UNWIND
+ * 				0.3				moved the statements of a post here from Neo4JPersistence, so that the
+ * 								embedded persistence can execute them as well
+ *
+ */
+public final class CypherBatch {
+	private final Logger logger = LoggerFactory.getLogger(getClass().getName());
+
+	// the properties that identify a node
+	private static final String[] ID_KEYS = {"sn_id", "id"};
+	private static final String[] NAME_KEY = {"name"};
+	private static final String[] KEYWORD_KEY = {"keyword"};
+	private static final char ROW_KEY_SEPARATOR = '\u0001';
+
+	// statement -> rows by key, both in the order they were added
+	private final Map<String, Map<String, JSONObject>> statements = new LinkedHashMap<String, Map<String, JSONObject>>();
+	private int rowCount = 0;
+	private int nodeCount = 0;
+
+	/**
+	 * @description	adds a row to the statement
+	 * @param 		statement	cypher statement starting with UNWIND {rows} AS row
+	 * @param 		key			identifies the row - a row with a key already added to the
+	 * 							statement is dropped
+	 * @param 		row			values the statement reads via row.name
+	 * @return		true if the row was added
+	 */
+	public boolean addRow(String statement, String key, JSONObject row) {
+		Map<String, JSONObject> rows = statements.get(statement);
+		if (rows == null) {
+			rows = new LinkedHashMap<String, JSONObject>();
+			statements.put(statement, rows);
+		}
+		if (rows.containsKey(key))
+			return false;
+		rows.put(key, row);
+		rowCount++;
+		return true;
+	}
+
+	// number of statements
+	public int size() {
+		return statements.size();
+	}
+
+	// number of rows of all statements
+	public int getRowCount() {
+		return rowCount;
+	}
+
+	// number of rows of the statements creating nodes
+	public int getNodeCount() {
+		return nodeCount;
+	}
+
+	public boolean isEmpty() {
+		return statements.isEmpty();
+	}
+
+	/**
+	 * @description	returns the statements with their parameters, in the order they are to be
+	 * 				executed - e.g. by the cypher engine of an embedded database
+	 * @return		statement -> parameters
+	 */
+	@SuppressWarnings("unchecked")
+	public Map<String, Map<String, Object>> getStatements() {
+		Map<String, Map<String, Object>> result = new LinkedHashMap<String, Map<String, Object>>();
+		for (Map.Entry<String, Map<String, JSONObject>> statement : statements.entrySet()) {
+			JSONArray rows = new JSONArray();
+			rows.addAll(statement.getValue().values());
+			JSONObject parameters = new JSONObject();
+			parameters.put("rows", rows);
+			result.put(statement.getKey(), parameters);
+		}
+		return result;
+	}
+
+	/**
+	 * @description	returns the payload for the transactional endpoint
+	 * @return		{"statements": [ {"statement": "...", "parameters": {"rows": [...]}}, ... ]}
+	 */
+	@SuppressWarnings("unchecked")
+	public String toJson() {
+		JSONArray payload = new JSONArray();
+		for (Map.Entry<String, Map<String, Object>> statement : getStatements().entrySet()) {
+			JSONObject entry = new JSONObject();
+			entry.put("statement", statement.getKey());
+			entry.put("parameters", statement.getValue());
+			payload.add(entry);
+		}
+		return "{\"statements\":" + payload.toJSONString() + "}";
+	}
+
+
+	/**
+	 * 
+	 * @description	adds the MERGE statements for the post and the entities embedded in it to
+	 * 				this batch. The statements of the nodes come first, because the statements
+	 * 				of the relationships MATCH the nodes they connect.
+	 * 				A MERGE only creates a node if there is none with the same key (sn_id and
+	 * 				id for posts and users, name for domain, customer and social network), so 
+	 * 				no node has to be looked up beforehand.
+	 * 
+	 * @param		nodeObject	json object with post and embedded domain, customer, social 
+	 * 							network and user
+	 * 
+	 */
+	@SuppressWarnings("unchecked")
+	public void addNodeObject(JSONObject nodeObject){
+		JSONObject userNodeObject = getEmbeddedObject(nodeObject, "USER");
+		JSONObject domainNodeObject = getEmbeddedObject(nodeObject, "DOMAIN");
+		JSONObject customerNodeObject = getEmbeddedObject(nodeObject, "CUSTOMER");
+		JSONObject socialNetworkNodeObject = getEmbeddedObject(nodeObject, "SOCIALNETWORK");
+		List<String> keywords = new ArrayList<String>();
+		if (nodeObject.get("KEYWORD") instanceof List)
+			for (Object keyword : (List<Object>) nodeObject.get("KEYWORD"))
+				if (keyword != null)
+					keywords.add(keyword.toString());
+		
+		String postSnId = getValue(nodeObject, "sn_id");
+		String postId = getValue(nodeObject, "id");
+		String userSnId = getValue(userNodeObject, "sn_id");
+		String userId = getValue(userNodeObject, "id");
+		if (userId == null)
+			userId = getValue(userNodeObject, "user_id");
+		String domainName = getValue(domainNodeObject, "name");
+		String customerName = getValue(customerNodeObject, "name");
+		String socNetName = getValue(socialNetworkNodeObject, "name");
+		logger.debug("POST {}-{}, USER {}-{}, DOMAIN {}, CUSTOMER {}, SOCIALNETWORK {}, KEYWORD {}", 
+				postSnId, postId, userSnId, userId, domainName, customerName, socNetName, keywords);
+		
+		// nodes
+		if (postSnId != null && postId != null)
+			mergeNode(GraphNodeTypes.POST, ID_KEYS, new String[]{postSnId, postId}, 
+					new GraphPostingData(new JSONObject(nodeObject)).getJson());
+		if (userSnId != null && userId != null)
+			mergeNode(GraphNodeTypes.USER, ID_KEYS, new String[]{userSnId, userId}, 
+					new GraphUserData(userNodeObject).getJson());
+		if (domainName != null)
+			mergeNode(GraphNodeTypes.DOMAIN, NAME_KEY, new String[]{domainName}, 
+					new DomainData(domainNodeObject).getJson());
+		if (customerName != null)
+			mergeNode(GraphNodeTypes.CUSTOMER, NAME_KEY, new String[]{customerName}, 
+					new CustomerData(customerNodeObject).getJson());
+		if (socNetName != null)
+			mergeNode(GraphNodeTypes.SOCIALNETWORK, NAME_KEY, new String[]{socNetName}, 
+					new SocialNetworkData(socialNetworkNodeObject).getJson());
+		for (String keyword : keywords)
+			mergeNode(GraphNodeTypes.KEYWORD, KEYWORD_KEY, new String[]{keyword}, 
+					new KeywordData(keyword).getJson());
+		
+		/*
+		 * The graph schema looks like this:
+		 *                           
+		 *                                                             
+		 * 							   +-[FETCHED_FROM]->(SOCIALNETWORK) 
+		 * 							   |                               
+		 * 		(KEYWORD)<-[CONTAINS]-(POST)<-[WROTE]-(USER)<-+         
+		 * 			|					|                     |         
+		 *		[RELEVANT_FOR]		[MENTIONS]----------------+         
+		 * 			|	                                                
+		 *          +->(DOMAIN)<-[BELONGS_TO]-(CUSTOMER)
+		 * 
+		 */
+		// rel: USER-[WROTE]->POST
+		mergeRelationship(GraphNodeTypes.USER, ID_KEYS, new String[]{userSnId, userId}, 
+				GraphRelationshipTypes.WROTE, 
+				GraphNodeTypes.POST, ID_KEYS, new String[]{postSnId, postId});
+		// rel: POST-[FETCHED_FROM]->SOCIALNETWORK
+		mergeRelationship(GraphNodeTypes.POST, ID_KEYS, new String[]{postSnId, postId}, 
+				GraphRelationshipTypes.FETCHED_FROM, 
+				GraphNodeTypes.SOCIALNETWORK, NAME_KEY, new String[]{socNetName});
+		// rel: CUSTOMER-[BELONGS_TO]->DOMAIN
+		mergeRelationship(GraphNodeTypes.CUSTOMER, NAME_KEY, new String[]{customerName}, 
+				GraphRelationshipTypes.BELONGS_TO, 
+				GraphNodeTypes.DOMAIN, NAME_KEY, new String[]{domainName});
+		for (String keyword : keywords) {
+			// rel: KEYWORD-[RELEVANT_FOR]->DOMAIN
+			mergeRelationship(GraphNodeTypes.KEYWORD, KEYWORD_KEY, new String[]{keyword}, 
+					GraphRelationshipTypes.RELEVANT_FOR, 
+					GraphNodeTypes.DOMAIN, NAME_KEY, new String[]{domainName});
+			// rel: POST-[CONTAINS]->KEYWORD
+			mergeRelationship(GraphNodeTypes.POST, ID_KEYS, new String[]{postSnId, postId}, 
+					GraphRelationshipTypes.CONTAINS, 
+					GraphNodeTypes.KEYWORD, KEYWORD_KEY, new String[]{keyword});
+		}
+	}
+	
+	
+	/**
+	 * 
+	 * @description	adds the node as a row to the statement which creates the nodes of the label,
+	 * 				unless there is already one with the same key:
+	 * 				UNWIND {rows} AS row 
+	 * 				MERGE (n:POST {sn_id: row.sn_id, id: row.id}) ON CREATE SET n = row.props
+	 * 
+	 * @param		label
+	 * @param		keys		names of the properties that identify the node
+	 * @param		values		values of the key properties
+	 * @param		nodeObject	all properties of the node
+	 * 
+	 */
+	@SuppressWarnings("unchecked")
+	private void mergeNode(GraphNodeTypes label, String[] keys, String[] values, JSONObject nodeObject) {
+		JSONObject row = new JSONObject();
+		JSONObject properties = toProperties(nodeObject);
+		for (int i = 0; i < keys.length; i++)
+			properties.put(keys[i], values[i]);
+		row.put("props", properties);
+		
+		if (addRow("UNWIND {rows} AS row "
+				+ "MERGE (n:" + label + " " + keyPattern("", keys, values, row) + ") "
+				+ "ON CREATE SET n = row.props", rowKey(values), row))
+			nodeCount++;
+	}
+	
+	/**
+	 * 
+	 * @description	adds the two nodes as a row to the statement which connects the nodes of
+	 * 				the two labels by the relationship type, unless they are connected already.
+	 * 				Nothing is added if a key value is missing:
+	 * 				UNWIND {rows} AS row 
+	 * 				MATCH (a:USER {sn_id: row.a_sn_id, id: row.a_id}), (b:POST {sn_id: row.b_sn_id, id: row.b_id})
+	 * 				MERGE (a)-[:WROTE]->(b)
+	 * 
+	 */
+	private void mergeRelationship(
+			GraphNodeTypes sourceLabel, String[] sourceKeys, String[] sourceValues, 
+			GraphRelationshipTypes relType, 
+			GraphNodeTypes targetLabel, String[] targetKeys, String[] targetValues) {
+		for (String value : sourceValues)
+			if (value == null)
+				return;
+		for (String value : targetValues)
+			if (value == null)
+				return;
+		
+		JSONObject row = new JSONObject();
+		addRow("UNWIND {rows} AS row "
+				+ "MATCH (a:" + sourceLabel + " " + keyPattern("a_", sourceKeys, sourceValues, row) + "), "
+				+ "(b:" + targetLabel + " " + keyPattern("b_", targetKeys, targetValues, row) + ") "
+				+ "MERGE (a)-[:" + relType + "]->(b)", rowKey(sourceValues) + ROW_KEY_SEPARATOR + rowKey(targetValues), row);
+	}
+	
+	// builds the property map of a node pattern, e.g. {sn_id: row.a_sn_id, id: row.a_id}, and 
+	// puts the values into the row
+	@SuppressWarnings("unchecked")
+	private static String keyPattern(String prefix, String[] keys, String[] values, JSONObject row) {
+		StringBuilder pattern = new StringBuilder("{");
+		for (int i = 0; i < keys.length; i++) {
+			if (i > 0)
+				pattern.append(", ");
+			pattern.append(keys[i]).append(": row.").append(prefix).append(keys[i]);
+			row.put(prefix + keys[i], values[i]);
+		}
+		return pattern.append('}').toString();
+	}
+	
+	private static String rowKey(String[] values) {
+		StringBuilder key = new StringBuilder();
+		for (int i = 0; i < values.length; i++) {
+			if (i > 0)
+				key.append(ROW_KEY_SEPARATOR);
+			key.append(values[i]);
+		}
+		return key.toString();
+	}
+	
+	private static JSONObject getEmbeddedObject(JSONObject nodeObject, String name) {
+		Object embedded = nodeObject.get(name);
+		return (embedded instanceof JSONObject) ? new JSONObject((JSONObject) embedded) : null;
+	}
+	
+	private static String getValue(JSONObject nodeObject, String key) {
+		if (nodeObject == null || nodeObject.get(key) == null)
+			return null;
+		return nodeObject.get(key).toString();
+	}
+
+
+	/**
+	 * @description	returns the properties of the json object in a form neo4j can store: strings,
+	 * 				numbers and booleans are taken as they are, as are lists of them. Everything
+	 * 				else (e.g. a date or a geo location object) is stored as its string value and
+	 * 				null values are left out
+	 * @param 		json
+	 * @return		the properties
+	 */
+	@SuppressWarnings("unchecked")
+	public static JSONObject toProperties(Map<?, ?> json) {
+		JSONObject properties = new JSONObject();
+		if (json == null)
+			return properties;
+
+		for (Map.Entry<?, ?> entry : json.entrySet()) {
+			Object value = entry.getValue();
+			if (value == null)
+				continue;
+			if (isPrimitive(value)) {
+				properties.put(entry.getKey().toString(), value);
+			} else if (value instanceof Collection && isPrimitiveList((Collection<?>) value)) {
+				JSONArray list = new JSONArray();
+				list.addAll((Collection<?>) value);
+				properties.put(entry.getKey().toString(), list);
+			} else if (!(value instanceof Map) && !(value instanceof Collection)) {
+				properties.put(entry.getKey().toString(), value.toString());
+			}
+		}
+		return properties;
+	}
+
+	private static boolean isPrimitive(Object value) {
+		return value instanceof String || value instanceof Number || value instanceof Boolean;
+	}
+
+	// neo4j only stores non empty lists whose elements are all of the same primitive type
+	private static boolean isPrimitiveList(Collection<?> values) {
+		Class<?> type = null;
+		for (Object value : values) {
+			if (value == null || !isPrimitive(value))
+				return false;
+			if (type != null && type != value.getClass())
+				return false;
+			type = value.getClass();
+		}
+		return type != null;
+	}
+}
@@ -0,0 +1,298 @@
+package de.comlineag.snc.persistence;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.json.simple.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.comlineag.snc.appstate.RuntimeConfiguration;
+
+/**
+ *
+ * @author 		Christian Guenther
+ * @category 	Persistence Manager
+ * @version 	0.1a			- 17.10.2026
+ * @status		productive
+ *
+ * @description sits in front of the graph persistence manager (graphPersistenceManager in
+ * 				applicationContext.xml) and collects the posts of all crawlers in a bounded buffer,
+ * 				if GraphBatchEnabled is set. The buffer is handed to createNodeObjects() of the
+ * 				graph persistence manager as soon as GraphBatchSize posts are waiting or
+ * 				GraphBatchFlushInterval milliseconds have passed, whatever comes first - so the
+ * 				posts of a whole batch are written in one transaction instead of one each.
+ * 				The writes are done by a flush thread of its own, the crawlers only wait if the
+ * 				buffer (GraphBatchQueueSize posts) is full.
+ * 				In case a batch fails, its posts are written one by one, so that a single bad
+ * 				post does not cost the complete batch. Posts that still fail are counted as failed
+ * 				and written to a graph_SCCODE-NUMBER_fail.json file via JsonFilePersistence, which
+ * 				is imported again by the bulk import of Neo4JEmbeddedPersistence.
+ * 				On shutdown the buffer is flushed, posts arriving after that are written directly.
+ * 				Buffer depth, batch sizes and flush latency are exposed via JMX (GraphBatchWriterMBean).
+ *
+ * @changelog	0.1 (Chris)		class created
+ * 				0.1a			posts failing one by one are saved as graph fail files instead of ok files
+ *
+ */
+public final class GraphBatchWriter implements IGraphPersistenceManager, GraphBatchWriterMBean {
+	private final Logger logger = LoggerFactory.getLogger(getClass().getName());
+
+	// singleton design pattern using Initialization-on-demand holder idiom,
+	private static class Holder { static final GraphBatchWriter instance = new GraphBatchWriter(); }
+	public static GraphBatchWriter getInstance() { return Holder.instance; }
+
+	private static final int DEFAULT_BATCH_SIZE = 500;
+	private static final long DEFAULT_FLUSH_INTERVAL = 2000;
+	private static final int DEFAULT_QUEUE_SIZE = 5000;
+
+	private final boolean enabled;
+	private final int batchSize;
+	private final long flushInterval;
+	private final int queueCapacity;
+	private final ArrayBlockingQueue<JSONObject> buffer;
+
+	// the graph persistence manager doing the actual writes - set by spring
+	private volatile IGraphPersistenceManager graphPersistenceManager;
+
+	// makes sure batches are written in the order they were filled
+	private final Object flushLock = new Object();
+	private final AtomicBoolean flushRequested = new AtomicBoolean();
+	private final ScheduledExecutorService flushTimer;
+	private volatile boolean shutdown = false;
+
+	private final AtomicLong bufferedPosts = new AtomicLong();
+	private final AtomicLong writtenPosts = new AtomicLong();
+	private final AtomicLong failedPosts = new AtomicLong();
+	private final AtomicLong blockedAdds = new AtomicLong();
+	private final AtomicLong flushCount = new AtomicLong();
+	private final AtomicLong failedFlushes = new AtomicLong();
+	private final AtomicLong totalFlushTime = new AtomicLong();
+	private final AtomicLong maxFlushTime = new AtomicLong();
+	private volatile long lastFlushTime = 0;
+	private volatile int lastFlushSize = 0;
+
+	private GraphBatchWriter() {
+		RuntimeConfiguration rtc = RuntimeConfiguration.getInstance();
+
+		this.enabled = rtc.getBooleanValue("GraphBatchEnabled", "runtime");
+		int size = rtc.getIntValue("GraphBatchSize", "runtime");
+		this.batchSize = (size > 0) ? size : DEFAULT_BATCH_SIZE;
+		long interval = rtc.getIntValue("GraphBatchFlushInterval", "runtime");
+		this.flushInterval = (interval > 0) ? interval : DEFAULT_FLUSH_INTERVAL;
+		int queueSize = rtc.getIntValue("GraphBatchQueueSize", "runtime");
+		this.queueCapacity = Math.max((queueSize > 0) ? queueSize : DEFAULT_QUEUE_SIZE, batchSize);
+		this.buffer = new ArrayBlockingQueue<JSONObject>(queueCapacity);
+
+		if (!enabled) {
+			this.flushTimer = null;
+			return;
+		}
+
+		this.flushTimer = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread t = new Thread(r, "GraphBatchWriter-flush");
+				t.setDaemon(true);
+				return t;
+			}
+		});
+		this.flushTimer.scheduleWithFixedDelay(new Runnable() {
+			@Override
+			public void run() {
+				flushAll();
+			}
+		}, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+
+		logger.info("graph batch mode activated - flushing every "+batchSize+" posts or after "+flushInterval+"ms, buffering at most "+queueCapacity+" posts");
+	}
+
+	/**
+	 * @description	whether the posts shall be collected - if not, the graph persistence manager
+	 * 				is used directly
+	 */
+	@Override
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setGraphPersistenceManager(IGraphPersistenceManager graphPersistenceManager) {
+		this.graphPersistenceManager = graphPersistenceManager;
+	}
+
+	/**
+	 * @description	adds the post to the buffer. Waits if the buffer is full
+	 * @param 		nodeObject	json object as taken by IGraphPersistenceManager.createNodeObject
+	 */
+	@Override
+	public void createNodeObject(JSONObject nodeObject) {
+		if (!enabled || shutdown) {
+			graphPersistenceManager.createNodeObject(nodeObject);
+			return;
+		}
+
+		bufferedPosts.incrementAndGet();
+		if (!buffer.offer(nodeObject)) {
+			blockedAdds.incrementAndGet();
+			requestFlush();
+			try {
+				buffer.put(nodeObject);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				write(Collections.singletonList(nodeObject));
+				return;
+			}
+		}
+		if (shutdown)
+			// shut down while we were waiting for room in the buffer
+			flushAll();
+		else if (buffer.size() >= batchSize)
+			requestFlush();
+	}
+
+	/**
+	 * @description	adds all posts to the buffer
+	 * @param 		nodeObjects
+	 * @return		always true, as the posts are written later on
+	 */
+	@Override
+	public boolean createNodeObjects(List<JSONObject> nodeObjects) {
+		for (JSONObject nodeObject : nodeObjects)
+			createNodeObject(nodeObject);
+		return true;
+	}
+
+	/**
+	 * @description	writes all buffered posts and stops the flush thread. Called by spring when
+	 * 				the application context is closed - after the PersistenceExecutor, which may
+	 * 				still add posts while it is drained
+	 */
+	public void shutdown() {
+		if (!enabled || shutdown)
+			return;
+
+		logger.info("shutting down graph batch writer - writing "+buffer.size()+" buffered posts");
+		shutdown = true;
+		flushTimer.shutdown();
+		try {
+			flushTimer.awaitTermination(flushInterval, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		flushAll();
+		logger.info("graph batch writer stopped - "+writtenPosts.get()+" posts written in "+flushCount.get()+" batches, "+failedPosts.get()+" failed");
+	}
+
+
+	// asks the flush thread to write the buffer - at most one such request is pending
+	private void requestFlush() {
+		if (flushRequested.compareAndSet(false, true)) {
+			try {
+				flushTimer.execute(new Runnable() {
+					@Override
+					public void run() {
+						flushRequested.set(false);
+						flushAll();
+					}
+				});
+			} catch (RuntimeException e) {
+				// the flush thread is already stopped, the buffer is written on shutdown
+				flushRequested.set(false);
+			}
+		}
+	}
+
+	// writes batches until the buffer is empty
+	private void flushAll() {
+		try {
+			while (flush() > 0);
+		} catch (RuntimeException e) {
+			logger.error("EXCEPTION :: flush of graph batch failed " + e.getLocalizedMessage(), e);
+		}
+	}
+
+	// writes at most batchSize posts from the buffer and returns their number
+	private int flush() {
+		synchronized (flushLock) {
+			List<JSONObject> batch = new ArrayList<JSONObject>(batchSize);
+			buffer.drainTo(batch, batchSize);
+			if (batch.isEmpty())
+				return 0;
+
+			long start = System.currentTimeMillis();
+			boolean written = write(batch);
+			long duration = System.currentTimeMillis() - start;
+
+			flushCount.incrementAndGet();
+			totalFlushTime.addAndGet(duration);
+			long max;
+			while (duration > (max = maxFlushTime.get()) && !maxFlushTime.compareAndSet(max, duration));
+			lastFlushTime = duration;
+			lastFlushSize = batch.size();
+			logger.debug("flushed graph batch of "+batch.size()+" posts in "+duration+"ms");
+
+			if (!written) {
+				failedFlushes.incrementAndGet();
+				logger.warn("graph batch of "+batch.size()+" posts failed - retrying them one by one");
+				for (JSONObject nodeObject : batch)
+					if (!write(Collections.singletonList(nodeObject))) {
+						logger.error("could not write post "+nodeObject.get("sn_id")+"-"+nodeObject.get("id")+" to the graph - saving it for the bulk import");
+						new JsonFilePersistence().saveNodeObject(nodeObject);
+					}
+			}
+			return batch.size();
+		}
+	}
+
+	// hands the posts to the graph persistence manager
+	private boolean write(List<JSONObject> nodeObjects) {
+		boolean written;
+		try {
+			written = graphPersistenceManager.createNodeObjects(nodeObjects);
+		} catch (RuntimeException e) {
+			logger.error("EXCEPTION :: graph persistence failed " + e.getLocalizedMessage(), e);
+			written = false;
+		}
+		// a failed batch is counted when its posts were retried one by one
+		if (written)
+			writtenPosts.addAndGet(nodeObjects.size());
+		else if (nodeObjects.size() == 1)
+			failedPosts.incrementAndGet();
+		return written;
+	}
+
+
+	@Override public int getBatchSize()				{ return batchSize; }
+	@Override public long getFlushInterval()		{ return flushInterval; }
+	@Override public int getQueueDepth()			{ return buffer.size(); }
+	@Override public int getQueueCapacity()			{ return queueCapacity; }
+	@Override public long getBufferedPosts()		{ return bufferedPosts.get(); }
+	@Override public long getWrittenPosts()			{ return writtenPosts.get(); }
+	@Override public long getFailedPosts()			{ return failedPosts.get(); }
+	@Override public long getBlockedAdds()			{ return blockedAdds.get(); }
+	@Override public long getFlushCount()			{ return flushCount.get(); }
+	@Override public long getFailedFlushes()		{ return failedFlushes.get(); }
+	@Override public long getLastFlushMillis()		{ return lastFlushTime; }
+	@Override public int getLastFlushSize()			{ return lastFlushSize; }
+	@Override public long getMaxFlushMillis()		{ return maxFlushTime.get(); }
+
+	@Override
+	public long getAverageFlushMillis() {
+		long flushes = flushCount.get();
+		return (flushes == 0) ? 0 : totalFlushTime.get() / flushes;
+	}
+
+	@Override
+	public long getAverageFlushSize() {
+		long flushes = flushCount.get();
+		return (flushes == 0) ? 0 : (writtenPosts.get() + failedPosts.get()) / flushes;
+	}
+}
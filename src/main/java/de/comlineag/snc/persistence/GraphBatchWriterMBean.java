@@ -0,0 +1,50 @@
+package de.comlineag.snc.persistence;
+
+/**
+ *
+ * @author 		Christian Guenther
+ * @category	interface
+ * @revision	0.1				- 17.10.2026
+ * @status		productive
+ *
+ * @description	management interface of the GraphBatchWriter. It is exported via the
+ * 				MBeanExporter in applicationContext.xml and shows how many posts wait for the
+ * 				graph database and how long it takes to write a batch of them.
+ *
+ * @changelog	0.1 (Chris)		interface created
+ *
+ */
+public interface GraphBatchWriterMBean {
+	// whether posts are collected at all (GraphBatchEnabled)
+	public boolean isEnabled();
+	// number of posts that trigger a flush
+	public int getBatchSize();
+	// maximum time in milliseconds a post waits in the buffer
+	public long getFlushInterval();
+	// number of posts waiting in the buffer
+	public int getQueueDepth();
+	// maximum number of posts the buffer can hold
+	public int getQueueCapacity();
+	// number of posts added to the buffer
+	public long getBufferedPosts();
+	// number of posts written to the graph
+	public long getWrittenPosts();
+	// number of posts that could not be written and were saved to a json file instead
+	public long getFailedPosts();
+	// number of adds that had to wait for room in the buffer
+	public long getBlockedAdds();
+	// number of batches written
+	public long getFlushCount();
+	// number of batches whose posts had to be written one by one
+	public long getFailedFlushes();
+	// duration of the last flush in milliseconds
+	public long getLastFlushMillis();
+	// number of posts in the last flush
+	public int getLastFlushSize();
+	// average duration of a flush in milliseconds
+	public long getAverageFlushMillis();
+	// longest flush so far in milliseconds
+	public long getMaxFlushMillis();
+	// average number of posts per flush
+	public long getAverageFlushSize();
+}
@@ -0,0 +1,220 @@
+package de.comlineag.snc.persistence;
+
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.comlineag.snc.persistence.HANAConnectionPool.PooledConnection;
+
+/**
+ *
+ * @author 		Christian Guenther
+ * @category 	Persistence Manager
+ * @version 	0.2				- 17.10.2026
+ * @status		productive
+ *
+ * @description collects INSERT and UPDATE statements of HANAPersistence and sends them as JDBC
+ * 				batches (addBatch/executeBatch) to the HANA DB. A batch is flushed as soon as
+ * 				batchSize statements are pending or flushInterval milliseconds have passed,
+ * 				whatever comes first.
+ * 				In case a batch fails, it is rolled back and the statements are executed one
+ * 				by one, so that a single bad record does not cost the complete batch.
+ * 				The outcome of every record is reported to the BatchListener - failures only after
+ * 				the connection went back to the pool, so the listener may write the record again.
+ *
+ * @changelog	0.1 (Chris)		class created
+ * 				0.2				failed records are reported with their statement and parameters
+ *
+ */
+public final class HANABatchWriter {
+
+	private final Logger logger = LoggerFactory.getLogger(getClass().getName());
+
+	/**
+	 * @description	is informed about the outcome of every single record of a batch
+	 */
+	public interface BatchListener {
+		public void written(Object dataObject);
+		public void failed(String sql, Object[] params, Object dataObject, SQLException e);
+	}
+
+	private final HANAConnectionPool connectionPool;
+	private final BatchListener listener;
+	private final int batchSize;
+
+	// guarded by this
+	private List<BatchEntry> pending;
+	// makes sure batches are written in the order they were filled
+	private final Object flushLock = new Object();
+	private final ScheduledExecutorService flushTimer;
+
+	/**
+	 * @param 	connectionPool	pool to get the connections from
+	 * @param 	listener		is informed of the outcome of every record
+	 * @param 	batchSize		number of pending statements that trigger a flush
+	 * @param 	flushInterval	maximum time in milliseconds a statement stays pending
+	 */
+	public HANABatchWriter(HANAConnectionPool connectionPool, BatchListener listener, int batchSize, long flushInterval){
+		this.connectionPool = connectionPool;
+		this.listener = listener;
+		this.batchSize = batchSize;
+		this.pending = new ArrayList<BatchEntry>(batchSize);
+
+		this.flushTimer = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread t = new Thread(r, "HANABatchWriter-flush");
+				t.setDaemon(true);
+				return t;
+			}
+		});
+		this.flushTimer.scheduleWithFixedDelay(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					flush();
+				} catch (RuntimeException e) {
+					logger.error("EXCEPTION :: timed flush of jdbc batch failed " + e.getLocalizedMessage(), e);
+				}
+			}
+		}, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+
+		logger.info("jdbc batch mode activated - flushing every "+batchSize+" statements or after "+flushInterval+"ms");
+	}
+
+	/**
+	 * @description	adds a statement to the current batch and flushes the batch if it is full
+	 * @param 		sql			the sql statement
+	 * @param 		params		values for the parameters of the statement
+	 * @param 		dataObject	the posting or user the statement belongs to
+	 */
+	public void add(String sql, Object[] params, Object dataObject){
+		boolean full;
+		synchronized (this) {
+			pending.add(new BatchEntry(sql, params, dataObject));
+			full = pending.size() >= batchSize;
+		}
+		if (full)
+			flush();
+	}
+
+	/**
+	 * @description	writes all pending statements to the database
+	 */
+	public void flush(){
+		synchronized (flushLock) {
+			List<BatchEntry> batch;
+			synchronized (this) {
+				if (pending.isEmpty())
+					return;
+				batch = pending;
+				pending = new ArrayList<BatchEntry>(batchSize);
+			}
+
+			// group the statements by sql, keeping the order in which they were added
+			Map<String, List<BatchEntry>> bySql = new LinkedHashMap<String, List<BatchEntry>>();
+			for (BatchEntry entry : batch) {
+				List<BatchEntry> entries = bySql.get(entry.sql);
+				if (entries == null) {
+					entries = new ArrayList<BatchEntry>();
+					bySql.put(entry.sql, entries);
+				}
+				entries.add(entry);
+			}
+
+			long start = System.currentTimeMillis();
+			for (Map.Entry<String, List<BatchEntry>> group : bySql.entrySet())
+				executeBatch(group.getKey(), group.getValue());
+			logger.debug("flushed jdbc batch of "+batch.size()+" statements in "+(System.currentTimeMillis()-start)+"ms");
+		}
+	}
+
+	/**
+	 * @description	flushes all pending statements and stops the flush timer
+	 */
+	public void close(){
+		flushTimer.shutdown();
+		flush();
+	}
+
+
+	private void executeBatch(String sql, List<BatchEntry> entries){
+		PooledConnection pooled = null;
+		try {
+			pooled = connectionPool.borrow();
+			Connection conn = pooled.getConnection();
+			PreparedStatement stmt = pooled.prepare(sql);
+
+			conn.setAutoCommit(false);
+			try {
+				for (BatchEntry entry : entries) {
+					HANAConnectionPool.bind(stmt, entry.params);
+					stmt.addBatch();
+				}
+				stmt.executeBatch();
+				conn.commit();
+			} catch (BatchUpdateException e) {
+				logger.warn("jdbc batch of "+entries.size()+" statements failed ("+e.getLocalizedMessage()+") - retrying them one by one");
+				stmt.clearBatch();
+				conn.rollback();
+				conn.setAutoCommit(true);
+				Map<BatchEntry, SQLException> failures = executeOneByOne(pooled, sql, entries);
+				connectionPool.release(pooled);
+				for (Map.Entry<BatchEntry, SQLException> failure : failures.entrySet())
+					listener.failed(sql, failure.getKey().params, failure.getKey().dataObject, failure.getValue());
+				return;
+			}
+			conn.setAutoCommit(true);
+			connectionPool.release(pooled);
+
+			for (BatchEntry entry : entries)
+				listener.written(entry.dataObject);
+		} catch (SQLException e) {
+			connectionPool.invalidate(pooled);
+			logger.error("EXCEPTION :: jdbc batch of "+entries.size()+" statements failed " + e.getLocalizedMessage());
+			for (BatchEntry entry : entries)
+				listener.failed(sql, entry.params, entry.dataObject, e);
+		}
+	}
+
+	// returns the records which failed - they are reported once the connection is released
+	private Map<BatchEntry, SQLException> executeOneByOne(PooledConnection pooled, String sql, List<BatchEntry> entries) throws SQLException {
+		Map<BatchEntry, SQLException> failures = new LinkedHashMap<BatchEntry, SQLException>();
+		PreparedStatement stmt = pooled.prepare(sql);
+		for (BatchEntry entry : entries) {
+			try {
+				HANAConnectionPool.bind(stmt, entry.params);
+				stmt.executeUpdate();
+				listener.written(entry.dataObject);
+			} catch (SQLException e) {
+				failures.put(entry, e);
+			}
+		}
+		return failures;
+	}
+
+
+	private static final class BatchEntry {
+		private final String sql;
+		private final Object[] params;
+		private final Object dataObject;
+
+		private BatchEntry(String sql, Object[] params, Object dataObject){
+			this.sql = sql;
+			this.params = params;
+			this.dataObject = dataObject;
+		}
+	}
+}
@@ -0,0 +1,210 @@
+package de.comlineag.snc.persistence;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ *
+ * @author 		Christian Guenther
+ * @category 	Persistence Manager
+ * @version 	0.1				- 17.10.2026
+ * @status		productive
+ *
+ * @description a small, bounded pool of JDBC connections to the SAP HANA DB. Every pooled
+ * 				connection keeps a cache of the prepared statements created on it, so that
+ * 				the INSERT and UPDATE statements of HANAPersistence are only prepared once
+ * 				per connection instead of once per record.
+ * 				Connections are created lazily up to the maximum pool size. A connection on
+ * 				which an SQLException occurred is not returned to the pool, but invalidated
+ * 				and replaced by a fresh one on the next request.
+ *
+ * @changelog	0.1 (Chris)		class created
+ *
+ */
+public final class HANAConnectionPool {
+
+	private final Logger logger = LoggerFactory.getLogger(getClass().getName());
+
+	private final String url;
+	private final String user;
+	private final String password;
+	private final long borrowTimeout;
+
+	// permits limit the number of connections in use plus idle connections
+	private final Semaphore permits;
+	private final LinkedBlockingQueue<PooledConnection> idleConnections = new LinkedBlockingQueue<PooledConnection>();
+	private volatile boolean closed = false;
+
+	/**
+	 * @param 	url				jdbc url of the HANA DB
+	 * @param 	user			user in clear text
+	 * @param 	password		password in clear text
+	 * @param 	maxSize			maximum number of connections
+	 * @param 	borrowTimeout	how long (in milliseconds) to wait for a free connection
+	 */
+	public HANAConnectionPool(String url, String user, String password, int maxSize, long borrowTimeout){
+		this.url = url;
+		this.user = user;
+		this.password = password;
+		this.borrowTimeout = borrowTimeout;
+		this.permits = new Semaphore(maxSize, true);
+		logger.info("setting up jdbc connection pool for "+url+" with up to "+maxSize+" connections");
+	}
+
+	/**
+	 * @description	returns a free connection from the pool or opens a new one, if none is idle
+	 * 				and the maximum pool size is not yet reached
+	 * @return		pooled connection - must be given back with release() or invalidate()
+	 * @throws 		SQLException if no connection could be established or the pool is exhausted
+	 */
+	public PooledConnection borrow() throws SQLException {
+		if (closed)
+			throw new SQLException("connection pool for " + url + " is closed");
+
+		try {
+			if (!permits.tryAcquire(borrowTimeout, TimeUnit.MILLISECONDS))
+				throw new SQLException("timed out after "+borrowTimeout+"ms waiting for a free connection to " + url);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SQLException("interrupted while waiting for a free connection to " + url, e);
+		}
+
+		PooledConnection pooled;
+		while ((pooled = idleConnections.poll()) != null) {
+			if (!pooled.isClosed())
+				return pooled;
+			pooled.closeQuietly();
+		}
+
+		try {
+			logger.debug("opening new jdbc connection to "+url+" with user "+user);
+			return new PooledConnection(DriverManager.getConnection(url, user, password));
+		} catch (SQLException e) {
+			permits.release();
+			throw e;
+		}
+	}
+
+	/**
+	 * @description	gives a connection back to the pool
+	 * @param 		pooled
+	 */
+	public void release(PooledConnection pooled){
+		if (pooled == null)
+			return;
+		if (closed || pooled.isClosed())
+			pooled.closeQuietly();
+		else
+			idleConnections.offer(pooled);
+		permits.release();
+	}
+
+	/**
+	 * @description	closes a broken connection instead of returning it to the pool
+	 * @param 		pooled
+	 */
+	public void invalidate(PooledConnection pooled){
+		if (pooled == null)
+			return;
+		logger.debug("invalidating jdbc connection to " + url);
+		pooled.closeQuietly();
+		permits.release();
+	}
+
+	/**
+	 * @description	closes all idle connections. Connections currently in use are closed
+	 * 				when they are given back
+	 */
+	public void close(){
+		closed = true;
+		PooledConnection pooled;
+		while ((pooled = idleConnections.poll()) != null)
+			pooled.closeQuietly();
+		logger.info("jdbc connection pool for "+url+" closed");
+	}
+
+	/**
+	 * @description	binds the given values to the parameters of the statement. Supported are
+	 * 				String, Long, Integer and Timestamp - null values are bound as NULL
+	 * @param 		stmt
+	 * @param 		params
+	 */
+	public static void bind(PreparedStatement stmt, Object[] params) throws SQLException {
+		for (int i = 0; i < params.length; i++) {
+			Object value = params[i];
+			if (value == null)
+				stmt.setNull(i+1, Types.NVARCHAR);
+			else if (value instanceof String)
+				stmt.setString(i+1, (String) value);
+			else if (value instanceof Long)
+				stmt.setLong(i+1, (Long) value);
+			else if (value instanceof Integer)
+				stmt.setInt(i+1, (Integer) value);
+			else if (value instanceof Timestamp)
+				stmt.setTimestamp(i+1, (Timestamp) value);
+			else
+				stmt.setObject(i+1, value);
+		}
+	}
+
+
+	/**
+	 *
+	 * @description	a jdbc connection together with the prepared statements created on it
+	 *
+	 */
+	public static final class PooledConnection {
+		private final Connection connection;
+		private final Map<String, PreparedStatement> statements = new HashMap<String, PreparedStatement>();
+
+		private PooledConnection(Connection connection){
+			this.connection = connection;
+		}
+
+		public Connection getConnection(){
+			return connection;
+		}
+
+		/**
+		 * @description	returns the cached prepared statement for the given sql or prepares it
+		 * @param 		sql
+		 * @return		prepared statement, owned by this connection - do not close it
+		 */
+		public PreparedStatement prepare(String sql) throws SQLException {
+			PreparedStatement stmt = statements.get(sql);
+			if (stmt == null) {
+				stmt = connection.prepareStatement(sql);
+				statements.put(sql, stmt);
+			}
+			return stmt;
+		}
+
+		private boolean isClosed(){
+			try {
+				return connection.isClosed();
+			} catch (SQLException e) {
+				return true;
+			}
+		}
+
+		private void closeQuietly(){
+			for (PreparedStatement stmt : statements.values()) {
+				try { stmt.close(); } catch (SQLException e) { /* nothing left to do */ }
+			}
+			statements.clear();
+			try { connection.close(); } catch (SQLException e) { /* nothing left to do */ }
+		}
+	}
+}
@@ -2,7 +2,10 @@ package de.comlineag.snc.persistence;
 
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
 import java.sql.Timestamp;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import com.sun.jersey.api.client.ClientHandlerException;
 
@@ -24,15 +27,17 @@ import de.comlineag.snc.data.PostingData;
 import de.comlineag.snc.data.UserData;
 import de.comlineag.snc.handler.ConfigurationCryptoHandler;
 import de.comlineag.snc.handler.DataCryptoHandler;
+import de.comlineag.snc.helper.BloomFilter;
 import de.comlineag.snc.helper.StringServices;
 import de.comlineag.snc.constants.HanaDataConstants;
 import de.comlineag.snc.persistence.JsonFilePersistence;
+import de.comlineag.snc.persistence.HANAConnectionPool.PooledConnection;
 
 /**
  *
  * @author 		Magnus Leinemann, Christian Guenther, Thomas Nowak
  * @category 	Persistence Manager
- * @version 	0.9m				- 22.10.2014
+ * @version 	0.9p				- 17.10.2026
  * @status		productive
  *
  * @description handles the connectivity to the SAP HANA Systems and saves and updates posts and users in the DB
@@ -61,6 +66,16 @@ import de.comlineag.snc.persistence.JsonFilePersistence;
  *				0.9k				changed access to runtime configuration to non-static
  *				0.9l				changed access to HANA Data configuration to non-static
  *				0.9m				changed id from Long to String
+ *				0.9n				jdbc connections are taken from a connection pool (HANAConnectionPool) with cached 
+ *									prepared statements, user and password are decrypted only once and inserts/updates 
+ *									can optionally be sent as jdbc batches (HANABatchWriter)
+ *				0.9o				added upsert mode (HanaWriteMode) to store posts and users with a single UPSERT ... WITH 
+ *									PRIMARY KEY instead of an OData lookup plus insert or update. The OData consumers are 
+ *									created once per endpoint and an optional bloom filter of known keys skips the lookup 
+ *									for posts and users this instance never wrote
+ *				0.9p				an sql insert failing on an existing primary key is repeated as upsert, so a record 
+ *									skipped by the known keys filter (which forgets everything on restart) is still 
+ *									updated. The filter skips the lookup only if jdbc is available
  * 
  * TODO fix error while inserting/updating dataset with SQL
  * TODO establish proper error handling to get the HTTP error code from OData calls
@@ -92,14 +107,133 @@ public class HANAPersistence implements IPersistenceManager {
 	// Credentials
 	private String user;
 	private String pass;
-	// OData client endpoints
-	private static ODataConsumer userService;
-	private static ODataConsumer postService;
+	// OData client endpoints - one long-lived consumer per service endpoint
+	private final ConcurrentMap<String, ODataConsumer> odataConsumers = new ConcurrentHashMap<String, ODataConsumer>();
 	
 	// data sets
 	private Long Id;
 	private SocialNetworks SN;
 	
+	// JDBC connection pool and optional batch writer - both are set up on first use
+	private volatile HANAConnectionPool connectionPool;
+	private HANABatchWriter batchWriter;
+	// user and password in clear text - decrypted only once on first use
+	private volatile boolean credentialsDecrypted = false;
+	private String clearUser;
+	private String clearPassword;
+	// is the jdbc driver available - determined once on first use
+	private Boolean jdbcAvailable;
+	// shall posts and users be written with a single UPSERT (HanaWriteMode=upsert) instead of lookup and insert/update
+	private Boolean upsertMode;
+	// optional bloom filter of all posts and users written by this instance (HanaKnownKeysFilterEnabled) - 
+	// it is empty after each start, so an insert it lets through may still hit an existing record
+	private BloomFilter knownKeys;
+	private boolean knownKeysInitialized = false;
+	
+	// defaults in case the jdbc options are missing in the runtime configuration
+	private static final int DEFAULT_JDBC_POOL_SIZE = 5;
+	private static final int DEFAULT_JDBC_BATCH_SIZE = 100;
+	private static final long DEFAULT_JDBC_BATCH_FLUSH_INTERVAL = 2000;
+	private static final long JDBC_BORROW_TIMEOUT = 30000;
+	private static final int DEFAULT_KNOWN_KEYS_FILTER_SIZE = 1000000;
+	// error code of the HANA jdbc driver for "unique constraint violated"
+	private static final int HANA_UNIQUE_CONSTRAINT_VIOLATED = 301;
+	
+	// the sql statements for posts and users - prepared once per pooled connection
+	//"INSERT INTO \""+hco.getSCHEMA_NAME()+"\".\""+hco.getPATH_TO_TABLES()+"::"+hco.getPOSTS_TABLE()+"\" "
+	private static final String INSERT_POST_SQL = "INSERT INTO \"CL_SAA\".\"comline.saa.data.tables::posts\" "
+			+ "("
+			+ "     \"domain\" "
+			+ ",	\"customer\" "
+			+ ",	\"sn_id\" "
+			+ ",	\"post_id\" "
+			+ ",	\"user_id\" "
+			+ ",	\"timestamp\" "
+			+ ",	\"postLang\" "
+			+ ",	\"text\" "
+			+ ",	\"raw_text\" "
+			+ ",	\"teaser\" "
+			+ ",	\"subject\" "
+			+ ",	\"viewcount\" "
+			+ ",	\"favoritecount\" "
+			+ ",	\"client\" "
+			+ ",	\"truncated\" "
+			+ ",	\"inReplyTo\" "
+			+ ",	\"inReplyToUserID\" "
+			+ ",	\"inReplyToScreenName\" "
+			+ ",	\"geoLocation_longitude\" "
+			+ ",	\"geoLocation_latitude\" "
+			+ ",	\"placeID\" "
+			+ ",	\"plName\" "
+			+ ",	\"plCountry\" "
+			+ ",	\"plAround_longitude\" "
+			+ ",	\"plAround_latitude\" "
+			+ ") "
+			+ "VALUES (?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,? )";
+	
+	//"UPDATE \""+hco.getSCHEMA_NAME()+"\".\""+hco.getPATH_TO_TABLES()+"::"+hco.getPOSTS_TABLE()+"\" "
+	private static final String UPDATE_POST_SQL = "UPDATE \"CL_SAA\".\"comline.saa.data.tables::posts\" "
+			+ " SET "
+			+ "\"domain\" = ? "
+			+ ",\"user_id\" = ? "
+			+ ",\"timestamp\" = ? "
+			+ ",\"postLang\" = ? "
+			+ ",\"text\" = ? "
+			+ ",\"raw_text\" = ? "
+			+ ",\"teaser\" = ? "
+			+ ",\"subject\" = ? "
+			+ ",\"viewcount\" = ? "
+			+ ",\"favoritecount\" = ? "
+			+ ",\"client\" = ? "
+			+ ",\"truncated\" = ? "
+			+ ",\"inReplyTo\" = ? "
+			+ ",\"inReplyToUserID\" = ? "
+			+ ",\"inReplyToScreenName\" = ? "
+			+ ",\"geoLocation_longitude\" = ? "
+			+ ",\"geoLocation_latitude\" = ? "
+			+ ",\"placeID\" = ? "
+			+ ",\"plName\" = ? "
+			+ ",\"plCountry\" = ? "
+			+ ",\"plAround_longitude\" = ? "
+			+ ",\"plAround_latitude\" = ? "
+			+ " WHERE (\"sn_id\" = ? AND \"post_id\" = ?)";
+	
+	//"INSERT INTO \""+hco.getSCHEMA_NAME()+"\".\""+hco.getPATH_TO_TABLES()+"::"+hco.getUSERS_TABLE()+"\" "
+	private static final String INSERT_USER_SQL = "INSERT INTO \"CL_SAA\".\"comline.saa.data.tables::users\" "
+			+ "("
+			+ "		\"sn_id\" "
+			+ ",	\"user_id\" "
+			+ ",	\"userName\" "
+			+ ",	\"nickName\" "
+			+ ",	\"userLang\" "
+			+ ",	\"follower\" "
+			+ ",	\"friends\" "
+			+ ",	\"postingsCount\" "
+			+ ",	\"favoritesCount\" "
+			+ ",	\"listsAndGroupsCount\" "
+			//+ ",	\"geoLocation\" "
+			+ ") "
+			+ "VALUES (?,?,?,?,?,?,?,?,?,?)"; // add a ? to the end of the line, after activating geoLocation
+	
+	// the upsert statements take the same columns and parameters as the insert statements, but 
+	// update the existing record in case the primary key (sn_id and post_id or user_id) already exists
+	private static final String UPSERT_POST_SQL = "UPSERT " + INSERT_POST_SQL.substring("INSERT INTO ".length()) + " WITH PRIMARY KEY";
+	private static final String UPSERT_USER_SQL = "UPSERT " + INSERT_USER_SQL.substring("INSERT INTO ".length()) + " WITH PRIMARY KEY";
+	
+	//"UPDATE \""+hco.getSCHEMA_NAME()+"\".\""+hco.getPATH_TO_TABLES()+"::"+hco.getUSERS_TABLE()+"\" "
+	private static final String UPDATE_USER_SQL = "UPDATE \"CL_SAA\".\"comline.saa.data.tables::users\" "
+			+ " SET "
+			+ " \"userName\" = ? "
+			+ ",\"nickName\" = ? "
+			+ ",\"userLang\" = ? "
+			+ ",\"follower\" = ? "
+			+ ",\"friends\" = ? "
+			+ ",\"postingsCount\" = ? "
+			+ ",\"favoritesCount\" = ? "
+			+ ",\"listsAndGroupsCount\" = ? "
+			//+ ",\"geoLocation\" = ? "
+			+ " WHERE (\"sn_id\" = ? AND \"user_id\" = ?)";
+	
 	public HANAPersistence() {}
 
 	/**
@@ -143,40 +277,34 @@ public class HANAPersistence implements IPersistenceManager {
 		//logger.trace("    postData content " + postData.getAllContent());
 		
 		try {
-			// first check if the entry already exists
-			OEntity theData = returnOEntityHandler(postingData.getSnId(), postingData.getId(), "post");
-			
 			// truncate all fields to maximum length allotted by HANA
 			setPostFieldLength(postingData);
 			
-			// first check if the dataset is already in the database
-			if (theData == null) {
-				try{
-					// first try to save the data via jdbc, we do this by tryng to load the jdbc driver
-					logger.debug("HANAPersistence::savePosts::insert::tryJDBC");
-					Class.forName(this.dbDriver);
-					logger.debug("HANAPersistence::savePosts::insert Treiber gefunden!");
-					insertPostWithSQL(postingData);
-				} catch (java.lang.ClassNotFoundException le) {
-					// in case the jdbc library is not available, fall back to OData to save the post
-					logger.debug("HANAPersistence::savePosts::insert Treiber NICHT gefunden versuche ODATA!");
-					insertPostWithOData(postingData);
-				} 
-			// if record exists, update it...
+			if (isJdbcAvailable() && isUpsertMode()) {
+				// a single upsert inserts or updates the post - no need to look it up first
+				upsertPostWithSQL(postingData);
 			} else {
-				//logger.trace(theData.getEntityKey().toKeyStringWithoutParentheses());
-				try{
-					logger.debug("HANAPersistence::savePosts::update::tryJDBC");
-					// first try to update the data via jdbc
-					Class.forName(this.dbDriver);
-					logger.debug("HANAPersistence::savePosts::update Treiber gefunden!");
-					updatePostWithSQL(postingData);
-				} catch (java.lang.ClassNotFoundException le) {
-					// in case the jdbc library is not available, fall back to OData to save the post
-					logger.debug("HANAPersistence::savePosts::update Treiber NICHT gefunden versuche ODATA!");
-					updatePostWithOData(postingData, theData);
-				} 
+				// first check if the entry already exists - unless we know for sure we never wrote it and 
+				// can rely on the jdbc insert to become an upsert in case someone else did (see sqlFailed)
+				OEntity theData = null;
+				if (!isJdbcAvailable() || isPossiblyKnown("post", postingData.getSnId(), postingData.getId()))
+					theData = returnOEntityHandler(postingData.getSnId(), postingData.getId(), "post");
+				
+				if (theData == null) {
+					if (isJdbcAvailable())
+						insertPostWithSQL(postingData);
+					else
+						// in case the jdbc library is not available, fall back to OData to save the post
+						insertPostWithOData(postingData);
+				// if record exists, update it...
+				} else {
+					if (isJdbcAvailable())
+						updatePostWithSQL(postingData);
+					else
+						updatePostWithOData(postingData, theData);
+				}
 			}
+			rememberKey("post", postingData.getSnId(), postingData.getId());
 		} catch (ClientHandlerException e) {
 			// catch any remaining exceptions and make sure the client (in case of twitter) is closed - done within TwitterCrawler
 			logger.error("EXCEPTION :: could not connect to HANA system " + e.getLocalizedMessage());
@@ -221,31 +349,33 @@ public class HANAPersistence implements IPersistenceManager {
 		logger.trace("    userData content " + userData.getAllContent());
 		
 		try {
-			// first check if the entry already exists
-			OEntity theData = returnOEntityHandler(userData.getSnId(), userData.getId(), "user");
-			
-			// then truncate all fields to maximum length allotted by HANA
+			// truncate all fields to maximum length allotted by HANA
 			setUserFieldLength(userData);
 			
-			if (theData == null) {
-				try {
-					// first try to save the user via jdbc, we do this by tryng to load the jdbc driver
-					Class.forName(this.dbDriver);
-					insertUserWithSQL(userData);
-				} catch (java.lang.ClassNotFoundException le) {
-					// in case the jdbc library is not available, fall back to OData to save the user
-					insertUserWithOData(userData);
-				} 
+			if (isJdbcAvailable() && isUpsertMode()) {
+				// a single upsert inserts or updates the user - no need to look it up first
+				upsertUserWithSQL(userData);
 			} else {
-				try {
-					// first try to save the data via jdbc
-					Class.forName(this.dbDriver);
-					updateUserWithSQL(userData);
-				} catch (java.lang.ClassNotFoundException le) {
-					// in case the jdbc library is not available, fall back to OData to save the user
-					updateUserWithOData(userData, theData);
-				} 
+				// first check if the entry already exists - unless we know for sure we never wrote it and 
+				// can rely on the jdbc insert to become an upsert in case someone else did (see sqlFailed)
+				OEntity theData = null;
+				if (!isJdbcAvailable() || isPossiblyKnown("user", userData.getSnId(), userData.getId()))
+					theData = returnOEntityHandler(userData.getSnId(), userData.getId(), "user");
+				
+				if (theData == null) {
+					if (isJdbcAvailable())
+						insertUserWithSQL(userData);
+					else
+						// in case the jdbc library is not available, fall back to OData to save the user
+						insertUserWithOData(userData);
+				} else {
+					if (isJdbcAvailable())
+						updateUserWithSQL(userData);
+					else
+						updateUserWithOData(userData, theData);
+				}
 			}
+			rememberKey("user", userData.getSnId(), userData.getId());
 		} catch (ClientHandlerException e) {
 			// catch any remaining exceptions and make sure the client (in case of twitter) is closed - done within TwitterCrawler
 			logger.error("EXCEPTION :: could not connect to HANA system " + e.getLocalizedMessage());
@@ -317,38 +447,15 @@ public class HANAPersistence implements IPersistenceManager {
 		
 		//logger.info("searching for "+type+" with id "+SN+"-"+Id + "");
 		
-		BasicAuthenticationBehavior bAuth = null;
-		String _user = null;
-		String _pw = null;
-		
 		OEntity theDataset = null;
 		
-		String baseLocation = new String(this.protocol + "://" + this.host + ":" + this.port + this.location);
-		
-		// this is just example code to show, how to interact with the CryptoProvider enum
-		//String desiredStrength = "low";
-		//CryptoProvider cryptoProviderToUse = CryptoProvider.getCryptoProvider(desiredStrength);
-		//logger.trace("determined " + cryptoProviderToUse.getName() + " to be the best suited provider for desired strength " + desiredStrength);
-		
-		try {
-			logger.trace("decrypting authorization details from job control with " + configurationCryptoProvider.getCryptoProviderName());
-			_user = configurationCryptoProvider.decryptValue(this.user);
-			_pw = configurationCryptoProvider.decryptValue(this.pass);
-			bAuth = new BasicAuthenticationBehavior(_user, _pw);
-		} catch (GenericCryptoException e) {
-			logger.error("EXCEPTION :: could not decrypt value for user/passwd with " + configurationCryptoProvider.getCryptoProviderName() + ": " + e.toString(), e);
-			return null;
-		}
-		
 		// looking for user
 		if ("user".equals(type)) {
-			String userURI = new String(baseLocation + "/" + this.serviceUserEndpoint);
-		
-			logger.debug("searching for "+type+" " + SN + "-" + Id + " at location " + userURI);
+			ODataConsumer userService = getODataService(this.serviceUserEndpoint);
+			if (userService == null)
+				return null;
 			
-			ODataConsumer.Builder userBuilder = ODataConsumer.newBuilder(userURI);
-			userBuilder.setClientBehaviors(bAuth);
-			userService = userBuilder.build();
+			logger.debug("searching for "+type+" " + SN + "-" + Id + " at location " + userService.getServiceRootUri());
 			
 			// query for the user by id
 			try {
@@ -362,13 +469,11 @@ public class HANAPersistence implements IPersistenceManager {
 			}
 		// looking for ppst not user
 		} else {
-			String postURI = new String(baseLocation + "/" + this.servicePostEndpoint);
-			
-			logger.trace("searching for "+type+" " + SN.toString() + "-" + Id + " at location " + postURI);
+			ODataConsumer postService = getODataService(this.servicePostEndpoint);
+			if (postService == null)
+				return null;
 			
-			ODataConsumer.Builder postBuilder = ODataConsumer.newBuilder(postURI);
-			postBuilder.setClientBehaviors(bAuth);
-			postService = postBuilder.build();
+			logger.trace("searching for "+type+" " + SN.toString() + "-" + Id + " at location " + postService.getServiceRootUri());
 			
 			// query for the post by id
 			try {
@@ -391,130 +496,348 @@ public class HANAPersistence implements IPersistenceManager {
 		return theDataset;
 	}
 	
-	
+
 	
 	//
-	// the actual methods to insert posts and users
+	// credentials, write mode and OData consumers
 	//
 	/**
-	 * @description	insert the post with sql
+	 * @description	decrypts user and password from job control - this is done only once, the
+	 * 				clear text values are kept for the jdbc connection pool and the OData consumers
+	 */
+	private synchronized void decryptCredentials() {
+		if (credentialsDecrypted)
+			return;
+		try {
+			logger.debug("decrypting authorization details from job control with " + configurationCryptoProvider.getCryptoProviderName());
+			clearUser = configurationCryptoProvider.decryptValue(this.user);
+			clearPassword = configurationCryptoProvider.decryptValue(this.pass);
+			credentialsDecrypted = true;
+		} catch (GenericCryptoException e) {
+			logger.error("EXCEPTION :: could not decrypt value for user/passwd with " + configurationCryptoProvider.getCryptoProviderName() + ": " + e.toString(), e);
+		}
+	}
+	
+	/**
+	 * @description	returns the OData consumer for the given service endpoint. The consumer (and 
+	 * 				its authentication behavior) is built on first use and then reused for all 
+	 * 				lookups, inserts and updates against this endpoint
 	 * 
-	 * @param 		PostingData postData
+	 * @param 		serviceEndpoint
+	 * @return		OData consumer or null, if user and password could not be decrypted
 	 */
-	private void insertPostWithSQL(PostingData postingData) {
-		logger.info("creating post "+postingData.getSnId()+"-"+postingData.getId());
+	private ODataConsumer getODataService(String serviceEndpoint) {
+		ODataConsumer consumer = odataConsumers.get(serviceEndpoint);
+		if (consumer != null)
+			return consumer;
 		
-		// static variant to set the truncated flag - which is not used anyway at the moment
-		int truncated = (postingData.getTruncated()) ? 1 : 0;
-		
-		try{
-			Class.forName(this.dbDriver);
-			String url = "jdbc:sap://"+this.host+":"+this.jdbcPort;
-			String user = null;
-			String password  = null;
-			
-			// get the user and password for the JDBC connection
+		synchronized (odataConsumers) {
+			consumer = odataConsumers.get(serviceEndpoint);
+			if (consumer == null) {
+				decryptCredentials();
+				if (!credentialsDecrypted)
+					return null;
+				
+				String serviceURI = new String(this.protocol+"://" + this.host + ":" + this.port + this.location + "/" + serviceEndpoint);
+				logger.debug("Initiating connection to service endpoint "+serviceURI+" of the hana database");
+				
+				ODataConsumer.Builder builder = ODataConsumer.newBuilder(serviceURI);
+				builder.setClientBehaviors(new BasicAuthenticationBehavior(clearUser, clearPassword));
+				consumer = builder.build();
+				odataConsumers.put(serviceEndpoint, consumer);
+			}
+			return consumer;
+		}
+	}
+	
+	/**
+	 * @description	checks once whether the jdbc driver can be loaded
+	 * @return		true if jdbc can be used, false if OData has to be used instead
+	 */
+	private boolean isJdbcAvailable() {
+		if (jdbcAvailable == null) {
 			try {
-				logger.debug("decrypting authorization details from job control with " + configurationCryptoProvider.getCryptoProviderName());
-				user = configurationCryptoProvider.decryptValue(this.user);
-				password = configurationCryptoProvider.decryptValue(this.pass);
-			} catch (GenericCryptoException e) {
-				logger.error("EXCEPTION :: could not decrypt value for user/passwd with " + configurationCryptoProvider.getCryptoProviderName() + ": " + e.toString(), e);
+				Class.forName(this.dbDriver);
+				jdbcAvailable = Boolean.TRUE;
+			} catch (ClassNotFoundException | NullPointerException e) {
+				logger.info("jdbc driver " + this.dbDriver + " not available - using OData to store posts and users");
+				jdbcAvailable = Boolean.FALSE;
 			}
-            
-            logger.debug("trying to insert data with jdbc url="+url+" user="+user);
-            java.sql.Connection conn = java.sql.DriverManager.getConnection(url, user, password);
-			
-            // prepare the SQL statement
-			//String sql="INSERT INTO \""+hco.getSCHEMA_NAME()+"\".\""+hco.getPATH_TO_TABLES()+"::"+hco.getPOSTS_TABLE()+"\" "
-            String sql="INSERT INTO \"CL_SAA\".\"comline.saa.data.tables::posts\" "
-					+ "("
-					+ "     \"domain\" "
-					+ ",	\"customer\" "
-					+ ",	\"sn_id\" "
-					+ ",	\"post_id\" "
-					+ ",	\"user_id\" "
-					+ ",	\"timestamp\" "
-					+ ",	\"postLang\" "
-					+ ",	\"text\" "
-					+ ",	\"raw_text\" "
-					+ ",	\"teaser\" "
-					+ ",	\"subject\" "
-					+ ",	\"viewcount\" "
-					+ ",	\"favoritecount\" "
-					+ ",	\"client\" "
-					+ ",	\"truncated\" "
-					+ ",	\"inReplyTo\" "
-					+ ",	\"inReplyToUserID\" "
-					+ ",	\"inReplyToScreenName\" "
-					+ ",	\"geoLocation_longitude\" "
-					+ ",	\"geoLocation_latitude\" "
-					+ ",	\"placeID\" "
-					+ ",	\"plName\" "
-					+ ",	\"plCountry\" "
-					+ ",	\"plAround_longitude\" "
-					+ ",	\"plAround_latitude\" "
-					+ ") "
-					+ "VALUES (?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,? )";
-			
-			logger.debug("    SQL: "+sql);
-			PreparedStatement stmt = conn.prepareStatement(sql);
-			logger.debug("    SQL: "+sql);
-			
-			stmt.setString(1, postingData.getDomain());
-			stmt.setString(2, postingData.getCustomer());
-			stmt.setString(3, postingData.getSnId());
-			stmt.setLong(4, new Long(postingData.getId()));
-			stmt.setLong(5,new Long(postingData.getUserId()));
-			stmt.setTimestamp(6,new Timestamp((postingData.getTimestamp().toDateTime(DateTimeZone.UTC)).getMillis() ));
-			stmt.setString(7, postingData.getLang());
-			stmt.setString(8, dataCryptoProvider.encryptValue(postingData.getText()));
-			stmt.setString(9, dataCryptoProvider.encryptValue(postingData.getRawText()));
-			stmt.setString(10, dataCryptoProvider.encryptValue(postingData.getTeaser()));
-			stmt.setString(11, dataCryptoProvider.encryptValue(postingData.getSubject()));
-			stmt.setLong(12, postingData.getViewCount());
-			stmt.setLong(13, postingData.getFavoriteCount());
-			stmt.setString(14, postingData.getClient());
-			stmt.setInt(15, truncated);
-			stmt.setLong(16, postingData.getInReplyTo());
-			stmt.setLong(17, postingData.getInReplyToUser());
-			stmt.setString(18, postingData.getInReplyToUserScreenName());
-			stmt.setString(19, postingData.getGeoLongitude());
-			stmt.setString(20, postingData.getGeoLatitude());
-			stmt.setString(21, postingData.getGeoPlaceId());
-			stmt.setString(22, postingData.getGeoPlaceName());
-			stmt.setString(23, postingData.getGeoPlaceCountry());
-			stmt.setString(24, postingData.getGeoAroundLongitude());
-			stmt.setString(25, postingData.getGeoAroundLatitude());
+		}
+		return jdbcAvailable;
+	}
+	
+	/**
+	 * @description	checks the runtime configuration whether posts and users shall be written with
+	 * 				a single UPSERT statement (HanaWriteMode=upsert) instead of a lookup via OData 
+	 * 				followed by an insert or update
+	 * @return		true for upsert mode
+	 */
+	private boolean isUpsertMode() {
+		if (upsertMode == null)
+			upsertMode = "upsert".equalsIgnoreCase(rtc.getStringValue("HanaWriteMode", "runtime"));
+		return upsertMode;
+	}
+	
+	/**
+	 * @description	returns the bloom filter of known keys, if activated in the runtime configuration
+	 * @return		the filter or null
+	 */
+	private synchronized BloomFilter getKnownKeys() {
+		if (!knownKeysInitialized) {
+			knownKeysInitialized = true;
+			if (rtc.getBooleanValue("HanaKnownKeysFilterEnabled", "runtime")) {
+				int size = rtc.getIntValue("HanaKnownKeysFilterSize", "runtime");
+				if (size < 1)
+					size = DEFAULT_KNOWN_KEYS_FILTER_SIZE;
+				logger.info("activating known keys filter for up to "+size+" posts and users");
+				knownKeys = new BloomFilter(size, 0.01);
+			}
+		}
+		return knownKeys;
+	}
+	
+	/**
+	 * @description	checks whether the post or user may have been written before. If the known keys 
+	 * 				filter is not activated, every post and user is possibly known
+	 * @return		false only if the post or user was definitely never written by this instance
+	 */
+	private boolean isPossiblyKnown(String type, String snId, String id) {
+		BloomFilter filter = getKnownKeys();
+		return filter == null || filter.mightContain(type + "-" + snId + "-" + id);
+	}
+	
+	private void rememberKey(String type, String snId, String id) {
+		BloomFilter filter = getKnownKeys();
+		if (filter != null)
+			filter.add(type + "-" + snId + "-" + id);
+	}
+	
+	
+	//
+	// jdbc connection pool and batch handling
+	//
+	/**
+	 * @description	returns the jdbc connection pool - sets it up on first call. 
+	 * 				If batch mode is activated in the runtime configuration (HanaJdbcBatchEnabled),
+	 * 				the batch writer is set up as well.
+	 * 
+	 * @return		the connection pool
+	 */
+	private HANAConnectionPool getConnectionPool() {
+		HANAConnectionPool pool = connectionPool;
+		if (pool != null)
+			return pool;
+		
+		synchronized (this) {
+			if (connectionPool == null) {
+				decryptCredentials();
+				
+				int poolSize = rtc.getIntValue("HanaJdbcPoolSize", "runtime");
+				if (poolSize < 1)
+					poolSize = DEFAULT_JDBC_POOL_SIZE;
+				HANAConnectionPool newPool = new HANAConnectionPool("jdbc:sap://"+this.host+":"+this.jdbcPort, clearUser, clearPassword, poolSize, JDBC_BORROW_TIMEOUT);
+				
+				if (rtc.getBooleanValue("HanaJdbcBatchEnabled", "runtime")) {
+					int batchSize = rtc.getIntValue("HanaJdbcBatchSize", "runtime");
+					if (batchSize < 1)
+						batchSize = DEFAULT_JDBC_BATCH_SIZE;
+					long flushInterval = rtc.getIntValue("HanaJdbcBatchFlushInterval", "runtime");
+					if (flushInterval < 1)
+						flushInterval = DEFAULT_JDBC_BATCH_FLUSH_INTERVAL;
+					batchWriter = new HANABatchWriter(newPool, new HANABatchWriter.BatchListener() {
+						@Override
+						public void written(Object dataObject) { sqlWritten(dataObject); }
+						@Override
+						public void failed(String sql, Object[] params, Object dataObject, SQLException e) { sqlFailed(sql, params, dataObject, e); }
+					}, batchSize, flushInterval);
+				}
+				connectionPool = newPool;
+			}
+			return connectionPool;
+		}
+	}
+	
+	/**
+	 * @description	executes the given insert or update statement on a pooled connection, or
+	 * 				adds it to the current batch in case batch mode is active
+	 * 
+	 * @param 		sql			one of the prepared sql statements
+	 * @param 		params		values for the parameters of the statement
+	 * @param 		dataObject	the PostingData or UserData the statement belongs to
+	 */
+	private void executeSQL(String sql, Object[] params, Object dataObject) {
+		HANAConnectionPool pool = getConnectionPool();
+		
+		if (batchWriter != null) {
+			logger.trace("adding statement for " + dataObject.getClass().getSimpleName() + " to jdbc batch");
+			batchWriter.add(sql, params, dataObject);
+			return;
+		}
+		executeSingleSQL(pool, sql, params, dataObject);
+	}
+	
+	/**
+	 * @description	executes the given statement right away on a pooled connection
+	 */
+	private void executeSingleSQL(HANAConnectionPool pool, String sql, Object[] params, Object dataObject) {
+		PooledConnection pooled = null;
+		try {
+			pooled = pool.borrow();
+			PreparedStatement stmt = pooled.prepare(sql);
+			HANAConnectionPool.bind(stmt, params);
 			
 			@SuppressWarnings("unused")
 			int rowCount = stmt.executeUpdate();
-			
-			logger.info("post ("+postingData.getSnId()+"-"+postingData.getId()+") created");
-			
-			stmt.close() ; conn.close() ;
+			pool.release(pooled);
+		} catch (SQLException le) {
+			pool.invalidate(pooled);
+			sqlFailed(sql, params, dataObject, le);
+			return;
+		}
+		sqlWritten(dataObject);
+	}
+	
+	/**
+	 * @description	called after a post or user was written to the db via jdbc
+	 * @param 		dataObject
+	 */
+	private void sqlWritten(Object dataObject) {
+		if (dataObject instanceof PostingData) {
+			PostingData postingData = (PostingData) dataObject;
+			logger.info("post ("+postingData.getSnId()+"-"+postingData.getId()+") stored");
 			
 			if (rtc.getBooleanValue("CreatePostJsonOnSuccess", "runtime")) {
 				postingData.setObjectStatus("ok");
 				
-				// now instantiate a new JsonJilePersistence class with the data object and store the failed object on disk
+				// now instantiate a new JsonJilePersistence class with the data object and store the object on disk
 				@SuppressWarnings("unused")
 				JsonFilePersistence failsave = new JsonFilePersistence(postingData);
 			}
-		} catch (java.lang.ClassNotFoundException le) {
-			logger.warn("jdbc not available - this should normally not happen, as jdbc is checked before calling this method");
-		} catch (SQLException le){
-			logger.error("EXCEPTION :: JDBC call failed, post ("+postingData.getSnId()+"-"+postingData.getId()+") not inserted " + le.getLocalizedMessage());
-			le.printStackTrace();
-			/*
-			if (rtc.getBooleanValue("CREATE_POST_JSON_ON_ERROR", "runtime")) {
-				postData.setObjectStatus("fail");
+		} else if (dataObject instanceof UserData) {
+			UserData userData = (UserData) dataObject;
+			logger.info("user "+userData.getScreenName()+" ("+userData.getSnId()+"-"+userData.getId()+") stored");
+			
+			if (rtc.getBooleanValue("CreateUserJsonOnSuccess", "runtime")){
+				userData.setObjectStatus("ok");
 				
-				// now instantiate a new JsonJilePersistence class with the data object and store the failed object on disk
+				// now instantiate a new JsonJilePersistence class with the data object and store the object on disk
 				@SuppressWarnings("unused")
-				JsonFilePersistence failsave = new JsonFilePersistence(postData);
+				JsonFilePersistence failsave = new JsonFilePersistence(userData);
 			}
-			*/
+		}
+	}
+	
+	/**
+	 * @description	called in case a post or user could not be written to the db via jdbc. An insert
+	 * 				which failed because the post or user already exists is repeated as upsert
+	 * @param 		sql			the statement which failed
+	 * @param 		params		values for the parameters of the statement
+	 * @param 		dataObject
+	 * @param 		le
+	 */
+	private void sqlFailed(String sql, Object[] params, Object dataObject, SQLException le) {
+		// the upsert statements take the same parameters as the insert statements
+		String upsertSql = null;
+		if (INSERT_POST_SQL.equals(sql))
+			upsertSql = UPSERT_POST_SQL;
+		else if (INSERT_USER_SQL.equals(sql))
+			upsertSql = UPSERT_USER_SQL;
+		
+		if (upsertSql != null && isUniqueConstraintViolation(le)) {
+			logger.debug(dataObject.getClass().getSimpleName() + " already exists - updating it with an upsert");
+			executeSingleSQL(getConnectionPool(), upsertSql, params, dataObject);
+			return;
+		}
+		
+		if (dataObject instanceof PostingData) {
+			PostingData postingData = (PostingData) dataObject;
+			logger.error("EXCEPTION :: JDBC call failed, post ("+postingData.getSnId()+"-"+postingData.getId()+") not stored " + le.getLocalizedMessage());
+		} else if (dataObject instanceof UserData) {
+			UserData userData = (UserData) dataObject;
+			logger.error("EXCEPTION :: JDBC call failed, user ("+userData.getSnId()+"-"+userData.getId()+") not stored " + le.getLocalizedMessage());
+		}
+	}
+	
+	private boolean isUniqueConstraintViolation(SQLException le) {
+		return le.getErrorCode() == HANA_UNIQUE_CONSTRAINT_VIOLATED || le instanceof SQLIntegrityConstraintViolationException;
+	}
+	
+	/**
+	 * @description	writes all pending jdbc batches and closes the connection pool. Called by 
+	 * 				spring on shutdown (destroy-method of the persistenceManager bean)
+	 */
+	public void shutdown() {
+		if (batchWriter != null)
+			batchWriter.close();
+		if (connectionPool != null)
+			connectionPool.close();
+	}
+	
+	
+	//
+	// the actual methods to insert posts and users
+	//
+	/**
+	 * @description	insert the post with sql
+	 * 
+	 * @param 		PostingData postData
+	 */
+	private void insertPostWithSQL(PostingData postingData) {
+		logger.info("creating post "+postingData.getSnId()+"-"+postingData.getId());
+		writePostWithSQL(INSERT_POST_SQL, postingData);
+	}
+	
+	/**
+	 * @description	insert or update the post with a single sql upsert
+	 * 
+	 * @param 		PostingData postData
+	 */
+	private void upsertPostWithSQL(PostingData postingData) {
+		logger.info("upserting post "+postingData.getSnId()+"-"+postingData.getId());
+		writePostWithSQL(UPSERT_POST_SQL, postingData);
+	}
+	
+	/**
+	 * @description	write the post with the given insert or upsert statement
+	 * 
+	 * @param 		sql
+	 * @param 		PostingData postData
+	 */
+	private void writePostWithSQL(String sql, PostingData postingData) {
+		// static variant to set the truncated flag - which is not used anyway at the moment
+		int truncated = (postingData.getTruncated()) ? 1 : 0;
+		
+		try{
+			Object[] params = new Object[] {
+					postingData.getDomain(),
+					postingData.getCustomer(),
+					postingData.getSnId(),
+					new Long(postingData.getId()),
+					new Long(postingData.getUserId()),
+					new Timestamp((postingData.getTimestamp().toDateTime(DateTimeZone.UTC)).getMillis()),
+					postingData.getLang(),
+					dataCryptoProvider.encryptValue(postingData.getText()),
+					dataCryptoProvider.encryptValue(postingData.getRawText()),
+					dataCryptoProvider.encryptValue(postingData.getTeaser()),
+					dataCryptoProvider.encryptValue(postingData.getSubject()),
+					postingData.getViewCount(),
+					postingData.getFavoriteCount(),
+					postingData.getClient(),
+					truncated,
+					postingData.getInReplyTo(),
+					postingData.getInReplyToUser(),
+					postingData.getInReplyToUserScreenName(),
+					postingData.getGeoLongitude(),
+					postingData.getGeoLatitude(),
+					postingData.getGeoPlaceId(),
+					postingData.getGeoPlaceName(),
+					postingData.getGeoPlaceCountry(),
+					postingData.getGeoAroundLongitude(),
+					postingData.getGeoAroundLatitude()
+			};
+			
+			executeSQL(sql, params, postingData);
 		} catch (GenericCryptoException e) {
 			logger.error("EXCEPTION :: could not on-the-fly encrypt data with "+ dataCryptoProvider.getCryptoProviderName() + ": "+ e.getMessage(), e);
 		}
@@ -531,25 +854,8 @@ public class HANAPersistence implements IPersistenceManager {
 		// static variant to set the truncated flag - which is not used anyway at the moment
 		int truncated = (postingData.getTruncated()) ? 1 : 0;
 		
-		// in case the connection is NOT opened already, attempt to create an OData Consumer
-		if (postService == null) {
-			try {
-				logger.debug("decrypting authorization details from job control with " + configurationCryptoProvider.getCryptoProviderName());
-				String _user = configurationCryptoProvider.decryptValue(this.user);
-				String _pw = configurationCryptoProvider.decryptValue(this.pass);
-				
-				BasicAuthenticationBehavior bAuth = new BasicAuthenticationBehavior(_user, _pw);
-				String baseLocation = new String(this.protocol+"://" + this.host + ":" + this.port + this.location);
-				String postURI = new String(baseLocation + "/" + this.servicePostEndpoint);
-				logger.debug("Initiating connection to service endpoint "+postURI+" of the hana database");
-				
-				ODataConsumer.Builder builder = ODataConsumer.newBuilder(postURI);
-				builder.setClientBehaviors(bAuth);
-				postService = builder.build();
-			} catch (GenericCryptoException e) {
-				logger.error("EXCEPTION :: could not decrypt value for user/passwd with " + configurationCryptoProvider.getCryptoProviderName() + ": " + e.toString(), e);
-			}
-		}
+		// the OData consumer is created only once per service endpoint and reused afterwards
+		ODataConsumer postService = getODataService(this.servicePostEndpoint);
 		logger.debug("connected to service endpoint " + this.protocol+"://" + this.host + ":" + this.port + this.location + "/" + this.servicePostEndpoint);
 		
 		// now build the OData statement and execute it against the connection endpoint
@@ -626,93 +932,48 @@ public class HANAPersistence implements IPersistenceManager {
 	}
 	
 	/**
-	 * @description	insert user with SQL
+	 * @description	insert user with sql
 	 * 
 	 * @param 		UserData userData
 	 */
 	private void insertUserWithSQL(UserData userData) {
 		logger.info("creating user "+userData.getSnId()+"-"+userData.getId());
-		
-		// first try to save the data via jdbc
+		writeUserWithSQL(INSERT_USER_SQL, userData);
+	}
+	
+	/**
+	 * @description	insert or update the user with a single sql upsert
+	 * 
+	 * @param 		UserData userData
+	 */
+	private void upsertUserWithSQL(UserData userData) {
+		logger.info("upserting user "+userData.getSnId()+"-"+userData.getId());
+		writeUserWithSQL(UPSERT_USER_SQL, userData);
+	}
+	
+	/**
+	 * @description	write the user with the given insert or upsert statement
+	 * 
+	 * @param 		sql
+	 * @param 		UserData userData
+	 */
+	private void writeUserWithSQL(String sql, UserData userData) {
 		try {
-			Class.forName(this.dbDriver);
-			String url = "jdbc:sap://"+this.host+":"+this.jdbcPort;
-			// decrypting the values because the jdbc driver needs these values in clear text
-			String user = null;
-			String password = null;
-			
-			// get the user and password for the JDBC connection
-			try {
-				logger.debug("decrypting authorization details from job control with " + configurationCryptoProvider.getCryptoProviderName());
-				user = configurationCryptoProvider.decryptValue(this.user);
-				password = configurationCryptoProvider.decryptValue(this.pass);
-			} catch (GenericCryptoException e) {
-				logger.error("EXCEPTION :: could not decrypt value for user/passwd with " + configurationCryptoProvider.getCryptoProviderName() + ": " + e.toString(), e);
-			}
-            
-            logger.debug("trying to insert data with jdbc url="+url+" user="+user);
-            
-            java.sql.Connection conn = java.sql.DriverManager.getConnection(url, user, password);
-           // String sql="INSERT INTO \""+hco.getSCHEMA_NAME()+"\".\""+hco.getPATH_TO_TABLES()+"::"+hco.getUSERS_TABLE()+"\" "
-            String sql="INSERT INTO \"CL_SAA\".\"comline.saa.data.tables::users\" "
-            		+ "("
-            		+ "		\"sn_id\" "
-            		+ ",	\"user_id\" "
-            		+ ",	\"userName\" "
-            		+ ",	\"nickName\" "
-            		+ ",	\"userLang\" "
-            		+ ",	\"follower\" "
-            		+ ",	\"friends\" "
-            		+ ",	\"postingsCount\" "
-            		+ ",	\"favoritesCount\" "
-            		+ ",	\"listsAndGroupsCount\" "
-            		//+ ",	\"geoLocation\" "
-            		+ ") "
-            		+ "VALUES (?,?,?,?,?,?,?,?,?,?)"; // add a ? to the end of the line, after activating geoLocation 
-			 
-            logger.debug("HANA insert User::sql "+sql);
-			PreparedStatement stmt = conn.prepareStatement(sql);
-			stmt.setString(1, userData.getSnId());
-			stmt.setString(2, userData.getId());
-			stmt.setString(3, dataCryptoProvider.encryptValue(userData.getUserName()));
-			stmt.setString(4, dataCryptoProvider.encryptValue(userData.getScreenName()));
-			stmt.setString(5, userData.getLang());
-			stmt.setLong(6, userData.getFollowersCount());
-			stmt.setLong(7, userData.getFriendsCount());
-			stmt.setLong(8, userData.getPostingsCount());
-			stmt.setLong(9, userData.getFavoritesCount());
-			stmt.setLong(10, userData.getListsAndGroupsCount());
-			//stmt.setString(11, userData.getGeoLocation());
-			
-			@SuppressWarnings("unused")
-			int rowCount = stmt.executeUpdate();
-			
-			logger.info("user "+userData.getScreenName()+" ("+userData.getSnId()+"-"+userData.getId()+") created");
-			
-			stmt.close() ; conn.close() ;
+			Object[] params = new Object[] {
+					userData.getSnId(),
+					userData.getId(),
+					dataCryptoProvider.encryptValue(userData.getUserName()),
+					dataCryptoProvider.encryptValue(userData.getScreenName()),
+					userData.getLang(),
+					userData.getFollowersCount(),
+					userData.getFriendsCount(),
+					userData.getPostingsCount(),
+					userData.getFavoritesCount(),
+					userData.getListsAndGroupsCount()
+					//userData.getGeoLocation()
+			};
 			
-			if (rtc.getBooleanValue("CreateUserJsonOnSuccess", "runtime")){
-				userData.setObjectStatus("ok");
-				
-				// now instantiate a new JsonJilePersistence class with the data object and store the failed object on disk
-				@SuppressWarnings("unused")
-				JsonFilePersistence failsave = new JsonFilePersistence(userData);
-			}
-		} catch (java.lang.ClassNotFoundException le) {
-			logger.warn("jdbc not available");
-		} catch (SQLException le){
-			logger.error("EXCEPTION :: JDBC call failed, user ("+userData.getSnId()+"-"+userData.getId()+") not inserted " + le.getLocalizedMessage());
-			le.printStackTrace();
-			/*
-			if (rtc.getBooleanValue("CREATE_USER_JSON_ON_ERROR()){
-			:1
-				userData.setObjectStatus("fail");
-				
-				// now instantiate a new JsonJilePersistence class with the data object and store the failed object on disk
-				@SuppressWarnings("unused")
-				JsonFilePersistence failsave = new JsonFilePersistence(userData);
-			}
-			*/
+			executeSQL(sql, params, userData);
 		} catch (GenericCryptoException e) {
 			logger.error("EXCEPTION :: could not on-the-fly encrypt data with " + dataCryptoProvider.getCryptoProviderName() + ": " + e.getMessage(), e);
 		}
@@ -726,24 +987,8 @@ public class HANAPersistence implements IPersistenceManager {
 	private void insertUserWithOData(UserData userData){
 		logger.info("creating user "+userData.getSnId()+"-"+userData.getId());
 		
-		if (userService == null) {
-			try {
-				logger.debug("decrypting authorization details from job control with " + configurationCryptoProvider.getCryptoProviderName());
-				String _user = configurationCryptoProvider.decryptValue(this.user);
-				String _pw = configurationCryptoProvider.decryptValue(this.pass);
-				String baseLocation = new String(this.protocol+"://" + this.host + ":" + this.port + this.location);
-				String userURI = new String(baseLocation + "/" + this.serviceUserEndpoint);
-					
-				BasicAuthenticationBehavior bAuth = new BasicAuthenticationBehavior(_user, _pw);
-				logger.debug("Initiating connection to service endpoint "+userURI+" of the hana database");
-				
-				ODataConsumer.Builder builder = ODataConsumer.newBuilder(userURI);
-				builder.setClientBehaviors(bAuth);
-				userService = builder.build();
-			} catch (GenericCryptoException e) {
-				logger.error("EXCEPTION :: could not decrypt value for user/passwd with " + configurationCryptoProvider.getCryptoProviderName() + ": " + e.toString(), e);
-			}
-		}
+		// the OData consumer is created only once per service endpoint and reused afterwards
+		ODataConsumer userService = getODataService(this.serviceUserEndpoint);
 		logger.debug("connected to service endpoint " + this.protocol+"://" + this.host + ":" + this.port + this.location + "/" + this.serviceUserEndpoint);
 		
 		@SuppressWarnings("unused")
@@ -816,109 +1061,34 @@ public class HANAPersistence implements IPersistenceManager {
 		int truncated = (postingData.getTruncated()) ? 1 : 0;
 		
 		try{
-			Class.forName(this.dbDriver);
-			String url = "jdbc:sap://"+this.host+":"+this.jdbcPort;
-			String user = null;
-			String password  = null;
-			
-			// get the user and password for the JDBC connection
-			try {
-				logger.debug("decrypting authorization details from job control with " + configurationCryptoProvider.getCryptoProviderName());
-				user = configurationCryptoProvider.decryptValue(this.user);
-				password = configurationCryptoProvider.decryptValue(this.pass);
-			} catch (GenericCryptoException e) {
-				logger.error("EXCEPTION :: could not decrypt user and/or password with " + configurationCryptoProvider.getCryptoProviderName() + ": " + e.getMessage(), e);
-			}
-            
-            logger.debug("trying to update data with jdbc url="+url+" user="+user);
-            java.sql.Connection conn = java.sql.DriverManager.getConnection(url, user, password);
-			
-            // prepare the SQL statement
-            //String sql="UPDATE \""+hco.getSCHEMA_NAME()+"\".\""+hco.getPATH_TO_TABLES()+"::"+hco.getPOSTS_TABLE()+"\" "
-            String sql="UPDATE \"CL_SAA\".\"comline.saa.data.tables::posts\" "	
-					+ " SET "
-					+ "\"domain\" = ? "
-					+ ",\"user_id\" = ? "
-					+ ",\"timestamp\" = ? "
-					+ ",\"postLang\" = ? "
-					+ ",\"text\" = ? "
-					+ ",\"raw_text\" = ? "
-					+ ",\"teaser\" = ? "
-					+ ",\"subject\" = ? "
-					+ ",\"viewcount\" = ? "
-					+ ",\"favoritecount\" = ? "
-					+ ",\"client\" = ? "
-					+ ",\"truncated\" = ? "
-					+ ",\"inReplyTo\" = ? "
-					+ ",\"inReplyToUserID\" = ? "
-					+ ",\"inReplyToScreenName\" = ? "
-					+ ",\"geoLocation_longitude\" = ? "
-					+ ",\"geoLocation_latitude\" = ? "
-					+ ",\"placeID\" = ? "
-					+ ",\"plName\" = ? "
-					+ ",\"plCountry\" = ? "
-					+ ",\"plAround_longitude\" = ? "
-					+ ",\"plAround_latitude\" = ? "
-					+ " WHERE (\"sn_id\" = ? AND \"post_id\" = ?)";					
-			
-            logger.trace("SQL: "+sql);
-            PreparedStatement stmt = conn.prepareStatement(sql);
-			
-			stmt.setString(1, postingData.getDomain());
-			stmt.setLong(2,new Long(postingData.getUserId()));
-			stmt.setTimestamp(3,new Timestamp((postingData.getTimestamp().toDateTime(DateTimeZone.UTC)).getMillis() ));
-			stmt.setString(4, postingData.getLang());
-			stmt.setString(5, dataCryptoProvider.encryptValue(postingData.getText()));
-			stmt.setString(6, dataCryptoProvider.encryptValue(postingData.getRawText()));
-			stmt.setString(7, dataCryptoProvider.encryptValue(postingData.getTeaser()));
-			stmt.setString(8, dataCryptoProvider.encryptValue(postingData.getSubject()));
-			stmt.setLong(9, postingData.getViewCount());
-			stmt.setLong(10, postingData.getFavoriteCount());
-			stmt.setString(11, postingData.getClient());
-			stmt.setInt(12, truncated);
-			stmt.setLong(13, postingData.getInReplyTo());
-			stmt.setLong(14, postingData.getInReplyToUser());
-			stmt.setString(15, postingData.getInReplyToUserScreenName());
-			stmt.setString(16, postingData.getGeoLongitude());
-			stmt.setString(17, postingData.getGeoLatitude());
-			stmt.setString(18, postingData.getGeoPlaceId());
-			stmt.setString(19, postingData.getGeoPlaceName());
-			stmt.setString(20, postingData.getGeoPlaceCountry());
-			stmt.setString(21, postingData.getGeoAroundLongitude());
-			stmt.setString(22, postingData.getGeoAroundLatitude());
-			stmt.setString(23, postingData.getSnId());
-			stmt.setLong(24, new Long(postingData.getId()));
-			
-			
-			
-			@SuppressWarnings("unused")
-			int rowCount = stmt.executeUpdate();
-			
-			logger.debug("post ("+postingData.getSnId()+"-"+postingData.getId()+") updated");
-			
-			stmt.close() ; conn.close() ;
+			Object[] params = new Object[] {
+					postingData.getDomain(),
+					new Long(postingData.getUserId()),
+					new Timestamp((postingData.getTimestamp().toDateTime(DateTimeZone.UTC)).getMillis()),
+					postingData.getLang(),
+					dataCryptoProvider.encryptValue(postingData.getText()),
+					dataCryptoProvider.encryptValue(postingData.getRawText()),
+					dataCryptoProvider.encryptValue(postingData.getTeaser()),
+					dataCryptoProvider.encryptValue(postingData.getSubject()),
+					postingData.getViewCount(),
+					postingData.getFavoriteCount(),
+					postingData.getClient(),
+					truncated,
+					postingData.getInReplyTo(),
+					postingData.getInReplyToUser(),
+					postingData.getInReplyToUserScreenName(),
+					postingData.getGeoLongitude(),
+					postingData.getGeoLatitude(),
+					postingData.getGeoPlaceId(),
+					postingData.getGeoPlaceName(),
+					postingData.getGeoPlaceCountry(),
+					postingData.getGeoAroundLongitude(),
+					postingData.getGeoAroundLatitude(),
+					postingData.getSnId(),
+					new Long(postingData.getId())
+			};
 			
-			if (rtc.getBooleanValue("CreatePostJsonOnSuccess", "runtime")){
-				postingData.setObjectStatus("ok");
-				
-				// now instantiate a new JsonJilePersistence class with the data object and store the failed object on disk
-				@SuppressWarnings("unused")
-				JsonFilePersistence failsave = new JsonFilePersistence(postingData);
-			}
-		} catch (java.lang.ClassNotFoundException le) {
-			logger.warn("jdbc not available - this should normally not happen, as jdbc is checked before calling this method");
-		} catch (SQLException le){
-			logger.error("EXCEPTION :: JDBC call failed, post ("+postingData.getSnId()+"-"+postingData.getId()+") not inserted " + le.getLocalizedMessage());
-			le.printStackTrace();
-			/*
-			if (rtc.getBooleanValue("CREATE_POST_JSON_ON_ERROR()){
-				postData.setObjectStatus("fail");
-				
-				// now instantiate a new JsonJilePersistence class with the data object and store the failed object on disk
-				@SuppressWarnings("unused")
-				JsonFilePersistence failsave = new JsonFilePersistence(postData);
-			}
-			*/
+			executeSQL(UPDATE_POST_SQL, params, postingData);
 		} catch (GenericCryptoException e) {
 			logger.error("EXCEPTION :: could not on-the-fly encrypt data with " + dataCryptoProvider.getCryptoProviderName() + ": " + e.getMessage(), e);
 		}
@@ -941,26 +1111,8 @@ public class HANAPersistence implements IPersistenceManager {
 		// static variant to set the truncated flag - which is not used anyway at the moment
 		int truncated = (postingData.getTruncated()) ? 1 : 0;
 		
-		// in case the connection is NOT opened already, attempt to create an OData Consumer
-		if (postService == null) {
-			try {
-				logger.debug("decrypting authorization details from job control with " + configurationCryptoProvider.getCryptoProviderName());
-				String _user = configurationCryptoProvider.decryptValue(this.user);
-				String _pw = configurationCryptoProvider.decryptValue(this.pass);
-				
-				BasicAuthenticationBehavior bAuth = new BasicAuthenticationBehavior(_user, _pw);
-				String baseLocation = new String(this.protocol+"://" + this.host + ":" + this.port + this.location);
-				String postURI = new String(baseLocation + "/" + this.servicePostEndpoint);
-				logger.debug("Initiating connection to service endpoint "+postURI+" of the hana database");
-				
-				ODataConsumer.Builder builder = ODataConsumer.newBuilder(postURI);
-				builder.setClientBehaviors(bAuth);
-				postService = builder.build();
-				
-			} catch (GenericCryptoException e) {
-				logger.error("EXCEPTION :: could not decrypt user and/or password with " + configurationCryptoProvider.getCryptoProviderName() + ": " + e.getMessage(), e);
-			}
-		}
+		// the OData consumer is created only once per service endpoint and reused afterwards
+		ODataConsumer postService = getODataService(this.servicePostEndpoint);
 		logger.debug("connected to service endpoint " + this.protocol+"://" + this.host + ":" + this.port + this.location + "/" + this.servicePostEndpoint);
 		
 		// now build the OData statement and execute it against the connection endpoint
@@ -1035,95 +1187,29 @@ public class HANAPersistence implements IPersistenceManager {
 	}
 	
 	/**
-	 * @description	update user with SQL
+	 * @description	update user with sql
 	 * 
 	 * @param 		userData
 	 */
 	private void updateUserWithSQL(UserData userData) {
 		logger.info("updating user "+userData.getSnId()+"-"+userData.getId());
 		
-		// this is just example code to show, how to interact with the CryptoProvider enum
-		//String desiredStrength = "low";
-		//CryptoProvider cryptoProviderToUse = CryptoProvider.getCryptoProvider(desiredStrength);
-		//logger.trace("determined " + cryptoProviderToUse.getName() + " to be the best suited provider for desired strength " + desiredStrength);
-				
-		// first try to save the data via jdbc
 		try {
-			Class.forName(this.dbDriver);
-			String url = "jdbc:sap://"+this.host+":"+this.jdbcPort;
-			// decrypting the values because the jdbc driver needs these values in clear text
-			String user = null;
-			String password = null;
-			
-			// get the user and password for the JDBC connection
-			try {
-				logger.debug("decrypting authorization details from job control with " + configurationCryptoProvider.getCryptoProviderName());
-				user = configurationCryptoProvider.decryptValue(this.user);
-				password = configurationCryptoProvider.decryptValue(this.pass);
-			} catch (GenericCryptoException e) {
-				logger.error("EXCEPTION :: could not decrypt user and/or password with " + configurationCryptoProvider.getCryptoProviderName() + ": " + e.getMessage(), e);
-			}
-            
-            logger.debug("trying to update user "+SN+"-"+Id+" with jdbc url="+url+" user="+user);
-            
-            java.sql.Connection conn = java.sql.DriverManager.getConnection(url, user, password);
-            //String sql="UPDATE \""+hco.getSCHEMA_NAME()+"\".\""+hco.getPATH_TO_TABLES()+"::"+hco.getUSERS_TABLE()+"\" "
-            String sql="UPDATE \"CL_SAA\".\"comline.saa.data.tables::users\" "
-            		+ " SET "
-            		+ " \"userName\" = ? "
-            		+ ",\"nickName\" = ? "
-            		+ ",\"userLang\" = ? "
-            		+ ",\"follower\" = ? "
-            		+ ",\"friends\" = ? "
-            		+ ",\"postingsCount\" = ? "
-            		+ ",\"favoritesCount\" = ? "
-            		+ ",\"listsAndGroupsCount\" = ? "
-            		//+ ",\"geoLocation\" = ? "
-            		+ " WHERE (\"sn_id\" = ? AND \"user_id\" = ?)";
-			 
-            logger.debug("HAHAPersistence::UpdateUserWithSQL:sql "+sql);
-			PreparedStatement stmt = conn.prepareStatement(sql);
-			stmt.setString(1, dataCryptoProvider.encryptValue(userData.getUserName()));
-			stmt.setString(2, dataCryptoProvider.encryptValue(userData.getScreenName()));
-			stmt.setString(3, userData.getLang());
-			stmt.setLong(4, userData.getFollowersCount());
-			stmt.setLong(5, userData.getFriendsCount());
-			stmt.setLong(6, userData.getPostingsCount());
-			stmt.setLong(7, userData.getFavoritesCount());
-			stmt.setLong(8, userData.getListsAndGroupsCount());
-			stmt.setString(9, userData.getSnId());
-			//stmt.setString(10, userData.getGeoLocation()); // activate above and this geoLocation and increase numbers below by one
-			//stmt.setString(10, userData.getSnId());
-			stmt.setString(10, userData.getId());
+			Object[] params = new Object[] {
+					dataCryptoProvider.encryptValue(userData.getUserName()),
+					dataCryptoProvider.encryptValue(userData.getScreenName()),
+					userData.getLang(),
+					userData.getFollowersCount(),
+					userData.getFriendsCount(),
+					userData.getPostingsCount(),
+					userData.getFavoritesCount(),
+					userData.getListsAndGroupsCount(),
+					//userData.getGeoLocation(), // activate this and the geoLocation in UPDATE_USER_SQL
+					userData.getSnId(),
+					userData.getId()
+			};
 			
-			@SuppressWarnings("unused")
-			int rowCount = stmt.executeUpdate();
-			
-			logger.info("user "+userData.getScreenName()+" ("+userData.getSnId()+"-"+userData.getId()+") created");
-			
-			stmt.close() ; conn.close() ;
-			
-			if (rtc.getBooleanValue("CreateUserJsonOnSuccess", "runtime")){
-				userData.setObjectStatus("ok");
-				
-				// now instantiate a new JsonJilePersistence class with the data object and store the failed object on disk
-				@SuppressWarnings("unused")
-				JsonFilePersistence failsave = new JsonFilePersistence(userData);
-			}
-		} catch (java.lang.ClassNotFoundException le) {
-			logger.warn("jdbc not available");
-		} catch (SQLException le){
-			logger.error("EXCEPTION :: JDBC call failed, user ("+userData.getSnId()+"-"+userData.getId()+") not inserted " + le.getLocalizedMessage());
-			le.printStackTrace();
-			/*
-			if (rtc.getBooleanValue("CREATE_USER_JSON_ON_ERROR()){
-				userData.setObjectStatus("fail");
-				
-				// now instantiate a new JsonJilePersistence class with the data object and store the failed object on disk
-				@SuppressWarnings("unused")
-				JsonFilePersistence failsave = new JsonFilePersistence(userData);
-			}
-			*/
+			executeSQL(UPDATE_USER_SQL, params, userData);
 		} catch (GenericCryptoException e) {
 			logger.error("EXCEPTION :: could not on-the-fly encrypt data with " + dataCryptoProvider.getCryptoProviderName() + ": " + e.getMessage(), e);
 		}
@@ -1143,24 +1229,8 @@ public class HANAPersistence implements IPersistenceManager {
 		//CryptoProvider cryptoProviderToUse = CryptoProvider.getCryptoProvider(desiredStrength);
 		//logger.trace("determined " + cryptoProviderToUse.getName() + " to be the best suited provider for desired strength " + desiredStrength);
 		
-		if (userService == null) {
-			try {
-				logger.debug("decrypting authorization details from job control with " + configurationCryptoProvider.getCryptoProviderName());
-				String _user = configurationCryptoProvider.decryptValue(this.user);
-				String _pw = configurationCryptoProvider.decryptValue(this.pass);
-				String baseLocation = new String(this.protocol+"://" + this.host + ":" + this.port + this.location);
-				String userURI = new String(baseLocation + "/" + this.serviceUserEndpoint);
-					
-				BasicAuthenticationBehavior bAuth = new BasicAuthenticationBehavior(_user, _pw);
-				logger.debug("Initiating connection to service endpoint "+userURI+" of the hana database");
-				
-				ODataConsumer.Builder builder = ODataConsumer.newBuilder(userURI);
-				builder.setClientBehaviors(bAuth);
-				userService = builder.build();
-			} catch (GenericCryptoException e) {
-				logger.error("EXCEPTION :: could not decrypt user and/or password with " + configurationCryptoProvider.getCryptoProviderName() + ": " + e.getMessage(), e);
-			}
-		}
+		// the OData consumer is created only once per service endpoint and reused afterwards
+		ODataConsumer userService = getODataService(this.serviceUserEndpoint);
 		logger.debug("connected to service endpoint " + this.protocol+"://" + this.host + ":" + this.port + this.location + "/" + this.serviceUserEndpoint);
 		
 		try {
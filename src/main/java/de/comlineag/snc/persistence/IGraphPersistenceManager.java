@@ -3,6 +3,7 @@ package de.comlineag.snc.persistence;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.util.List;
 
 import org.json.simple.JSONObject;
 
@@ -14,12 +15,13 @@ import de.comlineag.snc.constants.GraphRelationshipTypes;
  * 
  * @author		Christian Günther
  * @category	Interface
- * @version 	0.1
+ * @version 	0.2				- 17.10.2026
  * @status		productive
  * 
  * @description Interface definition for a graph-db persistence manager
  * 
  * @changelog	0.1 (Chris)		initial version
+ * 				0.2				added createNodeObjects() to save a list of posts at once
  * 
  */
 public interface IGraphPersistenceManager {
@@ -64,4 +66,13 @@ public interface IGraphPersistenceManager {
 	 * 		}
 	 */
 	public void createNodeObject(JSONObject nodeObject);
+	
+	/**
+	 * @description	implementation for saving a list of node objects at once, e.g. in one 
+	 * 				transaction
+	 * 
+	 * @param		a list of complex JSONObjects as taken by createNodeObject
+	 * @return		true if all node objects were saved
+	 */
+	public boolean createNodeObjects(List<JSONObject> nodeObjects);
 }
@@ -2,6 +2,7 @@ package de.comlineag.snc.persistence;
 
 import java.io.File;
 import java.io.FileWriter;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -17,7 +18,7 @@ import de.comlineag.snc.handler.DataCryptoHandler;
  *
  * @author 		Christian Guenther
  * @category 	Persistence Manager
- * @version 	0.2a			- 25.07.2014
+ * @version 	0.2c			- 17.10.2026
  * @status		productive
  *
  * @description persistence manager to simply save JSON files on disk 
@@ -34,6 +35,8 @@ import de.comlineag.snc.handler.DataCryptoHandler;
  * @changelog	0.1 (Chris)		class created
  * 				0.2				changed class to implement IPersistenceManager
  * 				0.2a			changed file pattern naming to TYPE_SCCODE-NUMBER_STATUS.json (e.g.: post_TW-34567_fail.json)
+ * 				0.2b			plain json objects no longer overwrite each other when saved in the same millisecond
+ * 				0.2c			added saveNodeObject to save graph node objects as graph_SCCODE-NUMBER_fail.json
  * 
  */
 public class JsonFilePersistence implements IPersistenceManager {
@@ -49,7 +52,8 @@ public class JsonFilePersistence implements IPersistenceManager {
 	// define where and the files shall be saved
 	private String savePoint = rtc.getStringValue("StoragePath", "runtime")+System.getProperty("file.separator")+rtc.getStringValue("JsonBackupStoragePath", "runtime");
 	private String objectStatusPriorSaving; // was storing of the object prior saving to disk (e.g. n a db) successful (ok) or not (fail)
-	private String objectTypeToSave;		// can either be user or post
+	private String objectTypeToSave;		// can either be user, post or graph
+	private static final AtomicLong fileSequence = new AtomicLong();
 	
 	public JsonFilePersistence() {
 		File d = new File(rtc.getStringValue("StoragePath", "runtime"));
@@ -124,11 +128,12 @@ public class JsonFilePersistence implements IPersistenceManager {
 			f.mkdir();
 		}
 		
-		String fileName = System.currentTimeMillis()+"_"+objectStatusPriorSaving+".json";
-		
 		if (objectStatusPriorSaving == null)
 			objectStatusPriorSaving = "ok";
 		
+		// the sequence keeps files created within the same millisecond apart
+		String fileName = System.currentTimeMillis()+"-"+fileSequence.incrementAndGet()+"_"+objectStatusPriorSaving+".json";
+		
 		FileWriter file;
 		try {
 			// only save the file, if it does not exist already
@@ -146,6 +151,38 @@ public class JsonFilePersistence implements IPersistenceManager {
 		}
 	}
 	
+	/**
+	 * @description	save a post node object that could not be written to the graph to the file-system.
+	 * 				The file is named graph_SCCODE-NUMBER_fail.json, so that it is picked up by the
+	 * 				bulk import of the graph persistence manager and not by the FsCrawler
+	 * @param		JSONObject	json object as taken by IGraphPersistenceManager.createNodeObject
+	 */
+	public void saveNodeObject(JSONObject nodeObject) {
+		objectTypeToSave = "graph";
+		objectStatusPriorSaving = "fail";
+		
+		String fileName = objectTypeToSave+"_"+nodeObject.get("sn_id")+"-"+nodeObject.get("id")+"_"+objectStatusPriorSaving+".json";
+		
+		File f1 = new File(savePoint+System.getProperty("file.separator")+fileName);
+		if (!f1.isFile() || f1.getTotalSpace()<1) {
+			
+			FileWriter file;
+			try {
+				file = new FileWriter(savePoint+System.getProperty("file.separator")+fileName);
+				file.write(dataCryptoProvider.encryptValue(nodeObject.toJSONString()));
+				logger.info("Successfully copied JSON node object for "+nodeObject.get("sn_id")+"-"+nodeObject.get("id")+" to file " + fileName);
+				
+				file.flush();
+				file.close();
+			} catch (Exception le) {
+				logger.error("EXCEPTION :: unforseen error condition processing node object "+nodeObject.get("sn_id")+"-"+nodeObject.get("id")+": " + le.getLocalizedMessage());
+				le.printStackTrace();
+			}
+		} else {
+			logger.debug("the file "+fileName+" already exists - not saving");
+		}
+	}
+	
 	/**
 	 * @description	save a user from social network to the file-system
 	 * @param		UserData
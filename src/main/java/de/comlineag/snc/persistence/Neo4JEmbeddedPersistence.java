@@ -4,29 +4,37 @@ import java.io.File;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URL;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Iterator;
-import java.util.Set;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.neo4j.cypher.javacompat.ExecutionEngine;
+import org.neo4j.cypher.javacompat.ExecutionResult;
 import org.neo4j.graphdb.Direction;
 import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.graphdb.Node;
 import org.neo4j.graphdb.Relationship;
 import org.neo4j.graphdb.Transaction;
 import org.neo4j.graphdb.factory.GraphDatabaseFactory;
+import org.neo4j.graphdb.schema.ConstraintDefinition;
+import org.neo4j.graphdb.schema.IndexDefinition;
+import org.neo4j.graphdb.schema.Schema;
 
 import de.comlineag.snc.appstate.RuntimeConfiguration;
 import de.comlineag.snc.constants.GraphNodeTypes;
 import de.comlineag.snc.constants.GraphRelationshipTypes;
 import de.comlineag.snc.constants.SocialNetworks;
-import de.comlineag.snc.data.CustomerData;
-import de.comlineag.snc.data.DomainData;
-import de.comlineag.snc.data.KeywordData;
-import de.comlineag.snc.data.GraphPostingData;
-import de.comlineag.snc.data.SocialNetworkData;
-import de.comlineag.snc.data.GraphUserData;
+import de.comlineag.snc.handler.DataCryptoHandler;
 import static org.neo4j.kernel.impl.util.FileUtils.deleteRecursively;
 
 
@@ -34,13 +42,28 @@ import static org.neo4j.kernel.impl.util.FileUtils.deleteRecursively;
  *
  * @author 		Christian Guenther
  * @category 	Connector Class
- * @version 	0.1
+ * @version 	0.2a			- 17.10.2026
  * @status		in development
  *
  * @description handles the connectivity to an embedded Neo4J Graph Database and saves nodes and 
  * 				connections in the graph. Implements IGraphPersistenceManager
+ * 				The posts are written with the same MERGE statements as in Neo4JPersistence 
+ * 				(see CypherBatch), executed by the cypher engine of the embedded database. 
+ * 				A transaction is committed after every GraphEmbeddedCommitSize nodes. Writes are
+ * 				done one after the other, as the MERGE of posts and users is only safe against
+ * 				duplicates within a single writer.
+ * 				On startup the schema is created: unique constraints for the key of keywords,
+ * 				domains, customers and social networks and indexes on the id of posts and users
+ * 				(neo4j 2.1 can't index the pair of sn_id and id).
+ * 				With GraphEmbeddedBulkImport set, the posts the GraphBatchWriter could not write
+ * 				(graph_SCCODE-NUMBER_fail.json in the json backup directory) are imported by a 
+ * 				background thread on startup - see bulkImport().
  *
  * @changelog	0.1 (Chris)		initial version as copy from Neo4JPersistence Version 0.8
+ * 				0.1a			added createNodeObjects()
+ * 				0.2				schema indexes, batched transactions and bulk import from json files,
+ * 								removed the per node create methods
+ * 				0.2a			bulk import only reads graph fail files and runs in a thread of its own
  * 
  * 
  * the workflow is as follows:
@@ -86,15 +109,63 @@ public class Neo4JEmbeddedPersistence implements IGraphPersistenceManager {
 	
 	private static final String DB_PATH = "storage/neo4j_db";
 	
+	// number of nodes after which a transaction is committed
+	private static final int DEFAULT_COMMIT_SIZE = 10000;
+	// number of json files handed to createNodeObjects at once during a bulk import
+	private static final int BULK_IMPORT_FILES = 1000;
+	// files written by JsonFilePersistence.saveNodeObject for posts the graph could not take
+	private static final String BULK_IMPORT_PREFIX = "graph_";
+	private static final String BULK_IMPORT_SUFFIX = "_fail.json";
+	// how long to wait for new indexes to be populated
+	private static final long INDEX_ONLINE_TIMEOUT = 10;
+	
+	// the properties that identify a node - unique where neo4j can enforce it
+	private static final GraphNodeTypes[] UNIQUE_LABELS = {GraphNodeTypes.KEYWORD, GraphNodeTypes.DOMAIN, GraphNodeTypes.CUSTOMER, GraphNodeTypes.SOCIALNETWORK};
+	private static final String[] UNIQUE_KEYS = {"keyword", "name", "name", "name"};
+	private static final GraphNodeTypes[] INDEXED_LABELS = {GraphNodeTypes.POST, GraphNodeTypes.USER};
+	private static final String[] INDEXED_KEYS = {"id", "id"};
+	
 	GraphDatabaseService graphDb;
 	Node firstNode, secondNode;
 	Relationship relation;
 	
+	private final ExecutionEngine engine;
+	private final int commitSize;
+	// only one thread writes at a time
+	private final Object writeLock = new Object();
+	
 	private Neo4JEmbeddedPersistence() {
 		// initialize the necessary variables from applicationContext.xml for server connection
 		graphDb = new GraphDatabaseFactory().newEmbeddedDatabase(getDbPath());
 		registerShutdownHook(graphDb);
+		engine = new ExecutionEngine(graphDb);
+		
+		int size = rtc.getIntValue("GraphEmbeddedCommitSize", "runtime");
+		commitSize = (size > 0) ? size : DEFAULT_COMMIT_SIZE;
+		
+		createSchema();
+		
+		if (rtc.getBooleanValue("GraphEmbeddedBulkImport", "runtime"))
+			startBulkImport();
+	}
+	
+	// runs the bulk import in the background, so a slow or failing import does not hold up the bean
+	private void startBulkImport() {
+		final File directory = new File(rtc.getStringValue("StoragePath", "runtime") + File.separator + rtc.getStringValue("JsonBackupStoragePath", "runtime"));
+		Thread t = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					bulkImport(directory);
+				} catch (RuntimeException e) {
+					logger.error("EXCEPTION :: bulk import of " + directory + " failed " + e.getLocalizedMessage(), e);
+				}
+			}
+		}, "Neo4JEmbeddedPersistence-bulkImport");
+		t.setDaemon(true);
+		t.start();
 	}
+	
 	private String getDbPath() {
 		return DB_PATH;
 	}
@@ -102,124 +173,161 @@ public class Neo4JEmbeddedPersistence implements IGraphPersistenceManager {
 	
 	public void saveNode(JSONObject nodeObject) {
 		logger.info("creating a {} node object to store in the graph", SocialNetworks.getSocialNetworkConfigElementByCode("name", nodeObject.get("sn_id").toString()));
-		GraphNodeTypes label = GraphNodeTypes.POST;
-		
-		if ("POST".equalsIgnoreCase(label.getValue())){
-			GraphPostingData gpd = new GraphPostingData(nodeObject);
-			createPostNodeObject(gpd.getJson(), label);
-		} else if ("USER".equalsIgnoreCase(label.getValue())){
-			GraphUserData gud = new GraphUserData(nodeObject);
-			createUserNodeObject(gud.getJson(), label);
-		} else if ("DOMAIN".equalsIgnoreCase(label.getValue())){
-			DomainData gdd = new DomainData(nodeObject);
-			createOtherNodeObject(gdd.getJson(), label);
-		} else if ("CUSTOMER".equalsIgnoreCase(label.getValue())){
-			CustomerData gcd = new CustomerData(nodeObject);
-			createOtherNodeObject(gcd.getJson(), label);
-		} else if ("KEYWORD".equalsIgnoreCase(label.getValue())){
-			KeywordData gkd = new KeywordData(nodeObject);
-			createOtherNodeObject(gkd.getJson(), label);
-		} else if ("SOCIALNETWORK".equalsIgnoreCase(label.getValue())){
-			SocialNetworkData gsd = new SocialNetworkData(nodeObject);
-			createOtherNodeObject(gsd.getJson(), label);
-		} else {
-			logger.warn("warning can't create an object with label {} in the graph, beacause I do not know what it is is", label.getValue());
-		}
+		createNodeObject(nodeObject);
 	}
 	
 	
+	/**
+	 * 
+	 * @description	creates the unique constraints and indexes every MERGE of a node depends on,
+	 * 				unless they exist already, and waits until they are online
+	 * 
+	 */
+	private void createSchema() {
+		try ( Transaction tx = graphDb.beginTx() ) {
+			Schema schema = graphDb.schema();
+			for (int i = 0; i < UNIQUE_LABELS.length; i++) {
+				if (hasConstraint(schema, UNIQUE_LABELS[i], UNIQUE_KEYS[i]))
+					continue;
+				logger.info("creating unique constraint on {}.{}", UNIQUE_LABELS[i], UNIQUE_KEYS[i]);
+				schema.constraintFor(UNIQUE_LABELS[i]).assertPropertyIsUnique(UNIQUE_KEYS[i]).create();
+			}
+			for (int i = 0; i < INDEXED_LABELS.length; i++) {
+				if (hasIndex(schema, INDEXED_LABELS[i], INDEXED_KEYS[i]))
+					continue;
+				logger.info("creating index on {}.{}", INDEXED_LABELS[i], INDEXED_KEYS[i]);
+				schema.indexFor(INDEXED_LABELS[i]).on(INDEXED_KEYS[i]).create();
+			}
+			tx.success();
+		} catch (Exception e) {
+			// e.g. existing duplicates prevent a unique constraint - the graph still works, only slower
+			logger.error("EXCEPTION :: could not create the schema of the graph - {}", e.getMessage());
+		}
+		
+		try ( Transaction tx = graphDb.beginTx() ) {
+			graphDb.schema().awaitIndexesOnline(INDEX_ONLINE_TIMEOUT, TimeUnit.MINUTES);
+			tx.success();
+		} catch (Exception e) {
+			logger.warn("indexes of the graph are not online yet - {}", e.getMessage());
+		}
+	}
 	
+	private static boolean hasConstraint(Schema schema, GraphNodeTypes label, String key) {
+		for (ConstraintDefinition constraint : schema.getConstraints(label))
+			for (String propertyKey : constraint.getPropertyKeys())
+				if (key.equals(propertyKey))
+					return true;
+		return false;
+	}
 	
-	
+	private static boolean hasIndex(Schema schema, GraphNodeTypes label, String key) {
+		for (IndexDefinition index : schema.getIndexes(label))
+			for (String propertyKey : index.getPropertyKeys())
+				if (key.equals(propertyKey))
+					return true;
+		return false;
+	}
 	
 	
 	/**
 	 * 
-	 * @description	creates a node in the graph 
-	 * @param 		JSONObject attributes of the node
-	 * @param		GraphNodeTypes for label
+	 * @description	executes the statements of the batch in one transaction
+	 * @param		batch
+	 * @return		true if the transaction was committed
 	 * 
 	 */
-	private void createOtherNodeObject(JSONObject jsonNode, GraphNodeTypes label){
+	private boolean execute(CypherBatch batch) {
+		if (batch.isEmpty())
+			return true;
+		
+		long start = System.currentTimeMillis();
 		try ( Transaction tx = graphDb.beginTx() ) {
-			firstNode = graphDb.createNode(label);
-			logger.info("{} node created, setting properties", label.getValue());
-			logger.debug("attributes...{}",jsonNode.keySet());
-			Set<String> keys = jsonNode.keySet();
-			
-			Iterator<String> iterator = keys.iterator();
-		    while(iterator.hasNext()) {
-		    	logger.trace("working on key {} with value {}", iterator.toString(), jsonNode.get(iterator));
-			    firstNode.setProperty(iterator.toString(), jsonNode.get(iterator));
-		        String setElement = iterator.next();
-		    }
-			
-		    /*
-			if(jsonNode.containsKey("id"))
-				firstNode.setProperty("id", jsonNode.get("id"));
-			if(jsonNode.containsKey("name"))
-				firstNode.setProperty("name", jsonNode.get("name"));
-			if(jsonNode.containsKey("lang"))
-				firstNode.setProperty("lang", jsonNode.get("lang"));
-			*/
-            tx.success();
-		} catch(Exception e) {
-			logger.error("EXCEPTION :: failed to create node with {} - {}",  jsonNode.toJSONString(), e.getMessage());
-			e.printStackTrace();
+			for (Map.Entry<String, Map<String, Object>> statement : batch.getStatements().entrySet()) {
+				ExecutionResult result = engine.execute(statement.getKey(), statement.getValue());
+				// reading the result makes sure the statement is executed completely
+				for (Iterator<Map<String, Object>> rows = result.iterator(); rows.hasNext(); )
+					rows.next();
+			}
+			tx.success();
+		} catch (Exception e) {
+			logger.error("EXCEPTION :: transaction with {} nodes was rolled back - {}", batch.getNodeCount(), e.getMessage());
+			return false;
 		}
+		logger.debug("committed {} nodes and {} rows in {}ms", batch.getNodeCount(), batch.getRowCount(), System.currentTimeMillis() - start);
+		return true;
 	}
 	
 	
-	
-	private void createPostNodeObject(JSONObject jsonNode, GraphNodeTypes label){
-		try ( Transaction tx = graphDb.beginTx() ) {
-			firstNode = graphDb.createNode(label);
-			logger.info("{} node created, setting properties", label.getValue());
-			logger.debug("setting attributes...{}",jsonNode.keySet());
-			
-			if(jsonNode.containsKey("id"))
-				firstNode.setProperty("id", jsonNode.get("id"));
-			if(jsonNode.containsKey("text"))
-				firstNode.setProperty("text", jsonNode.get("text"));
-			if(jsonNode.containsKey("lang"))
-				firstNode.setProperty("lang", jsonNode.get("lang"));
-			if(jsonNode.containsKey("teaser"))
-				firstNode.setProperty("teaser", jsonNode.get("teaser"));
-			if(jsonNode.containsKey("subject"))
-				firstNode.setProperty("subject", jsonNode.get("subject"));
-			if(jsonNode.containsKey("timestamp"))
-				firstNode.setProperty("timestamp", jsonNode.get("timestamp"));
+	/**
+	 * 
+	 * @description	imports the post node objects the GraphBatchWriter could not write from the
+	 * 				directory - the graph_SCCODE-NUMBER_fail.json files saved by 
+	 * 				JsonFilePersistence.saveNodeObject. Imported files are moved to the 
+	 * 				ProcessedJsonBackupStoragePath, all other files (like the post_ and user_ 
+	 * 				files of the FsCrawler) are left untouched.
+	 * 				Meant to backfill the graph while no crawler is running.
+	 * 
+	 * @param		directory
+	 * @return		number of imported posts
+	 * 
+	 */
+	public int bulkImport(File directory) {
+		File[] files = directory.listFiles();
+		if (files == null) {
+			logger.warn("bulk import: {} is not a directory", directory);
+			return 0;
+		}
+		Arrays.sort(files);
+		File processedDir = new File(rtc.getStringValue("StoragePath", "runtime") + File.separator + rtc.getStringValue("ProcessedJsonBackupStoragePath", "runtime"));
+		if (!processedDir.isDirectory())
+			processedDir.mkdirs();
+		
+		logger.info("bulk import of {} json files from {}", files.length, directory);
+		long start = System.currentTimeMillis();
+		DataCryptoHandler dataCryptoProvider = new DataCryptoHandler();
+		JSONParser parser = new JSONParser();
+		List<JSONObject> nodeObjects = new ArrayList<JSONObject>(BULK_IMPORT_FILES);
+		List<File> nodeFiles = new ArrayList<File>(BULK_IMPORT_FILES);
+		int imported = 0;
+		
+		for (File f : files) {
+			if (!f.isFile() || !f.getName().startsWith(BULK_IMPORT_PREFIX) || !f.getName().endsWith(BULK_IMPORT_SUFFIX))
+				continue;
+			try {
+				String content = new String(Files.readAllBytes(f.toPath()), Charset.defaultCharset());
+				Object obj = parser.parse(dataCryptoProvider.decryptValue(content));
+				if (!(obj instanceof JSONObject) || ((JSONObject) obj).get("sn_id") == null || ((JSONObject) obj).get("id") == null)
+					continue;
+				nodeObjects.add((JSONObject) obj);
+				nodeFiles.add(f);
+			} catch (Exception e) {
+				logger.warn("bulk import: skipping file {} - {}", f.getName(), e.getMessage());
+				continue;
+			}
 			
-            tx.success();
-		} catch(Exception e) {
-			logger.error("EXCEPTION :: failed to create node with {} - {}",  jsonNode.toJSONString(), e.getMessage());
-			e.printStackTrace();
+			if (nodeObjects.size() >= BULK_IMPORT_FILES) {
+				imported += importFiles(nodeObjects, nodeFiles, processedDir);
+				nodeObjects.clear();
+				nodeFiles.clear();
+			}
 		}
+		imported += importFiles(nodeObjects, nodeFiles, processedDir);
+		
+		logger.info("bulk import finished - imported {} posts in {} seconds", imported, (System.currentTimeMillis() - start) / 1000);
+		return imported;
 	}
 	
-	private void createUserNodeObject(JSONObject jsonNode, GraphNodeTypes label){
-		try ( Transaction tx = graphDb.beginTx() ) {
-			firstNode = graphDb.createNode(label);
-			logger.info("{} node created, setting properties", label.getValue());
-			logger.debug("setting attributes...{}",jsonNode.keySet());
-			
-			if(jsonNode.containsKey("id"))
-				firstNode.setProperty("id", jsonNode.get("id"));
-			if(jsonNode.containsKey("username"))
-				firstNode.setProperty("username", jsonNode.get("username"));
-			if(jsonNode.containsKey("screen_name"))
-				firstNode.setProperty("screen_name", jsonNode.get("screen_name"));
-			if(jsonNode.containsKey("lang"))
-				firstNode.setProperty("lang", jsonNode.get("lang"));
-            tx.success();
-		} catch(Exception e) {
-			logger.error("EXCEPTION :: failed to create node with {} - {}",  jsonNode.toJSONString(), e.getMessage());
-			e.printStackTrace();
-		}
+	private int importFiles(List<JSONObject> nodeObjects, List<File> nodeFiles, File processedDir) {
+		if (nodeObjects.isEmpty() || !createNodeObjects(nodeObjects))
+			return 0;
+		for (File f : nodeFiles)
+			if (!f.renameTo(new File(processedDir, f.getName())))
+				logger.error("could not move file " + f.getName() + " to " + processedDir);
+		return nodeObjects.size();
 	}
 	
 	
-	/**
+		/**
 	 * @description deletes all graph-db files on file system, thus essentially wiping out the entire DB
 	 */
 	@SuppressWarnings("unused")
@@ -313,7 +421,32 @@ public class Neo4JEmbeddedPersistence implements IGraphPersistenceManager {
 	}
 	@Override
 	public void createNodeObject(JSONObject nodeObject) {
-		// TODO Auto-generated method stub
-		
+		createNodeObjects(Collections.singletonList(nodeObject));
+	}
+	
+	/**
+	 * 
+	 * @description	saves the posts with all embedded entities in the graph, committing a 
+	 * 				transaction after every GraphEmbeddedCommitSize nodes
+	 * 
+	 * @param		nodeObjects	json objects as taken by createNodeObject
+	 * @return		true if all transactions were committed
+	 * 
+	 */
+	@Override
+	public boolean createNodeObjects(List<JSONObject> nodeObjects) {
+		boolean committed = true;
+		synchronized (writeLock) {
+			CypherBatch batch = new CypherBatch();
+			for (JSONObject nodeObject : nodeObjects) {
+				batch.addNodeObject(nodeObject);
+				if (batch.getNodeCount() >= commitSize) {
+					committed &= execute(batch);
+					batch = new CypherBatch();
+				}
+			}
+			committed &= execute(batch);
+		}
+		return committed;
 	}
 }
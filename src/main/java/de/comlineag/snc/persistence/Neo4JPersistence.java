@@ -2,7 +2,8 @@ package de.comlineag.snc.persistence;
 
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
@@ -23,12 +24,6 @@ import de.comlineag.snc.constants.HttpErrorMessages;
 import de.comlineag.snc.constants.HttpStatusCodes;
 import de.comlineag.snc.constants.GraphRelationshipTypes;
 import de.comlineag.snc.constants.SocialNetworks;
-import de.comlineag.snc.data.CustomerData;
-import de.comlineag.snc.data.DomainData;
-import de.comlineag.snc.data.KeywordData;
-import de.comlineag.snc.data.GraphPostingData;
-import de.comlineag.snc.data.SocialNetworkData;
-import de.comlineag.snc.data.GraphUserData;
 import de.comlineag.snc.neo4j.Relation;
 import de.comlineag.snc.neo4j.TraversalDefinition;
 
@@ -37,7 +32,7 @@ import de.comlineag.snc.neo4j.TraversalDefinition;
  *
  * @author 		Christian Guenther
  * @category 	Connector Class
- * @version 	0.8
+ * @version 	0.9c			- 17.10.2026
  * @status		in development
  *
  * @description handles the connectivity to the Neo4J Graph Database and saves posts, 
@@ -54,6 +49,15 @@ import de.comlineag.snc.neo4j.TraversalDefinition;
  * 				0.7b			added support for different encryption provider, the actual one is set in applicationContext.xml
  * 				0.7c			changed id from Long to String 
  * 				0.8				rewrote class from scratch
+ * 				0.9				createNodeObject sends all nodes and relationships of a post as
+ * 								parameterized MERGE statements in one request to the commit url
+ * 								of the transactional endpoint, over one shared client
+ * 				0.9a			added createNodeObjects() - the nodes and relationships of a list of
+ * 								posts are written with one UNWIND statement per label and type
+ * 				0.9b			the statements of a post are built by CypherBatch, so that the embedded
+ * 								persistence can use them as well
+ * 				0.9c			removed the methods of the former REST transaction workflow (start, send 
+ * 								single statements, commit), which are replaced by commitBatch
  * 
  * 
  * the workflow is as follows:
@@ -110,8 +114,10 @@ public class Neo4JPersistence implements IGraphPersistenceManager {
 	// this is a reference to the Neo4J configuration settings
 	private final Neo4JConfiguration nco = Neo4JConfiguration.getInstance();
 	
+	// all requests go through one client, so its keep-alive connections to the server are reused
+	private static final Client client = Client.create();
+	
 	private String dbServerUrl;
-	private String transactionUrl;
 	// path to the configuration xml file
 	public String configDb;
 	
@@ -123,48 +129,7 @@ public class Neo4JPersistence implements IGraphPersistenceManager {
 	}
 	
 	
-	/**
-	 * 
-	 * @description wraps the json object and the label in a cypher statement to
-	 * 				create a node. The statement is then passed on to the method 
-	 * 				sendTransactionalCypherStatement(String statement, uri location)
-	 * @param 		nodeObject
-	 * @param 		label
-	 * @param 		transactLoc
-	 * 
-	 * @return		URI to created object in the graph
-	 * 
-	 */
-	public URI saveNode(JSONObject nodeObject, GraphNodeTypes label, URI transactLoc) {
-		/* the cypher statement is part of a larger one that is executed via method 
-		 *    sendTransactionalCypherStatement(). 
-		 * Ultimately, the statement looks like this:
-		 * 
-		 * {
-		 * 	"statements": [ { 
-		 * 		"statement": 
-		 * 			"CREATE (p:SOCIALNETWORK {properties}) ", 
-		 * 				"parameters": {
-		 * 					"properties": {
-		 * 						"description":"Twitter",
-		 * 						"name":"Twitter",
-		 * 						"domain":"twitter.com",
-		 * 						"sn_id":"TW"
-		 * 					}
-		 * 				} 
-		 * 		} ] 
-		 * } 
-		 * 
-		 */
-		String cypherStatement = "\"CREATE (p:"+ label.toString() +" {properties}) \", "
-				+ "\"parameters\": {"
-				+ "\"properties\":" + nodeObject.toString() 
-				+ "} ";
-		return (sendTransactionalCypherStatement(cypherStatement, transactLoc));
-	}
-	
 	
-
 	/**
 	 * 
 	 * @description	this is the public save method for the graph persistence
@@ -182,889 +147,83 @@ public class Neo4JPersistence implements IGraphPersistenceManager {
 	public void createNodeObject(JSONObject nodeObject){
 		logger.info("About to create {} node object(s) in the graph", SocialNetworks.getSocialNetworkConfigElementByCode("name", nodeObject.get("sn_id").toString()));
 		//logger.trace("   >>> {}", nodeObject.toString());
-		URI postNodeLocation = null;
-		URI userNodeLocation = null;
-		URI domainNodeLocation = null;
-		URI customerNodeLocation = null;
-		URI socialNetworkNodeLocation = null;
-		URI keywordNodeLocation = null;
-		
-		JSONObject postNodeObject = null;
-		JSONObject userNodeObject = null; 
-		JSONObject domainNodeObject = null;
-		JSONObject customerNodeObject = null;
-		JSONObject socialNetworkNodeObject = null;
-		ArrayList<String> keywords = null;
-		
-		String postSnId = null;
-		String postId = null;
-		String userSnId = null;
-		String userId = null;
-		String domainName = null;
-		String customerName = null;
-		String socNetName = null;
-		String sn_id = null;
-		String id = null;
-		String name = null;
-		
-		String jsonPayload;
-		
-		
-		
-		// fill the json object for post, user, domain and customer plus social network and keyword(s)
-		postNodeObject = new JSONObject((JSONObject) nodeObject);
-		if (postNodeObject.containsKey("sn_id"))
-			postSnId = postNodeObject.get("sn_id").toString();
-		if (postNodeObject.containsKey("id"))
-			postId = postNodeObject.get("id").toString();
-		logger.debug("POST object {}-{} found", postSnId, postId);
-		logger.trace("   >>> {}", postNodeObject.toString());
-		
-		if (nodeObject.containsKey("USER")) {
-			userNodeObject = new JSONObject((JSONObject) nodeObject.get("USER"));
-			if (userNodeObject.containsKey("sn_id"))
-				userSnId = userNodeObject.get("sn_id").toString();
-			if (userNodeObject.containsKey("id"))
-				userId = userNodeObject.get("id").toString();
-			else if (userNodeObject.containsKey("user_id"))
-				userId = userNodeObject.get("user_id").toString();
-			
-			logger.debug("USER object {}-{} found", userSnId, userId);
-			logger.trace("   >>> {}", userNodeObject.toString());
-		}
-		if (nodeObject.containsKey("DOMAIN")) {
-			domainNodeObject = new JSONObject((JSONObject) nodeObject.get("DOMAIN"));
-			if (domainNodeObject.containsKey("name"))
-				domainName = domainNodeObject.get("name").toString();  
-			logger.debug("DOMAIN object {} found", domainName);
-			logger.trace("   >>> {}", domainNodeObject.toString());
-		}
-		if (nodeObject.containsKey("CUSTOMER")) {
-			customerNodeObject = new JSONObject((JSONObject) nodeObject.get("CUSTOMER"));
-			if (customerNodeObject.containsKey("name"))
-				customerName = customerNodeObject.get("name").toString();  
-			logger.debug("CUSTOMER object {} found", customerName);
-			logger.trace("   >>> {}", customerNodeObject.toString());
-		}
-		if (nodeObject.containsKey("SOCIALNETWORK")) {
-			socialNetworkNodeObject = new JSONObject((JSONObject) nodeObject.get("SOCIALNETWORK"));
-			if (socialNetworkNodeObject.containsKey("name"))
-				socNetName = socialNetworkNodeObject.get("name").toString();  
-			logger.debug("SOCIALNETWORK object {} found", socNetName);
-			logger.trace("   >>> {}", socialNetworkNodeObject.toString());
-		}
-		if (nodeObject.containsKey("KEYWORD")) {
-			keywords = ((ArrayList<String>) nodeObject.get("KEYWORD"));
-			logger.debug("KEYWORD object found");
-			logger.trace("   >>> {}", keywords.toString());
-		}
-		
-		// start the transaction
-		URI transactLoc = startTransaction();
-		
-		// POST
-		if (postNodeObject != null) {
-			sn_id = postSnId;
-			id = postId;
-			name = null;
-			
-			// before we construct and call the create method, we check if the requested object does not already exist 
-			if (sn_id != null && id != null) {
-				logger.debug("working on post-object {}-{}", sn_id, id);
-				jsonPayload = "{sn_id: '"+sn_id+"', id: '"+id+"'}";
-				
-				/* new way
-				GraphPostingData node = new GraphPostingData(postNodeObject);
-				GraphNodeTypes label = GraphNodeTypes.POST;
-				String matchPayload = jsonPayload;
-				String createPayload = node.getJson().toString();
-				
-				postNodeLocation = matchAndCreateNodeTransactional(label, matchPayload, createPayload, transactLoc);
-				*/
-				
-				// old way
-				postNodeLocation = findNode(jsonPayload, GraphNodeTypes.POST, transactLoc);
-				
-				if (postNodeLocation == null) {
-					logger.debug("creating the post {}-{}", sn_id, id);
-					GraphPostingData gpd = new GraphPostingData(postNodeObject);
-					//logger.trace("   POST : >>> {}", gpd.getJson().toString());
-					postNodeLocation = saveNode(gpd.getJson(), GraphNodeTypes.POST, transactLoc);
-				} 
-				
-				
-				// after the node is created - check if the location is returned and if not, find the node
-				if (postNodeLocation == null) {
-					postNodeLocation = findNode(jsonPayload, GraphNodeTypes.POST, transactLoc);
-				}
-				if (postNodeLocation == null) {
-					logger.warn("could not locate node for post {}-{} ", sn_id, id);
-				} else {
-					logger.info("POST node {}-{} is at location {}", sn_id, id, postNodeLocation);
-				}
-				
-			}
-		}
-		
-		// USER
-		if (userNodeObject != null) {
-			sn_id = userSnId;
-			id = userId;
-			name = null;
-			
-			// before we construct and call the create method, we check if the requested object does not already exist 
-			if (sn_id != null && id != null) {
-				logger.debug("working on user-object {}-{}", sn_id, id);
-				jsonPayload = "{sn_id: '"+sn_id+"', id: '"+id+"'}";
-								
-				// OLD way
-				userNodeLocation = findNode(jsonPayload, GraphNodeTypes.USER, transactLoc);
-				
-				if (userNodeLocation == null) {
-					logger.debug("creating the user {}-{}", sn_id, id);
-					GraphUserData gud = new GraphUserData(userNodeObject);
-					//logger.trace("   USER : >>> {}", gud.getJson().toString());
-					userNodeLocation = saveNode(gud.getJson(), GraphNodeTypes.USER, transactLoc);
-				}
-				
-				// after the node is created - check if the location is returned and if not, find the node
-				if (userNodeLocation == null) {
-					userNodeLocation = findNode(jsonPayload, GraphNodeTypes.USER, transactLoc);
-				}
-				
-				if (userNodeLocation == null) {
-					logger.warn("could not locate node for user {}-{} ", sn_id, id);
-				} else {
-					logger.info("USER node {}-{} is at location {}", sn_id, id, userNodeLocation);
-				}
-			}
-		}
-		
-		// DOMAIN
-		if (domainNodeObject != null) {
-			sn_id = null;
-			id = null;
-			name = domainName;
-			
-			// before we construct and call the create method, we check if the requested object does not already exist 
-			if (name != null) {
-				logger.debug("working on domain-object {}", name);
-				jsonPayload = "{name: '"+name+"'}";
-				
-				// OLD way
-				domainNodeLocation = findNode(jsonPayload, GraphNodeTypes.DOMAIN, transactLoc);
-				
-				if (domainNodeLocation == null) {
-					logger.debug("creating the domain {}", name);
-					DomainData gdd = new DomainData(domainNodeObject);
-					//logger.trace("   DOMAIN : >>> {}", gdd.getJson().toString());
-					domainNodeLocation = saveNode(gdd.getJson(), GraphNodeTypes.DOMAIN, transactLoc);
-				}
-				
-				//  after the node is created - check if the location is returned and if not, find the node
-				if (domainNodeLocation == null) {
-					domainNodeLocation = findNode(jsonPayload, GraphNodeTypes.DOMAIN, transactLoc);
-				}
-				if (domainNodeLocation == null) {
-					logger.warn("could not locate node for domain {} ", name);
-				} else {
-					logger.info("DOMAIN node {} is at location {}", name, domainNodeLocation);
-				}
-			}
-		}
-		
-		
-		// CUSTOMER
-		if (customerNodeObject != null) {
-			sn_id = null;
-			id = null;
-			name = customerName;
-			
-			// before we construct and call the create method, we check if the requested object does not already exist 
-			if (name != null) {
-				logger.debug("working on customer-object {}", name);
-				jsonPayload = "{name: '"+name+"'}";
-				
-				// OLD way
-				customerNodeLocation = findNode(jsonPayload, GraphNodeTypes.CUSTOMER, transactLoc);
-				
-				if (customerNodeLocation == null) {
-					logger.debug("creating the customer {}", name);
-					CustomerData gcd = new CustomerData(customerNodeObject);
-					//logger.trace("   CUSTOMER : >>> {}", gcd.getJson().toString());
-					customerNodeLocation = saveNode(gcd.getJson(), GraphNodeTypes.CUSTOMER, transactLoc);
-				}
-				
-				//  after the node is created - check if the location is returned and if not, find the node
-				if (customerNodeLocation == null) {
-					customerNodeLocation = findNode(jsonPayload, GraphNodeTypes.CUSTOMER, transactLoc);
-				}
-				if (customerNodeLocation == null) {
-					logger.warn("could not locate node for customer {} ", name);
-				} else {
-					logger.info("CUSTOMER node {} is at location {}", name, customerNodeLocation);
-				}
-			}
-		}
-		
-		
-		// SOCIAL NETWORK
-		if (socialNetworkNodeObject != null) {
-			sn_id = null;
-			id = null;
-			name = socNetName;
-			
-			// before we construct and call the create method, we check if the requested object does not already exist 
-			if (name != null) {
-				logger.debug("working on social network-object {}", name);
-				jsonPayload = "{name: '"+name+"'}";
-								
-				// OLD way
-				socialNetworkNodeLocation = findNode(jsonPayload, GraphNodeTypes.SOCIALNETWORK, transactLoc);
-				
-				if (socialNetworkNodeLocation == null) {
-					logger.debug("creating the social network {}", name);
-					SocialNetworkData gsd = new SocialNetworkData(socialNetworkNodeObject);
-					//logger.trace("   SOCIALNETWORK : >>> {}", gsd.getJson().toString());
-					socialNetworkNodeLocation = saveNode(gsd.getJson(), GraphNodeTypes.SOCIALNETWORK, transactLoc);
-				}
-				
-				//  after the node is created - check if the location is returned and if not, find the node
-				if (socialNetworkNodeLocation == null) {
-					socialNetworkNodeLocation = findNode(jsonPayload, GraphNodeTypes.SOCIALNETWORK, transactLoc);
-				}
-				if (socialNetworkNodeLocation == null) {
-					logger.warn("could not locate node for social network {} ", name);
-				} else {
-					logger.info("SOCIALNETWORK node {} is at location {}", name, socialNetworkNodeLocation);
-				}
-			}
-		}
-		
-		// KEYWORD
-		for (String keyword : keywords) {
-			logger.debug("working on keyword-object {}", keyword);
-			jsonPayload = "{keyword: '"+keyword+"'}";
-			
-			keywordNodeLocation = findNode(jsonPayload, GraphNodeTypes.KEYWORD, transactLoc);
-			
-			if (keywordNodeLocation == null) {
-				KeywordData gkd = new KeywordData(keyword);
-				keywordNodeLocation = saveNode(gkd.getJson(), GraphNodeTypes.KEYWORD, transactLoc);
-			}
-			
-			//  after the node is created - check if the location is returned and if not, find the node
-			if (keywordNodeLocation == null) {
-				keywordNodeLocation = findNode(jsonPayload, GraphNodeTypes.KEYWORD, transactLoc);
-			}
-			if (keywordNodeLocation == null) {
-				logger.warn("could not create node for keyword {} ", keyword);
-			} else {
-				logger.info("node for keyword {} created at location {}", keyword, keywordNodeLocation);
-			}
-		}
-		
-		
-		logger.debug("=========>");
-		logger.debug("post          {}\t-> {}: \t{}-{}", getNodeIdFromLocation(postNodeLocation), postNodeLocation, postSnId, postId);
-		logger.debug("user          {}\t-> {}: \t{}-{}", getNodeIdFromLocation(userNodeLocation), userNodeLocation, userSnId, userId);
-		logger.debug("domain        {}\t-> {}: \t{}", getNodeIdFromLocation(domainNodeLocation), domainNodeLocation, domainName);
-		logger.debug("customer      {}\t-> {}: \t{}", getNodeIdFromLocation(customerNodeLocation), customerNodeLocation, customerName);
-		logger.debug("socialnetwork {}\t-> {}: \t{}", getNodeIdFromLocation(socialNetworkNodeLocation), socialNetworkNodeLocation, socNetName);
-		logger.debug("<========="); 
-		
-		// start a new transaction for the relationships
-		//transactLoc = startTransaction();
-		
-		/*
-		 * The graph schema looks like this:
-		 *                           
-		 *                                                             
-		 * 							   +-[FETCHED_FROM]->(SOCIALNETWORK) 
-		 * 							   |                               
-		 * 		(KEYWORD)<-[CONTAINS]-(POST)<-[WROTE]-(USER)<-+         
-		 * 			|					|                     |         
-		 *		[RELEVANT_FOR]		[MENTIONS]----------------+         
-		 * 			|	                                                
-		 *          +->(DOMAIN)<-[BELONGS_TO]-(CUSTOMER)
-		 * 
-		 * 	a USER wrote a POST
-		 *  the POST is fetched from a SOCIALNETWORK
-		 * 	the POST possibly mentions 1-n USER
-		 * 	the POST contains 1-n KEYWORD
-		 * 	the KEYWORD is relevant for 1-n DOMAIN
-		 * 	a CUSTOMER belongs to a DOMAIN
-		 * 
-		 */
-		//
-		// create relationships
-		//           sourceJsonMatch                       targetJsonMatch
-		// MATCH  (a:USER {sn_id: "TW", id: "123456"}), (b:POST {sn_id: "TW", id: "654321"})
-		//               relType
-		// MERGE  (a)-[r:WROTE]->(b)
-		URI relLoc = null;
-		
-		GraphNodeTypes sourceLabel = null;
-		String sourceJsonMatch = "";
-		
-		GraphNodeTypes targetLabel = null;
-		String targetJsonMatch = "";
-		
-		GraphRelationshipTypes relType = null;
-		
-		
-		// rel: USER-[WROTE]->POST
-		logger.debug("create relationship: (USER:"+userSnId+"-"+userId+")-[WROTE]->(POST:"+postSnId+"-"+postId+")");
-		sourceLabel = GraphNodeTypes.USER;
-		relType = GraphRelationshipTypes.WROTE;
-		targetLabel = GraphNodeTypes.POST;
-		
-		// execute MATCH & MERGE
-		sourceJsonMatch = sourceLabel+" {sn_id: '"+userSnId+"', id: '"+userId+"'}";
-		targetJsonMatch = targetLabel+" {sn_id: '"+postSnId+"', id: '"+postId+"'}";
-		relLoc = matchAndMergeRelationshipTransactional(sourceJsonMatch, targetJsonMatch, relType, transactLoc);
-		
-		
-		// rel: POST-[FETCHED_FROM]->SOCIALNETWORK
-		logger.debug("create relationship: (POST:"+postSnId+"-"+postId+")-[FETCHED_FROM]->(SOCIALNETWORK:"+socNetName+")");
-		sourceLabel = GraphNodeTypes.POST;
-		relType = GraphRelationshipTypes.FETCHED_FROM;
-		targetLabel = GraphNodeTypes.SOCIALNETWORK;
-		
-		// execute MATCH & MERGE
-		sourceJsonMatch = sourceLabel+" {sn_id: '"+postSnId+"', id: '"+postId+"'}";
-		targetJsonMatch = targetLabel+" {name: '"+socNetName+"'}";
-		relLoc = matchAndMergeRelationshipTransactional(sourceJsonMatch, targetJsonMatch, relType, transactLoc);
-		
-		
-		// rel: CUSTOMER-[BELONGS_TO]->DOMAIN
-		logger.debug("create relationship: (CUSTOMER:"+customerName+")-[BELONGS_TO]->(DOMAIN:"+domainName+")");
-		sourceLabel = GraphNodeTypes.CUSTOMER;
-		relType = GraphRelationshipTypes.BELONGS_TO;
-		targetLabel = GraphNodeTypes.DOMAIN;
-		
-		// execute MATCH & MERGE
-		sourceJsonMatch = sourceLabel+" {name: '"+customerName+"'}";
-		targetJsonMatch = targetLabel+" {name: '"+domainName+"'}";
-		relLoc = matchAndMergeRelationshipTransactional(sourceJsonMatch, targetJsonMatch, relType, transactLoc);
-		
-		
-		// KEYWORD
-		// rel: KEYWORD-[RELEVANT_FOR]->DOMAIN
-		//		POST-[CONTAINS]->KEYWORD
-		for (String keyword : keywords) {
-			logger.debug("create relationship: (KEYWORD:"+keyword+")-[RELEVANT_FOR]->(DOMAIN:"+domainName+")");
-			
-			sourceLabel = GraphNodeTypes.KEYWORD;
-			relType = GraphRelationshipTypes.RELEVANT_FOR;
-			targetLabel = GraphNodeTypes.DOMAIN;
-			
-			// execute MATCH & MERGE
-			sourceJsonMatch = sourceLabel+" {keyword: '"+keyword+"'}";
-			targetJsonMatch = targetLabel+" {name: '"+domainName+"'}";
-			relLoc = matchAndMergeRelationshipTransactional(sourceJsonMatch, targetJsonMatch, relType, transactLoc);
-			
-			logger.debug("create relationship: (POST:"+postSnId+"-"+postId+")-[CONTAINS]->(KEYWORD:"+keyword+")");
-			sourceLabel = GraphNodeTypes.POST;
-			relType = GraphRelationshipTypes.CONTAINS;
-			targetLabel = GraphNodeTypes.KEYWORD;
-			
-			// execute MATCH & MERGE
-			sourceJsonMatch = sourceLabel+" {sn_id: '"+postSnId+"', id: '"+postId+"'}";
-			targetJsonMatch = targetLabel+" {keyword: '"+keyword+"'}";
-			relLoc = matchAndMergeRelationshipTransactional(sourceJsonMatch, targetJsonMatch, relType, transactLoc);
-		}
 		
-		// commit the transaction
-		commitTransaction(transactLoc);
+		createNodeObjects(Collections.singletonList(nodeObject));
 	}
 	
 	
-	
-	private URI matchAndCreateNodeTransactional(GraphNodeTypes label, String matchPayload, String createPayload, URI transactLoc){
-		String matchCypherStatement = "\"MATCH (p:"+ label.toString() + " " +matchPayload+" ) ";
-		
-		String createCypherStatement = " CREATE (n:"+ label.toString() +" {properties}) RETURN n\", "
-		//String createCypherStatement = " CREATE (p {properties}) RETURN p\", "
-				+ "\"parameters\": {"
-				+ "\"properties\":" + createPayload
-				+ "} ";
-		String cypherStatement = matchCypherStatement + createCypherStatement;
-		return (sendTransactionalCypherStatement(cypherStatement, transactLoc));
-		
-	}
-	private URI findNode(String jsonPayload, GraphNodeTypes label, URI transactLoc){
-		/* the cypher statement is part of a larger one that is executed via method 
-		 *    sendTransactionalCypherStatement(). 
-		 * Ultimately, the statement looks like this:
-		 * 
-		 * {
-		 * 	"statements": [ { 
-		 * 		"statement": 
-		 * 			"MATCH (p:POST {sn_id: {parameters}}) RETURN p", 
-		 * 				"parameters": {
-		 * 					"sn_id":"TW"
-		 * 					}
-		 * 				} 
-		 * 				, "resultDataContents":["REST"]
-		 * 		} ] 
-		 * } 
-		 * 
-		 */
-		String cypherStatement = "\"MATCH (p:"+ label.toString() + " " +jsonPayload+" ) RETURN p\"";
-		
-		return (getNodeLocationTransactional(cypherStatement, transactLoc));
-		
-	}
-	private JSONObject getNodeObject(String jsonPayload, GraphNodeTypes label, URI transactLoc){
-		/* the cypher statement is part of a larger one that is executed via method 
-		 *    sendTransactionalCypherStatement(). 
-		 * Ultimately, the statement looks like this:
-		 * 
-		 * {
-		 * 	"statements": [ { 
-		 * 		"statement": 
-		 * 			"MATCH (p:POST {sn_id: {parameters}}) RETURN p", 
-		 * 				"parameters": {
-		 * 					"sn_id":"TW"
-		 * 					}
-		 * 				} 
-		 * 				, "resultDataContents":["REST"]
-		 * 		} ] 
-		 * } 
-		 * 
-		 */
-		String cypherStatement = "\"MATCH (p:"+ label.toString() + " " +jsonPayload+" ) RETURN p\"";
-		
-		return (getNodeObjectTransactional(cypherStatement, transactLoc));
-		
-	}
-
 	/**
 	 * 
-	 * @description	executes a cypher statement in the given transaction 
-	 * @param 		cypher statement
-	 * @param		URI to an open transaction
+	 * @description	saves a list of posts in the graph. The nodes and relationships of all posts
+	 * 				are merged per label and relationship type, so the complete list is written
+	 * 				with one UNWIND statement per label and relationship type in one request
+	 * 				and one transaction
 	 * 
-	 * @returns		URI to object in graph
+	 * @param		nodeObjects	json objects as taken by createNodeObject
+	 * @return		true if the transaction was committed
 	 * 
 	 */
-	private URI sendTransactionalCypherStatement(String cypherStatement, URI transactLoc){
-		URI nodeLocation = null;
-		try{
-			URI finalUrl = transactLoc;
-			
-			/* the statement is expanded to this
-			 String payload = "{\"statements\": "
-								+ "[ "
-									+ "{\"statement\": "
-										+ "\"CREATE (p:"+ label.toString() +" {properties}) \", "
-											+ "\"parameters\": {"
-													+ "\"properties\":" + nodeObject.toString() 
-											+ "} "
-											+ ", \"resultDataContents\":[\"REST\"]"
-									+ "} "
-								+ "] "
-							+ "}";
-			*/
-			/* until it finally becomes this at execution time:
-			 * {"statements": [ 
-			 * 		{ "statement": 
-			 * 			"CREATE (p:SOCIALNETWORK {properties}) ", 
-			 * 				"parameters": {
-			 * 					"properties": {
-			 * 						"description":"Twitter",
-			 * 						"name":"Twitter",
-			 * 						"domain":"twitter.com",
-			 * 						"sn_id":"TW"
-			 * 					}
-			 * 				}
-			 * 				, "resultDataContents":["REST"] 
-			 * 		} 
-			 *  ] } 
-			 * 
-			 */
-			String payload = "{\"statements\": "
-								+ "[ "
-									+ "{\"statement\": "
-										+ cypherStatement
-										+ ", \"resultDataContents\":[\"REST\"]"
-									+ "} "
-								+ "] "
-							+ "}";
-				    
-			logger.debug("sending {} cypher {} ", payload.substring(32, 38), payload);
-			logger.trace("    endpoint {}", finalUrl);
-			WebResource resource = Client.create().resource( finalUrl );
-			
-			ClientResponse response = resource
-					.accept( MediaType.APPLICATION_JSON )
-	                .type( MediaType.APPLICATION_JSON )
-			        .entity( payload )
-			        .post( ClientResponse.class );
-			
-			String responseEntity = response.getEntity(String.class).toString();
-			int responseStatus = response.getStatus();
-			
-			logger.trace("POST to {} returned status code {}, returned data: {}",
-					finalUrl, responseStatus,
-			        responseEntity);
-			
-			// first check if the http code was ok
-			HttpStatusCodes httpStatusCodes = HttpStatusCodes.getHttpStatusCode(responseStatus);
-			if (!httpStatusCodes.isOk()){
-				if (httpStatusCodes == HttpStatusCodes.FORBIDDEN){
-					logger.error(HttpErrorMessages.getHttpErrorText(httpStatusCodes.getErrorCode()));
-				} else {
-					logger.error("Error {} sending data to {}: {} ", response.getStatus(), finalUrl, HttpErrorMessages.getHttpErrorText(httpStatusCodes.getErrorCode()));
-				}
-			} else {
-				/*
-				 * Structure of the JSON response
-				 	{
-					  "commit" : "http://localhost:7474/db/data/transaction/1/commit",
-					  "results" : [ {
-					    "columns" : [ "n" ],
-					    "data" : [ {
-					      "rest" : [ {
-					        "labels" : "http://localhost:7474/db/data/node/12/labels",
-					        "outgoing_relationships" : "http://localhost:7474/db/data/node/12/relationships/out",
-					        "all_typed_relationships" : "http://localhost:7474/db/data/node/12/relationships/all/{-list|&|types}",
-					        "traverse" : "http://localhost:7474/db/data/node/12/traverse/{returnType}",
-	--> location of node	"self" : "http://localhost:7474/db/data/node/12",
-					        "property" : "http://localhost:7474/db/data/node/12/properties/{key}",
-					        "outgoing_typed_relationships" : "http://localhost:7474/db/data/node/12/relationships/out/{-list|&|types}",
-					        "properties" : "http://localhost:7474/db/data/node/12/properties",
-					        "incoming_relationships" : "http://localhost:7474/db/data/node/12/relationships/in",
-					        "create_relationship" : "http://localhost:7474/db/data/node/12/relationships",
-					        "paged_traverse" : "http://localhost:7474/db/data/node/12/paged/traverse/{returnType}{?pageSize,leaseTime}",
-					        "all_relationships" : "http://localhost:7474/db/data/node/12/relationships/all",
-					        "incoming_typed_relationships" : "http://localhost:7474/db/data/node/12/relationships/in/{-list|&|types}",
-					        "metadata" : {
-	--> id of the node        "id" : 12,
-					          "labels" : [ ]
-					        },
-					        "data" : {
-					        }
-					      } ]
-					    } ]
-					  } ],
-					  "transaction" : {
-					    "expires" : "Tue, 30 Sep 2014 06:16:54 +0000"
-					  },
-					  "errors" : [ ]
-					}
-				 */
-				
-				// now do the check on json details within the returned JSON object
-				JSONParser reponseParser = new JSONParser();
-				Object responseObj = reponseParser.parse(responseEntity);
-				JSONObject jsonResponseObj = responseObj instanceof JSONObject ?(JSONObject) responseObj : null;
-				if(jsonResponseObj == null)
-					throw new ParseException(0, "returned json object is null");
-				
-				//	CREATE statement for nodes
-				//	{
-				//		"commit":"http://localhost:7474/db/data/transaction/16/commit",
-				//		"results":[
-				//			{
-				//				"columns":[],
-				//				"data":[]			<-- contains a rest and a nested self object with the location
-				//			}
-				//		],
-				//		"transaction":
-				//			{
-				//				"expires":"Wed, 03 Dec 2014 16:20:03 +0000"
-				//			},
-				//		"errors":[]
-				//	}
-/*
-				try {
-					// try for CREATE node
-					nodeLocation = new URI(
-											(String)(
-													(JSONObject)(
-															(JSONArray)(
-																	(JSONObject)(
-																			(JSONArray)(
-																					(JSONObject)(
-																							(JSONArray)jsonResponseObj.get("results")
-																					).get(0)
-																			).get("data")
-																	).get(0)
-															).get("rest")
-													).get(0)
-											).get("self")
-										);
-					logger.trace("nodeLocation is {}", nodeLocation);
-				} catch (Exception e) {
-					e.printStackTrace();
-					try {
-						// try for MATCH and CREATE relationship
-						//								{
-						//										"errors":[],
-						//										"results":[
-						//													{
-						//														"data":[],
-						//														"columns":["p"]		<-- contains the location
-						//													}
-						//										],
-						//										"transaction":{
-						//											"expires":"Wed, 03 Dec 2014 16:20:03 +0000"
-						//										},
-						//										"commit":"http:\/\/localhost:7474\/db\/data\/transaction\/16\/commit"
-						//								}
-						nodeLocation = new URI(
-												(String)(
-														(JSONObject)(
-																(JSONArray)(
-																		(JSONObject)(
-																				(JSONArray)(
-																						(JSONObject)(
-																								(JSONArray)jsonResponseObj.values() //.get("results")
-																						).get(0)
-																				).get("p")
-																		).get(0)
-																).get("columns")
-														).get(0)
-												).get("results")
-											);
-						logger.trace("nodeLocation is {}", nodeLocation);
-					} catch (Exception e1) {
-						e1.printStackTrace();
-						logger.warn("{} statement did not return a self object, returning null -- error was {}", payload.substring(32, 38), e1.getMessage());
-						nodeLocation = null;
-					}
-				}
-*/
-				/*
-				JSONArray errors = (JSONArray)jsonResponseObj.get("errors");
-				logger.trace("errors is {}", errors.toString());
-				if (errors.size() > 0) {
-					JSONObject error = (JSONObject) errors.get(0);
-					logger.debug("error-object: {}", error.toString());
-				}
-				
-				// if the error array has only the [] brackets, it's ok
-				if (errors.size() <= 2 && self != null) {
-					logger.debug("{} cypher statement executed successfully at location {}, returning {}", payload.substring(32, 38), finalUrl, self);
-					nodeLocation = new URI(self);
-				} else {
-					if (errors.size() > 2) {
-						logger.error("ERROR :: {} - could not execute {} cypher statement at location {}", errors, payload.substring(32, 38), finalUrl);
-					} else {
-						logger.debug("{} returned no error, but also no node found, returning null", payload.substring(32, 38));
-						nodeLocation = null;
-					}
-				}
-				*/
-			}
-			response.close();
-			
-		} catch(Exception e) {
-			logger.error("EXCEPTION :: failed to create node - {}", e.getMessage());
-			e.printStackTrace();
-		}
-		return nodeLocation;
+	public boolean createNodeObjects(List<JSONObject> nodeObjects){
+		CypherBatch batch = new CypherBatch();
+		for (JSONObject nodeObject : nodeObjects)
+			batch.addNodeObject(nodeObject);
+		return commitBatch(batch);
 	}
 	
 	
 	
-	
-	
 	/**
 	 * 
-	 * @description checks if a given relationship between two node exists and if not, creates it
+	 * @description	sends all statements of the batch in one request to the commit url of the
+	 * 				transactional endpoint. The server opens a transaction, executes the 
+	 * 				statements in order and commits - or rolls back all of them if one fails
 	 * 
-	 * @param 		sourceJsonMatch - the json string fragment to identify the source node
-	 * @param 		targetJsonMatch	- the json string fragment to identify the target node 
-	 * @param 		relType			- the type of the relationship as provided in the enum
-	 * @param 		targetUri		- the URI of an open transaction
-	 * @return		URI				- the URI of a new relationship or null
-	 * 
-	 */
-	public URI matchAndMergeRelationshipTransactional(String sourceJsonMatch, String targetJsonMatch, GraphRelationshipTypes relType, URI transactLoc){
-		URI relationshipLocation = null;
-		try {
-			// MATCH (a:Person {name: "Bob"}), (b:Person {name: "Susan"}) 
-			// MERGE (a)-[r:knows]->(b)
-			
-			// MATCH  (a:"+sourceJsonMatch+"), (b:"+targetJsonMatch+") 
-			// MERGE (a)-[r:"+relType+"]->(b) 
-			String cypherAscii = "MATCH (a: "+sourceJsonMatch+")-[r:"+relType+"]->(b: "+targetJsonMatch+")";
-			String cypherStatement = "\""
-									+ "MATCH (a:"+sourceJsonMatch+"), "
-									+ "(b:"+targetJsonMatch+") "
-									+ "MERGE (a)-[r:"+relType+"]->(b)"
-									+ "\"";
-			
-			logger.trace("query if relationship {} exists and if not, create it", cypherAscii);
-			relationshipLocation = sendTransactionalCypherStatement(cypherStatement, transactLoc);
-			
-		} catch (Exception e) {
-			logger.error("EXCEPTION :: failed to execute query - {}", e.getMessage());
-			e.printStackTrace();
-		}
-		return relationshipLocation;
-	}
-	
-	/**
+	 * @param		batch
+	 * @return		true if the transaction was committed
 	 * 
-	 * @param cypherStatement
-	 * @param endpointLoc
-	 * @return
 	 */
-	public URI getNodeLocationTransactional(String cypherStatement, URI endpointLoc){
-		URI nodeLocation = null;
-		String self = null;
+	private boolean commitBatch(CypherBatch batch) {
+		if (batch.isEmpty())
+			return true;
+		
+		String commitUrl = dbServerUrl + nco.getDataLocation() + nco.getTransactionCommitLoc();
 		try {
-			//+ "MATCH (n {" + field + " : " + id + ", type : \"" + type + "\" }) RETURN n"
-			String payload = "{\"statements\": "
-					+ "[ "
-						+ "{\"statement\": "
-							+ cypherStatement
-							+ ", \"resultDataContents\":[\"REST\"]"
-						+ "} "
-					+ "] "
-				+ "}";
-			
+			logger.debug("sending {} cypher statements with {} rows to {}", batch.size(), batch.getRowCount(), commitUrl);
+			String payload = batch.toJson();
+			logger.trace("    payload {}", payload);
 			
-			logger.debug("sending {} cypher {} ", payload.substring(32, 38), payload);
-			logger.trace("    endpoint {}", endpointLoc);
-			WebResource resource = Client.create().resource( endpointLoc );
-			
-			ClientResponse response = resource
+			ClientResponse response = client.resource( commitUrl )
 					.accept( MediaType.APPLICATION_JSON )
-	                .type( MediaType.APPLICATION_JSON )
-			        .entity( payload )
-			        .get(ClientResponse.class);
-			        //.post( ClientResponse.class );
-			
-			String responseEntity = response.getEntity(String.class).toString();
+					.type( MediaType.APPLICATION_JSON )
+					.entity( payload )
+					.post( ClientResponse.class );
+			// reading the entity completely lets the connection go back to the pool
+			String responseEntity = response.getEntity(String.class);
 			int responseStatus = response.getStatus();
-			logger.trace("GET to {} returned status code {}, returned data: {}",
-					endpointLoc, responseStatus,
-			        responseEntity);
+			response.close();
 			
-			// first check if the http code was ok
 			HttpStatusCodes httpStatusCodes = HttpStatusCodes.getHttpStatusCode(responseStatus);
 			if (!httpStatusCodes.isOk()){
-				if (httpStatusCodes == HttpStatusCodes.FORBIDDEN){
-					logger.error(HttpErrorMessages.getHttpErrorText(httpStatusCodes.getErrorCode()));
-				} else {
-					logger.error("Error {} sending data to {}: {} ", response.getStatus(), endpointLoc, HttpErrorMessages.getHttpErrorText(httpStatusCodes.getErrorCode()));
-				}
-			} else {
-				// now do the check on json details within the returned JSON object
-				JSONParser reponseParser = new JSONParser();
-				Object responseObj = reponseParser.parse(responseEntity);
-				JSONObject jsonResponseObj = responseObj instanceof JSONObject ?(JSONObject) responseObj : null;
-				if(jsonResponseObj == null)
-					throw new ParseException(0, "returned json object is null");
-				
-				logger.trace("returned response {}", jsonResponseObj.toString());
-				
-				try {
-					nodeLocation = new URI((String)((JSONObject)((JSONArray)((JSONObject)((JSONArray)((JSONObject)((JSONArray)jsonResponseObj.get("results")).get(0)).get("data")).get(0)).get("rest")).get(0)).get("self"));
-				} catch (Exception e) {
-					logger.warn("{} statement did not return a self object, returning null -- error was {}", payload.substring(32, 38), e.getMessage());
-					nodeLocation = null;
-				}
-				
-				/*
-				JSONArray errors = (JSONArray)jsonResponseObj.get("errors");
-				logger.trace("errors is {}", errors.toString());
-				if (errors.size() > 0) {
-					JSONObject error = (JSONObject) errors.get(0);
-					logger.debug("error-object: {}", error.toString());
-				}
-				
-				
-				// if the error array has only the [] brackets, it's ok
-				if (errors.size() <= 2 && self != null) {
-					logger.debug("{} cypher statement executed successfully at location {}, returning {}", payload.substring(32, 38), endpointLoc, self);
-					nodeLocation = new URI(self);
-				} else {
-					if (errors.size() > 2) {
-						logger.error("ERROR :: {} - could not execute {} cypher statement at location {}", errors, payload.substring(32, 38), endpointLoc);
-					} else {
-						logger.debug("{} returned no error, but also no node found, returning null", payload.substring(32, 38));
-						nodeLocation = null;
-					}
-				}
-				*/
+				logger.error("Error {} sending data to {}: {} ", responseStatus, commitUrl, HttpErrorMessages.getHttpErrorText(httpStatusCodes.getErrorCode()));
+				return false;
 			}
-		} catch (Exception e) {
-			logger.error("EXCEPTION :: failed to execute query - {}", e.getMessage());
-			e.printStackTrace();
-		}
-		return nodeLocation;
-	}
-	
-	
-	
-	/**
-	 * 
-	 * @param cypherStatement
-	 * @param endpointLoc
-	 * @return
-	 */
-	public JSONObject getNodeObjectTransactional(String cypherStatement, URI endpointLoc){
-		JSONObject node = new JSONObject();
-		try {
-			//+ "MATCH (n {" + field + " : " + id + ", type : \"" + type + "\" }) RETURN n"
-			String payload = "{\"statements\": "
-					+ "[ "
-						+ "{\"statement\": "
-							+ cypherStatement
-							+ ", \"resultDataContents\":[\"REST\"]"
-						+ "} "
-					+ "] "
-				+ "}";
-			
-			
-			logger.debug("sending {} cypher {} ", payload.substring(32, 38), payload);
-			logger.trace("    endpoint {}", endpointLoc);
-			WebResource resource = Client.create().resource( endpointLoc );
-			
-			ClientResponse response = resource
-					.accept( MediaType.APPLICATION_JSON )
-	                .type( MediaType.APPLICATION_JSON )
-			        .entity( payload )
-			        .get(ClientResponse.class);
-			        //.post( ClientResponse.class );
 			
-			String responseEntity = response.getEntity(String.class).toString();
-			int responseStatus = response.getStatus();
-			logger.trace("GET to {} returned status code {}, returned data: {}",
-					endpointLoc, responseStatus,
-			        responseEntity);
+			Object responseObj = new JSONParser().parse(responseEntity);
+			JSONObject jsonResponseObj = responseObj instanceof JSONObject ?(JSONObject) responseObj : null;
+			if(jsonResponseObj == null)
+				throw new ParseException(0, "returned json object is null");
 			
-			// first check if the http code was ok
-			HttpStatusCodes httpStatusCodes = HttpStatusCodes.getHttpStatusCode(responseStatus);
-			if (!httpStatusCodes.isOk()){
-				if (httpStatusCodes == HttpStatusCodes.FORBIDDEN){
-					logger.error(HttpErrorMessages.getHttpErrorText(httpStatusCodes.getErrorCode()));
-				} else {
-					logger.error("Error {} sending data to {}: {} ", response.getStatus(), endpointLoc, HttpErrorMessages.getHttpErrorText(httpStatusCodes.getErrorCode()));
-				}
-			} else {
-				// now do the check on json details within the returned JSON object
-				JSONParser reponseParser = new JSONParser();
-				Object responseObj = reponseParser.parse(responseEntity);
-				JSONObject jsonResponseObj = responseObj instanceof JSONObject ?(JSONObject) responseObj : null;
-				if(jsonResponseObj == null)
-					throw new ParseException(0, "returned json object is null");
-				
-				logger.trace("returned response {}", jsonResponseObj.toString());
-				
-				node = jsonResponseObj;
+			JSONArray errors = (JSONArray) jsonResponseObj.get("errors");
+			if (errors != null && !errors.isEmpty()) {
+				logger.error("ERROR :: transaction with {} cypher statements was rolled back - {}", batch.size(), errors.toJSONString());
+				return false;
 			}
-		} catch (Exception e) {
-			logger.error("EXCEPTION :: failed to execute query - {}", e.getMessage());
-			e.printStackTrace();
+			logger.debug("committed {} cypher statements in one transaction", batch.size());
+			return true;
+		} catch(Exception e) {
+			logger.error("EXCEPTION :: failed to commit {} cypher statements - {}", batch.size(), e.getMessage());
+			return false;
 		}
-		return node;
 	}
 	
 	
@@ -1095,7 +254,7 @@ public class Neo4JPersistence implements IGraphPersistenceManager {
 		t.setRelationships(new Relation(relation.toString(), Relation.OUT));
 		
 		URI traverserUri = new URI( startNode.toString() + "/traverse/node" );
-		WebResource resource = Client.create()
+		WebResource resource = client
 								.resource(traverserUri);
 		String jsonTraverserPayload = t.toJson();
 		ClientResponse response = resource.accept( MediaType.APPLICATION_JSON )
@@ -1116,75 +275,6 @@ public class Neo4JPersistence implements IGraphPersistenceManager {
     }
 	
 	
-	/**
-	 * 
-	 * @description	starts a new transaction and returns the end point to it
-	 * 				this method must be executed first when interacting with the neo4j 
-	 * 				graph database in a transactional way
-	 * 
-	 * @return		URI new transaction endpoint
-	 * 
-	 */
-	private URI startTransaction(){
-		URI transactionLocation=null;
-		
-		try{
-			dbServerUrl = nco.getProtocol() + "://" + nco.getHost() + ":" + nco.getPort();
-			transactionUrl = dbServerUrl + "/db/data" + "/transaction";
-			String finalUrl = transactionUrl;
-			
-			//String payload = "";
-				    
-			logger.debug("opening transaction at endpoint {}", finalUrl);
-			WebResource resource = Client.create().resource( finalUrl );
-			
-			ClientResponse response = resource
-					.accept( MediaType.APPLICATION_JSON )
-	                .type( MediaType.APPLICATION_JSON )
-			        //.entity( payload )
-			        .post( ClientResponse.class );
-			
-			transactionLocation = response.getLocation();
-			logger.trace("opened transaction is at location {}", transactionLocation);
-			
-			response.close();
-			
-		} catch(Exception e) {
-			logger.error("EXCEPTION :: failed to open transaction - {}", e.getMessage());
-			e.printStackTrace();
-		}
-		
-		return transactionLocation;
-	}
-	
-	
-	/**
-	 * 
-	 * @description commits the transaction at the given endpoint
-	 * @param 		URI transaction location
-	 * 
-	 */
-	private void commitTransaction(URI transactLoc) {
-		try{
-			String finalUrl = transactLoc + "/commit";
-				    
-			logger.debug("committing transaction at endpoint {}", finalUrl);
-			WebResource resource = Client.create().resource( finalUrl );
-			
-			ClientResponse response = resource
-					.accept( MediaType.APPLICATION_JSON )
-	                .type( MediaType.APPLICATION_JSON )
-			        //.entity( payload )
-			        .post( ClientResponse.class );
-			
-			response.close();
-			
-		} catch(Exception e) {
-			logger.error("EXCEPTION :: failed to commit transaction - {}", e.getMessage());
-			e.printStackTrace();
-		}
-	}
-	
 	
 	/**
 	 * @description receives a geoLocation URL and returns the ID
@@ -1259,7 +349,7 @@ public class Neo4JPersistence implements IGraphPersistenceManager {
 			// direct call
 			logger.debug("sending {} cypher {} ", payload.substring(32, 38), payload);
 			logger.trace("    endpoint {}", finalUrl);
-			WebResource resource = Client.create().resource( finalUrl );
+			WebResource resource = client.resource( finalUrl );
 			
 			ClientResponse response = resource
 					.accept( MediaType.APPLICATION_JSON )
@@ -1334,7 +424,7 @@ public class Neo4JPersistence implements IGraphPersistenceManager {
 			String cypherStatement = "MATCH (r {'"+sourceNode+"'})-["+relType+"]->('"+targetNode+"') RETURN r";
 			
 			logger.trace("querying if relationship of type {} exists between node {} and node {}", relType, sourceNode, targetNode);
-			WebResource resource = Client.create().resource( sourceNode );
+			WebResource resource = client.resource( sourceNode );
 			
 			ClientResponse response = resource
 					.accept( MediaType.APPLICATION_JSON )
@@ -1389,7 +479,7 @@ public class Neo4JPersistence implements IGraphPersistenceManager {
         String propertyUri = nodeUri.toString() + "/properties/" + propertyName;
         // http://localhost:7474/db/data/node/{node_id}/properties/{property_name}
 
-        WebResource resource = Client.create()
+        WebResource resource = client
                 .resource( propertyUri );
         ClientResponse response = resource.accept( MediaType.APPLICATION_JSON )
                 .type( MediaType.APPLICATION_JSON )
@@ -1408,7 +498,7 @@ public class Neo4JPersistence implements IGraphPersistenceManager {
             String name, String value ) throws URISyntaxException{
         URI propertyUri = new URI( relationshipUri.toString() + "/properties" );
         String entity = toJsonNameValuePairCollection( name, value );
-        WebResource resource = Client.create()
+        WebResource resource = client
                 .resource( propertyUri );
         ClientResponse response = resource.accept( MediaType.APPLICATION_JSON )
                 .type( MediaType.APPLICATION_JSON )
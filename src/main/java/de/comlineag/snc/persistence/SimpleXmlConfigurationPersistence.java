@@ -13,22 +13,15 @@ import de.comlineag.snc.constants.SocialNetworks;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.io.File;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.xpath.XPath;
-import javax.xml.xpath.XPathConstants;
-import javax.xml.xpath.XPathFactory;
+import javax.xml.parsers.ParserConfigurationException;
 
-import org.w3c.dom.Document;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
 
 /**
  * @author		Christian Guenther
  * @category	Persistence manager
- * @version		0.8a			- 14.10.2014
+ * @version		0.9				- 17.10.2026
  * @status		productive but some functions are missing
  * 
  * @description	A configuration manager for the crawler using structured xml files for the configuration
@@ -48,6 +41,9 @@ import org.w3c.dom.NodeList;
  * 				0.7				added parts from RuntimeConfiguration (domain and customer)
  * 				0.8				Added support for getRunState
  * 				0.8a			changed access to runtime configuration to non-static
+ * 				0.9				the configuration file is read once into an XmlConfigurationIndex (shared
+ * 								via XmlConfigurationCache and reloaded on change) instead of parsing it
+ * 								and evaluating xpath expressions on every call
  *  
  */
 public class SimpleXmlConfigurationPersistence<T> implements IConfigurationManager<T>  {
@@ -70,58 +66,28 @@ public class SimpleXmlConfigurationPersistence<T> implements IConfigurationManag
 	private JSONObject crawlerConfigurationScope = new JSONObject();
 	
 	// convenience variables to make the code easier to read and reduce number of calls to RuntimeConfiguration
-	private final String configurationsKey = rtc.getStringValue("RootIdentifier", "XmlLayout");
-	private final String configurationKey = rtc.getStringValue("SingleConfigurationIdentifier", "XmlLayout");
-	private final String scopeKey = rtc.getStringValue("ScopeIdentifier", "XmlLayout");
 	private final String domainKey = rtc.getStringValue("DomainIdentifier", "XmlLayout");
-	//private final String domainNameKey = rtc.getStringValue("DomainNameIdentifier", "XmlLayout");
-	//private final String domainStructureKey = rtc.getStringValue("DomainStructureIdentifier", "XmlLayout");
-	//private final String allDomainsKey = rtc.getStringValue("DomainNameForAllValue", "XmlLayout");
 	private final String customerKey = rtc.getStringValue("CustomerIdentifier", "XmlLayout");
-	//private final String customerNameKey = rtc.getStringValue("CustomerNameIdentifier", "XmlLayout");
-	//private final String allCustomerKey = rtc.getStringValue("CustomerNameForAllValue", "XmlLayout");
-	//private final String constraintsKey = rtc.getStringValue("ConstraintIdentifier", "XmlLayout");
 	private final String scopeOnAllKey = rtc.getStringValue("ScopeOnAllvalue", "XmlLayout");
-	private final String singleConstraintKey = rtc.getStringValue("SingleConstraintIdentifier", "XmlLayout");
-	private final String valueKey = rtc.getStringValue("ValueIdentifier", "XmlLayout");
-	private final String configFileTypeKey = rtc.getStringValue("ConfigFileTypeIdentifier", "XmlLayout");
-	private final String crawlerRunKey = rtc.getStringValue("CrawlerRunIdentifier", "XmlLayout");
 
 
 	
 	@Override
 	public boolean getRunState(String socialNetwork) {
-		String expression = null;
-		Node node = null;
-		
 		try {
-			File file = new File(getConfigDbHandler());
-			DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
-			DocumentBuilder db = dbf.newDocumentBuilder();
-			Document doc = db.parse(file);
-			
-			XPathFactory xPathfactory = XPathFactory.newInstance();
-			XPath xpath = xPathfactory.newXPath();
-			
-			expression = "//"+configurationsKey+"/"
-							+configurationKey
-								+"[@"+scopeKey+"='"+crawlerRunKey+"']/"
-							+"crawler"
-								+"[@name='"+socialNetwork+"']";
-		
-			node = (Node) xpath.compile(expression).evaluate(doc, XPathConstants.NODE);
-			if (node == null) {
+			String runState = getIndex().getRunState(socialNetwork);
+			if (runState == null) {
 				logger.trace("CrawlerRun for network "+socialNetwork+" could not be found - returning true");
 				return true;
 			} else {
-				logger.trace("CrawlerRun for network "+socialNetwork+" is set to " + node.getTextContent());
+				logger.trace("CrawlerRun for network "+socialNetwork+" is set to " + runState);
 				
 				// only and only if there actually is a false, we return false. 
-				if ("false".equals(node.getTextContent()))
+				if ("false".equals(runState))
 					return false;
 			}
 		} catch (Exception e) {
-			logger.warn("WARNING :: could not parse configuration file "+getConfigDbHandler()+" using expression "+expression+" - returning true.");
+			logger.warn("WARNING :: could not parse configuration file "+getConfigDbHandler()+" - returning true.");
 			e.printStackTrace();
 			
 			return true;
@@ -183,37 +149,15 @@ public class SimpleXmlConfigurationPersistence<T> implements IConfigurationManag
 		logger.debug("reading " + section + "-constraints for network " + SocialNetworks.getSocialNetworkConfigElement("name", SN) + " from configuration file " + getConfigDbHandler().substring(getConfigDbHandler().lastIndexOf("/")+1));
 		
 		try {
-			File file = new File(getConfigDbHandler());
-			DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
-			DocumentBuilder db = dbf.newDocumentBuilder();
-			Document doc = db.parse(file);
-			
-			XPathFactory xPathfactory = XPathFactory.newInstance();
-			XPath xpath = xPathfactory.newXPath();
+			XmlConfigurationIndex index = getIndex();
 			
 			// first step is to get all general constraints 
-			String expression = "/"+configurationsKey+"/"
-									+configurationKey
-										+"[@"+scopeKey+"='"+scopeOnAllKey+"']/"
-									+singleConstraintKey+"/"
-									+section+"/"
-									+valueKey;
-			NodeList nodeList = (NodeList) xpath.compile(expression).evaluate(doc, XPathConstants.NODESET);
-			logger.trace("found " + nodeList.getLength() + " elements using expression " + expression + ": \r");
-			for (int i = 0 ; i < nodeList.getLength() ; i++) 
-				ar.add((T) nodeList.item(i).getTextContent());
+			for (String value : index.getConstraints(scopeOnAllKey, null, null, section))
+				ar.add((T) value);
 			
 			// second step is to get all constraints for the specified social network 
-			expression = "/"+configurationsKey+"/"
-							+configurationKey
-								+"[@"+scopeKey+"='"+SN+"']/"
-							+singleConstraintKey+"/"
-							+section+"/"
-							+valueKey;
-			nodeList = (NodeList) xpath.compile(expression).evaluate(doc, XPathConstants.NODESET);
-			logger.trace("found " + nodeList.getLength() + " elements using expression " + expression + " ");
-			for (int i = 0 ; i < nodeList.getLength() ; i++)
-				ar.add((T) nodeList.item(i).getTextContent());
+			for (String value : index.getConstraints(SN, null, null, section))
+				ar.add((T) value);
 			
 			logger.trace("    " + ar.toString());
 		} catch (IOException e) {
@@ -321,32 +265,16 @@ public class SimpleXmlConfigurationPersistence<T> implements IConfigurationManag
 	// check to see, if provided configuration file is correct for chosen configuration manager
 	public boolean isConfigFileCorrect(){
 		try {
-			File file = new File(getConfigDbHandler());
-			
-			DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
-			DocumentBuilder db = dbf.newDocumentBuilder();
-			Document doc = db.parse(file);
-			
-			XPathFactory xPathfactory = XPathFactory.newInstance();
-			XPath xpath = xPathfactory.newXPath();
-			
-			String expression = null;
-			Node node = null; 
-			expression = "/"+configurationsKey+"/"
-							+configurationKey
-								+"[@"+scopeKey+"='"+configFileTypeKey+"']"
-							+ "/type";
-										
-			node = (Node) xpath.compile(expression).evaluate(doc, XPathConstants.NODE);
-			if (node == null) {
-				logger.error("Did not receive any information using expression " + expression);
+			String fileType = getIndex().getFileType();
+			if (fileType == null) {
+				logger.error("Did not receive any information on the type of configuration file " + getConfigDbHandler());
 				return false;
 			} else {
-				if (this.getClass().getSimpleName().equals(node.getTextContent())) {
-					logger.debug("provied xml configuration file is of type " + node.getTextContent());
+				if (this.getClass().getSimpleName().equals(fileType)) {
+					logger.debug("provied xml configuration file is of type " + fileType);
 					return true;
 				} else {
-					logger.error("ERROR :: wrong type of configuration file provided. I need "+this.getClass().getSimpleName()+" but got "+node.getTextContent()+". Check applicationContext.xml to see, if the configuration persistence manager is pointed to the right file");
+					logger.error("ERROR :: wrong type of configuration file provided. I need "+this.getClass().getSimpleName()+" but got "+fileType+". Check applicationContext.xml to see, if the configuration persistence manager is pointed to the right file");
 					return false;
 				}
 			}
@@ -354,4 +282,9 @@ public class SimpleXmlConfigurationPersistence<T> implements IConfigurationManag
 			return false;
 		}
 	}
+	
+	// the configuration file is read once and then served from memory until it changes
+	private XmlConfigurationIndex getIndex() throws IOException, ParserConfigurationException, SAXException {
+		return XmlConfigurationCache.getInstance().getIndex(getConfigDbHandler());
+	}
 }
@@ -0,0 +1,115 @@
+package de.comlineag.snc.persistence;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xml.sax.SAXException;
+
+/**
+ *
+ * @author		Christian Guenther
+ * @category	Persistence manager
+ * @version		0.1				- 17.10.2026
+ * @status		productive
+ *
+ * @description	keeps one XmlConfigurationIndex per crawler configuration file for the xml
+ * 				configuration managers. A file is read when it is asked for the first time and
+ * 				read again when its modification time changed - this is checked at most every
+ * 				MODIFICATION_CHECK_INTERVAL milliseconds. The new index replaces the old one in
+ * 				one step, so a caller either sees the old or the new file, never a mix of both.
+ * 				If a changed file can't be read (e.g. because it is just being written), the old
+ * 				index is kept and the file is tried again after the next interval.
+ *
+ * @changelog	0.1 (Chris)		class created
+ *
+ */
+public final class XmlConfigurationCache implements XmlConfigurationCacheMBean {
+	private final Logger logger = LoggerFactory.getLogger(getClass().getName());
+
+	// singleton design pattern using Initialization-on-demand holder idiom,
+	private static class Holder { static final XmlConfigurationCache instance = new XmlConfigurationCache(); }
+	public static XmlConfigurationCache getInstance() { return Holder.instance; }
+
+	// how often the configuration files are checked for changes
+	private static final long MODIFICATION_CHECK_INTERVAL = 5000;
+
+	private final ConcurrentMap<String, XmlConfigurationIndex> indices = new ConcurrentHashMap<String, XmlConfigurationIndex>();
+	private final AtomicLong reloadCount = new AtomicLong();
+	private final AtomicLong failedReloads = new AtomicLong();
+	private volatile long lastReloadTime = 0;
+
+	private XmlConfigurationCache() {}
+
+	/**
+	 * @description	returns the index of the configuration file, reading the file if needed
+	 * @param 		configFile	full qualified path of the file
+	 * @return		the index
+	 * @throws		IOException, ParserConfigurationException, SAXException if the file can't be read
+	 * 				and there is no previous index of it
+	 */
+	public XmlConfigurationIndex getIndex(String configFile) throws IOException, ParserConfigurationException, SAXException {
+		XmlConfigurationIndex index = indices.get(configFile);
+		if (index != null && !index.isStale(MODIFICATION_CHECK_INTERVAL))
+			return index;
+
+		synchronized (indices) {
+			// another thread may have reloaded the file while we were waiting
+			XmlConfigurationIndex current = indices.get(configFile);
+			if (current != null && current != index)
+				return current;
+
+			try {
+				current = XmlConfigurationIndex.load(new File(configFile));
+			} catch (IOException | ParserConfigurationException | SAXException e) {
+				if (index == null)
+					throw e;
+				failedReloads.incrementAndGet();
+				logger.error("ERROR :: could not read changed configuration file " + configFile + " - keeping the previous configuration: " + e.getLocalizedMessage());
+				return index;
+			}
+			indices.put(configFile, current);
+			reloadCount.incrementAndGet();
+			lastReloadTime = System.currentTimeMillis();
+
+			if (index != null)
+				logger.info("configuration file " + configFile + " changed on disk - reloaded " + current.getConstraintCount() + " constraints");
+			else
+				logger.debug("indexed configuration file {} with {} constraints", configFile, current.getConstraintCount());
+			return current;
+		}
+	}
+
+	/**
+	 * @description	drops all indices, so that every configuration file is read again on
+	 * 				the next access. Can be called via JMX.
+	 */
+	@Override
+	public void reload() {
+		logger.info("dropping all crawler configuration indices on request");
+		indices.clear();
+	}
+
+	// statistics of the indices - exposed via JMX
+	@Override
+	public int getIndexedFiles()		{ return indices.size(); }
+	@Override
+	public long getReloadCount()		{ return reloadCount.get(); }
+	@Override
+	public long getFailedReloads()		{ return failedReloads.get(); }
+	@Override
+	public long getLastReloadTime()		{ return lastReloadTime; }
+	@Override
+	public int getConstraintCount() {
+		int count = 0;
+		for (XmlConfigurationIndex index : indices.values())
+			count += index.getConstraintCount();
+		return count;
+	}
+}
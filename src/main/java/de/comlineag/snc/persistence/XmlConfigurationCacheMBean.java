@@ -0,0 +1,30 @@
+package de.comlineag.snc.persistence;
+
+/**
+ *
+ * @author 		Christian Guenther
+ * @category	interface
+ * @revision	0.1				- 17.10.2026
+ * @status		productive
+ *
+ * @description	management interface of the XmlConfigurationCache. It is exported via the
+ * 				MBeanExporter in applicationContext.xml and shows when the crawler configuration
+ * 				files were (re)indexed. It also allows to force a reload of all files.
+ *
+ * @changelog	0.1 (Chris)		interface created
+ *
+ */
+public interface XmlConfigurationCacheMBean {
+	// number of configuration files currently indexed
+	public int getIndexedFiles();
+	// number of constraint values in all indexed files
+	public int getConstraintCount();
+	// number of times a configuration file was (re)indexed
+	public long getReloadCount();
+	// number of times a changed file could not be indexed and the previous index was kept
+	public long getFailedReloads();
+	// time stamp of the last (re)index in milliseconds since epoch
+	public long getLastReloadTime();
+	// drops all indices - every configuration file is read again on next access
+	public void reload();
+}
@@ -0,0 +1,344 @@
+package de.comlineag.snc.persistence;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+import de.comlineag.snc.appstate.RuntimeConfiguration;
+
+/**
+ *
+ * @author		Christian Guenther
+ * @category	Persistence manager
+ * @version		0.1				- 17.10.2026
+ * @status		productive
+ *
+ * @description	the content of one crawler configuration xml file, read once and kept in memory.
+ * 				The constraints are indexed by (section, owner, network, category), where section
+ * 				is the scope of the configuration element (domain, customer or - in the simple
+ * 				layout - the network itself), owner the name of the domain or customer and network
+ * 				the scope of the constraints element. So every lookup the configuration managers
+ * 				used to do with an xpath expression on the parsed file is now one map lookup.
+ * 				Values are kept in the order of the file and, just like the xpath queries, the
+ * 				first entry wins where only a single value is asked for.
+ * 				An index is immutable - a changed file results in a new index (see
+ * 				XmlConfigurationCache).
+ *
+ * @changelog	0.1 (Chris)		class created
+ *
+ */
+public final class XmlConfigurationIndex {
+
+	private final String file;
+	private final long lastModified;
+	private final long loadedAt;
+
+	private final String fileType;
+	private final String domain;
+	private final Map<String, String> runStates;
+	private final Map<List<String>, String> structure;
+	private final Map<ConstraintKey, List<String>> constraints;
+	private final int constraintCount;
+
+	// when did we last compare the modification time of the file with the one of the index
+	private volatile long lastChecked;
+
+	private XmlConfigurationIndex(Builder builder) {
+		this.file = builder.file;
+		this.lastModified = builder.lastModified;
+		this.loadedAt = System.currentTimeMillis();
+		this.lastChecked = loadedAt;
+		this.fileType = builder.fileType;
+		this.domain = builder.domain;
+		this.runStates = Collections.unmodifiableMap(builder.runStates);
+		this.structure = Collections.unmodifiableMap(builder.structure);
+
+		Map<ConstraintKey, List<String>> frozen = new HashMap<ConstraintKey, List<String>>();
+		int count = 0;
+		for (Map.Entry<ConstraintKey, List<String>> entry : builder.constraints.entrySet()) {
+			frozen.put(entry.getKey(), Collections.unmodifiableList(entry.getValue()));
+			count += entry.getValue().size();
+		}
+		this.constraints = Collections.unmodifiableMap(frozen);
+		this.constraintCount = count;
+	}
+
+	/**
+	 * @description	reads and indexes the configuration file
+	 * @param 		configFile
+	 * @return		the index of the file
+	 */
+	public static XmlConfigurationIndex load(File configFile) throws IOException, ParserConfigurationException, SAXException {
+		long lastModified = configFile.lastModified();
+
+		DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
+		DocumentBuilder db = dbf.newDocumentBuilder();
+		Document doc = db.parse(configFile);
+
+		Builder builder = new Builder(configFile.getPath(), lastModified);
+		builder.index(doc.getDocumentElement());
+		return new XmlConfigurationIndex(builder);
+	}
+
+
+	/**
+	 * @description	returns the constraint values of one category
+	 * @param 		section		scope of the configuration element - e.g. domain or customer
+	 * @param 		owner		name of the domain or customer, null for the simple layout
+	 * @param 		network		scope of the constraints element, null for the simple layout
+	 * @param 		category	e.g. term or blockedterm
+	 * @return		the values in file order - an empty list if there are none
+	 */
+	public List<String> getConstraints(String section, String owner, String network, String category) {
+		List<String> values = constraints.get(new ConstraintKey(section, owner, network, category));
+		return (values != null) ? values : Collections.<String>emptyList();
+	}
+
+	/**
+	 * @description	returns the CrawlerRun setting of the crawler, or null if there is none
+	 */
+	public String getRunState(String crawler) {
+		return runStates.get(crawler);
+	}
+
+	/**
+	 * @description	returns the type of the configuration file, or null if there is none
+	 */
+	public String getFileType() {
+		return fileType;
+	}
+
+	/**
+	 * @description	returns the first domain of the domain structure
+	 */
+	public String getDomain() {
+		return domain;
+	}
+
+	/**
+	 * @description	returns a setting (e.g. isActive or priority) of the domain
+	 */
+	public String getDomainSetting(String domainName, String setting) {
+		return structure.get(Arrays.asList(domainName, setting));
+	}
+
+	/**
+	 * @description	returns the first customer within the domain
+	 */
+	public String getCustomer(String domainName) {
+		return structure.get(Arrays.asList(domainName, (String) null));
+	}
+
+	/**
+	 * @description	returns a setting (e.g. isActive or priority) of the customer within the domain
+	 */
+	public String getCustomerSetting(String domainName, String customerName, String setting) {
+		return structure.get(Arrays.asList(domainName, customerName, setting));
+	}
+
+	/**
+	 * @description	checks - at most once per checkInterval - whether the file was changed since it was indexed
+	 * @param 		checkInterval	in milliseconds
+	 * @return		true if the file has to be indexed again
+	 */
+	boolean isStale(long checkInterval) {
+		long now = System.currentTimeMillis();
+		if (now - lastChecked < checkInterval)
+			return false;
+		lastChecked = now;
+		return new File(file).lastModified() != lastModified;
+	}
+
+	public String getFile() {return file;}
+	public long getLastModified() {return lastModified;}
+	public long getLoadedAt() {return loadedAt;}
+	public int getConstraintCount() {return constraintCount;}
+
+
+	/**
+	 *
+	 * @description	the key of one list of constraint values
+	 *
+	 */
+	private static final class ConstraintKey {
+		private final String section;
+		private final String owner;
+		private final String network;
+		private final String category;
+		private final int hash;
+
+		private ConstraintKey(String section, String owner, String network, String category) {
+			this.section = section;
+			this.owner = owner;
+			this.network = network;
+			this.category = category;
+			this.hash = Objects.hash(section, owner, network, category);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof ConstraintKey))
+				return false;
+			ConstraintKey other = (ConstraintKey) obj;
+			return Objects.equals(section, other.section) && Objects.equals(owner, other.owner)
+					&& Objects.equals(network, other.network) && Objects.equals(category, other.category);
+		}
+	}
+
+
+	/**
+	 *
+	 * @description	walks the document once and collects everything the configuration managers ask for
+	 *
+	 */
+	private static final class Builder {
+		private final RuntimeConfiguration rtc = RuntimeConfiguration.getInstance();
+
+		private final String configurationsKey = rtc.getStringValue("RootIdentifier", "XmlLayout");
+		private final String configurationKey = rtc.getStringValue("SingleConfigurationIdentifier", "XmlLayout");
+		private final String scopeKey = rtc.getStringValue("ScopeIdentifier", "XmlLayout");
+		private final String domainKey = rtc.getStringValue("DomainIdentifier", "XmlLayout");
+		private final String domainNameKey = rtc.getStringValue("DomainNameIdentifier", "XmlLayout");
+		private final String domainStructureKey = rtc.getStringValue("DomainStructureIdentifier", "XmlLayout");
+		private final String customerKey = rtc.getStringValue("CustomerIdentifier", "XmlLayout");
+		private final String customerNameKey = rtc.getStringValue("CustomerNameIdentifier", "XmlLayout");
+		private final String constraintsKey = rtc.getStringValue("ConstraintIdentifier", "XmlLayout");
+		private final String singleConstraintKey = rtc.getStringValue("SingleConstraintIdentifier", "XmlLayout");
+		private final String valueKey = rtc.getStringValue("ValueIdentifier", "XmlLayout");
+		private final String configFileTypeKey = rtc.getStringValue("ConfigFileTypeIdentifier", "XmlLayout");
+		private final String crawlerRunKey = rtc.getStringValue("CrawlerRunIdentifier", "XmlLayout");
+
+		private final String file;
+		private final long lastModified;
+		private String fileType = null;
+		private String domain = null;
+		private final Map<String, String> runStates = new HashMap<String, String>();
+		private final Map<List<String>, String> structure = new HashMap<List<String>, String>();
+		private final Map<ConstraintKey, List<String>> constraints = new HashMap<ConstraintKey, List<String>>();
+
+		private Builder(String file, long lastModified) {
+			this.file = file;
+			this.lastModified = lastModified;
+		}
+
+		private void index(Element root) throws IOException {
+			if (root == null || !configurationsKey.equals(root.getNodeName()))
+				throw new IOException("root element " + configurationsKey + " not found in " + file);
+
+			for (Element configuration : children(root, configurationKey)) {
+				String scope = configuration.getAttribute(scopeKey);
+
+				if (crawlerRunKey.equals(scope)) {
+					// <crawler name="TWITTER">true</crawler>
+					for (Element crawler : children(configuration, "crawler"))
+						putFirst(runStates, crawler.getAttribute("name"), crawler.getTextContent());
+				} else if (configFileTypeKey.equals(scope)) {
+					// <type>ComplexXmlConfigurationPersistence</type>
+					for (Element type : children(configuration, "type"))
+						if (fileType == null)
+							fileType = type.getTextContent();
+				} else if (domainStructureKey.equals(scope)) {
+					for (Element domainStructure : children(configuration, domainStructureKey))
+						for (Element domainElement : children(domainStructure, domainKey))
+							indexDomain(domainElement);
+				} else {
+					// simple layout - the constraints are placed directly in the configuration of a network
+					addConstraints(configuration, scope, null, null);
+
+					// complex layout - the constraints of a domain or customer, per network
+					String nameKey = domainKey.equals(scope) ? domainNameKey : customerNameKey;
+					for (Element owner : children(configuration, scope))
+						for (Element constraintsElement : children(owner, constraintsKey))
+							addConstraints(constraintsElement, scope, owner.getAttribute(nameKey), constraintsElement.getAttribute(scopeKey));
+				}
+			}
+		}
+
+		// <constraint><term><type>String</type><value>SAP</value></term></constraint>
+		private void addConstraints(Element parent, String section, String owner, String network) {
+			for (Element constraint : children(parent, singleConstraintKey)) {
+				for (Element category : children(constraint, null)) {
+					List<Element> values = children(category, valueKey);
+					if (values.isEmpty())
+						continue;
+					ConstraintKey key = new ConstraintKey(section, owner, network, category.getNodeName());
+					List<String> list = constraints.get(key);
+					if (list == null) {
+						list = new ArrayList<String>();
+						constraints.put(key, list);
+					}
+					for (Element value : values)
+						list.add(value.getTextContent());
+				}
+			}
+		}
+
+		private void indexDomain(Element domainElement) {
+			String domainName = domainElement.getAttribute(domainNameKey);
+
+			if (domain == null)
+				domain = firstText(domainElement, valueKey, null);
+			putFirst(structure, Arrays.asList(domainName, "isActive"), firstText(domainElement, "isActive", valueKey));
+			putFirst(structure, Arrays.asList(domainName, "priority"), firstText(domainElement, "priority", valueKey));
+			putFirst(structure, Arrays.asList(domainName, (String) null), firstText(domainElement, customerKey, valueKey));
+
+			for (Element customerElement : children(domainElement, customerKey)) {
+				String customerName = customerElement.getAttribute(customerNameKey);
+				putFirst(structure, Arrays.asList(domainName, customerName, "isActive"), firstText(customerElement, "isActive", valueKey));
+				putFirst(structure, Arrays.asList(domainName, customerName, "priority"), firstText(customerElement, "priority", valueKey));
+			}
+		}
+
+		// the text of the first parent/child/grandchild element (parent/child if grandchild is null)
+		private static String firstText(Element parent, String child, String grandchild) {
+			for (Element c : children(parent, child)) {
+				if (grandchild == null)
+					return c.getTextContent();
+				List<Element> gc = children(c, grandchild);
+				if (!gc.isEmpty())
+					return gc.get(0).getTextContent();
+			}
+			return null;
+		}
+
+		private static <K> void putFirst(Map<K, String> map, K key, String value) {
+			if (value != null && !map.containsKey(key))
+				map.put(key, value);
+		}
+
+		// the direct child elements of parent with the given name (all child elements if name is null)
+		private static List<Element> children(Element parent, String name) {
+			List<Element> children = new ArrayList<Element>();
+			NodeList nodes = parent.getChildNodes();
+			for (int i = 0; i < nodes.getLength(); i++) {
+				Node node = nodes.item(i);
+				if (node.getNodeType() == Node.ELEMENT_NODE && (name == null || name.equals(node.getNodeName())))
+					children.add((Element) node);
+			}
+			return children;
+		}
+	}
+}
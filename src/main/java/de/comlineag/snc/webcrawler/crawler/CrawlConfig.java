@@ -31,6 +31,32 @@ public class CrawlConfig {
    */
   private boolean resumableCrawling = false;
 
+  /**
+   * If this feature is enabled, the pending URLs are partitioned by host and
+   * the hosts are handed out to the crawler threads round-robin, each host at
+   * most once per politeness delay. Use this when crawling several sites, so
+   * that the threads work on all of them at the same time.
+   */
+  private boolean hostPartitionedFrontier = false;
+
+  /**
+   * Keep the host partitioned frontier in memory instead of a Berkeley DB.
+   * Faster, but the crawl can't be resumed - for short crawls only.
+   */
+  private boolean inMemoryFrontier = false;
+
+  /**
+   * Number of docids of recently seen URLs which are kept in memory in front
+   * of the docid database.
+   */
+  private int docIdCacheSize = 100000;
+
+  /**
+   * Interval in milliseconds in which the list of TLDs is fetched online in
+   * the background. 0 means the bundled list is used only.
+   */
+  private long tldListRefreshInterval = 0;
+
   /**
    * Maximum depth of crawling For unlimited depth this parameter should be
    * set to -1
@@ -148,6 +174,18 @@ public class CrawlConfig {
     if (maxDepthOfCrawling > Short.MAX_VALUE) {
       throw new Exception("Maximum value for crawl depth is " + Short.MAX_VALUE);
     }
+    if (docIdCacheSize < 0) {
+      throw new Exception("Invalid value for docid cache size: " + docIdCacheSize);
+    }
+    if (tldListRefreshInterval < 0) {
+      throw new Exception("Invalid value for TLD list refresh interval: " + tldListRefreshInterval);
+    }
+    if (inMemoryFrontier && !hostPartitionedFrontier) {
+      throw new Exception("An in-memory frontier is only available as host partitioned frontier.");
+    }
+    if (inMemoryFrontier && resumableCrawling) {
+      throw new Exception("Resumable crawling requires a frontier stored in the Berkeley DB, not in memory.");
+    }
   }
 
   public String getCrawlStorageFolder() {
@@ -174,6 +212,55 @@ public class CrawlConfig {
     this.resumableCrawling = resumableCrawling;
   }
 
+  public boolean isHostPartitionedFrontier() {
+    return hostPartitionedFrontier;
+  }
+
+  /**
+   * If this feature is enabled, the pending URLs are partitioned by host and
+   * the hosts are handed out to the crawler threads round-robin, each host at
+   * most once per politeness delay.
+   */
+  public void setHostPartitionedFrontier(boolean hostPartitionedFrontier) {
+    this.hostPartitionedFrontier = hostPartitionedFrontier;
+  }
+
+  public boolean isInMemoryFrontier() {
+    return inMemoryFrontier;
+  }
+
+  /**
+   * Keep the host partitioned frontier in memory instead of a Berkeley DB.
+   * The crawl can't be resumed then.
+   */
+  public void setInMemoryFrontier(boolean inMemoryFrontier) {
+    this.inMemoryFrontier = inMemoryFrontier;
+  }
+
+  public int getDocIdCacheSize() {
+    return docIdCacheSize;
+  }
+
+  /**
+   * Number of docids of recently seen URLs which are kept in memory in front
+   * of the docid database.
+   */
+  public void setDocIdCacheSize(int docIdCacheSize) {
+    this.docIdCacheSize = docIdCacheSize;
+  }
+
+  public long getTldListRefreshInterval() {
+    return tldListRefreshInterval;
+  }
+
+  /**
+   * Interval in milliseconds in which the list of TLDs is fetched online in
+   * the background. 0 means the bundled list is used only.
+   */
+  public void setTldListRefreshInterval(long tldListRefreshInterval) {
+    this.tldListRefreshInterval = tldListRefreshInterval;
+  }
+
   public int getMaxDepthOfCrawling() {
     return maxDepthOfCrawling;
   }
@@ -380,6 +467,10 @@ public class CrawlConfig {
     StringBuilder sb = new StringBuilder();
     sb.append("Crawl storage folder: " + getCrawlStorageFolder() + "\n");
     sb.append("Resumable crawling: " + isResumableCrawling() + "\n");
+    sb.append("Host partitioned frontier: " + isHostPartitionedFrontier() + "\n");
+    sb.append("In-memory frontier: " + isInMemoryFrontier() + "\n");
+    sb.append("DocId cache size: " + getDocIdCacheSize() + "\n");
+    sb.append("TLD list refresh interval: " + getTldListRefreshInterval() + "\n");
     sb.append("Max depth of crawl: " + getMaxDepthOfCrawling() + "\n");
     sb.append("Max pages to fetch: " + getMaxPagesToFetch() + "\n");
     sb.append("User agent string: " + getUserAgentString() + "\n");
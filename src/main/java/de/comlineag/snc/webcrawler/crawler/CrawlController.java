@@ -24,6 +24,7 @@ import de.comlineag.snc.webcrawler.fetcher.PageFetcher;
 import de.comlineag.snc.webcrawler.frontier.DocIDServer;
 import de.comlineag.snc.webcrawler.frontier.Frontier;
 import de.comlineag.snc.webcrawler.robotstxt.RobotstxtServer;
+import de.comlineag.snc.webcrawler.url.TLDList;
 import de.comlineag.snc.webcrawler.url.URLCanonicalizer;
 import de.comlineag.snc.webcrawler.url.WebURL;
 import de.comlineag.snc.webcrawler.util.WebCrawlerIO;
@@ -112,6 +113,10 @@ public class CrawlController extends Configurable {
     this.pageFetcher = pageFetcher;
     this.robotstxtServer = robotstxtServer;
 
+    if (config.getTldListRefreshInterval() > 0) {
+      TLDList.getInstance().scheduleRefresh(config.getTldListRefreshInterval());
+    }
+
     finished = false;
     shuttingDown = false;
   }
@@ -169,82 +174,51 @@ public class CrawlController extends Configurable {
           try {
             synchronized (waitingLock) {
 
-              while (true) {
-                sleep(10);
-                boolean someoneIsWorking = false;
+              // the frontier signals when every scheduled URL is processed - in between the
+              // crawler threads are checked once a second
+              while (!frontier.awaitCompletion(1000)) {
                 for (int i = 0; i < threads.size(); i++) {
                   Thread thread = threads.get(i);
-                  if (!thread.isAlive()) {
-                    if (!shuttingDown) {
-                      logger.info("Thread {} was dead, I'll recreate it", i);
-                      T crawler = _c.newInstance();
-                      thread = new Thread(crawler, "Crawler " + (i + 1));
-                      threads.remove(i);
-                      threads.add(i, thread);
-                      crawler.setThread(thread);
-                      crawler.init(i + 1, controller);
-                      thread.start();
-                      crawlers.remove(i);
-                      crawlers.add(i, crawler);
-                    }
-                  } else if (crawlers.get(i).isNotWaitingForNewURLs()) {
-                    someoneIsWorking = true;
+                  if (!thread.isAlive() && !shuttingDown) {
+                    logger.info("Thread {} was dead, I'll recreate it", i);
+                    T crawler = _c.newInstance();
+                    thread = new Thread(crawler, "Crawler " + (i + 1));
+                    threads.remove(i);
+                    threads.add(i, thread);
+                    crawler.setThread(thread);
+                    crawler.init(i + 1, controller);
+                    thread.start();
+                    crawlers.remove(i);
+                    crawlers.add(i, crawler);
                   }
                 }
-                if (!someoneIsWorking) {
-                  // Make sure again that none of the threads
-                  // are
-                  // alive.
-                  logger.info("It looks like no thread is working, waiting for 10 seconds to make sure...");
-                  sleep(10);
-
-                  someoneIsWorking = false;
-                  for (int i = 0; i < threads.size(); i++) {
-                    Thread thread = threads.get(i);
-                    if (thread.isAlive() && crawlers.get(i).isNotWaitingForNewURLs()) {
-                      someoneIsWorking = true;
-                    }
-                  }
-                  if (!someoneIsWorking) {
-                    if (!shuttingDown) {
-                      long queueLength = frontier.getQueueLength();
-                      if (queueLength > 0) {
-                        continue;
-                      }
-                      logger.info("No thread is working and no more URLs are in queue waiting for another 10 seconds to make sure...");
-                      sleep(10);
-                      queueLength = frontier.getQueueLength();
-                      if (queueLength > 0) {
-                        continue;
-                      }
-                    }
-
-                    logger.info("All of the crawlers are stopped. Finishing the process...");
-                    // At this step, frontier notifies the
-                    // threads that were
-                    // waiting for new URLs and they should
-                    // stop
-                    frontier.finish();
-                    for (T crawler : crawlers) {
-                      crawler.onBeforeExit();
-                      crawlersLocalData.add(crawler.getMyLocalData());
-                    }
-
-                    logger.info("Waiting for 10 seconds before final clean up...");
-                    sleep(10);
-
-                    frontier.close();
-                    docIdServer.close();
-                    pageFetcher.shutDown();
-
-                    finished = true;
-                    waitingLock.notifyAll();
-                    env.close();
-
-                    return;
-                  }
+              }
+
+              logger.info("All of the crawlers are stopped. Finishing the process...");
+              // At this step, frontier notifies the threads that were
+              // waiting for new URLs and they should stop
+              frontier.finish();
+              for (T crawler : crawlers) {
+                crawler.onBeforeExit();
+                crawlersLocalData.add(crawler.getMyLocalData());
+              }
+
+              logger.info("Waiting for the crawler threads to exit before final clean up...");
+              long deadline = System.currentTimeMillis() + 10000;
+              for (Thread thread : threads) {
+                long waitTime = deadline - System.currentTimeMillis();
+                if (waitTime > 0) {
+                  thread.join(waitTime);
                 }
               }
+
+              frontier.close();
+              docIdServer.close();
+              pageFetcher.shutDown();
+
+              finished = true;
+              waitingLock.notifyAll();
+              env.close();
             }
           } catch (Exception e) {
             e.printStackTrace();
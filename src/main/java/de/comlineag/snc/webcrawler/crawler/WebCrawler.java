@@ -241,25 +241,36 @@ public class WebCrawler implements Runnable {
       frontier.getNextURLs(50, assignedURLs);
       isWaitingForNewURLs = false;
       if (assignedURLs.size() == 0) {
+        // getNextURLs only returns empty handed once the frontier is finished
         if (frontier.isFinished()) {
           return;
         }
-        try {
-          Thread.sleep(3000);
-        } catch (InterruptedException e) {
-          e.printStackTrace();
-        }
       } else {
-        for (WebURL curURL : assignedURLs) {
-          if (curURL != null) {
-            curURL = handleUrlBeforeProcess(curURL);
-            processPage(curURL);
-            frontier.setProcessed(curURL);
+        int next = 0;
+        try {
+          while (next < assignedURLs.size()) {
+            WebURL curURL = assignedURLs.get(next++);
+            if (curURL != null) {
+              try {
+                curURL = handleUrlBeforeProcess(curURL);
+                processPage(curURL);
+              } finally {
+                frontier.setProcessed(curURL);
+              }
+            }
+            if (myController.isShuttingDown()) {
+              logger.info("Exiting because of controller shutdown.");
+              return;
+            }
           }
-          if (myController.isShuttingDown()) {
-            logger.info("Exiting because of controller shutdown.");
-            return;
+        } catch (RuntimeException | Error e) {
+          // this thread dies - give up its remaining URLs, otherwise the crawl would never complete
+          for (WebURL curURL : assignedURLs.subList(next, assignedURLs.size())) {
+            if (curURL != null) {
+              frontier.setProcessed(curURL);
+            }
           }
+          throw e;
         }
       }
     }
@@ -19,8 +19,12 @@ package de.comlineag.snc.webcrawler.fetcher;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URI;
 import java.security.cert.X509Certificate;
-import java.util.Date;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.zip.GZIPInputStream;
 
 import javax.net.ssl.SSLContext;
@@ -71,9 +75,17 @@ public class PageFetcher extends Configurable {
 
   protected CloseableHttpClient httpClient;
 
-  protected final Object mutex = new Object();
+  // Upper bound for a Crawl-delay taken from robots.txt, so that a single host can't stall a crawler thread for ages
+  protected static final long MAX_CRAWL_DELAY = 60 * 1000L;
 
-  protected long lastFetchTime = 0;
+  // Hosts whose next allowed fetch lies further in the past are dropped once the map grows beyond this size
+  protected static final int MAX_TRACKED_HOSTS = 10000;
+
+  // Per host: the earliest time the next request may be sent
+  protected final ConcurrentMap<String, AtomicLong> host2nextFetchTime = new ConcurrentHashMap<>();
+
+  // Per host: the Crawl-delay in milliseconds, if robots.txt defines one
+  protected final ConcurrentMap<String, Long> host2crawlDelay = new ConcurrentHashMap<>();
 
   protected IdleConnectionMonitorThread connectionMonitorThread = null;
 
@@ -161,13 +173,7 @@ public class PageFetcher extends Configurable {
     HttpGet get = null;
     try {
       get = new HttpGet(toFetchURL);
-      synchronized (mutex) {
-        long now = (new Date()).getTime();
-        if (now - lastFetchTime < config.getPolitenessDelay()) {
-          Thread.sleep(config.getPolitenessDelay() - (now - lastFetchTime));
-        }
-        lastFetchTime = (new Date()).getTime();
-      }
+      waitForPoliteness(get.getURI());
 
       HttpResponse response = httpClient.execute(get);
       fetchResult.setEntity(response.getEntity());
@@ -258,6 +264,86 @@ public class PageFetcher extends Configurable {
     return fetchResult;
   }
 
+  /**
+   * Sets the Crawl-delay a host asked for in its robots.txt. It is used instead of the politeness
+   * delay if it is longer, but never exceeds MAX_CRAWL_DELAY.
+   *
+   * @param host the host name, as in the URLs fetched
+   * @param crawlDelay the delay in milliseconds - 0 or less removes it
+   */
+  public void setCrawlDelay(String host, long crawlDelay) {
+    if (host == null) {
+      return;
+    }
+    host = host.toLowerCase();
+    if (crawlDelay > 0) {
+      host2crawlDelay.put(host, Math.min(crawlDelay, MAX_CRAWL_DELAY));
+    } else {
+      host2crawlDelay.remove(host);
+    }
+  }
+
+  /**
+   * Returns the delay between two requests to the host in milliseconds.
+   */
+  public long getPolitenessDelay(String host) {
+    long delay = config.getPolitenessDelay();
+    if (host != null) {
+      Long crawlDelay = host2crawlDelay.get(host.toLowerCase());
+      if (crawlDelay != null && crawlDelay > delay) {
+        delay = crawlDelay;
+      }
+    }
+    return delay;
+  }
+
+  /**
+   * Reserves the next slot for a request to the host of the uri and waits until it has come.
+   * Threads fetching from the same host are spread politenessDelay apart, threads fetching from
+   * other hosts are not affected.
+   */
+  protected void waitForPoliteness(URI uri) throws InterruptedException {
+    String host = (uri.getHost() != null) ? uri.getHost().toLowerCase() : "";
+    long delay = getPolitenessDelay(host);
+
+    AtomicLong nextFetchTime = host2nextFetchTime.get(host);
+    if (nextFetchTime == null) {
+      if (host2nextFetchTime.size() >= MAX_TRACKED_HOSTS) {
+        purgeIdleHosts();
+      }
+      AtomicLong created = new AtomicLong();
+      nextFetchTime = host2nextFetchTime.putIfAbsent(host, created);
+      if (nextFetchTime == null) {
+        nextFetchTime = created;
+      }
+    }
+
+    long now;
+    long slot;
+    while (true) {
+      now = System.currentTimeMillis();
+      long next = nextFetchTime.get();
+      slot = Math.max(now, next);
+      if (nextFetchTime.compareAndSet(next, slot + delay)) {
+        break;
+      }
+    }
+    if (slot > now) {
+      Thread.sleep(slot - now);
+    }
+  }
+
+  // Drops the hosts which have not been fetched for a while
+  private void purgeIdleHosts() {
+    long idleSince = System.currentTimeMillis() - MAX_CRAWL_DELAY;
+    Iterator<AtomicLong> it = host2nextFetchTime.values().iterator();
+    while (it.hasNext()) {
+      if (it.next().get() < idleSince) {
+        it.remove();
+      }
+    }
+  }
+
   public synchronized void shutDown() {
     if (connectionMonitorThread != null) {
       connectionManager.shutdown();
@@ -17,6 +17,11 @@
 
 package de.comlineag.snc.webcrawler.frontier;
 
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import com.sleepycat.je.*;
 
 import de.comlineag.snc.webcrawler.crawler.Configurable;
@@ -27,6 +32,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
+ * Assigns a docid to every URL seen. URLs are stored by a 64 bit fingerprint
+ * instead of their full text. A URL is looked up in one of STRIPES segments,
+ * chosen by its fingerprint, and only that segment is locked - so crawler
+ * threads only wait for each other if they happen to look up URLs of the same
+ * segment. Each segment keeps the most recently used docids in memory in front
+ * of the Berkeley DB. New docids come from an atomic counter.
+ *
  * @author Yasser Ganjisaffar <lastname at gmail dot com>
  */
 
@@ -34,11 +46,17 @@ public class DocIDServer extends Configurable {
 
   protected static final Logger logger = LoggerFactory.getLogger(DocIDServer.class);
 
+  // Number of segments - a power of two
+  protected static final int STRIPES = 64;
+
+  // The database of previous versions, keyed by the full URL
+  protected static final String URL_KEYED_DB_NAME = "DocIDs";
+
   protected Database docIDsDB = null;
 
-  protected final Object mutex = new Object();
+  protected final AtomicInteger lastDocID = new AtomicInteger();
 
-  protected int lastDocID;
+  protected final Stripe[] stripes = new Stripe[STRIPES];
 
   public DocIDServer(Environment env, CrawlConfig config) throws DatabaseException {
     super(config);
@@ -46,18 +64,46 @@ public class DocIDServer extends Configurable {
     dbConfig.setAllowCreate(true);
     dbConfig.setTransactional(config.isResumableCrawling());
     dbConfig.setDeferredWrite(!config.isResumableCrawling());
-    docIDsDB = env.openDatabase(null, "DocIDs", dbConfig);
+    docIDsDB = env.openDatabase(null, "DocIDFingerprints", dbConfig);
+
+    int stripeCacheSize = Math.max(1, config.getDocIdCacheSize() / STRIPES);
+    for (int i = 0; i < STRIPES; i++) {
+      stripes[i] = new Stripe(stripeCacheSize);
+    }
+
     if (config.isResumableCrawling()) {
+      migrateUrlKeyedDocIds(env);
       int docCount = getDocCount();
       if (docCount > 0) {
         logger.info("Loaded {} URLs that had been detected in previous crawl.", docCount);
-        lastDocID = docCount;
+        lastDocID.set(getMaxDocId());
       }
-    } else {
-      lastDocID = 0;
     }
   }
 
+  /**
+   * Returns the 64 bit fingerprint of the URL, the key it is stored with.
+   * FNV-1a over the characters of the URL, mixed with the finalizer of
+   * MurmurHash3 so that all bits depend on every character.
+   */
+  public static long fingerprint(String url) {
+    long h = 0xcbf29ce484222325L;
+    for (int i = 0; i < url.length(); i++) {
+      h ^= url.charAt(i);
+      h *= 0x100000001b3L;
+    }
+    h ^= (h >>> 33);
+    h *= 0xff51afd7ed558ccdL;
+    h ^= (h >>> 33);
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= (h >>> 33);
+    return h;
+  }
+
+  protected Stripe getStripe(long fingerprint) {
+    return stripes[(int) (fingerprint ^ (fingerprint >>> 32)) & (STRIPES - 1)];
+  }
+
   /**
    * Returns the docid of an already seen url.
      *
@@ -65,38 +111,56 @@ public class DocIDServer extends Configurable {
      * @return the docid of the url if it is seen before. Otherwise -1 is returned.
      */
   public int getDocId(String url) {
-    synchronized (mutex) {
-      if (docIDsDB == null) {
-        return -1;
-      }
-      OperationStatus result;
-      DatabaseEntry value = new DatabaseEntry();
-      try {
-        DatabaseEntry key = new DatabaseEntry(url.getBytes());
-        result = docIDsDB.get(null, key, value, null);
+    if (docIDsDB == null) {
+      return -1;
+    }
+    long fingerprint = fingerprint(url);
+    Stripe stripe = getStripe(fingerprint);
+    synchronized (stripe) {
+      return getDocId(stripe, fingerprint);
+    }
+  }
 
-        if (result == OperationStatus.SUCCESS && value.getData().length > 0) {
-          return WebCrawlerUtil.byteArray2Int(value.getData());
-        }
-      } catch (Exception e) {
-        e.printStackTrace();
+  // Must be called holding the lock of the stripe
+  protected int getDocId(Stripe stripe, long fingerprint) {
+    Integer docid = stripe.get(fingerprint);
+    if (docid != null) {
+      return docid;
+    }
+    try {
+      DatabaseEntry value = new DatabaseEntry();
+      OperationStatus result = docIDsDB.get(null, new DatabaseEntry(WebCrawlerUtil.long2ByteArray(fingerprint)), value, null);
+      if (result == OperationStatus.SUCCESS && value.getData().length > 0) {
+        docid = WebCrawlerUtil.byteArray2Int(value.getData());
+        stripe.put(fingerprint, docid);
+        return docid;
       }
-      return -1;
+    } catch (Exception e) {
+      e.printStackTrace();
     }
+    return -1;
+  }
+
+  // Must be called holding the lock of the stripe
+  protected void putDocId(Stripe stripe, long fingerprint, int docId) throws DatabaseException {
+    docIDsDB.put(null, new DatabaseEntry(WebCrawlerUtil.long2ByteArray(fingerprint)), new DatabaseEntry(WebCrawlerUtil.int2ByteArray(docId)));
+    stripe.put(fingerprint, docId);
   }
 
   public int getNewDocID(String url) {
-    synchronized (mutex) {
+    long fingerprint = fingerprint(url);
+    Stripe stripe = getStripe(fingerprint);
+    synchronized (stripe) {
       try {
         // Make sure that we have not already assigned a docid for this URL
-        int docid = getDocId(url);
+        int docid = getDocId(stripe, fingerprint);
         if (docid > 0) {
           return docid;
         }
 
-        lastDocID++;
-        docIDsDB.put(null, new DatabaseEntry(url.getBytes()), new DatabaseEntry(WebCrawlerUtil.int2ByteArray(lastDocID)));
-        return lastDocID;
+        docid = lastDocID.incrementAndGet();
+        putDocId(stripe, fingerprint, docid);
+        return docid;
       } catch (Exception e) {
         e.printStackTrace();
       }
@@ -105,13 +169,11 @@ public class DocIDServer extends Configurable {
   }
 
   public void addUrlAndDocId(String url, int docId) throws Exception {
-    synchronized (mutex) {
-      if (docId <= lastDocID) {
-        throw new Exception("Requested doc id: " + docId + " is not larger than: " + lastDocID);
-      }
-
+    long fingerprint = fingerprint(url);
+    Stripe stripe = getStripe(fingerprint);
+    synchronized (stripe) {
       // Make sure that we have not already assigned a docid for this URL
-      int prevDocid = getDocId(url);
+      int prevDocid = getDocId(stripe, fingerprint);
       if (prevDocid > 0) {
         if (prevDocid == docId) {
           return;
@@ -119,8 +181,16 @@ public class DocIDServer extends Configurable {
         throw new Exception("Doc id: " + prevDocid + " is already assigned to URL: " + url);
       }
 
-      docIDsDB.put(null, new DatabaseEntry(url.getBytes()), new DatabaseEntry(WebCrawlerUtil.int2ByteArray(docId)));
-      lastDocID = docId;
+      while (true) {
+        int last = lastDocID.get();
+        if (docId <= last) {
+          throw new Exception("Requested doc id: " + docId + " is not larger than: " + last);
+        }
+        if (lastDocID.compareAndSet(last, docId)) {
+          break;
+        }
+      }
+      putDocId(stripe, fingerprint, docId);
     }
   }
 
@@ -137,6 +207,52 @@ public class DocIDServer extends Configurable {
     return -1;
   }
 
+  // The highest docid assigned in the previous crawl - docids need not be dense
+  protected int getMaxDocId() throws DatabaseException {
+    int max = 0;
+    DatabaseEntry key = new DatabaseEntry();
+    DatabaseEntry value = new DatabaseEntry();
+    Cursor cursor = docIDsDB.openCursor(null, null);
+    try {
+      while (cursor.getNext(key, value, null) == OperationStatus.SUCCESS) {
+        max = Math.max(max, WebCrawlerUtil.byteArray2Int(value.getData()));
+      }
+    } finally {
+      cursor.close();
+    }
+    return max;
+  }
+
+  // Converts the docids of a crawl stored by a previous version, keyed by the full URL
+  protected void migrateUrlKeyedDocIds(Environment env) throws DatabaseException {
+    List<String> dbNames = env.getDatabaseNames();
+    if (!dbNames.contains(URL_KEYED_DB_NAME)) {
+      return;
+    }
+    DatabaseConfig dbConfig = new DatabaseConfig();
+    dbConfig.setTransactional(true);
+    Database urlKeyedDB = env.openDatabase(null, URL_KEYED_DB_NAME, dbConfig);
+    long count = 0;
+    try {
+      DatabaseEntry key = new DatabaseEntry();
+      DatabaseEntry value = new DatabaseEntry();
+      Cursor cursor = urlKeyedDB.openCursor(null, null);
+      try {
+        while (cursor.getNext(key, value, null) == OperationStatus.SUCCESS) {
+          long fingerprint = fingerprint(new String(key.getData()));
+          docIDsDB.put(null, new DatabaseEntry(WebCrawlerUtil.long2ByteArray(fingerprint)), new DatabaseEntry(value.getData()));
+          count++;
+        }
+      } finally {
+        cursor.close();
+      }
+    } finally {
+      urlKeyedDB.close();
+    }
+    env.removeDatabase(null, URL_KEYED_DB_NAME);
+    logger.info("Converted {} docids of the previous crawl to URL fingerprints.", count);
+  }
+
   public void sync() {
     if (config.isResumableCrawling()) {
       return;
@@ -158,4 +274,25 @@ public class DocIDServer extends Configurable {
       e.printStackTrace();
     }
   }
-}
\ No newline at end of file
+
+  /**
+   * One segment of the docids - the most recently used ones of its fingerprints.
+   * Its monitor guards every lookup and assignment of these fingerprints.
+   */
+  protected static class Stripe extends LinkedHashMap<Long, Integer> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int maxSize;
+
+    Stripe(int maxSize) {
+      super(16, 0.75f, true);
+      this.maxSize = maxSize;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<Long, Integer> eldest) {
+      return size() > maxSize;
+    }
+  }
+}
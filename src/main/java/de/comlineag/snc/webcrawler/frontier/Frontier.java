@@ -39,15 +39,25 @@ public class Frontier extends Configurable {
 
   protected WorkQueues workQueues;
 
+  // Used instead of workQueues if the frontier is partitioned by host
+  protected HostWorkQueues hostQueues;
+
   protected InProcessPagesDB inProcessPages;
 
   protected final Object mutex = new Object();
   protected final Object waitingList = new Object();
 
-  protected boolean isFinished = false;
+  // A notifyAll may come between releasing the mutex and waiting on the waitingList,
+  // so waiting threads look at the queues again after this many milliseconds
+  protected static final long MAX_WAIT_TIME = 1000;
+
+  protected volatile boolean isFinished = false;
 
   protected long scheduledPages;
 
+  // URLs put in the queue and not processed yet - the crawl is complete when this drops to zero
+  protected long pendingPages;
+
   protected DocIDServer docIdServer;
 
   protected Counters counters;
@@ -57,7 +67,18 @@ public class Frontier extends Configurable {
     this.counters = new Counters(env, config);
     this.docIdServer = docIdServer;
     try {
-      workQueues = new WorkQueues(env, "PendingURLsDB", config.isResumableCrawling());
+      if (config.isHostPartitionedFrontier()) {
+        if (config.isInMemoryFrontier()) {
+          hostQueues = new InMemoryHostWorkQueues(config.getPolitenessDelay());
+        } else {
+          hostQueues = new HostWorkQueuesDB(env, "PendingURLsByHostDB", config.isResumableCrawling(), config.getPolitenessDelay());
+          if (config.isResumableCrawling()) {
+            movePendingURLs(env);
+          }
+        }
+      } else {
+        workQueues = new WorkQueues(env, "PendingURLsDB", config.isResumableCrawling());
+      }
       if (config.isResumableCrawling()) {
         scheduledPages = counters.getValue(ReservedCounterNames.SCHEDULED_PAGES);
         inProcessPages = new InProcessPagesDB(env);
@@ -78,12 +99,53 @@ public class Frontier extends Configurable {
         inProcessPages = null;
         scheduledPages = 0;
       }
+      pendingPages = getQueueLength();
     } catch (DatabaseException e) {
       logger.error("Error while initializing the Frontier: {}", e.getMessage());
       workQueues = null;
     }
   }
 
+  // Moves the URLs a previous crawl without host partitioning left pending
+  private void movePendingURLs(Environment env) throws DatabaseException {
+    WorkQueues pendingURLs = new WorkQueues(env, "PendingURLsDB", true);
+    try {
+      long numPendingURLs = pendingURLs.getLength();
+      if (numPendingURLs > 0) {
+        logger.info("Moving {} pending URLs of the previous crawl to the host partitioned frontier.", numPendingURLs);
+      }
+      while (true) {
+        List<WebURL> urls = pendingURLs.get(100);
+        if (urls.size() == 0) {
+          break;
+        }
+        for (WebURL url : urls) {
+          hostQueues.put(url);
+        }
+        pendingURLs.delete(urls.size());
+      }
+    } finally {
+      pendingURLs.close();
+    }
+  }
+
+  protected void put(WebURL url) throws DatabaseException {
+    if (hostQueues != null) {
+      hostQueues.put(url);
+    } else {
+      workQueues.put(url);
+    }
+  }
+
+  protected List<WebURL> take(int max) throws DatabaseException {
+    if (hostQueues != null) {
+      return hostQueues.get(max);
+    }
+    List<WebURL> curResults = workQueues.get(max);
+    workQueues.delete(curResults.size());
+    return curResults;
+  }
+
   public void scheduleAll(List<WebURL> urls) {
     int maxPagesToFetch = config.getMaxPagesToFetch();
     synchronized (mutex) {
@@ -93,7 +155,7 @@ public class Frontier extends Configurable {
           break;
         }
         try {
-          workQueues.put(url);
+          put(url);
           newScheduledPage++;
         } catch (DatabaseException e) {
           logger.error("Error while putting the url in the work queue.");
@@ -101,10 +163,11 @@ public class Frontier extends Configurable {
       }
       if (newScheduledPage > 0) {
         scheduledPages += newScheduledPage;
+        pendingPages += newScheduledPage;
         counters.increment(Counters.ReservedCounterNames.SCHEDULED_PAGES, newScheduledPage);
-      }
-      synchronized (waitingList) {
-        waitingList.notifyAll();
+        synchronized (waitingList) {
+          waitingList.notifyAll();
+        }
       }
     }
   }
@@ -114,9 +177,13 @@ public class Frontier extends Configurable {
     synchronized (mutex) {
       try {
         if (maxPagesToFetch < 0 || scheduledPages < maxPagesToFetch) {
-          workQueues.put(url);
+          put(url);
           scheduledPages++;
+          pendingPages++;
           counters.increment(Counters.ReservedCounterNames.SCHEDULED_PAGES);
+          synchronized (waitingList) {
+            waitingList.notifyAll();
+          }
         }
       } catch (DatabaseException e) {
         logger.error("Error while putting the url in the work queue.");
@@ -126,13 +193,13 @@ public class Frontier extends Configurable {
 
   public void getNextURLs(int max, List<WebURL> result) {
     while (true) {
+      long waitTime = MAX_WAIT_TIME;
       synchronized (mutex) {
         if (isFinished) {
           return;
         }
         try {
-          List<WebURL> curResults = workQueues.get(max);
-          workQueues.delete(curResults.size());
+          List<WebURL> curResults = take(max);
           if (inProcessPages != null) {
             for (WebURL curPage : curResults) {
               inProcessPages.put(curPage);
@@ -146,10 +213,16 @@ public class Frontier extends Configurable {
         if (result.size() > 0) {
           return;
         }
+        if (hostQueues != null && hostQueues.getLength() > 0) {
+          // All hosts with pending URLs are within their politeness window
+          waitTime = Math.min(MAX_WAIT_TIME, Math.max(1, hostQueues.getNextFetchTime() - System.currentTimeMillis()));
+        }
       }
       try {
         synchronized (waitingList) {
-          waitingList.wait();
+          if (!isFinished) {
+            waitingList.wait(waitTime);
+          }
         }
       } catch (InterruptedException ignored) {
         // Do nothing
@@ -167,9 +240,45 @@ public class Frontier extends Configurable {
         logger.warn("Could not remove: {} from list of processed pages.", webURL.getURL());
       }
     }
+    synchronized (mutex) {
+      pendingPages--;
+      if (pendingPages <= 0) {
+        mutex.notifyAll();
+      }
+    }
+  }
+
+  /**
+   * Waits until every scheduled URL is processed or the frontier is finished.
+   *
+   * @param timeout
+   *            maximum time to wait in milliseconds
+   * @return true if the crawl is complete
+   */
+  public boolean awaitCompletion(long timeout) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + timeout;
+    synchronized (mutex) {
+      while (!isFinished && pendingPages > 0) {
+        long waitTime = deadline - System.currentTimeMillis();
+        if (waitTime <= 0) {
+          return false;
+        }
+        mutex.wait(waitTime);
+      }
+      return true;
+    }
+  }
+
+  public long getNumberOfPendingPages() {
+    synchronized (mutex) {
+      return pendingPages;
+    }
   }
 
   public long getQueueLength() {
+    if (hostQueues != null) {
+      return hostQueues.getLength();
+    }
     return workQueues.getLength();
   }
 
@@ -182,7 +291,11 @@ public class Frontier extends Configurable {
   }
 
   public void sync() {
-    workQueues.sync();
+    if (hostQueues != null) {
+      hostQueues.sync();
+    } else {
+      workQueues.sync();
+    }
     docIdServer.sync();
     counters.sync();
   }
@@ -193,7 +306,11 @@ public class Frontier extends Configurable {
 
   public void close() {
     sync();
-    workQueues.close();
+    if (hostQueues != null) {
+      hostQueues.close();
+    } else {
+      workQueues.close();
+    }
     counters.close();
     if (inProcessPages != null) {
       inProcessPages.close();
@@ -205,5 +322,8 @@ public class Frontier extends Configurable {
     synchronized (waitingList) {
       waitingList.notifyAll();
     }
+    synchronized (mutex) {
+      mutex.notifyAll();
+    }
   }
 }
\ No newline at end of file
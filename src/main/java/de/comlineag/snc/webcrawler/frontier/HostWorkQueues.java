@@ -0,0 +1,171 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.comlineag.snc.webcrawler.frontier;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import de.comlineag.snc.webcrawler.url.WebURL;
+
+/**
+ * The pending URLs partitioned by host. Hosts are served round-robin, and
+ * a host is handed out again only after its politeness delay has passed.
+ * So a crawl of several sites keeps all of them busy at the same time,
+ * instead of draining one host after the other while the politeness delay
+ * makes the other crawler threads wait for that single host.
+ *
+ * Within a host, URLs are handed out in the same order as by WorkQueues:
+ * lower priority numbers first, then lower depth, then lower docid.
+ *
+ * Subclasses store the URLs of a host - see HostWorkQueuesDB and
+ * InMemoryHostWorkQueues.
+ */
+public abstract class HostWorkQueues {
+
+  // Hosts whose politeness window has expired are dropped once this many are tracked
+  private static final int MAX_TRACKED_HOSTS = 10000;
+
+  protected final long politenessDelay;
+
+  protected final Object mutex = new Object();
+
+  // Hosts with pending URLs, in the order they are served
+  private final ArrayDeque<String> hosts = new ArrayDeque<>();
+
+  // The earliest time a host may be handed out again
+  private final Map<String, Long> host2nextFetchTime = new HashMap<>();
+
+  protected HostWorkQueues(long politenessDelay) {
+    this.politenessDelay = politenessDelay;
+  }
+
+  /**
+   * Returns the host of the URL, the key the URLs are partitioned by.
+   */
+  public static String getHost(WebURL url) {
+    String subDomain = url.getSubDomain();
+    if (subDomain == null || subDomain.isEmpty()) {
+      return url.getDomain().toLowerCase();
+    }
+    return (subDomain + "." + url.getDomain()).toLowerCase();
+  }
+
+  public void put(WebURL url) {
+    String host = getHost(url);
+    synchronized (mutex) {
+      if (putURL(host, url)) {
+        hosts.addLast(host);
+      }
+    }
+  }
+
+  /**
+   * Returns at most one URL of each host whose politeness window has expired
+   * and removes them from the queues. Hosts are visited in round-robin order,
+   * starting after the host served last.
+   *
+   * @param max the maximum number of URLs
+   */
+  public List<WebURL> get(int max) {
+    synchronized (mutex) {
+      List<WebURL> results = new ArrayList<>(Math.min(max, hosts.size()));
+      long now = System.currentTimeMillis();
+      int count = hosts.size();
+      for (int i = 0; i < count && results.size() < max; i++) {
+        String host = hosts.pollFirst();
+        Long nextFetchTime = host2nextFetchTime.get(host);
+        if (nextFetchTime == null || nextFetchTime <= now) {
+          WebURL url = pollURL(host);
+          if (url != null) {
+            results.add(url);
+            host2nextFetchTime.put(host, now + politenessDelay);
+          }
+        }
+        if (hasURLs(host)) {
+          hosts.addLast(host);
+        }
+      }
+      if (host2nextFetchTime.size() > MAX_TRACKED_HOSTS) {
+        Iterator<Long> it = host2nextFetchTime.values().iterator();
+        while (it.hasNext()) {
+          if (it.next() <= now) {
+            it.remove();
+          }
+        }
+      }
+      return results;
+    }
+  }
+
+  /**
+   * Returns the time when the next host with pending URLs may be handed out,
+   * or Long.MAX_VALUE if there are no pending URLs.
+   */
+  public long getNextFetchTime() {
+    synchronized (mutex) {
+      long next = Long.MAX_VALUE;
+      for (String host : hosts) {
+        Long nextFetchTime = host2nextFetchTime.get(host);
+        if (nextFetchTime == null) {
+          return System.currentTimeMillis();
+        }
+        next = Math.min(next, nextFetchTime);
+      }
+      return next;
+    }
+  }
+
+  public int getNumberOfHosts() {
+    synchronized (mutex) {
+      return hosts.size();
+    }
+  }
+
+  /**
+   * Registers a host which already has pending URLs, e.g. when resuming a crawl.
+   */
+  protected void addHost(String host) {
+    synchronized (mutex) {
+      hosts.addLast(host);
+    }
+  }
+
+  /**
+   * Adds the URL to the queue of the host.
+   *
+   * @return true if the host had no pending URLs before
+   */
+  protected abstract boolean putURL(String host, WebURL url);
+
+  /**
+   * Removes and returns the first URL of the host, null if there is none.
+   */
+  protected abstract WebURL pollURL(String host);
+
+  protected abstract boolean hasURLs(String host);
+
+  public abstract long getLength();
+
+  public abstract void sync();
+
+  public abstract void close();
+}
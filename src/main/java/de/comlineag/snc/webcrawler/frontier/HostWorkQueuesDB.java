@@ -0,0 +1,252 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.comlineag.snc.webcrawler.frontier;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sleepycat.je.Cursor;
+import com.sleepycat.je.Database;
+import com.sleepycat.je.DatabaseConfig;
+import com.sleepycat.je.DatabaseEntry;
+import com.sleepycat.je.DatabaseException;
+import com.sleepycat.je.Environment;
+import com.sleepycat.je.LockMode;
+import com.sleepycat.je.OperationStatus;
+import com.sleepycat.je.Transaction;
+
+import de.comlineag.snc.webcrawler.url.WebURL;
+import de.comlineag.snc.webcrawler.util.WebCrawlerUtil;
+
+/**
+ * Keeps the pending URLs of each host in a Berkeley DB, so that the crawl can
+ * be resumed. The key of a URL is its host followed by the key of WorkQueues,
+ * so the URLs of a host are stored next to each other in crawl order and the
+ * first one is found with a single range search.
+ */
+public class HostWorkQueuesDB extends HostWorkQueues {
+
+  private static final Logger logger = LoggerFactory.getLogger(HostWorkQueuesDB.class);
+
+  // Separates the host from the rest of the key - it can't occur in a host name
+  private static final byte HOST_SEPARATOR = 0;
+
+  protected Database urlsDB = null;
+  protected Environment env;
+
+  protected boolean resumable;
+
+  protected WebURLTupleBinding webURLBinding;
+
+  // Number of pending URLs per host
+  private final Map<String, Integer> host2count = new HashMap<>();
+
+  private long length = 0;
+
+  public HostWorkQueuesDB(Environment env, String dbName, boolean resumable, long politenessDelay) throws DatabaseException {
+    super(politenessDelay);
+    this.env = env;
+    this.resumable = resumable;
+    DatabaseConfig dbConfig = new DatabaseConfig();
+    dbConfig.setAllowCreate(true);
+    dbConfig.setTransactional(resumable);
+    dbConfig.setDeferredWrite(!resumable);
+    urlsDB = env.openDatabase(null, dbName, dbConfig);
+    webURLBinding = new WebURLTupleBinding();
+    loadHosts();
+  }
+
+  // Counts the URLs per host left over from a previous crawl
+  private void loadHosts() throws DatabaseException {
+    DatabaseEntry key = new DatabaseEntry();
+    DatabaseEntry value = new DatabaseEntry();
+    value.setPartial(0, 0, true);
+    Cursor cursor = urlsDB.openCursor(null, null);
+    try {
+      OperationStatus result = cursor.getFirst(key, value, LockMode.READ_UNCOMMITTED);
+      while (result == OperationStatus.SUCCESS) {
+        String host = getHost(key.getData());
+        Integer count = host2count.get(host);
+        host2count.put(host, (count == null) ? 1 : count + 1);
+        length++;
+        result = cursor.getNext(key, value, LockMode.READ_UNCOMMITTED);
+      }
+    } finally {
+      cursor.close();
+    }
+    for (String host : host2count.keySet()) {
+      addHost(host);
+    }
+    if (length > 0) {
+      logger.info("Loaded {} pending URLs of {} hosts from the previous crawl.", length, host2count.size());
+    }
+  }
+
+  private static byte[] getHostPrefix(String host) {
+    byte[] hostData = host.getBytes(StandardCharsets.UTF_8);
+    byte[] prefix = Arrays.copyOf(hostData, hostData.length + 1);
+    prefix[hostData.length] = HOST_SEPARATOR;
+    return prefix;
+  }
+
+  private static String getHost(byte[] keyData) {
+    int end = 0;
+    while (end < keyData.length && keyData[end] != HOST_SEPARATOR) {
+      end++;
+    }
+    return new String(keyData, 0, end, StandardCharsets.UTF_8);
+  }
+
+  private static boolean startsWith(byte[] data, byte[] prefix) {
+    if (data.length < prefix.length) {
+      return false;
+    }
+    for (int i = 0; i < prefix.length; i++) {
+      if (data[i] != prefix[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /*
+   * The host, a separator and then the 6 bytes of the key used by
+   * WorkQueues: priority, depth and docid.
+   */
+  protected DatabaseEntry getDatabaseEntryKey(String host, WebURL url) {
+    byte[] prefix = getHostPrefix(host);
+    byte[] keyData = Arrays.copyOf(prefix, prefix.length + 6);
+    keyData[prefix.length] = url.getPriority();
+    keyData[prefix.length + 1] = (url.getDepth() > Byte.MAX_VALUE ? Byte.MAX_VALUE : (byte) url.getDepth());
+    WebCrawlerUtil.putIntInByteArray(url.getDocid(), keyData, prefix.length + 2);
+    return new DatabaseEntry(keyData);
+  }
+
+  @Override
+  protected boolean putURL(String host, WebURL url) {
+    DatabaseEntry value = new DatabaseEntry();
+    webURLBinding.objectToEntry(url, value);
+    Transaction txn;
+    if (resumable) {
+      txn = env.beginTransaction(null, null);
+    } else {
+      txn = null;
+    }
+    OperationStatus result = urlsDB.putNoOverwrite(txn, getDatabaseEntryKey(host, url), value);
+    if (txn != null) {
+      txn.commit();
+    }
+    Integer count = host2count.get(host);
+    if (result == OperationStatus.SUCCESS) {
+      host2count.put(host, (count == null) ? 1 : count + 1);
+      length++;
+    }
+    return count == null && result == OperationStatus.SUCCESS;
+  }
+
+  @Override
+  protected WebURL pollURL(String host) {
+    if (!host2count.containsKey(host)) {
+      return null;
+    }
+    byte[] prefix = getHostPrefix(host);
+    DatabaseEntry key = new DatabaseEntry(prefix);
+    DatabaseEntry value = new DatabaseEntry();
+    WebURL url = null;
+    Cursor cursor = null;
+    Transaction txn;
+    if (resumable) {
+      txn = env.beginTransaction(null, null);
+    } else {
+      txn = null;
+    }
+    try {
+      cursor = urlsDB.openCursor(txn, null);
+      OperationStatus result = cursor.getSearchKeyRange(key, value, null);
+      if (result == OperationStatus.SUCCESS && startsWith(key.getData(), prefix)) {
+        url = webURLBinding.entryToObject(value);
+        cursor.delete();
+      }
+    } catch (DatabaseException e) {
+      if (txn != null) {
+        txn.abort();
+        txn = null;
+      }
+      throw e;
+    } finally {
+      if (cursor != null) {
+        cursor.close();
+      }
+      if (txn != null) {
+        txn.commit();
+      }
+    }
+
+    Integer count = host2count.get(host);
+    if (url == null || count <= 1) {
+      host2count.remove(host);
+    } else {
+      host2count.put(host, count - 1);
+    }
+    if (url != null) {
+      length--;
+    }
+    return url;
+  }
+
+  @Override
+  protected boolean hasURLs(String host) {
+    return host2count.containsKey(host);
+  }
+
+  @Override
+  public long getLength() {
+    synchronized (mutex) {
+      return length;
+    }
+  }
+
+  @Override
+  public void sync() {
+    if (resumable) {
+      return;
+    }
+    if (urlsDB == null) {
+      return;
+    }
+    try {
+      urlsDB.sync();
+    } catch (DatabaseException e) {
+      e.printStackTrace();
+    }
+  }
+
+  @Override
+  public void close() {
+    try {
+      urlsDB.close();
+    } catch (DatabaseException e) {
+      e.printStackTrace();
+    }
+  }
+}
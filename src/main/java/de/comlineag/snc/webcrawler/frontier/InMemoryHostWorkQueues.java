@@ -0,0 +1,109 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.comlineag.snc.webcrawler.frontier;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import de.comlineag.snc.webcrawler.url.WebURL;
+
+/**
+ * Keeps the pending URLs of each host in memory. Faster than HostWorkQueuesDB,
+ * but the URLs are lost when the crawler stops - meant for short crawls which
+ * need not be resumed.
+ */
+public class InMemoryHostWorkQueues extends HostWorkQueues {
+
+  // The same order as the keys of WorkQueues: priority, depth, docid
+  private static final Comparator<WebURL> CRAWL_ORDER = new Comparator<WebURL>() {
+    @Override
+    public int compare(WebURL u1, WebURL u2) {
+      if (u1.getPriority() != u2.getPriority()) {
+        return u1.getPriority() < u2.getPriority() ? -1 : 1;
+      }
+      if (u1.getDepth() != u2.getDepth()) {
+        return u1.getDepth() < u2.getDepth() ? -1 : 1;
+      }
+      return u1.getDocid() < u2.getDocid() ? -1 : (u1.getDocid() == u2.getDocid() ? 0 : 1);
+    }
+  };
+
+  private final Map<String, PriorityQueue<WebURL>> host2urls = new HashMap<>();
+
+  private long length = 0;
+
+  public InMemoryHostWorkQueues(long politenessDelay) {
+    super(politenessDelay);
+  }
+
+  @Override
+  protected boolean putURL(String host, WebURL url) {
+    PriorityQueue<WebURL> urls = host2urls.get(host);
+    boolean newHost = (urls == null);
+    if (newHost) {
+      urls = new PriorityQueue<>(16, CRAWL_ORDER);
+      host2urls.put(host, urls);
+    }
+    urls.add(url);
+    length++;
+    return newHost;
+  }
+
+  @Override
+  protected WebURL pollURL(String host) {
+    PriorityQueue<WebURL> urls = host2urls.get(host);
+    if (urls == null) {
+      return null;
+    }
+    WebURL url = urls.poll();
+    if (urls.isEmpty()) {
+      host2urls.remove(host);
+    }
+    if (url != null) {
+      length--;
+    }
+    return url;
+  }
+
+  @Override
+  protected boolean hasURLs(String host) {
+    return host2urls.containsKey(host);
+  }
+
+  @Override
+  public long getLength() {
+    synchronized (mutex) {
+      return length;
+    }
+  }
+
+  @Override
+  public void sync() {
+    // Nothing to write
+  }
+
+  @Override
+  public void close() {
+    synchronized (mutex) {
+      host2urls.clear();
+      length = 0;
+    }
+  }
+}
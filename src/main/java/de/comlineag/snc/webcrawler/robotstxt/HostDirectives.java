@@ -32,6 +32,9 @@ public class HostDirectives {
   private long timeFetched;
   private long timeLastAccessed;
 
+  // Crawl-delay in milliseconds, 0 if robots.txt doesn't define one
+  private long crawlDelay = 0;
+
   public HostDirectives() {
     timeFetched = System.currentTimeMillis();
   }
@@ -53,6 +56,14 @@ public class HostDirectives {
     allows.add(path);
   }
 
+  public void setCrawlDelay(long crawlDelay) {
+    this.crawlDelay = crawlDelay;
+  }
+
+  public long getCrawlDelay() {
+    return crawlDelay;
+  }
+
   public long getLastAccessTime() {
     return timeLastAccessed;
   }
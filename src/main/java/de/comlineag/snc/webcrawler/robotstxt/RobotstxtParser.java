@@ -29,10 +29,12 @@ public class RobotstxtParser {
   private static final String PATTERNS_USERAGENT = "(?i)^User-agent:.*";
   private static final String PATTERNS_DISALLOW = "(?i)Disallow:.*";
   private static final String PATTERNS_ALLOW = "(?i)Allow:.*";
+  private static final String PATTERNS_CRAWL_DELAY = "(?i)Crawl-delay:.*";
 
   private static final int PATTERNS_USERAGENT_LENGTH = 11;
   private static final int PATTERNS_DISALLOW_LENGTH = 9;
   private static final int PATTERNS_ALLOW_LENGTH = 6;
+  private static final int PATTERNS_CRAWL_DELAY_LENGTH = 12;
 
   public static HostDirectives parse(String content, String myUserAgent) {
 
@@ -92,6 +94,22 @@ public class RobotstxtParser {
           directives = new HostDirectives();
         }
         directives.addAllow(path);
+      } else if (line.matches(PATTERNS_CRAWL_DELAY)) {
+        if (!inMatchingUserAgent) {
+          continue;
+        }
+        // the delay is given in seconds, fractions like 0.5 are allowed
+        try {
+          double seconds = Double.parseDouble(line.substring(PATTERNS_CRAWL_DELAY_LENGTH).trim());
+          if (seconds > 0) {
+            if (directives == null) {
+              directives = new HostDirectives();
+            }
+            directives.setCrawlDelay((long) (seconds * 1000));
+          }
+        } catch (NumberFormatException e) {
+          // ignoring an invalid Crawl-delay
+        }
       }
     }
 
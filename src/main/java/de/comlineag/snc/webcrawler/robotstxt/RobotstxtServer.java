@@ -120,6 +120,7 @@ public class RobotstxtServer {
       // fetched it
       directives = new HostDirectives();
     }
+    pageFetcher.setCrawlDelay(host, directives.getCrawlDelay());
     synchronized (host2directivesCache) {
       if (host2directivesCache.size() == config.getCacheSize()) {
         String minHost = null;
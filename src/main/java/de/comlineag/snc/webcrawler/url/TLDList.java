@@ -1,19 +1,35 @@
 package de.comlineag.snc.webcrawler.url;
 
-import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
-import org.apache.commons.compress.archivers.zip.ZipFile;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.BufferedReader;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.net.IDN;
 import java.net.URL;
-import java.util.HashSet;
-import java.util.Set;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 
 /**
- * This class is a singleton which obtains a list of TLDs (from online or a zip file) in order to compare against those TLDs
+ * This class is a singleton which holds the public suffix list (the TLDs) in order to split a host name
+ * into its registrable domain and its sub domain.
+ *
+ * The list is read from the bundled zip file (src/main/resources/tld-names.zip, a copy of the list from
+ * publicsuffix.org) - the online list is only fetched by the optional background refresh (see scheduleRefresh),
+ * so the startup never waits for the network. Only if the bundled list can't be read, the online list is
+ * fetched once right away; without any list the class can't be used. The rules are kept in a trie of
+ * reversed labels ("co.uk" is stored as uk -> co), whose children are sorted arrays. A host is resolved in one
+ * pass from its last label to its first one, comparing the labels in place without creating strings.
+ * Wildcard ("*.ck") and exception ("!www.ck") rules are supported.
  * */
 public class TLDList {
 
@@ -22,54 +38,295 @@ public class TLDList {
   private final static String TLD_NAMES_TXT_FILENAME = "tld-names.txt";
   private final static Logger logger = LoggerFactory.getLogger(TLDList.class);
 
-  private Set<String> tldSet = new HashSet<>(10000);
+  private final static TLDList instance = new TLDList(); // Singleton
 
-  private static TLDList instance = new TLDList(); // Singleton
+  // replaced as a whole by a refresh
+  private volatile Node root = new Node();
+
+  private ScheduledExecutorService refreshTimer;
 
   private TLDList() {
     try {
-      InputStream stream = null;
+      InputStream stream = openBundledList();
+      if (stream == null) {
+        throw new Exception("Couldn't find " + TLD_NAMES_ZIP_FILENAME + " on the classpath");
+      }
+      try {
+        root = parse(stream);
+      } finally {
+        stream.close();
+      }
+      logger.debug("Read the list of TLDs from {}", TLD_NAMES_ZIP_FILENAME);
+    } catch (Exception e) {
+      logger.warn("Couldn't read " + TLD_NAMES_TXT_FILENAME + " - trying the online list", e);
+      refresh();
+    }
+    if (root.labels.length == 0) {
+      // without the list every domain would be cut to its last two labels, e.g. "co.uk"
+      logger.error("Neither {} nor the online list of TLDs could be read", TLD_NAMES_ZIP_FILENAME);
+      throw new IllegalStateException("No list of TLDs available - " + TLD_NAMES_ZIP_FILENAME + " could not be read");
+    }
+  }
+
+  public static TLDList getInstance() {
+    return instance;
+  }
+
+  /**
+   * Fetches the online list now and then every interval milliseconds and replaces the current list with it.
+   * If the online list can't be fetched, the current list is kept. Only the first call starts the refresh.
+   */
+  public synchronized void scheduleRefresh(long interval) {
+    if (refreshTimer != null || interval <= 0) {
+      return;
+    }
+    refreshTimer = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+      @Override
+      public Thread newThread(Runnable r) {
+        Thread t = new Thread(r, "TLDList-refresh");
+        t.setDaemon(true);
+        return t;
+      }
+    });
+    refreshTimer.scheduleWithFixedDelay(new Runnable() {
+      @Override
+      public void run() {
+        refresh();
+      }
+    }, 0, interval, TimeUnit.MILLISECONDS);
+  }
 
+  /**
+   * Fetches the online list and replaces the current list with it.
+   *
+   * @return true if the list was replaced
+   */
+  public boolean refresh() {
+    try {
+      logger.debug("Fetching the most updated TLD list online");
+      InputStream stream = new URL(TLD_NAMES_ONLINE_URL).openStream();
       try {
-        logger.debug("Fetching the most updated TLD list online");
-        URL url = new URL(TLD_NAMES_ONLINE_URL);
-        stream = url.openStream();
-      } catch (Exception ex) {
-        logger.warn("Couldn't fetch the online list of TLDs from: {}", TLD_NAMES_ONLINE_URL);
-        logger.info("Fetching the list from a local file {}", TLD_NAMES_ZIP_FILENAME);
+        root = parse(stream);
+      } finally {
+        stream.close();
+      }
+      return true;
+    } catch (Exception e) {
+      logger.warn("Couldn't fetch the online list of TLDs from: {} - keeping the current list", TLD_NAMES_ONLINE_URL);
+      return false;
+    }
+  }
 
-        ZipFile zipFile = new ZipFile(this.getClass().getClassLoader().getResource(TLD_NAMES_ZIP_FILENAME).getFile());
-        ZipArchiveEntry entry = zipFile.getEntry(TLD_NAMES_TXT_FILENAME);
-        stream = zipFile.getInputStream(entry);
+  /**
+   * Returns true if the given string is a rule of the list, e.g. "co.uk"
+   */
+  public boolean contains(String str) {
+    Node node = root;
+    int end = str.length();
+    while (end >= 0) {
+      int start = str.lastIndexOf('.', end - 1) + 1;
+      node = node.child(str, start, end);
+      if (node == null) {
+        return false;
       }
+      end = start - 1;
+    }
+    return node.isRule;
+  }
 
-      if (stream == null) {
-        throw new Exception("Couldn't fetch the TLD list online or from a local file");
-      }
-      BufferedReader reader = new BufferedReader(new InputStreamReader(stream));
-      String line;
-      while ((line = reader.readLine()) != null) {
-        line = line.trim();
-        if (line.isEmpty() || line.startsWith("//")) {
-          continue;
+  /**
+   * Returns the index at which the registrable domain starts in the host, i.e. the public suffix plus the
+   * label in front of it. For "www.example.co.uk" that is the index of "example.co.uk". Hosts which consist
+   * of the registrable domain only, or are a public suffix themselves, start at 0.
+   * A host matching no rule has its last label as public suffix.
+   */
+  public int getDomainStart(String host) {
+    int end = host.length();
+    int lastDot = host.lastIndexOf('.');
+    if (lastDot < 0) {
+      return 0;
+    }
+    // the default rule "*"
+    int suffixStart = lastDot + 1;
+
+    Node node = root;
+    int labelEnd = end;
+    int parentStart = end;
+    while (labelEnd > 0) {
+      int labelStart = host.lastIndexOf('.', labelEnd - 1) + 1;
+      Node child = node.child(host, labelStart, labelEnd);
+      if (child != null && child.isException) {
+        // an exception prevails over all other rules
+        suffixStart = parentStart;
+        break;
+      }
+      if (node.hasWildcard) {
+        suffixStart = labelStart;
+      }
+      if (child == null) {
+        break;
+      }
+      if (child.isRule) {
+        suffixStart = labelStart;
+      }
+      node = child;
+      parentStart = labelStart;
+      labelEnd = labelStart - 1;
+    }
+
+    if (suffixStart <= 0) {
+      return 0;
+    }
+    return host.lastIndexOf('.', suffixStart - 2) + 1;
+  }
+
+
+  private InputStream openBundledList() throws IOException {
+    InputStream zip = TLDList.class.getClassLoader().getResourceAsStream(TLD_NAMES_ZIP_FILENAME);
+    if (zip == null) {
+      return null;
+    }
+    ZipInputStream stream = new ZipInputStream(zip);
+    ZipEntry entry;
+    while ((entry = stream.getNextEntry()) != null) {
+      if (TLD_NAMES_TXT_FILENAME.equals(entry.getName())) {
+        return stream;
+      }
+    }
+    stream.close();
+    return null;
+  }
+
+  private static Node parse(InputStream stream) throws IOException {
+    Builder root = new Builder();
+    int rules = 0;
+    BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8));
+    String line;
+    while ((line = reader.readLine()) != null) {
+      line = line.trim();
+      if (line.isEmpty() || line.startsWith("//")) {
+        continue;
+      }
+      // a rule ends at the first white space
+      int space = 0;
+      while (space < line.length() && !Character.isWhitespace(line.charAt(space))) {
+        space++;
+      }
+      String rule = line.substring(0, space);
+      root.add(rule);
+      try {
+        // hosts of urls are in punycode, so the rules with unicode labels are added in punycode too
+        boolean exception = rule.startsWith("!");
+        String name = exception ? rule.substring(1) : rule;
+        String ascii = IDN.toASCII(name);
+        if (!ascii.equals(name)) {
+          root.add(exception ? "!" + ascii : ascii);
         }
-        //logger.trace("adding TLD {} to list", line);
-        tldSet.add(line);
+      } catch (IllegalArgumentException ignored) {
+        // Not a valid IDN, only the rule as given is added
       }
-      reader.close();
-      stream.close();
-      logger.trace("finished");
-    } catch (Exception e) {
-      logger.error("Couldn't find " + TLD_NAMES_TXT_FILENAME, e);
-      //System.exit(-1);
+      rules++;
     }
+    logger.trace("read {} TLD rules", rules);
+    return root.build();
   }
 
-  public static TLDList getInstance() {
-    return instance;
+  /**
+   * A node of the trie - the labels of its children are sorted, so a child is found by binary search.
+   */
+  private static final class Node {
+    private static final String[] NO_LABELS = new String[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    String[] labels = NO_LABELS;
+    Node[] children = NO_CHILDREN;
+    boolean isRule;
+    boolean isException;
+    boolean hasWildcard;
+
+    Node child(String host, int start, int end) {
+      int low = 0;
+      int high = labels.length - 1;
+      while (low <= high) {
+        int mid = (low + high) >>> 1;
+        int cmp = compare(labels[mid], host, start, end);
+        if (cmp < 0) {
+          low = mid + 1;
+        } else if (cmp > 0) {
+          high = mid - 1;
+        } else {
+          return children[mid];
+        }
+      }
+      return null;
+    }
+
+    // the same order as String.compareTo, but against a region of the host
+    private static int compare(String label, String host, int start, int end) {
+      int length = end - start;
+      int n = Math.min(label.length(), length);
+      for (int i = 0; i < n; i++) {
+        int diff = label.charAt(i) - host.charAt(start + i);
+        if (diff != 0) {
+          return diff;
+        }
+      }
+      return label.length() - length;
+    }
   }
 
-  public boolean contains(String str) {
-    return tldSet.contains(str);
+  /**
+   * The mutable trie used while the list is read.
+   */
+  private static final class Builder {
+    // sorted the same way as Node.compare expects
+    private final Map<String, Builder> children = new TreeMap<>();
+    private boolean isRule;
+    private boolean isException;
+    private boolean hasWildcard;
+
+    void add(String rule) {
+      boolean exception = rule.startsWith("!");
+      if (exception) {
+        rule = rule.substring(1);
+      }
+      Builder node = this;
+      int end = rule.length();
+      while (end >= 0) {
+        int start = rule.lastIndexOf('.', end - 1) + 1;
+        String label = rule.substring(start, end);
+        if ("*".equals(label) && start == 0) {
+          node.hasWildcard = true;
+          return;
+        }
+        Builder child = node.children.get(label);
+        if (child == null) {
+          child = new Builder();
+          node.children.put(label, child);
+        }
+        node = child;
+        end = start - 1;
+      }
+      if (exception) {
+        node.isException = true;
+      } else {
+        node.isRule = true;
+      }
+    }
+
+    Node build() {
+      Node node = new Node();
+      node.isRule = isRule;
+      node.isException = isException;
+      node.hasWildcard = hasWildcard;
+      if (!children.isEmpty()) {
+        node.labels = children.keySet().toArray(new String[children.size()]);
+        node.children = new Node[node.labels.length];
+        for (int i = 0; i < node.labels.length; i++) {
+          node.children[i] = children.get(node.labels[i]).build();
+        }
+      }
+      return node;
+    }
   }
-}
\ No newline at end of file
+}
@@ -94,22 +94,14 @@ public class WebURL implements Serializable {
     int domainStartIdx = url.indexOf("//") + 2;
     int domainEndIdx = url.indexOf('/', domainStartIdx);
         domainEndIdx = domainEndIdx > domainStartIdx ? domainEndIdx : url.length();
-    domain = url.substring(domainStartIdx, domainEndIdx);
-    subDomain = "";
-    String[] parts = domain.split("\\.");
-    if (parts.length > 2) {
-      domain = parts[parts.length - 2] + "." + parts[parts.length - 1];
-      int limit = 2;
-      if (TLDList.getInstance().contains(domain)) {
-        domain = parts[parts.length - 3] + "." + domain;
-        limit = 3;
-      }
-      for (int i = 0; i < parts.length - limit; i++) {
-        if (subDomain.length() > 0) {
-          subDomain += ".";
-        }
-        subDomain += parts[i];
-      }
+    String host = url.substring(domainStartIdx, domainEndIdx);
+    int registrableStartIdx = TLDList.getInstance().getDomainStart(host);
+    if (registrableStartIdx > 0) {
+      domain = host.substring(registrableStartIdx);
+      subDomain = host.substring(0, registrableStartIdx - 1);
+    } else {
+      domain = host;
+      subDomain = "";
     }
     path = url.substring(domainEndIdx);
     int pathEndIdx = path.indexOf('?');
@@ -0,0 +1,90 @@
+package de.comlineag.snc.data;
+
+import java.io.IOException;
+
+import org.geojson.GeoJsonObject;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ *
+ * @author 		Christian Guenther
+ * @category 	data type
+ * @version		0.1				- 17.10.2026
+ * @status		in development
+ *
+ * @description	measures how long the LocationData takes for a geo heavy stream of places
+ * 				(bounding boxes) and points, compared to the former creation of a new ObjectMapper
+ * 				and GeoJsonObject for every location.
+ * 				Usage: LocationDataBenchmark [number of locations per round]
+ *
+ * @changelog	0.1 (Chris)		class created
+ *
+ */
+public class LocationDataBenchmark {
+	private static final String PLACE = "{\"id\":\"e229de11a7eb6823\",\"bounding_box\":{\"type\":\"Polygon\",\"coordinates\":"
+			+ "[[[-84.616812,33.895088],[-84.616812,34.0011594],[-84.46746,34.0011594],[-84.46746,33.895088]]]},"
+			+ "\"place_type\":\"city\",\"name\":\"Marietta\",\"attributes\":{},\"country_code\":\"US\","
+			+ "\"url\":\"https:\\/\\/api.twitter.com\\/1.1\\/geo\\/id\\/e229de11a7eb6823.json\",\"country\":\"United States\",\"full_name\":\"Marietta, GA\"}";
+	private static final String POINT = "{\"type\":\"Point\",\"coordinates\":[-84.497553,33.944551]}";
+
+	private static final int WARMUP_ROUNDS = 2;
+	private static final int ROUNDS = 5;
+	private static final int DEFAULT_LOCATIONS = 10000;
+
+	public static void main(String[] args) throws ParseException, IOException {
+		int locations = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_LOCATIONS;
+		JSONParser parser = new JSONParser();
+		JSONObject[] stream = { (JSONObject) parser.parse(PLACE), (JSONObject) parser.parse(POINT) };
+
+		long sink = 0;
+		for (int i = 0; i < WARMUP_ROUNDS; i++) {
+			sink += shared(stream, locations);
+			sink += perLocationMapper(stream, locations);
+		}
+
+		long sharedNanos = 0;
+		long perLocationNanos = 0;
+		for (int i = 0; i < ROUNDS; i++) {
+			long start = System.nanoTime();
+			sink += shared(stream, locations);
+			sharedNanos += System.nanoTime() - start;
+
+			start = System.nanoTime();
+			sink += perLocationMapper(stream, locations);
+			perLocationNanos += System.nanoTime() - start;
+		}
+
+		long total = (long) ROUNDS * locations;
+		System.out.println(String.format("%d locations per round, %d rounds, every other one a place", locations, ROUNDS));
+		System.out.println(String.format("LocationData (center on the coordinates): %8.1f ns/location", (double) sharedNanos / total));
+		System.out.println(String.format("new ObjectMapper per location (former):   %8.1f ns/location", (double) perLocationNanos / total));
+		// keeps the JIT from dropping the work
+		System.out.println("checksum " + sink);
+	}
+
+	private static long shared(JSONObject[] stream, int locations) {
+		long sum = 0;
+		for (int i = 0; i < locations; i++) {
+			LocationData location = new LocationData(stream[i % stream.length]);
+			sum += location.getGeoLatitude().length();
+		}
+		return sum;
+	}
+
+	// what LocationData did before: a new ObjectMapper which parses the serialized bounding box again
+	private static long perLocationMapper(JSONObject[] stream, int locations) throws IOException {
+		long sum = 0;
+		for (int i = 0; i < locations; i++) {
+			JSONObject json = stream[i % stream.length];
+			Object boundingBox = json.get("bounding_box");
+			String geoJson = (boundingBox != null) ? boundingBox.toString() : json.toString();
+			GeoJsonObject geoLocation = new ObjectMapper().readValue(geoJson.getBytes(), GeoJsonObject.class);
+			sum += geoLocation.getClass().getName().length();
+		}
+		return sum;
+	}
+}
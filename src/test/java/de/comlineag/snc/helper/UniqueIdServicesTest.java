@@ -0,0 +1,95 @@
+package de.comlineag.snc.helper;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ *
+ * @author 		Christian Guenther
+ * @category 	helper class
+ * @version 	0.1					- 17.10.2026
+ * @status		productive
+ *
+ * @description checks that UniqueIdServices gives a string, its chars and its UTF-8 bytes the
+ * 				same id - also for inputs longer than the initial buffer of a thread, which is 
+ * 				grown on the first call with them
+ *
+ * @changelog	0.1 (Chris)			class created
+ *
+ */
+public class UniqueIdServicesTest {
+	// longer than the 85 chars the initial 256 byte buffer holds
+	private static final int[] LENGTHS = { 0, 1, 15, 16, 17, 85, 86, 200, 1000 };
+
+	@Test
+	public void hashIdIsTheSameForStringCharsAndBytes() throws InterruptedException {
+		// a new thread starts with the initial buffer, so the first long input grows it
+		runInNewThread(new Runnable() {
+			@Override
+			public void run() {
+				for (int length : LENGTHS) {
+					String input = randomString(length);
+					char[] chars = ("#" + input + "#").toCharArray();
+					byte[] bytes = input.getBytes(StandardCharsets.UTF_8);
+					String id = UniqueIdServices.createHashId(input);
+					assertEquals("chars of length " + length, id, UniqueIdServices.createHashId(chars, 1, length));
+					assertEquals("bytes of length " + length, id, UniqueIdServices.createHashId(bytes, 0, bytes.length));
+				}
+			}
+		});
+	}
+
+	@Test
+	public void messageDigestIsTheSameForStringCharsAndBytes() throws InterruptedException {
+		runInNewThread(new Runnable() {
+			@Override
+			public void run() {
+				for (int length : LENGTHS) {
+					String input = randomString(length);
+					char[] chars = ("#" + input + "#").toCharArray();
+					byte[] bytes = input.getBytes(StandardCharsets.UTF_8);
+					String id = UniqueIdServices.createMessageDigest(input);
+					assertEquals("chars of length " + length, id, UniqueIdServices.createMessageDigest(chars, 1, length));
+					assertEquals("bytes of length " + length, id, UniqueIdServices.createMessageDigest(bytes, 0, bytes.length));
+				}
+			}
+		});
+	}
+
+
+	// runs the checks in a thread of its own and passes on its failure
+	private static void runInNewThread(Runnable checks) throws InterruptedException {
+		final Throwable[] failure = new Throwable[1];
+		Thread thread = new Thread(checks);
+		thread.setUncaughtExceptionHandler(new Thread.UncaughtExceptionHandler() {
+			@Override
+			public void uncaughtException(Thread t, Throwable e) {
+				failure[0] = e;
+			}
+		});
+		thread.start();
+		thread.join();
+		if (failure[0] instanceof AssertionError)
+			throw (AssertionError) failure[0];
+		if (failure[0] != null)
+			throw new AssertionError(failure[0]);
+	}
+
+	// ascii, umlauts, chars of three bytes and surrogate pairs
+	private static String randomString(int length) {
+		char[] alphabet = "abcXYZ019 äöüß€中".toCharArray();
+		Random random = new Random(length);
+		StringBuilder sb = new StringBuilder(length);
+		while (sb.length() < length) {
+			if (random.nextInt(10) == 0 && sb.length() + 2 <= length)
+				sb.appendCodePoint(0x1f600 + random.nextInt(16));
+			else
+				sb.append(alphabet[random.nextInt(alphabet.length)]);
+		}
+		return sb.toString();
+	}
+}
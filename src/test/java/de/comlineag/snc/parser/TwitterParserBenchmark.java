@@ -0,0 +1,256 @@
+package de.comlineag.snc.parser;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.servlet.ServletContext;
+
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+import org.springframework.beans.MutablePropertyValues;
+import org.springframework.context.support.StaticApplicationContext;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import de.comlineag.snc.appstate.AppContext;
+import de.comlineag.snc.appstate.ContextLoaderListener;
+import de.comlineag.snc.data.TwitterPostingData;
+import de.comlineag.snc.data.TwitterUserData;
+import de.comlineag.snc.persistence.ComplexXmlConfigurationPersistence;
+
+/**
+ *
+ * @author 		Christian Guenther
+ * @category 	Parser
+ * @version		0.2				- 17.10.2026
+ * @status		in development
+ *
+ * @description	measures how long the decoding of stream messages into posting and user data
+ * 				takes with the streaming JsonParser of the TwitterParser, compared to the former
+ * 				path: json-simple tree, posting data from the tree, the retweet decoded twice and
+ * 				the user decoded again from the json of the posting. It also checks that both
+ * 				paths produce the same postings.
+ * 				The data classes read the runtime and the crawler configuration, so the benchmark 
+ * 				needs the webapp directory and a ComplexXmlConfigurationPersistence crawler 
+ * 				configuration (path below WEB-INF, as in applicationContext.xml). The servlet context
+ * 				is handed to the ContextLoaderListener the way the container would, so nothing of
+ * 				the production code is changed for the benchmark.
+ * 				Usage: TwitterParserBenchmark <webapp directory> <crawler configuration> [file with one stream message per line]
+ * 				Without a file a built-in set of messages is used.
+ *
+ * @changelog	0.1 (Chris)		class created
+ * 				0.2				moved to the test sources, the servlet context is set via reflection
+ *
+ */
+public class TwitterParserBenchmark {
+	private static final String[] SAMPLE_MESSAGES = {
+		"{\"created_at\":\"Wed Oct 15 09:51:20 +0000 2014\",\"id\":522306014553640960,\"id_str\":\"522306014553640960\","
+				+ "\"text\":\"SAP HANA in the cloud - read more on <a href=\\\"http:\\/\\/t.co\\/abc\\\">our blog<\\/a> @sapnews #SAP\","
+				+ "\"source\":\"<a href=\\\"http:\\/\\/twitter.com\\\" rel=\\\"nofollow\\\">Twitter Web Client<\\/a>\",\"truncated\":false,"
+				+ "\"in_reply_to_status_id\":null,\"in_reply_to_user_id\":null,\"in_reply_to_screen_name\":null,"
+				+ "\"user\":{\"id\":14134804,\"id_str\":\"14134804\",\"name\":\"SAP News\",\"screen_name\":\"sapnews\",\"location\":\"Walldorf\","
+				+ "\"followers_count\":112345,\"friends_count\":1234,\"listed_count\":2345,\"favourites_count\":12,\"statuses_count\":23456,"
+				+ "\"lang\":\"en\",\"profile_image_url\":\"http:\\/\\/pbs.twimg.com\\/profile_images\\/1\\/a_normal.png\"},"
+				+ "\"geo\":null,\"coordinates\":null,\"place\":null,\"retweet_count\":0,\"favorite_count\":0,"
+				+ "\"entities\":{\"hashtags\":[{\"text\":\"SAP\",\"indices\":[70,74]}],\"trends\":[],\"urls\":[],"
+				+ "\"user_mentions\":[{\"screen_name\":\"sapnews\",\"name\":\"SAP News\",\"id\":14134804,\"indices\":[60,68]}],\"symbols\":[]},"
+				+ "\"favorited\":false,\"retweeted\":false,\"filter_level\":\"low\",\"lang\":\"en\"}",
+		"{\"created_at\":\"Wed Oct 15 09:52:01 +0000 2014\",\"id\":522306186549063680,\"text\":\"RT @sapnews: SAP HANA in the cloud #SAP\","
+				+ "\"source\":\"web\",\"truncated\":false,\"in_reply_to_status_id\":null,\"in_reply_to_user_id\":null,\"in_reply_to_screen_name\":null,"
+				+ "\"user\":{\"id\":98765,\"name\":\"Max Mustermann\",\"screen_name\":\"maxm\",\"followers_count\":87,\"friends_count\":120,"
+				+ "\"statuses_count\":3456,\"lang\":\"de\"},"
+				+ "\"retweeted_status\":{\"created_at\":\"Wed Oct 15 09:51:20 +0000 2014\",\"id\":522306014553640960,"
+				+ "\"text\":\"SAP HANA in the cloud #SAP\",\"source\":\"web\",\"truncated\":false,\"in_reply_to_status_id\":null,"
+				+ "\"user\":{\"id\":14134804,\"name\":\"SAP News\",\"screen_name\":\"sapnews\",\"followers_count\":112345,\"friends_count\":1234,"
+				+ "\"statuses_count\":23456,\"lang\":\"en\"},\"coordinates\":null,\"retweet_count\":1,"
+				+ "\"entities\":{\"hashtags\":[{\"text\":\"SAP\",\"indices\":[22,26]}],\"urls\":[],\"user_mentions\":[],\"symbols\":[]},\"lang\":\"en\"},"
+				+ "\"retweet_count\":0,\"entities\":{\"hashtags\":[{\"text\":\"SAP\",\"indices\":[35,39]}],\"urls\":[],"
+				+ "\"user_mentions\":[{\"screen_name\":\"sapnews\",\"id\":14134804,\"indices\":[3,11]}],\"symbols\":[]},\"lang\":\"en\"}",
+		"{\"created_at\":\"Wed Oct 15 09:53:44 +0000 2014\",\"id\":522306620005978112,\"text\":\"Heute auf der #SAPTechEd in Las Vegas\","
+				+ "\"source\":\"Twitter for iPhone\",\"truncated\":false,\"in_reply_to_status_id\":522306014553640960,\"in_reply_to_user_id\":14134804,"
+				+ "\"in_reply_to_screen_name\":\"sapnews\",\"user\":{\"id\":4567,\"name\":\"Erika\",\"screen_name\":\"erika\",\"followers_count\":345,"
+				+ "\"friends_count\":400,\"statuses_count\":789,\"lang\":\"de\"},"
+				+ "\"coordinates\":{\"type\":\"Point\",\"coordinates\":[-115.171859,36.121036]},"
+				+ "\"entities\":{\"hashtags\":[{\"text\":\"SAPTechEd\",\"indices\":[14,24]}],\"urls\":[],\"user_mentions\":[],\"symbols\":[]},\"lang\":\"de\"}"
+	};
+
+	private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+	private static final int WARMUP_ROUNDS = 3;
+	private static final int ROUNDS = 5;
+	private static final int MIN_MESSAGES_PER_ROUND = 20000;
+
+	public static void main(String[] args) throws IOException, ParseException, ReflectiveOperationException {
+		if (args.length < 2) {
+			System.out.println("Usage: TwitterParserBenchmark <webapp directory> <crawler configuration> [file with one stream message per line]");
+			return;
+		}
+		setUpConfiguration(args[0], args[1]);
+		List<String> messages = (args.length > 2) ? readMessages(args[2]) : Arrays.asList(SAMPLE_MESSAGES);
+		if (messages.isEmpty()) {
+			System.out.println("No messages to decode");
+			return;
+		}
+		int repeat = Math.max(1, MIN_MESSAGES_PER_ROUND / messages.size());
+
+		int differences = compare(messages);
+
+		long sink = 0;
+		for (int i = 0; i < WARMUP_ROUNDS; i++) {
+			sink += decodeStreaming(messages, repeat);
+			sink += decodeTree(messages, repeat);
+		}
+
+		long streamingNanos = 0;
+		long treeNanos = 0;
+		for (int i = 0; i < ROUNDS; i++) {
+			long start = System.nanoTime();
+			sink += decodeStreaming(messages, repeat);
+			streamingNanos += System.nanoTime() - start;
+
+			start = System.nanoTime();
+			sink += decodeTree(messages, repeat);
+			treeNanos += System.nanoTime() - start;
+		}
+
+		long total = (long) ROUNDS * repeat * messages.size();
+		System.out.println(String.format("%d messages, %d decodes per round, %d rounds, %d postings differ", messages.size(), repeat * messages.size(), ROUNDS, differences));
+		System.out.println(String.format("streaming JsonParser (TwitterParser):  %10.1f ns/message", (double) streamingNanos / total));
+		System.out.println(String.format("json-simple tree (former path):        %10.1f ns/message", (double) treeNanos / total));
+		// keeps the JIT from dropping the work
+		System.out.println("checksum " + sink);
+	}
+
+
+	private static long decodeStreaming(List<String> messages, int repeat) throws IOException {
+		long sum = 0;
+		for (int r = 0; r < repeat; r++) {
+			for (String message : messages) {
+				for (TwitterPostingData posting : decodeStreaming(message))
+					sum += posting.getJson().size() + posting.getUserData().getJson().size();
+			}
+		}
+		return sum;
+	}
+
+	private static long decodeTree(List<String> messages, int repeat) throws ParseException {
+		long sum = 0;
+		for (int r = 0; r < repeat; r++) {
+			for (String message : messages) {
+				for (TwitterPostingData posting : decodeTree(message))
+					sum += posting.getJson().size() + posting.getUserData().getJson().size();
+			}
+		}
+		return sum;
+	}
+
+	// what TwitterParser.parseMessages does now
+	private static List<TwitterPostingData> decodeStreaming(String message) throws IOException {
+		List<TwitterPostingData> postings = new ArrayList<TwitterPostingData>(2);
+		try (JsonParser jp = JSON_FACTORY.createParser(message)) {
+			if (jp.nextToken() == JsonToken.START_OBJECT) {
+				TwitterPostingData posting = new TwitterPostingData(jp);
+				postings.add(posting);
+				if (posting.getRetweetedPosting() != null)
+					postings.add(posting.getRetweetedPosting());
+			}
+		}
+		return postings;
+	}
+
+	// what TwitterParser.parseMessages and the crawler did before: the retweet is decoded twice
+	// and the user is decoded again from the json of the posting data
+	private static List<TwitterPostingData> decodeTree(String message) throws ParseException {
+		List<TwitterPostingData> postings = new ArrayList<TwitterPostingData>(2);
+		JSONObject jsonTweet = (JSONObject) new JSONParser().parse(message);
+		postings.add(decodeTree(jsonTweet));
+
+		JSONObject jsonReTweeted = (JSONObject) jsonTweet.get("retweeted_status");
+		if (jsonReTweeted != null) {
+			decodeTree(jsonReTweeted);
+			postings.add(decodeTree(jsonReTweeted));
+		}
+		for (TwitterPostingData posting : postings)
+			new TwitterUserData(posting.getUserData().getJson());
+		return postings;
+	}
+
+	private static TwitterPostingData decodeTree(JSONObject jsonTweet) {
+		TwitterPostingData posting = new TwitterPostingData(jsonTweet);
+		posting.setUserData(new TwitterUserData((JSONObject) jsonTweet.get("user")));
+		return posting;
+	}
+
+	// number of postings whose data differs between both paths
+	private static int compare(List<String> messages) throws IOException, ParseException {
+		int differences = 0;
+		for (String message : messages) {
+			List<TwitterPostingData> streaming = decodeStreaming(message);
+			List<TwitterPostingData> tree = decodeTree(message);
+			if (streaming.size() != tree.size()) {
+				differences += Math.max(streaming.size(), tree.size());
+				continue;
+			}
+			for (int i = 0; i < streaming.size(); i++) {
+				if (!streaming.get(i).getJson().equals(tree.get(i).getJson())) {
+					differences++;
+					System.out.println("postings differ:\n  streaming " + streaming.get(i).toJsonString() + "\n  tree      " + tree.get(i).toJsonString());
+				}
+			}
+		}
+		return differences;
+	}
+
+	// the data classes find their configuration via the servlet context and the configurationManager bean
+	private static void setUpConfiguration(final String directory, String crawlerConfiguration) throws ReflectiveOperationException {
+		ServletContext servletContext = (ServletContext) Proxy.newProxyInstance(ServletContext.class.getClassLoader(),
+				new Class<?>[] { ServletContext.class }, new InvocationHandler() {
+					@Override
+					public Object invoke(Object proxy, Method method, Object[] args) {
+						if ("getRealPath".equals(method.getName()))
+							return new File(directory, (String) args[0]).getPath();
+						return null;
+					}
+				});
+		// outside of the container nobody calls initWebApplicationContext, which would set it
+		Field servletContextField = ContextLoaderListener.class.getDeclaredField("SERVLETCONTEXT");
+		servletContextField.setAccessible(true);
+		servletContextField.set(null, servletContext);
+		
+		StaticApplicationContext context = new StaticApplicationContext();
+		MutablePropertyValues properties = new MutablePropertyValues();
+		properties.add("configDbHandler", crawlerConfiguration);
+		context.registerSingleton("configurationManager", ComplexXmlConfigurationPersistence.class, properties);
+		context.refresh();
+		AppContext.setApplicationContext(context);
+		// domain and customer are set up the way a crawler does it on start
+		context.getBean("configurationManager", ComplexXmlConfigurationPersistence.class).getCrawlerConfigurationScope();
+	}
+
+	private static List<String> readMessages(String file) throws IOException {
+		List<String> messages = new ArrayList<String>();
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				line = line.trim();
+				if (!line.isEmpty())
+					messages.add(line);
+			}
+		}
+		return messages;
+	}
+}
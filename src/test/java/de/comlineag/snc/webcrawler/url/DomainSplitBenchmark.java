@@ -0,0 +1,149 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.comlineag.snc.webcrawler.url;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Measures how long WebURL.setURL takes to split URLs into domain, sub domain
+ * and path, compared to the former split of the host at every dot.
+ *
+ * Usage: DomainSplitBenchmark [file with one URL per line]
+ * Without a file a built-in set of URLs is used.
+ */
+public class DomainSplitBenchmark {
+
+  private static final String[] SAMPLE_URLS = {
+      "http://www.wallstreet-online.de/diskussion/500-beitraege/1150731-1-500/sap",
+      "http://www.example.com/",
+      "http://example.com/index.html?a=1",
+      "https://news.bbc.co.uk/sport/football/12345.stm",
+      "http://foo.bar.blogspot.com/2014/10/post.html",
+      "http://www.sap.com/germany/index.html",
+      "http://a.b.c.d.example.org/x/y/z",
+      "http://www.gov.uk/",
+      "http://192.168.0.1:8080/status",
+      "http://localhost/test"
+  };
+
+  private static final int WARMUP_ROUNDS = 5;
+  private static final int ROUNDS = 10;
+  private static final int MIN_SPLITS_PER_ROUND = 1000000;
+
+  public static void main(String[] args) throws IOException {
+    List<String> urls = (args.length > 0) ? readUrls(args[0]) : Arrays.asList(SAMPLE_URLS);
+    if (urls.isEmpty()) {
+      System.out.println("No URLs to split");
+      return;
+    }
+    int repeat = Math.max(1, MIN_SPLITS_PER_ROUND / urls.size());
+    // loads the list of TLDs, so it is not part of the measurement
+    TLDList.getInstance();
+
+    long sink = 0;
+    for (int i = 0; i < WARMUP_ROUNDS; i++) {
+      sink += splitWithTrie(urls, repeat);
+      sink += splitAtDots(urls, repeat);
+    }
+
+    long trieNanos = 0;
+    long dotsNanos = 0;
+    for (int i = 0; i < ROUNDS; i++) {
+      long start = System.nanoTime();
+      sink += splitWithTrie(urls, repeat);
+      trieNanos += System.nanoTime() - start;
+
+      start = System.nanoTime();
+      sink += splitAtDots(urls, repeat);
+      dotsNanos += System.nanoTime() - start;
+    }
+
+    long splits = (long) ROUNDS * repeat * urls.size();
+    System.out.println(String.format("%d URLs, %d splits per round, %d rounds", urls.size(), repeat * urls.size(), ROUNDS));
+    System.out.println(String.format("WebURL.setURL (public suffix trie): %8.1f ns/url", (double) trieNanos / splits));
+    System.out.println(String.format("split at dots (former setURL):      %8.1f ns/url", (double) dotsNanos / splits));
+    // keeps the JIT from dropping the work
+    System.out.println("checksum " + sink);
+  }
+
+  private static long splitWithTrie(List<String> urls, int repeat) {
+    long sum = 0;
+    WebURL webUrl = new WebURL();
+    for (int r = 0; r < repeat; r++) {
+      for (String url : urls) {
+        webUrl.setURL(url);
+        sum += webUrl.getDomain().length() + webUrl.getSubDomain().length();
+      }
+    }
+    return sum;
+  }
+
+  private static long splitAtDots(List<String> urls, int repeat) {
+    long sum = 0;
+    for (int r = 0; r < repeat; r++) {
+      for (String url : urls) {
+        int domainStartIdx = url.indexOf("//") + 2;
+        int domainEndIdx = url.indexOf('/', domainStartIdx);
+        domainEndIdx = domainEndIdx > domainStartIdx ? domainEndIdx : url.length();
+        String domain = url.substring(domainStartIdx, domainEndIdx);
+        String subDomain = "";
+        String[] parts = domain.split("\\.");
+        if (parts.length > 2) {
+          domain = parts[parts.length - 2] + "." + parts[parts.length - 1];
+          int limit = 2;
+          if (TLDList.getInstance().contains(domain)) {
+            domain = parts[parts.length - 3] + "." + domain;
+            limit = 3;
+          }
+          for (int i = 0; i < parts.length - limit; i++) {
+            if (subDomain.length() > 0) {
+              subDomain += ".";
+            }
+            subDomain += parts[i];
+          }
+        }
+        String path = url.substring(domainEndIdx);
+        int pathEndIdx = path.indexOf('?');
+        if (pathEndIdx >= 0) {
+          path = path.substring(0, pathEndIdx);
+        }
+        sum += domain.length() + subDomain.length() + path.length();
+      }
+    }
+    return sum;
+  }
+
+  private static List<String> readUrls(String file) throws IOException {
+    List<String> urls = new ArrayList<>();
+    try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        line = line.trim();
+        if (!line.isEmpty()) {
+          urls.add(line);
+        }
+      }
+    }
+    return urls;
+  }
+}